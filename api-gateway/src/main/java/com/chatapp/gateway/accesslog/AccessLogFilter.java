@@ -0,0 +1,142 @@
+package com.chatapp.gateway.accesslog;
+
+import com.chatapp.gateway.metrics.CountingRequestDecorator;
+import com.chatapp.gateway.metrics.CountingResponseDecorator;
+import com.chatapp.gateway.metrics.RouteMetricsFilter;
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import com.chatapp.gateway.security.VerifiedToken;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global filter recording one access log record per routed request. The record is copied
+ * into a pre-allocated slot of the {@link AccessLogWriter}'s buffer and written to the
+ * file on a background thread, so requests never wait for the log. Records are sampled
+ * at the configured rate and dropped when the buffer is full. Body bytes are counted as
+ * they stream through, so chunked and streamed bodies without a Content-Length are logged too.
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    /** Runs outside every other gateway filter so their time is included. */
+    public static final int ORDER = RouteMetricsFilter.ORDER - 10;
+
+    private final AccessLogProperties properties;
+    private final AccessLogWriter writer;
+
+    /**
+     * Creates the access log filter.
+     *
+     * @param properties the access log configuration
+     * @param writer     the background access log writer
+     */
+    public AccessLogFilter(AccessLogProperties properties, AccessLogWriter writer) {
+        this.properties = properties;
+        this.writer = writer;
+    }
+
+    /**
+     * Logs the request once its response has been written.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        LongAdder bytesIn = new LongAdder();
+        LongAdder bytesOut = new LongAdder();
+        ServerWebExchange counted = exchange.mutate()
+                .request(new CountingRequestDecorator(exchange.getRequest(), bytesIn::add))
+                .response(new CountingResponseDecorator(exchange.getResponse(), bytesOut::add))
+                .build();
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        return chain.filter(counted).doFinally(signal -> log(counted, signal, startMillis, System.nanoTime() - start,
+                bytesIn.sum(), bytesOut.sum()));
+    }
+
+    /**
+     * Copies the request outcome into a buffer slot, subject to sampling.
+     *
+     * @param exchange     the completed exchange
+     * @param signal       how the filter chain ended
+     * @param startMillis  when the request started, in epoch milliseconds
+     * @param latencyNanos how long the request took
+     * @param bytesIn      the request body bytes read
+     * @param bytesOut     the response body bytes written
+     */
+    private void log(ServerWebExchange exchange, SignalType signal, long startMillis, long latencyNanos,
+                     long bytesIn, long bytesOut) {
+        int status = status(exchange, signal);
+        boolean forced = status >= 500 && properties.isAlwaysLogErrors();
+        double sampleRate = properties.getSampleRate();
+        if (!forced && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        AccessLogRingBuffer.Slot slot = writer.claim();
+        if (slot == null) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        VerifiedToken token = exchange.getAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR);
+        Long upstreamNanos = exchange.getAttribute(UpstreamTimingFilter.UPSTREAM_NANOS_ATTR);
+
+        slot.timestampMillis = startMillis;
+        slot.routeId = route != null ? route.getId() : null;
+        slot.user = token != null ? token.getSubject() : null;
+        slot.method = request.getMethod().name();
+        slot.path = request.getURI().getRawPath();
+        slot.status = status;
+        slot.latencyNanos = latencyNanos;
+        slot.upstreamNanos = upstreamNanos != null ? upstreamNanos : -1;
+        slot.bytesIn = bytesIn;
+        slot.bytesOut = bytesOut;
+        writer.publish(slot);
+    }
+
+    /**
+     * Determines the status to log: 499 if the client went away, 500 if the chain failed.
+     *
+     * @param exchange the completed exchange
+     * @param signal   how the filter chain ended
+     * @return the status code
+     */
+    private static int status(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return 499;
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return 500;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null ? status.value() : 200;
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
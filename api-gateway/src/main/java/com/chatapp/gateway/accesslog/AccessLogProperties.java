@@ -0,0 +1,42 @@
+package com.chatapp.gateway.accesslog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the gateway access log.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    /** Whether requests are written to the access log. */
+    private boolean enabled = true;
+
+    /** Access log file; rolled files get a numeric suffix. */
+    private String file = "logs/gateway-access.log";
+
+    /** Number of records the in-memory buffer holds, rounded up to a power of two. */
+    private int bufferSize = 16_384;
+
+    /** Fraction of requests logged, between 0 and 1. */
+    private double sampleRate = 1.0;
+
+    /** Whether 5xx responses are logged regardless of the sample rate. */
+    private boolean alwaysLogErrors = true;
+
+    /** Maximum number of records written per batch. */
+    private int batchSize = 1_024;
+
+    /** How long the writer waits for new records when the buffer is empty. */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** Size at which the log file is rolled. */
+    private DataSize maxFileSize = DataSize.ofMegabytes(100);
+
+    /** Number of rolled files kept. */
+    private int maxHistory = 5;
+}
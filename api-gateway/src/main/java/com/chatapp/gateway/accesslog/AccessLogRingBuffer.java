@@ -0,0 +1,124 @@
+package com.chatapp.gateway.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free buffer of access log records for many producers and a single consumer.
+ * Records live in pre-allocated slots that are reused, so logging a request does not
+ * allocate. A producer claims a slot, fills its fields and publishes it; when every slot
+ * is taken the claim fails and the record is dropped instead of waiting.
+ */
+public class AccessLogRingBuffer {
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * Creates a buffer.
+     *
+     * @param capacity the requested capacity, rounded up to a power of two
+     */
+    public AccessLogRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Claims a free slot. The caller fills it and then calls {@link #publish(Slot)}.
+     *
+     * @return the claimed slot, or null if the buffer is full
+     */
+    public Slot claim() {
+        while (true) {
+            long position = tail.get();
+            Slot slot = slots[(int) (position & mask)];
+            long available = slot.sequence - position;
+            if (available < 0) {
+                return null;
+            }
+            if (available == 0 && tail.compareAndSet(position, position + 1)) {
+                slot.position = position;
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Makes a filled slot visible to the consumer.
+     *
+     * @param slot a slot returned by {@link #claim()}
+     */
+    public void publish(Slot slot) {
+        slot.sequence = slot.position + 1;
+    }
+
+    /**
+     * Hands published records to a consumer in claim order and frees their slots.
+     * Must only be called from a single thread.
+     *
+     * @param consumer receives each record; must not keep the slot
+     * @param max      maximum number of records to drain
+     * @return the number of records drained
+     */
+    public int drain(Consumer<Slot> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            Slot slot = slots[(int) (head & mask)];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            consumer.accept(slot);
+            slot.clear();
+            slot.sequence = head + slots.length;
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Gets the number of slots.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Fixed-layout access log record.
+     */
+    public static final class Slot {
+        private volatile long sequence;
+        private long position;
+
+        long timestampMillis;
+        String routeId;
+        String user;
+        String method;
+        String path;
+        int status;
+        long latencyNanos;
+        long upstreamNanos;
+        long bytesIn;
+        long bytesOut;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void clear() {
+            routeId = null;
+            user = null;
+            method = null;
+            path = null;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.chatapp.gateway.accesslog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes access log records from the {@link AccessLogRingBuffer} to a rolling file on a
+ * background thread. Records are written as JSON lines in batches and flushed once per
+ * batch; when the file reaches its maximum size it is rolled to {@code <file>.1} and older
+ * files are shifted up to the configured history. The file is only created once there is
+ * something to write.
+ */
+@Slf4j
+@Component
+public class AccessLogWriter implements MeterBinder {
+
+    private final AccessLogProperties properties;
+    private final AccessLogRingBuffer buffer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final StringBuilder batch = new StringBuilder(64 * 1024);
+
+    private volatile boolean running;
+    private Thread thread;
+    private OutputStream out;
+    private long fileSize;
+
+    /**
+     * Creates the access log writer.
+     *
+     * @param properties the access log configuration
+     */
+    public AccessLogWriter(AccessLogProperties properties) {
+        this.properties = properties;
+        this.buffer = new AccessLogRingBuffer(properties.getBufferSize());
+    }
+
+    /**
+     * Claims a record slot for a request.
+     *
+     * @return the slot to fill and pass to {@link #publish}, or null if the buffer is full and the record is dropped
+     */
+    public AccessLogRingBuffer.Slot claim() {
+        AccessLogRingBuffer.Slot slot = buffer.claim();
+        if (slot == null) {
+            dropped.increment();
+        }
+        return slot;
+    }
+
+    /**
+     * Hands a filled record to the background writer.
+     *
+     * @param slot the slot returned by {@link #claim()}
+     */
+    public void publish(AccessLogRingBuffer.Slot slot) {
+        buffer.publish(slot);
+    }
+
+    /**
+     * Starts the background writer thread if the access log is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the writer thread after it has written the remaining records.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        long idleNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            if (writeBatch() == 0) {
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+        while (writeBatch() > 0) {
+            // write what is left
+        }
+        closeFile();
+    }
+
+    /**
+     * Drains one batch from the buffer and appends it to the file.
+     *
+     * @return the number of records taken from the buffer
+     */
+    int writeBatch() {
+        int count = buffer.drain(this::format, properties.getBatchSize());
+        if (count == 0) {
+            return 0;
+        }
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        batch.setLength(0);
+        try {
+            if (out == null) {
+                openFile();
+            }
+            out.write(bytes);
+            out.flush();
+            written.add(count);
+            fileSize += bytes.length;
+            if (fileSize >= properties.getMaxFileSize().toBytes()) {
+                roll();
+            }
+        } catch (IOException e) {
+            dropped.add(count);
+            log.warn("Failed to write access log: {}", e.getMessage());
+            closeFile();
+        }
+        return count;
+    }
+
+    /**
+     * Appends a record to the current batch as a JSON line.
+     *
+     * @param slot the record
+     */
+    private void format(AccessLogRingBuffer.Slot slot) {
+        batch.append("{\"ts\":\"").append(Instant.ofEpochMilli(slot.timestampMillis)).append('"');
+        appendString("route", slot.routeId);
+        appendString("user", slot.user);
+        appendString("method", slot.method);
+        appendString("path", slot.path);
+        batch.append(",\"status\":").append(slot.status);
+        batch.append(",\"latency_us\":").append(TimeUnit.NANOSECONDS.toMicros(slot.latencyNanos));
+        if (slot.upstreamNanos >= 0) {
+            batch.append(",\"upstream_us\":").append(TimeUnit.NANOSECONDS.toMicros(slot.upstreamNanos));
+        }
+        if (slot.bytesIn >= 0) {
+            batch.append(",\"bytes_in\":").append(slot.bytesIn);
+        }
+        if (slot.bytesOut >= 0) {
+            batch.append(",\"bytes_out\":").append(slot.bytesOut);
+        }
+        batch.append("}\n");
+    }
+
+    private void appendString(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        batch.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                batch.append('\\').append(c);
+            } else if (c < 0x20) {
+                batch.append(String.format("\\u%04x", (int) c));
+            } else {
+                batch.append(c);
+            }
+        }
+        batch.append('"');
+    }
+
+    private void openFile() throws IOException {
+        Path file = Paths.get(properties.getFile());
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        fileSize = Files.size(file);
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn("Failed to close access log: {}", e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * Rolls the current file to {@code <file>.1}, shifting older files and deleting the oldest.
+     */
+    private void roll() throws IOException {
+        closeFile();
+        String file = properties.getFile();
+        int history = properties.getMaxHistory();
+        Files.deleteIfExists(Paths.get(file + "." + history));
+        for (int i = history - 1; i >= 1; i--) {
+            Path rolled = Paths.get(file + "." + i);
+            if (Files.exists(rolled)) {
+                Files.move(rolled, Paths.get(file + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (history > 0) {
+            Files.move(Paths.get(file), Paths.get(file + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(Paths.get(file));
+        }
+        fileSize = 0;
+    }
+
+    /**
+     * Gets the number of records written to the file.
+     *
+     * @return the written record count
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * Gets the number of records dropped because the buffer was full or the file could not be written.
+     *
+     * @return the dropped record count
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Registers the access log counters with the meter registry.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.access.log.written", written, LongAdder::sum)
+                .description("Access log records written to the file")
+                .register(registry);
+        FunctionCounter.builder("gateway.access.log.dropped", dropped, LongAdder::sum)
+                .description("Access log records dropped because the buffer was full or the write failed")
+                .register(registry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.chatapp.gateway.accesslog;
+
+import com.chatapp.gateway.resilience.DownstreamProtectionFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter measuring how long the downstream service took to answer, from sending
+ * the request until the response headers arrived, for the access log.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    /** Runs right before the routing filters. */
+    public static final int ORDER = DownstreamProtectionFilter.ORDER + 10;
+
+    /** Exchange attribute holding the upstream time in nanoseconds as a {@link Long}. */
+    public static final String UPSTREAM_NANOS_ATTR = UpstreamTimingFilter.class.getName() + ".upstreamNanos";
+
+    private final AccessLogProperties properties;
+
+    /**
+     * Creates the upstream timing filter.
+     *
+     * @param properties the access log configuration
+     */
+    public UpstreamTimingFilter(AccessLogProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Times the routing filters.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(v -> exchange.getAttributes().put(UPSTREAM_NANOS_ATTR, System.nanoTime() - start));
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
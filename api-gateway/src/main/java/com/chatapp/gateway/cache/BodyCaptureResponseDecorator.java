@@ -0,0 +1,64 @@
+package com.chatapp.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+/**
+ * Response decorator that buffers the whole downstream body before anything is sent
+ * to the client, and hands it to a writer that decides what to actually send.
+ * Only meant for routes with small, non-streaming responses.
+ */
+public class BodyCaptureResponseDecorator extends ServerHttpResponseDecorator {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BiFunction<ServerHttpResponse, byte[], Mono<Void>> writer;
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate the response to the client
+     * @param writer   receives the client response and the buffered body and writes the result
+     */
+    public BodyCaptureResponseDecorator(ServerHttpResponse delegate,
+                                        BiFunction<ServerHttpResponse, byte[], Mono<Void>> writer) {
+        super(delegate);
+        this.writer = writer;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return DataBufferUtils.join(body)
+                .map(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    return bytes;
+                })
+                .defaultIfEmpty(EMPTY)
+                .flatMap(bytes -> writer.apply(getDelegate(), bytes));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWith(Flux.from(body).flatMapSequential(publisher -> publisher));
+    }
+
+    /**
+     * Writes a buffered body to a response unchanged.
+     *
+     * @param response the response to write to
+     * @param body     the body bytes
+     * @return a Mono representing the completion of the write
+     */
+    public static Mono<Void> write(ServerHttpResponse response, byte[] body) {
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
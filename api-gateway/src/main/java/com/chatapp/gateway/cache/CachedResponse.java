@@ -0,0 +1,45 @@
+package com.chatapp.gateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fully buffered downstream response that can be replayed to other clients.
+ */
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+
+    private final HttpStatusCode status;
+    private final MediaType contentType;
+    private final byte[] body;
+    private final String etag;
+
+    /**
+     * Writes this response to a client.
+     *
+     * @param response    the response to write to
+     * @param cacheStatus value of the X-Cache header, or null to omit it
+     * @return a Mono representing the completion of the write
+     */
+    public Mono<Void> writeTo(ServerHttpResponse response, String cacheStatus) {
+        response.setStatusCode(status);
+        HttpHeaders headers = response.getHeaders();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        if (cacheStatus != null) {
+            headers.set(ResponseCacheFilter.CACHE_STATUS_HEADER, cacheStatus);
+        }
+        headers.setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
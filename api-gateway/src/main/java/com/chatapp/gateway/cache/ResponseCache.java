@@ -0,0 +1,215 @@
+package com.chatapp.gateway.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory store of downstream responses shared by all gateway requests.
+ * Entries expire after the configured TTL; when the cache is full, expired entries are
+ * swept and the cache is trimmed to 90% of its capacity.
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    private final ResponseCacheProperties properties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Creates the response cache.
+     *
+     * @param properties the response cache configuration
+     */
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Looks up a cached response.
+     *
+     * @param key      the cache key
+     * @param nowNanos current time from {@link System#nanoTime()}
+     * @return the cached response, or null if absent or expired
+     */
+    public CachedResponse get(String key, long nowNanos) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (!entry.isExpired(nowNanos)) {
+                hits.increment();
+                return entry.response;
+            }
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a response.
+     *
+     * @param key      the cache key
+     * @param routeId  id of the route the response came from
+     * @param path     request path the response belongs to
+     * @param response the response to cache
+     * @param nowNanos current time from {@link System#nanoTime()}
+     */
+    public void put(String key, String routeId, String path, CachedResponse response, long nowNanos) {
+        if (properties.getMaxEntries() <= 0) {
+            return;
+        }
+        if (entries.size() >= properties.getMaxEntries()) {
+            evict(nowNanos);
+        }
+        entries.put(key, new Entry(routeId, path, response, nowNanos + properties.getTtl().toNanos()));
+    }
+
+    /**
+     * Records that a conditional request was answered with 304 Not Modified.
+     */
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    /**
+     * Removes all cached responses for a request path, for every caller and query.
+     *
+     * @param path the request path
+     */
+    public void invalidatePath(String path) {
+        entries.values().removeIf(entry -> {
+            if (entry.path.equals(path)) {
+                invalidations.increment();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Removes all cached responses of a route.
+     *
+     * @param routeId the route id
+     */
+    public void invalidateRoute(String routeId) {
+        entries.values().removeIf(entry -> {
+            if (entry.routeId.equals(routeId)) {
+                invalidations.increment();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Removes expired entries and trims the cache to 90% of its capacity.
+     * Only one thread sweeps at a time; others insert without waiting.
+     *
+     * @param nowNanos current time from {@link System#nanoTime()}
+     */
+    private void evict(long nowNanos) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Entry> expired = entries.values().iterator();
+            while (expired.hasNext()) {
+                if (expired.next().isExpired(nowNanos)) {
+                    expired.remove();
+                    evictions.increment();
+                }
+            }
+
+            int maxEntries = properties.getMaxEntries();
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<String> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Gets the current number of cached responses.
+     *
+     * @return the cache size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Registers the cache counters with the meter registry.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.response.cache.hits", hits, LongAdder::sum)
+                .description("Requests answered from the response cache")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.misses", misses, LongAdder::sum)
+                .description("Cacheable requests forwarded downstream")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.not.modified", notModified, LongAdder::sum)
+                .description("Conditional requests answered with 304 Not Modified")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.evictions", evictions, LongAdder::sum)
+                .description("Cached responses removed because they expired or the cache was full")
+                .register(registry);
+        FunctionCounter.builder("gateway.response.cache.invalidations", invalidations, LongAdder::sum)
+                .description("Cached responses removed after a write")
+                .register(registry);
+        Gauge.builder("gateway.response.cache.size", this, ResponseCache::size)
+                .description("Responses currently cached")
+                .register(registry);
+    }
+
+    /**
+     * Cached response with the metadata needed for expiry and invalidation.
+     */
+    private static final class Entry {
+        private final String routeId;
+        private final String path;
+        private final CachedResponse response;
+        private final long expiresAtNanos;
+
+        private Entry(String routeId, String path, CachedResponse response, long expiresAtNanos) {
+            this.routeId = routeId;
+            this.path = path;
+            this.response = response;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+    }
+}
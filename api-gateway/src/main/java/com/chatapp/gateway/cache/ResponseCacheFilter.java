@@ -0,0 +1,252 @@
+package com.chatapp.gateway.cache;
+
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import com.chatapp.gateway.security.VerifiedToken;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Global filter serving GET requests of selected routes from the {@link ResponseCache}.
+ * Responses are keyed by path, query and caller and carry an ETag, so conditional
+ * requests with a matching If-None-Match are answered with 304 without calling downstream.
+ * Successful writes to {@code /api/users/{id}} invalidate the affected entries.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    /** Runs after authentication and rate limiting, before {@code NettyWriteResponseFilter}. */
+    public static final int ORDER = JwtAuthenticationFilter.ORDER + 100;
+
+    /** Response header telling whether a response came from the cache. */
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Pattern USER_PATH = Pattern.compile("^/api/users/(\\d+)$");
+    private static final String USER_SEARCH_ROUTE = "user-search";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+
+    /**
+     * Creates the response cache filter.
+     *
+     * @param cache      the shared response cache
+     * @param properties the response cache configuration
+     */
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    /**
+     * Serves cacheable requests from the cache and invalidates entries after user updates.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+
+        if (HttpMethod.GET.equals(method)) {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if (route != null && properties.getRoutes().contains(route.getId())) {
+                return serveCacheable(exchange, chain, route.getId());
+            }
+            return chain.filter(exchange);
+        }
+
+        if (HttpMethod.PUT.equals(method) || HttpMethod.PATCH.equals(method) || HttpMethod.DELETE.equals(method)) {
+            String path = request.getURI().getPath();
+            if (USER_PATH.matcher(path).matches()) {
+                return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        invalidateUser(path);
+                    }
+                }));
+            }
+        }
+
+        return chain.filter(exchange);
+    }
+
+    /**
+     * Invalidation hook for a changed user: drops the cached profile for every caller
+     * and all cached search results, since they may contain the user.
+     *
+     * @param userId the id of the changed user
+     */
+    public void invalidateUser(long userId) {
+        invalidateUser("/api/users/" + userId);
+    }
+
+    private void invalidateUser(String userPath) {
+        cache.invalidatePath(userPath);
+        cache.invalidateRoute(USER_SEARCH_ROUTE);
+    }
+
+    /**
+     * Answers a cacheable request from the cache, or forwards it and caches the response.
+     *
+     * @param exchange the current server exchange
+     * @param chain    the filter chain
+     * @param routeId  id of the matched route
+     * @return a Mono representing the completion of the request
+     */
+    private Mono<Void> serveCacheable(ServerWebExchange exchange, GatewayFilterChain chain, String routeId) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getURI().getPath();
+        String key = cacheKey(exchange);
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+
+        CachedResponse cached = isNoCache(request.getHeaders()) ? null : cache.get(key, System.nanoTime());
+        if (cached != null) {
+            if (etagMatches(ifNoneMatch, cached.getEtag())) {
+                cache.recordNotModified();
+                return notModified(exchange.getResponse(), cached.getEtag());
+            }
+            return cached.writeTo(exchange.getResponse(), "HIT");
+        }
+
+        ServerHttpResponse capturing = new BodyCaptureResponseDecorator(exchange.getResponse(), (response, body) -> {
+            HttpStatusCode status = response.getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value() || isNoStore(response.getHeaders())) {
+                return BodyCaptureResponseDecorator.write(response, body);
+            }
+
+            String etag = etag(body);
+            if (body.length <= properties.getMaxBodyBytes()) {
+                CachedResponse captured = new CachedResponse(status, response.getHeaders().getContentType(), body, etag);
+                cache.put(key, routeId, path, captured, System.nanoTime());
+            }
+            response.getHeaders().setETag(etag);
+            response.getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+
+            if (etagMatches(ifNoneMatch, etag)) {
+                cache.recordNotModified();
+                return notModified(response, etag);
+            }
+            return BodyCaptureResponseDecorator.write(response, body);
+        });
+
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    /**
+     * Builds the cache key from path, query and the authenticated caller.
+     *
+     * @param exchange the current server exchange
+     * @return the cache key
+     */
+    private static String cacheKey(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        VerifiedToken token = exchange.getAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR);
+        String query = request.getURI().getRawQuery();
+        return request.getURI().getRawPath()
+                + '?' + (query != null ? query : "")
+                + '#' + (token != null ? token.getSubject() : "");
+    }
+
+    /**
+     * Responds with 304 Not Modified and no body.
+     *
+     * @param response the response to write to
+     * @param etag     the current entity tag
+     * @return a Mono representing the completion of the response
+     */
+    private static Mono<Void> notModified(ServerHttpResponse response, String etag) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        HttpHeaders headers = response.getHeaders();
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setETag(etag);
+        return response.setComplete();
+    }
+
+    /**
+     * Checks an If-None-Match header against an entity tag using weak comparison.
+     *
+     * @param ifNoneMatch the entity tags sent by the client
+     * @param etag        the current entity tag
+     * @return true if the client already has the current representation
+     */
+    static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || stripWeak(candidate).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Computes a strong entity tag from the response body.
+     *
+     * @param body the response body
+     * @return the quoted entity tag
+     */
+    static String etag(byte[] body) {
+        byte[] hash = SHA_256.get().digest(body);
+        byte[] prefix = new byte[16];
+        System.arraycopy(hash, 0, prefix, 0, prefix.length);
+        return '"' + new String(Base64.getUrlEncoder().withoutPadding().encode(prefix), StandardCharsets.US_ASCII) + '"';
+    }
+
+    private static boolean isNoCache(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.contains("no-cache");
+    }
+
+    private static boolean isNoStore(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
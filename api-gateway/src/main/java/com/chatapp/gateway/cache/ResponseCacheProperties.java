@@ -0,0 +1,31 @@
+package com.chatapp.gateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Configuration properties for the gateway response cache.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    /** Whether responses are cached at all. */
+    private boolean enabled = true;
+
+    /** Ids of the routes from {@code GatewayConfig} whose GET responses are cached. */
+    private Set<String> routes = new HashSet<>(Set.of("user-profile", "user-search"));
+
+    /** Maximum number of cached responses. */
+    private int maxEntries = 10_000;
+
+    /** How long a cached response is served before it is fetched again. */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /** Responses with a larger body are passed through without being cached. */
+    private int maxBodyBytes = 256 * 1024;
+}
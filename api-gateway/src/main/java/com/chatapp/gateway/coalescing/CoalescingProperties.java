@@ -0,0 +1,27 @@
+package com.chatapp.gateway.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Configuration properties for coalescing identical in-flight GET requests.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public class CoalescingProperties {
+
+    /** Whether identical concurrent requests share one downstream call. */
+    private boolean enabled = true;
+
+    /**
+     * Ids of the routes from {@code GatewayConfig} whose GET requests are coalesced.
+     * Only routes whose response does not depend on the caller may be listed here.
+     */
+    private Set<String> routes = new HashSet<>(Set.of("user-profile", "user-search"));
+
+    /** Upper bound on distinct requests being coalesced; beyond it requests are forwarded as usual. */
+    private int maxInFlight = 10_000;
+}
@@ -0,0 +1,206 @@
+package com.chatapp.gateway.coalescing;
+
+import com.chatapp.gateway.cache.BodyCaptureResponseDecorator;
+import com.chatapp.gateway.cache.CachedResponse;
+import com.chatapp.gateway.cache.ResponseCacheFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global filter collapsing concurrent identical GET requests of selected routes into a
+ * single downstream call. The first request for a path and query is forwarded; requests
+ * for the same path and query arriving while it is in flight wait for its response and
+ * receive a copy of it. Nothing is kept once the response has been handed out.
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered, MeterBinder {
+
+    /** Runs after the response cache so only cache misses are coalesced. */
+    public static final int ORDER = ResponseCacheFilter.ORDER + 50;
+
+    private final CoalescingProperties properties;
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    /**
+     * Creates the request coalescing filter.
+     *
+     * @param properties the coalescing configuration
+     */
+    public RequestCoalescingFilter(CoalescingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Forwards the first of several identical requests and shares its response with the rest.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled() || !HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !properties.getRoutes().contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+
+        return Mono.defer(() -> {
+            String key = requestKey(exchange.getRequest());
+            Sinks.One<CachedResponse> existing = inFlight.get(key);
+            if (existing != null) {
+                return follow(exchange, chain, existing);
+            }
+            if (inFlight.size() >= properties.getMaxInFlight()) {
+                bypassed.increment();
+                return chain.filter(exchange);
+            }
+
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            existing = inFlight.putIfAbsent(key, sink);
+            if (existing != null) {
+                return follow(exchange, chain, existing);
+            }
+            return lead(exchange, chain, key, sink);
+        });
+    }
+
+    /**
+     * Forwards the request and publishes the buffered response to waiting requests.
+     * If the call ends without a response body, waiters forward their own requests.
+     *
+     * @param exchange the current server exchange
+     * @param chain    the filter chain
+     * @param key      the request key
+     * @param sink     receives the shared response
+     * @return a Mono representing the completion of the request
+     */
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain,
+                            String key, Sinks.One<CachedResponse> sink) {
+        forwarded.increment();
+        ServerHttpResponse capturing = new BodyCaptureResponseDecorator(exchange.getResponse(), (response, body) -> {
+            HttpStatusCode status = response.getStatusCode();
+            CachedResponse shared = new CachedResponse(status != null ? status : HttpStatus.OK,
+                    response.getHeaders().getContentType(), body, null);
+            // Later arrivals must start a new call rather than receive this response
+            inFlight.remove(key, sink);
+            sink.tryEmitValue(shared);
+            return BodyCaptureResponseDecorator.write(response, body);
+        });
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doOnError(sink::tryEmitError)
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    sink.tryEmitEmpty();
+                });
+    }
+
+    /**
+     * Waits for the in-flight request and writes a copy of its response.
+     *
+     * @param exchange the current server exchange
+     * @param chain    the filter chain, used if the in-flight request ends without a response
+     * @param sink     publishes the shared response
+     * @return a Mono representing the completion of the request
+     */
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, Sinks.One<CachedResponse> sink) {
+        return sink.asMono()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (shared.isEmpty()) {
+                        return chain.filter(exchange);
+                    }
+                    coalesced.increment();
+                    return shared.get().writeTo(exchange.getResponse(), null);
+                });
+    }
+
+    /**
+     * Builds the key identifying identical requests from path and query.
+     *
+     * @param request the incoming request
+     * @return the request key
+     */
+    private static String requestKey(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return query != null ? request.getURI().getRawPath() + '?' + query : request.getURI().getRawPath();
+    }
+
+    /**
+     * Gets the number of requests that received another request's response instead of a downstream call.
+     *
+     * @return the number of saved downstream calls
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Gets the number of distinct requests currently in flight.
+     *
+     * @return the number of in-flight requests
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Registers the coalescing counters with the meter registry.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.coalescing.saved", coalesced, LongAdder::sum)
+                .description("Requests answered with the response of an identical in-flight request")
+                .register(registry);
+        FunctionCounter.builder("gateway.coalescing.forwarded", forwarded, LongAdder::sum)
+                .description("Coalescable requests forwarded downstream")
+                .register(registry);
+        FunctionCounter.builder("gateway.coalescing.bypassed", bypassed, LongAdder::sum)
+                .description("Requests forwarded without coalescing because too many were in flight")
+                .register(registry);
+        Gauge.builder("gateway.coalescing.in.flight", this, RequestCoalescingFilter::getInFlightCount)
+                .description("Distinct requests currently being coalesced")
+                .register(registry);
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 
 /**
  * Configuration class for Spring Cloud Gateway routing.
@@ -13,7 +14,7 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class GatewayConfig {
 
-        @Value("${services.user-service.url:http://user-service:8081}")
+        @Value("${services.user-service.url:lb://user-service}")
         private String userServiceUrl;
 
         @Value("${services.websocket-service.url:http://websocket-service:8082}")
@@ -49,6 +50,13 @@ public class GatewayConfig {
                                                 .uri(userServiceUrl))
 
                                 // User Service routes
+                                .route("user-search", r -> r
+                                                .path("/api/users/search")
+                                                .uri(userServiceUrl))
+                                .route("user-profile", r -> r
+                                                .path("/api/users/{id:\\d+}")
+                                                .and().method(HttpMethod.GET)
+                                                .uri(userServiceUrl))
                                 .route("user-service", r -> r
                                                 .path("/api/users/**")
                                                 .uri(userServiceUrl))
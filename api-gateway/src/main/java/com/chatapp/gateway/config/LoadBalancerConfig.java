@@ -0,0 +1,15 @@
+package com.chatapp.gateway.config;
+
+import com.chatapp.gateway.loadbalancer.PowerOfTwoChoicesConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for client-side load balancing.
+ * Every {@code lb://} route uses the power-of-two-choices load balancer over the
+ * instances of {@code gateway.load-balancer.services}.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PowerOfTwoChoicesConfiguration.class)
+public class LoadBalancerConfig {
+}
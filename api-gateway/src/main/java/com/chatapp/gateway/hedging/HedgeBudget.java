@@ -0,0 +1,58 @@
+package com.chatapp.gateway.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the extra load added by hedging. Every hedgeable request deposits a fraction
+ * of a hedge and every hedge withdraws a whole one, so hedges can never exceed the
+ * configured share of requests, apart from a small burst saved up beforehand.
+ * Amounts are kept in thousandths of a hedge so updates are a single atomic operation.
+ */
+class HedgeBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long deposit;
+    private final long max;
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * Creates an empty budget.
+     *
+     * @param percent extra requests allowed, as a percentage of hedgeable requests
+     * @param burst   hedges that may be saved up
+     */
+    HedgeBudget(double percent, int burst) {
+        this.deposit = Math.round(percent * UNIT / 100);
+        this.max = Math.max(0, burst) * UNIT;
+    }
+
+    /**
+     * Credits the budget for one hedgeable request.
+     */
+    void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= max) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(max, current + deposit)));
+    }
+
+    /**
+     * Withdraws one hedge if the budget allows it.
+     *
+     * @return true if a hedge may be sent
+     */
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+}
@@ -0,0 +1,299 @@
+package com.chatapp.gateway.hedging;
+
+import com.chatapp.gateway.accesslog.UpstreamTimingFilter;
+import com.chatapp.gateway.loadbalancer.InstanceRegistry;
+import com.chatapp.gateway.loadbalancer.PowerOfTwoChoicesLoadBalancer;
+import com.chatapp.gateway.loadbalancer.ServiceEndpoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global filter hedging slow GET requests on allowlisted routes of load-balanced services.
+ * The request goes to the instance the load balancer chose; if no response has arrived
+ * once the route's recent latency percentile has passed, a second copy goes to another
+ * instance. The first response is written to the client and the other call is cancelled.
+ * Hedges are limited by a {@link HedgeBudget}, and requests are routed as usual when the
+ * service has no other instance to hedge to.
+ *
+ * <p>Hedged requests are sent and buffered by this filter instead of the routing filter,
+ * so only routes with small response bodies should be listed.
+ */
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered, MeterBinder {
+
+    /** Runs after the load balancer, the downstream guard and upstream timing, right before routing. */
+    public static final int ORDER = UpstreamTimingFilter.ORDER + 10;
+
+    /** Response header telling which attempt answered a hedged request: primary or hedge. */
+    public static final String HEDGE_HEADER = "X-Hedge";
+
+    private final HedgingProperties properties;
+    private final InstanceRegistry registry;
+    private final WebClient webClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final HedgeBudget budget;
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    /**
+     * Creates the hedging filter.
+     *
+     * @param properties     the hedging configuration
+     * @param registry       the instances of load-balanced services
+     * @param builder        builder for the downstream client
+     * @param headersFilters the gateway's request and response header filters
+     */
+    public HedgingFilter(HedgingProperties properties, InstanceRegistry registry, WebClient.Builder builder,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
+        this.properties = properties;
+        this.registry = registry;
+        this.webClient = builder.build();
+        this.headersFilters = headersFilters;
+        this.budget = new HedgeBudget(properties.getBudgetPercent(), properties.getBudgetBurst());
+    }
+
+    /**
+     * Sends the request with a delayed hedge when the route and service allow it.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (!properties.isEnabled() || route == null || url == null
+                || exchange.getRequest().getMethod() != HttpMethod.GET
+                || !properties.getRoutes().contains(route.getId())
+                || !"lb".equals(route.getUri().getScheme())
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        List<ServiceEndpoint> others = otherInstances(route.getUri().getHost(), url);
+        if (others.isEmpty()) {
+            return chain.filter(exchange);
+        }
+
+        budget.deposit();
+        LatencyTracker latency = latencies.computeIfAbsent(route.getId(), id -> new LatencyTracker(properties));
+        HttpHeaders headers = requestHeaders(exchange);
+
+        Mono<Attempt> primary = send(url, headers, latency, false);
+        Mono<Attempt> hedge = Mono.delay(latency.getDelay())
+                .flatMap(tick -> {
+                    if (!budget.tryWithdraw()) {
+                        budgetExhausted.increment();
+                        return Mono.<Attempt>never();
+                    }
+                    ServiceEndpoint target = PowerOfTwoChoicesLoadBalancer.choose(others, System.nanoTime());
+                    hedged.increment();
+                    return sendTo(target, url, headers, latency);
+                })
+                // A failed hedge must not fail the request; the primary attempt still decides it
+                .onErrorResume(e -> Mono.never());
+
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        return Mono.firstWithSignal(primary, hedge)
+                .flatMap(attempt -> {
+                    if (attempt.isHedge()) {
+                        hedgeWins.increment();
+                    }
+                    return write(exchange, attempt);
+                });
+    }
+
+    /**
+     * Lists the instances of a service other than the one the request is already going to.
+     *
+     * @param serviceId the service id
+     * @param url       the request URL chosen by the load balancer
+     * @return the other instances
+     */
+    private List<ServiceEndpoint> otherInstances(String serviceId, URI url) {
+        List<ServiceEndpoint> all = registry.getInstances(serviceId);
+        List<ServiceEndpoint> others = new ArrayList<>(all.size());
+        for (ServiceEndpoint endpoint : all) {
+            if (!(endpoint.getHost().equals(url.getHost()) && endpoint.getPort() == url.getPort())) {
+                others.add(endpoint);
+            }
+        }
+        return others;
+    }
+
+    /**
+     * Builds the headers to send downstream the same way the routing filter does.
+     *
+     * @param exchange the current server exchange
+     * @return the filtered request headers
+     */
+    private HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange));
+        if (!Boolean.TRUE.equals(exchange.getAttribute(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE))) {
+            headers.remove(HttpHeaders.HOST);
+        }
+        return headers;
+    }
+
+    /**
+     * Sends the hedge to another instance, counting it against that instance.
+     *
+     * @param target  the instance to send the hedge to
+     * @param url     the URL of the primary attempt
+     * @param headers the request headers
+     * @param latency the latency tracker of the route
+     * @return a Mono emitting the buffered response
+     */
+    private Mono<Attempt> sendTo(ServiceEndpoint target, URI url, HttpHeaders headers, LatencyTracker latency) {
+        URI hedgeUrl = UriComponentsBuilder.fromUri(url)
+                .scheme(target.getUri().getScheme())
+                .host(target.getHost())
+                .port(target.getPort())
+                .build(true)
+                .toUri();
+        return Mono.defer(() -> {
+            target.requestStarted();
+            return send(hedgeUrl, headers, latency, true)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            target.requestCancelled();
+                        }
+                    })
+                    .doOnError(e -> registry.requestFinished(target, true))
+                    .doOnNext(attempt -> registry.requestFinished(target,
+                            attempt.getResponse().getStatusCode().is5xxServerError()));
+        });
+    }
+
+    /**
+     * Sends one attempt and buffers its response, recording its latency when it
+     * answers or is cancelled.
+     *
+     * @param url     the request URL
+     * @param headers the request headers
+     * @param latency the latency tracker of the route
+     * @param hedge   whether this attempt is the hedge
+     * @return a Mono emitting the buffered response
+     */
+    private Mono<Attempt> send(URI url, HttpHeaders headers, LatencyTracker latency, boolean hedge) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(url)
+                    .headers(h -> h.addAll(headers))
+                    .exchangeToMono(response -> response.toEntity(byte[].class))
+                    .map(response -> new Attempt(response, hedge))
+                    .doFinally(signal -> {
+                        // A cancelled attempt took at least this long, which keeps slow calls in the percentile
+                        if (signal != SignalType.ON_ERROR) {
+                            latency.record(System.nanoTime() - start);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Writes the winning response to the client.
+     *
+     * @param exchange the current server exchange
+     * @param attempt  the winning attempt
+     * @return a Mono representing the completion of the write
+     */
+    private Mono<Void> write(ServerWebExchange exchange, Attempt attempt) {
+        ResponseEntity<byte[]> entity = attempt.getResponse();
+        byte[] body = entity.getBody() != null ? entity.getBody() : new byte[0];
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(entity.getStatusCode());
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of), entity.getHeaders(),
+                exchange, HttpHeadersFilter.Type.RESPONSE));
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setContentLength(body.length);
+        headers.set(HEDGE_HEADER, attempt.isHedge() ? "hedge" : "primary");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * Gets the current hedge delay of a route.
+     *
+     * @param routeId the route id
+     * @return the delay, or null if the route has not been hedged yet
+     */
+    Duration getDelay(String routeId) {
+        LatencyTracker latency = latencies.get(routeId);
+        return latency != null ? latency.getDelay() : null;
+    }
+
+    /**
+     * Registers hedging metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.hedging.hedged", hedged, LongAdder::sum)
+                .description("Hedge requests sent to a second instance")
+                .register(registry);
+        FunctionCounter.builder("gateway.hedging.hedge.wins", hedgeWins, LongAdder::sum)
+                .description("Hedged requests answered by the hedge")
+                .register(registry);
+        FunctionCounter.builder("gateway.hedging.budget.exhausted", budgetExhausted, LongAdder::sum)
+                .description("Hedges not sent because the hedging budget was used up")
+                .register(registry);
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Buffered response of one attempt.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Attempt {
+        private final ResponseEntity<byte[]> response;
+        private final boolean hedge;
+    }
+}
@@ -0,0 +1,48 @@
+package com.chatapp.gateway.hedging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Configuration properties for hedged requests to load-balanced services.
+ * A hedge is a second copy of a slow request sent to another instance; the first
+ * response wins and the other call is cancelled.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+
+    /** Whether slow requests on the listed routes are hedged at all. */
+    private boolean enabled = false;
+
+    /**
+     * Ids of the routes from {@code GatewayConfig} whose GET requests may be hedged.
+     * Only routes that are safe to send twice may be listed here.
+     */
+    private Set<String> routes = new HashSet<>(Set.of("user-profile", "user-search"));
+
+    /** Percentile of the route's recent latency after which a hedge is sent, e.g. 95. */
+    private double delayPercentile = 95;
+
+    /** Hedge delay used until enough latency samples have been collected. */
+    private Duration initialDelay = Duration.ofMillis(100);
+
+    /** The hedge delay never drops below this. */
+    private Duration minDelay = Duration.ofMillis(10);
+
+    /** The hedge delay never grows above this. */
+    private Duration maxDelay = Duration.ofSeconds(1);
+
+    /** Number of recent latency samples per route the delay percentile is taken over. */
+    private int sampleWindow = 1024;
+
+    /** Extra requests hedging may add, as a percentage of the hedgeable requests. */
+    private double budgetPercent = 10;
+
+    /** Hedges that may be sent back to back once budget has built up. */
+    private int budgetBurst = 10;
+}
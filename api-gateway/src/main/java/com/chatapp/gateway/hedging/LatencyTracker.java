@@ -0,0 +1,73 @@
+package com.chatapp.gateway.hedging;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Recent latencies of one route and the hedge delay derived from them.
+ * Samples go into a fixed-size ring; every {@value #RECOMPUTE_EVERY} samples the recording
+ * thread recomputes the configured percentile, so reading the delay is a volatile read.
+ */
+class LatencyTracker {
+
+    static final int RECOMPUTE_EVERY = 64;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private final long minNanos;
+    private final long maxNanos;
+
+    private volatile long delayNanos;
+
+    /**
+     * Creates a tracker that uses the initial delay until its window is filled once.
+     *
+     * @param properties the hedging configuration
+     */
+    LatencyTracker(HedgingProperties properties) {
+        this.samples = new AtomicLongArray(Math.max(RECOMPUTE_EVERY, properties.getSampleWindow()));
+        this.percentile = properties.getDelayPercentile();
+        this.minNanos = properties.getMinDelay().toNanos();
+        this.maxNanos = properties.getMaxDelay().toNanos();
+        this.delayNanos = clamp(properties.getInitialDelay().toNanos());
+    }
+
+    /**
+     * Records the latency of one downstream call.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), nanos);
+        if (n + 1 >= samples.length() && (n + 1) % RECOMPUTE_EVERY == 0) {
+            recompute();
+        }
+    }
+
+    /**
+     * Gets the current hedge delay.
+     *
+     * @return how long to wait for the first attempt before hedging
+     */
+    Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    private void recompute() {
+        long[] sorted = new long[samples.length()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        delayNanos = clamp(sorted[Math.max(0, Math.min(sorted.length - 1, index))]);
+    }
+
+    private long clamp(long nanos) {
+        return Math.max(minNanos, Math.min(maxNanos, nanos));
+    }
+}
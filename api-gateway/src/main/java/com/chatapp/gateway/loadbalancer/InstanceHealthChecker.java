@@ -0,0 +1,69 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Periodically probes the health path of every registered instance and takes instances
+ * out of rotation after consecutive failed probes. Probes run concurrently and never
+ * block the scheduler thread.
+ */
+@Component
+public class InstanceHealthChecker {
+
+    private final InstanceRegistry registry;
+    private final LoadBalancerProperties properties;
+    private final WebClient webClient;
+
+    /**
+     * Creates the health checker.
+     *
+     * @param registry   the instance registry
+     * @param properties the load balancer configuration
+     * @param builder    builder for the probe client
+     */
+    public InstanceHealthChecker(InstanceRegistry registry, LoadBalancerProperties properties,
+                                 WebClient.Builder builder) {
+        this.registry = registry;
+        this.properties = properties;
+        this.webClient = builder.build();
+    }
+
+    /**
+     * Starts a probe of every registered instance.
+     */
+    @Scheduled(fixedDelayString = "${gateway.load-balancer.health-check.interval-ms:5000}")
+    public void checkAll() {
+        if (properties.getHealthCheck().isEnabled()) {
+            checkAll(registry.getAllInstances().values().stream().flatMap(List::stream).toList()).subscribe();
+        }
+    }
+
+    /**
+     * Probes the given instances and records the results.
+     *
+     * @param endpoints the instances to probe
+     * @return a Mono completing when all probes have finished
+     */
+    Mono<Void> checkAll(List<ServiceEndpoint> endpoints) {
+        LoadBalancerProperties.HealthCheck settings = properties.getHealthCheck();
+        return Flux.fromIterable(endpoints)
+                .flatMap(endpoint -> probe(endpoint, settings)
+                        .doOnNext(passed -> endpoint.recordProbe(passed, settings.getUnhealthyThreshold())))
+                .then();
+    }
+
+    private Mono<Boolean> probe(ServiceEndpoint endpoint, LoadBalancerProperties.HealthCheck settings) {
+        return webClient.get()
+                .uri(endpoint.getUri().resolve(settings.getPath()))
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.statusCode().is2xxSuccessful()))
+                .timeout(settings.getTimeout())
+                .onErrorReturn(false);
+    }
+}
@@ -0,0 +1,154 @@
+package com.chatapp.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of service instances for {@code lb://} routes, filled from a static list or a
+ * file per service. File-based services are re-read whenever the file changes; instances
+ * that stay in the file keep their health and load state.
+ */
+@Slf4j
+@Component
+public class InstanceRegistry {
+
+    private final LoadBalancerProperties properties;
+    private final Map<String, List<ServiceEndpoint>> instances = new ConcurrentHashMap<>();
+    private final Map<String, FileTime> fileVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the registry and loads the configured instances.
+     *
+     * @param properties the load balancer configuration
+     */
+    public InstanceRegistry(LoadBalancerProperties properties) {
+        this.properties = properties;
+        properties.getServices().forEach((serviceId, service) -> {
+            if (!hasFile(service)) {
+                instances.put(serviceId, merge(serviceId, service.getInstances()));
+            }
+        });
+        refreshFiles();
+    }
+
+    /**
+     * Gets the instances of a service.
+     *
+     * @param serviceId the service id
+     * @return the instances, empty if the service is unknown
+     */
+    public List<ServiceEndpoint> getInstances(String serviceId) {
+        return instances.getOrDefault(serviceId, List.of());
+    }
+
+    /**
+     * Gets the instances of all services.
+     *
+     * @return the instances keyed by service id
+     */
+    public Map<String, List<ServiceEndpoint>> getAllInstances() {
+        return instances;
+    }
+
+    /**
+     * Checks whether another instance of a service may be ejected without exceeding the
+     * configured maximum share of ejected instances.
+     *
+     * @param serviceId the service id
+     * @param nowNanos  current time from {@link System#nanoTime()}
+     * @return true if an ejection is allowed
+     */
+    public boolean mayEject(String serviceId, long nowNanos) {
+        List<ServiceEndpoint> endpoints = getInstances(serviceId);
+        int ejected = 0;
+        for (ServiceEndpoint endpoint : endpoints) {
+            if (endpoint.isEjected(nowNanos)) {
+                ejected++;
+            }
+        }
+        int allowed = Math.max(1, endpoints.size() * properties.getOutlierEjection().getMaxEjectionPercent() / 100);
+        return ejected < allowed;
+    }
+
+    /**
+     * Records the end of a request to an instance, ejecting the instance when it keeps
+     * failing and the ejection bound allows it.
+     *
+     * @param endpoint the instance the request was sent to
+     * @param failed   whether the request failed
+     */
+    public void requestFinished(ServiceEndpoint endpoint, boolean failed) {
+        long now = System.nanoTime();
+        endpoint.requestFinished(failed, properties.getOutlierEjection(),
+                failed && mayEject(endpoint.getServiceId(), now), now);
+    }
+
+    /**
+     * Re-reads the instance files that changed since they were last read.
+     */
+    @Scheduled(fixedDelayString = "${gateway.load-balancer.refresh-interval-ms:5000}")
+    public void refreshFiles() {
+        properties.getServices().forEach((serviceId, service) -> {
+            if (!hasFile(service)) {
+                return;
+            }
+            Path file = Paths.get(service.getFile());
+            try {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.equals(fileVersions.get(serviceId))) {
+                    return;
+                }
+                List<String> uris = new ArrayList<>();
+                for (String line : Files.readAllLines(file)) {
+                    String trimmed = line.trim();
+                    if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                        uris.add(trimmed);
+                    }
+                }
+                instances.put(serviceId, merge(serviceId, uris));
+                fileVersions.put(serviceId, modified);
+                log.info("Loaded {} instance(s) of {} from {}", uris.size(), serviceId, file);
+            } catch (IOException e) {
+                log.warn("Cannot read instances of {} from {}: {}", serviceId, file, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Builds the instance list of a service, reusing existing endpoints with the same URI.
+     *
+     * @param serviceId the service id
+     * @param uris      the instance base URIs
+     * @return the new instance list
+     */
+    private List<ServiceEndpoint> merge(String serviceId, Collection<String> uris) {
+        List<ServiceEndpoint> current = instances.getOrDefault(serviceId, List.of());
+        List<ServiceEndpoint> merged = new ArrayList<>(uris.size());
+        for (String value : uris) {
+            URI uri = URI.create(value.trim());
+            ServiceEndpoint endpoint = current.stream()
+                    .filter(existing -> existing.getUri().equals(uri))
+                    .findFirst()
+                    .orElseGet(() -> new ServiceEndpoint(serviceId, uri));
+            merged.add(endpoint);
+        }
+        return List.copyOf(merged);
+    }
+
+    private static boolean hasFile(LoadBalancerProperties.Service service) {
+        return service.getFile() != null && !service.getFile().isBlank();
+    }
+}
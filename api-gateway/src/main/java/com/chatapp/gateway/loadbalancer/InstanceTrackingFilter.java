@@ -0,0 +1,73 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Global filter tracking the requests sent to each load-balanced instance: outstanding
+ * requests feed the {@link PowerOfTwoChoicesLoadBalancer}, and failed requests (errors
+ * and 5xx responses) feed outlier ejection.
+ */
+@Component
+public class InstanceTrackingFilter implements GlobalFilter, Ordered {
+
+    /** Runs right after the load balancer has chosen the instance. */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private final InstanceRegistry registry;
+
+    /**
+     * Creates the instance tracking filter.
+     *
+     * @param registry the instance registry
+     */
+    public InstanceTrackingFilter(InstanceRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Counts the request against the chosen instance until it completes.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !(chosen.getServer() instanceof ServiceEndpoint endpoint)) {
+            return chain.filter(exchange);
+        }
+
+        endpoint.requestStarted();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                endpoint.requestCancelled();
+                return;
+            }
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            registry.requestFinished(endpoint,
+                    signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError()));
+        });
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,55 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint at {@code /actuator/instances} listing the instances of every
+ * load-balanced service with their health, ejection and load state.
+ */
+@Component
+@Endpoint(id = "instances")
+public class InstancesEndpoint {
+
+    private final InstanceRegistry registry;
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param registry the instance registry
+     */
+    public InstancesEndpoint(InstanceRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Describes the instances of every service.
+     *
+     * @return the instance states keyed by service id
+     */
+    @ReadOperation
+    public Map<String, List<Map<String, Object>>> instances() {
+        long now = System.nanoTime();
+        Map<String, List<Map<String, Object>>> result = new TreeMap<>();
+        registry.getAllInstances().forEach((serviceId, endpoints) -> {
+            List<Map<String, Object>> states = new ArrayList<>();
+            for (ServiceEndpoint endpoint : endpoints) {
+                Map<String, Object> state = new LinkedHashMap<>();
+                state.put("uri", endpoint.getUri().toString());
+                state.put("healthy", endpoint.isHealthy());
+                state.put("ejected", endpoint.isEjected(now));
+                state.put("inFlight", endpoint.getInFlight());
+                states.add(state);
+            }
+            result.put(serviceId, states);
+        });
+        return result;
+    }
+}
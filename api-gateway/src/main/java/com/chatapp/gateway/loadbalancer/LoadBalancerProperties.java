@@ -0,0 +1,69 @@
+package com.chatapp.gateway.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for client-side load balancing of {@code lb://} routes.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+
+    /** Instances of each service, keyed by the service id used in {@code lb://<service-id>}. */
+    private Map<String, Service> services = new HashMap<>();
+
+    /** Active health check settings. */
+    private HealthCheck healthCheck = new HealthCheck();
+
+    /** Passive outlier ejection settings. */
+    private OutlierEjection outlierEjection = new OutlierEjection();
+
+    /**
+     * Instances of a single service.
+     */
+    @Data
+    public static class Service {
+        /** Static list of instance base URIs, e.g. {@code http://localhost:8081}. */
+        private List<String> instances = new ArrayList<>();
+        /**
+         * File listing one instance base URI per line; lines starting with {@code #} are ignored.
+         * When set, the file replaces the static list and is re-read whenever it changes.
+         */
+        private String file;
+    }
+
+    /**
+     * Active health check settings.
+     */
+    @Data
+    public static class HealthCheck {
+        /** Whether instances are probed at all. */
+        private boolean enabled = true;
+        /** Path probed on every instance; a 2xx answer means healthy. */
+        private String path = "/actuator/health";
+        /** How long a probe may take before it counts as failed. */
+        private Duration timeout = Duration.ofSeconds(1);
+        /** Consecutive failed probes after which an instance is taken out of rotation. */
+        private int unhealthyThreshold = 2;
+    }
+
+    /**
+     * Passive outlier ejection settings.
+     */
+    @Data
+    public static class OutlierEjection {
+        /** Consecutive failed calls (errors or 5xx) after which an instance is ejected. */
+        private int consecutiveFailures = 5;
+        /** Ejection time; repeated ejections of the same instance last proportionally longer. */
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+        /** Upper bound on the share of a service's instances that may be ejected at once. */
+        private int maxEjectionPercent = 50;
+    }
+}
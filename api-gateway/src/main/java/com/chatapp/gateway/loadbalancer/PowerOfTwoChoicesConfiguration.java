@@ -0,0 +1,29 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer client configuration applied to every {@code lb://} service.
+ * Deliberately not a {@code @Configuration}: it is instantiated once per service in
+ * the service's own load balancer context.
+ */
+public class PowerOfTwoChoicesConfiguration {
+
+    /**
+     * Creates the load balancer of the service this context belongs to.
+     *
+     * @param environment the load balancer context environment, holding the service id
+     * @param registry    the instance registry
+     * @return the load balancer
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                                   InstanceRegistry registry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PowerOfTwoChoicesLoadBalancer(serviceId, registry);
+    }
+}
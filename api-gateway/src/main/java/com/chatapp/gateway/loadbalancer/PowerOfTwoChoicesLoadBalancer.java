@@ -0,0 +1,106 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load balancer picking two random instances of a service and sending the request to the
+ * one with fewer outstanding requests. Only healthy, non-ejected instances are considered;
+ * if none is left, all instances are considered rather than failing every request.
+ */
+public class PowerOfTwoChoicesLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final String serviceId;
+    private final InstanceRegistry registry;
+
+    /**
+     * Creates the load balancer of a service.
+     *
+     * @param serviceId the service id
+     * @param registry  the instance registry
+     */
+    public PowerOfTwoChoicesLoadBalancer(String serviceId, InstanceRegistry registry) {
+        this.serviceId = serviceId;
+        this.registry = registry;
+    }
+
+    /**
+     * Chooses the instance for a request.
+     *
+     * @param request the load balancer request
+     * @return the chosen instance, or an empty response if the service has no instances
+     */
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceEndpoint endpoint = choose(registry.getInstances(serviceId), System.nanoTime());
+        return Mono.just(endpoint != null ? new DefaultResponse(endpoint) : new EmptyResponse());
+    }
+
+    /**
+     * Picks the less loaded of two random available instances.
+     *
+     * @param endpoints the instances of the service
+     * @param nowNanos  current time from {@link System#nanoTime()}
+     * @return the chosen instance, or null if there are none
+     */
+    public static ServiceEndpoint choose(List<ServiceEndpoint> endpoints, long nowNanos) {
+        int size = endpoints.size();
+        if (size == 0) {
+            return null;
+        }
+
+        int available = 0;
+        for (ServiceEndpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(nowNanos)) {
+                available++;
+            }
+        }
+        // Panic mode: with nothing in rotation, spread the load over everything we have
+        boolean all = available == 0;
+        int candidates = all ? size : available;
+        if (candidates == 1) {
+            return nth(endpoints, 0, all, nowNanos);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates);
+        int second = random.nextInt(candidates - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceEndpoint a = nth(endpoints, first, all, nowNanos);
+        ServiceEndpoint b = nth(endpoints, second, all, nowNanos);
+        return b.getInFlight() < a.getInFlight() ? b : a;
+    }
+
+    /**
+     * Gets the n-th candidate instance.
+     *
+     * @param endpoints the instances of the service
+     * @param n         index among the candidates
+     * @param all       whether every instance is a candidate, or only available ones
+     * @param nowNanos  current time from {@link System#nanoTime()}
+     * @return the instance
+     */
+    private static ServiceEndpoint nth(List<ServiceEndpoint> endpoints, int n, boolean all, long nowNanos) {
+        if (all) {
+            return endpoints.get(n);
+        }
+        int seen = 0;
+        for (ServiceEndpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(nowNanos) && seen++ == n) {
+                return endpoint;
+            }
+        }
+        // An instance left rotation while choosing
+        return endpoints.get(n % endpoints.size());
+    }
+}
@@ -0,0 +1,211 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Instance of a downstream service together with the state the load balancer keeps about it:
+ * outstanding requests, the result of active health checks and passive outlier ejection.
+ */
+public class ServiceEndpoint implements ServiceInstance {
+
+    private final String serviceId;
+    private final URI uri;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger failedProbes = new AtomicInteger();
+
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntilNanos;
+    private volatile boolean ejected;
+    private volatile int ejections;
+
+    /**
+     * Creates an instance.
+     *
+     * @param serviceId the id of the service
+     * @param uri       the base URI of the instance
+     */
+    public ServiceEndpoint(String serviceId, URI uri) {
+        this.serviceId = serviceId;
+        this.uri = uri;
+    }
+
+    /**
+     * Gets the instance id, made of the service id and the instance authority.
+     *
+     * @return the instance id
+     */
+    @Override
+    public String getInstanceId() {
+        return serviceId + "@" + uri.getAuthority();
+    }
+
+    /**
+     * Gets the id of the service this instance belongs to.
+     *
+     * @return the service id
+     */
+    @Override
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * Gets the instance host.
+     *
+     * @return the host
+     */
+    @Override
+    public String getHost() {
+        return uri.getHost();
+    }
+
+    /**
+     * Gets the instance port, defaulting from the scheme when the URI has none.
+     *
+     * @return the port
+     */
+    @Override
+    public int getPort() {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return isSecure() ? 443 : 80;
+    }
+
+    /**
+     * Tells whether the instance is reached over HTTPS.
+     *
+     * @return true for https instances
+     */
+    @Override
+    public boolean isSecure() {
+        return "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    /**
+     * Gets the base URI of the instance.
+     *
+     * @return the base URI
+     */
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Gets the instance metadata; static instances carry none.
+     *
+     * @return an empty map
+     */
+    @Override
+    public Map<String, String> getMetadata() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Checks whether the instance may receive requests: it passed its health checks and is not ejected.
+     *
+     * @param nowNanos current time from {@link System#nanoTime()}
+     * @return true if the instance is in rotation
+     */
+    public boolean isAvailable(long nowNanos) {
+        return healthy && !isEjected(nowNanos);
+    }
+
+    /**
+     * Checks whether the instance is currently ejected.
+     *
+     * @param nowNanos current time from {@link System#nanoTime()}
+     * @return true if the instance is ejected
+     */
+    public boolean isEjected(long nowNanos) {
+        return ejected && nowNanos - ejectedUntilNanos < 0;
+    }
+
+    /**
+     * Marks the start of a request to this instance.
+     */
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of a request and records its outcome for outlier detection.
+     *
+     * @param failed   whether the request failed
+     * @param settings the outlier ejection settings
+     * @param mayEject whether ejecting this instance would stay within the allowed share
+     * @param nowNanos current time from {@link System#nanoTime()}
+     */
+    public void requestFinished(boolean failed, LoadBalancerProperties.OutlierEjection settings,
+                                boolean mayEject, long nowNanos) {
+        inFlight.decrementAndGet();
+        if (!failed) {
+            consecutiveFailures.set(0);
+            if (ejections > 0 && !isEjected(nowNanos)) {
+                // Back in rotation and serving well: the next ejection starts from the base time again
+                ejections = 0;
+            }
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= settings.getConsecutiveFailures() && mayEject) {
+            eject(settings, nowNanos);
+        }
+    }
+
+    /**
+     * Marks the end of a request that produced no outcome, e.g. because the client went away.
+     */
+    public void requestCancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void eject(LoadBalancerProperties.OutlierEjection settings, long nowNanos) {
+        if (isEjected(nowNanos)) {
+            return;
+        }
+        ejections = Math.min(ejections + 1, 10);
+        ejectedUntilNanos = nowNanos + settings.getBaseEjectionTime().toNanos() * ejections;
+        ejected = true;
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * Records the result of an active health check.
+     *
+     * @param passed             whether the probe succeeded
+     * @param unhealthyThreshold consecutive failed probes after which the instance is unhealthy
+     */
+    public void recordProbe(boolean passed, int unhealthyThreshold) {
+        if (passed) {
+            failedProbes.set(0);
+            healthy = true;
+        } else if (failedProbes.incrementAndGet() >= unhealthyThreshold) {
+            healthy = false;
+        }
+    }
+
+    /**
+     * Gets the number of requests currently sent to this instance.
+     *
+     * @return the outstanding request count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Tells whether the last health checks passed.
+     *
+     * @return true if the instance is healthy
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+}
@@ -0,0 +1,33 @@
+package com.chatapp.gateway.metrics;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import reactor.core.publisher.Flux;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Request decorator counting the body bytes as they are read, so chunked bodies without
+ * a Content-Length are counted too.
+ */
+public class CountingRequestDecorator extends ServerHttpRequestDecorator {
+
+    private final LongConsumer bytes;
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate the request to decorate
+     * @param bytes    receives the size of each body buffer read
+     */
+    public CountingRequestDecorator(ServerHttpRequest delegate, LongConsumer bytes) {
+        super(delegate);
+        this.bytes = bytes;
+    }
+
+    @Override
+    public Flux<DataBuffer> getBody() {
+        return super.getBody().doOnNext(buffer -> bytes.accept(buffer.readableByteCount()));
+    }
+}
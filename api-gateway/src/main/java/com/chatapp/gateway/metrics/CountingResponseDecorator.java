@@ -0,0 +1,44 @@
+package com.chatapp.gateway.metrics;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Response decorator counting the body bytes as they are written, so chunked and
+ * streamed bodies without a Content-Length are counted too.
+ */
+public class CountingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final LongConsumer bytes;
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate the response to decorate
+     * @param bytes    receives the size of each body buffer written
+     */
+    public CountingResponseDecorator(ServerHttpResponse delegate, LongConsumer bytes) {
+        super(delegate);
+        this.bytes = bytes;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return super.writeWith(count(body));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return super.writeAndFlushWith(Flux.from(body).map(this::count));
+    }
+
+    private Flux<? extends DataBuffer> count(Publisher<? extends DataBuffer> body) {
+        return Flux.from(body).doOnNext(buffer -> bytes.accept(buffer.readableByteCount()));
+    }
+}
@@ -0,0 +1,153 @@
+package com.chatapp.gateway.metrics;
+
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global filter recording latency, status classes and bytes per route id.
+ * Meters are created once per route and looked up by route id afterwards. Latency covers
+ * the whole request, from route match until the response body has been written, including
+ * authentication and rate limiting. Bytes are counted as the bodies stream through, so
+ * chunked requests and responses without a Content-Length are counted too.
+ */
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    /** Runs before every other gateway filter so their time is included. */
+    public static final int ORDER = JwtAuthenticationFilter.ORDER - 100;
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the route metrics filter.
+     *
+     * @param meterRegistry registry receiving the per-route meters
+     */
+    public RouteMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times the request and records its outcome against the matched route.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        RouteMeters routeMeters = routeMeters(route.getId());
+        ServerWebExchange counted = exchange.mutate()
+                .request(new CountingRequestDecorator(exchange.getRequest(), routeMeters.bytesIn::increment))
+                .response(new CountingResponseDecorator(exchange.getResponse(), routeMeters.bytesOut::increment))
+                .build();
+        long start = System.nanoTime();
+        return chain.filter(counted).doFinally(signal -> routeMeters.record(counted, signal, System.nanoTime() - start));
+    }
+
+    /**
+     * Gets or creates the meters of a route.
+     *
+     * @param routeId the route id
+     * @return the meters of the route
+     */
+    private RouteMeters routeMeters(String routeId) {
+        RouteMeters routeMeters = meters.get(routeId);
+        if (routeMeters == null) {
+            routeMeters = meters.computeIfAbsent(routeId, id -> new RouteMeters(id, meterRegistry));
+        }
+        return routeMeters;
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Pre-registered meters of a single route.
+     */
+    private static final class RouteMeters {
+        private final Timer latency;
+        private final Counter[] statusClasses = new Counter[STATUS_CLASSES.length];
+        private final Counter cancelled;
+        private final Counter bytesIn;
+        private final Counter bytesOut;
+
+        private RouteMeters(String routeId, MeterRegistry registry) {
+            latency = Timer.builder("gateway.route.latency")
+                    .description("Time from route match until the response is written")
+                    .tag("route", routeId)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry);
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                statusClasses[i] = Counter.builder("gateway.route.responses")
+                        .description("Responses by status class")
+                        .tags("route", routeId, "status", STATUS_CLASSES[i])
+                        .register(registry);
+            }
+            cancelled = Counter.builder("gateway.route.responses")
+                    .description("Responses by status class")
+                    .tags("route", routeId, "status", "cancelled")
+                    .register(registry);
+            bytesIn = Counter.builder("gateway.route.bytes.in")
+                    .description("Request body bytes received")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .register(registry);
+            bytesOut = Counter.builder("gateway.route.bytes.out")
+                    .description("Response body bytes sent")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .register(registry);
+        }
+
+        private void record(ServerWebExchange exchange, SignalType signal, long elapsedNanos) {
+            latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+            if (signal == SignalType.CANCEL) {
+                cancelled.increment();
+            } else {
+                // Errors are turned into a 5xx response after this filter; no status set means 200
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                int statusClass = signal == SignalType.ON_ERROR ? 5 : status == null ? 2 : status.value() / 100;
+                if (statusClass >= 1 && statusClass <= STATUS_CLASSES.length) {
+                    statusClasses[statusClass - 1].increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.chatapp.gateway.ratelimit;
+
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import com.chatapp.gateway.security.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global filter applying token bucket rate limits in the API Gateway.
+ * Authenticated requests are limited per user, public paths per client IP, and each
+ * route can additionally have an aggregate limit shared by all callers. Clients arriving
+ * while the per-client bucket table is full share one overflow bucket per route with the
+ * client limit, so a full table limits them harder instead of not at all.
+ * Rejected requests receive 429 with a Retry-After header.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    /** Runs right after {@link JwtAuthenticationFilter} so the caller is known. */
+    public static final int ORDER = JwtAuthenticationFilter.ORDER + 50;
+
+    /** Minimum gap between idle sweeps triggered by a full bucket table. */
+    private static final long ON_DEMAND_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TrustedProxies trustedProxies;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> routeBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextOnDemandSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * Creates the rate limit filter.
+     *
+     * @param properties    the rate limit configuration
+     * @param meterRegistry registry receiving the rejection counters
+     */
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.trustedProxies = new TrustedProxies(properties.getTrustedProxies());
+    }
+
+    /**
+     * Filters incoming requests against the client and route buckets.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        RateLimitProperties.RouteLimits limits = properties.getRoutes().get(routeId);
+        RateLimitProperties.Limit clientLimit = limits != null && limits.getClient() != null
+                ? limits.getClient()
+                : properties.getDefaultClient();
+        long now = System.nanoTime();
+
+        if (clientLimit != null) {
+            TokenBucket bucket = clientBucket(routeId + '|' + clientKey(exchange), clientLimit, now);
+            if (bucket == null) {
+                bucket = bucket(overflowBuckets, routeId, clientLimit, now);
+                long wait = bucket.tryAcquire(now);
+                if (wait > 0) {
+                    return reject(exchange, routeId, "overflow", wait);
+                }
+            } else {
+                long wait = bucket.tryAcquire(now);
+                if (wait > 0) {
+                    return reject(exchange, routeId, "client", wait);
+                }
+            }
+        }
+
+        if (limits != null && limits.getRoute() != null) {
+            TokenBucket bucket = bucket(routeBuckets, routeId, limits.getRoute(), now);
+            long wait = bucket.tryAcquire(now);
+            if (wait > 0) {
+                return reject(exchange, routeId, "route", wait);
+            }
+        }
+
+        return chain.filter(exchange);
+    }
+
+    /**
+     * Determines who a request is accounted to: the authenticated user if
+     * {@link JwtAuthenticationFilter} verified one, otherwise the client IP.
+     *
+     * @param exchange the current server exchange
+     * @return the client part of the bucket key
+     */
+    private String clientKey(ServerWebExchange exchange) {
+        VerifiedToken token = exchange.getAttribute(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR);
+        if (token != null) {
+            return "u:" + token.getSubject();
+        }
+        return "ip:" + clientIp(exchange.getRequest());
+    }
+
+    /**
+     * Resolves the client IP from the configured proxy header when the request comes from
+     * a trusted proxy, otherwise from the socket address, so clients reaching the gateway
+     * directly cannot pick their own bucket.
+     *
+     * @param request the current request
+     * @return the client IP, or "unknown" if it cannot be determined
+     */
+    private String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        InetAddress peer = remoteAddress != null ? remoteAddress.getAddress() : null;
+        String header = properties.getClientIpHeader();
+        if (header != null && !header.isEmpty() && trustedProxies.isTrusted(peer)) {
+            String value = request.getHeaders().getFirst(header);
+            if (value != null && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+        return peer != null ? peer.getHostAddress() : "unknown";
+    }
+
+    /**
+     * Gets or creates a per-client bucket. Once the configured maximum is reached, idle
+     * buckets are swept first (at most once a second, so a flood of new clients cannot
+     * force a scan per request); if the table is still full no bucket is created and the
+     * caller falls back to the route's shared overflow bucket.
+     *
+     * @param key      the bucket key
+     * @param limit    the limit for a new bucket
+     * @param nowNanos current time from {@link System#nanoTime()}
+     * @return the bucket, or null if the bucket table is full
+     */
+    private TokenBucket clientBucket(String key, RateLimitProperties.Limit limit, long nowNanos) {
+        TokenBucket bucket = clientBuckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (clientBuckets.size() >= properties.getMaxBuckets()) {
+            long next = nextOnDemandSweep.get();
+            if (nowNanos - next < 0
+                    || !nextOnDemandSweep.compareAndSet(next, nowNanos + ON_DEMAND_SWEEP_INTERVAL_NANOS)) {
+                return null;
+            }
+            long idleNanos = properties.getIdleTimeout().toNanos();
+            clientBuckets.values().removeIf(candidate -> candidate.isIdle(nowNanos, idleNanos));
+            if (clientBuckets.size() >= properties.getMaxBuckets()) {
+                return null;
+            }
+        }
+        return bucket(clientBuckets, key, limit, nowNanos);
+    }
+
+    /**
+     * Gets or creates a bucket. Lookups of existing buckets do not lock.
+     *
+     * @param buckets  the bucket table
+     * @param key      the bucket key
+     * @param limit    the limit for a new bucket
+     * @param nowNanos current time from {@link System#nanoTime()}
+     * @return the bucket for the key
+     */
+    private static TokenBucket bucket(Map<String, TokenBucket> buckets, String key,
+                                      RateLimitProperties.Limit limit, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key,
+                    k -> new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst(), nowNanos));
+        }
+        return bucket;
+    }
+
+    /**
+     * Rejects a request with 429 Too Many Requests.
+     *
+     * @param exchange  the current server exchange
+     * @param routeId   the id of the matched route
+     * @param scope     which limit was hit, "client", "overflow" or "route"
+     * @param waitNanos nanoseconds until the next token is available
+     * @return a Mono representing the rejected response
+     */
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String scope, long waitNanos) {
+        meterRegistry.counter("gateway.ratelimit.rejected", "route", routeId, "scope", scope).increment();
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().add(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.getHeaders().add("Content-Type", "application/json");
+
+        String body = "{\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded, retry after "
+                + retryAfterSeconds + " seconds\"}";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
+    }
+
+    /**
+     * Removes buckets that have been idle for longer than the configured timeout.
+     * An idle bucket is full, so dropping it does not change any future decision.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        clientBuckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        routeBuckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        overflowBuckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    /**
+     * Resolves the trusted proxy host names again, following proxies whose address changes.
+     */
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.trusted-proxy-refresh-ms:30000}")
+    public void refreshTrustedProxies() {
+        trustedProxies.resolve();
+    }
+
+    /**
+     * Gets the number of per-client buckets currently held.
+     *
+     * @return the client bucket count
+     */
+    public int getClientBucketCount() {
+        return clientBuckets.size();
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
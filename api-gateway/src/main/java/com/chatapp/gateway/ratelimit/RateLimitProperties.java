@@ -0,0 +1,73 @@
+package com.chatapp.gateway.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for the gateway rate limiter.
+ * Limits are defined per route id from {@code GatewayConfig}; routes without an entry
+ * use the default client limit and have no aggregate limit.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    /** Whether rate limiting is applied at all. */
+    private boolean enabled = true;
+
+    /** Header carrying the original client address, set by the frontend proxy. Empty to use the socket address. */
+    private String clientIpHeader = "X-Real-IP";
+
+    /**
+     * Proxies allowed to set the client address header: IP addresses, CIDR ranges or host
+     * names. From any other peer the header is ignored and the socket address is used.
+     */
+    private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.1", "::1"));
+
+    /** Buckets unused for this long are removed. */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Upper bound on the number of per-client buckets kept in memory. New clients beyond
+     * it share one bucket per route until idle buckets are evicted.
+     */
+    private int maxBuckets = 100_000;
+
+    /** Limit applied per user (or per IP on public paths) when the route has no client limit. */
+    private Limit defaultClient = new Limit(20, 40);
+
+    /** Per-route overrides keyed by route id. */
+    private Map<String, RouteLimits> routes = new HashMap<>();
+
+    /**
+     * Token bucket settings.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        /** Sustained number of requests allowed per second. */
+        private double permitsPerSecond;
+        /** Number of requests that may be made back to back. */
+        private int burst;
+    }
+
+    /**
+     * Limits of a single route.
+     */
+    @Data
+    public static class RouteLimits {
+        /** Limit per user or per IP on this route. */
+        private Limit client;
+        /** Limit shared by all callers of this route. */
+        private Limit route;
+    }
+}
@@ -0,0 +1,63 @@
+package com.chatapp.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented with the generic cell rate algorithm (GCRA).
+ * The whole bucket state is a single "theoretical arrival time", so acquiring a permit
+ * is one compare-and-set and a bucket costs a few dozen bytes of memory.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+
+    /**
+     * Creates a full token bucket.
+     *
+     * @param permitsPerSecond sustained rate at which tokens are refilled
+     * @param burst            maximum number of tokens the bucket holds
+     * @param nowNanos         current time from {@link System#nanoTime()}
+     */
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Tries to take one token from the bucket.
+     *
+     * @param nowNanos current time from {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one becomes available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long newTat = (tat - nowNanos > 0 ? tat : nowNanos) + emissionIntervalNanos;
+            long wait = newTat - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the bucket has been full for at least the given time,
+     * meaning nobody used it and it can be dropped without changing any decision.
+     *
+     * @param nowNanos        current time from {@link System#nanoTime()}
+     * @param idleTimeoutNanos how long the bucket must have been full
+     * @return true if the bucket is idle
+     */
+    public boolean isIdle(long nowNanos, long idleTimeoutNanos) {
+        return nowNanos - theoreticalArrivalNanos.get() > idleTimeoutNanos;
+    }
+}
@@ -0,0 +1,144 @@
+package com.chatapp.gateway.resilience;
+
+/**
+ * Count-based circuit breaker. The failure rate is computed over the most recent calls;
+ * when it reaches the threshold the circuit opens and calls are refused. After the open
+ * duration a limited number of probe calls are let through: if all succeed the circuit
+ * closes, a single failure opens it again.
+ */
+public class CircuitBreaker {
+
+    /**
+     * Circuit breaker states.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ResilienceProperties.CircuitBreaker settings;
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAtNanos;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param settings the circuit breaker settings
+     */
+    public CircuitBreaker(ResilienceProperties.CircuitBreaker settings) {
+        this.settings = settings;
+        this.window = new boolean[Math.max(1, settings.getSlidingWindowSize())];
+    }
+
+    /**
+     * Asks whether a call may go through, moving from open to half-open once the open duration has passed.
+     *
+     * @param nowNanos current time from {@link System#nanoTime()}
+     * @return true if the call may proceed; it must then be ended with {@link #onResult} or {@link #release}
+     */
+    public synchronized boolean tryAcquire(long nowNanos) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowNanos - openedAtNanos < settings.getOpenDuration().toNanos()) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probesSucceeded = 0;
+                // fall through to admit the first probe
+            default:
+                if (probesInFlight + probesSucceeded >= settings.getHalfOpenCalls()) {
+                    return false;
+                }
+                probesInFlight++;
+                return true;
+        }
+    }
+
+    /**
+     * Ends a call that did not produce an outcome, e.g. because it was cancelled or never sent.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    /**
+     * Records the outcome of a call.
+     *
+     * @param failed   whether the call failed
+     * @param nowNanos current time from {@link System#nanoTime()}
+     */
+    public synchronized void onResult(boolean failed, long nowNanos) {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (failed) {
+                open(nowNanos);
+            } else if (++probesSucceeded >= settings.getHalfOpenCalls()) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // Call admitted before the circuit opened
+            return;
+        }
+
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+
+        if (windowCount >= settings.getMinimumCalls()
+                && windowFailures * 100 >= settings.getFailureRateThreshold() * windowCount) {
+            open(nowNanos);
+        }
+    }
+
+    private void open(long nowNanos) {
+        state = State.OPEN;
+        openedAtNanos = nowNanos;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return the circuit state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the failure rate over the current window.
+     *
+     * @return the failure percentage, or 0 if no calls were recorded
+     */
+    public synchronized double getFailureRate() {
+        return windowCount == 0 ? 0 : windowFailures * 100.0 / windowCount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.chatapp.gateway.resilience;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protection state of a single downstream service: its concurrency limiter,
+ * circuit breaker and rejection counts.
+ */
+@Getter
+public class DownstreamGuard {
+
+    private final String name;
+    private final GradientConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final LongAdder rejectedByLimit = new LongAdder();
+    private final LongAdder rejectedByCircuit = new LongAdder();
+
+    /**
+     * Creates the guard of a downstream service.
+     *
+     * @param name       the downstream name
+     * @param properties the resilience configuration
+     */
+    public DownstreamGuard(String name, ResilienceProperties properties) {
+        this.name = name;
+        this.limiter = new GradientConcurrencyLimiter(properties.getLimit());
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker());
+    }
+}
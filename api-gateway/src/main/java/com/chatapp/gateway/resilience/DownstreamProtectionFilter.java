@@ -0,0 +1,191 @@
+package com.chatapp.gateway.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global filter guarding each downstream service with an adaptive concurrency limit and
+ * a circuit breaker. Calls beyond the limit, or while the circuit is open, are refused
+ * with 503 without reaching the service. Latency is measured until the downstream
+ * response headers arrive; errors and 5xx responses count as failures.
+ * WebSocket upgrades are passed through, since their duration says nothing about load.
+ */
+@Component
+public class DownstreamProtectionFilter implements GlobalFilter, Ordered {
+
+    /** Runs right before the routing filters, after cached and coalesced requests have been answered. */
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 200;
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DownstreamGuard> guards = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the downstream protection filter.
+     *
+     * @param properties    the resilience configuration
+     * @param meterRegistry registry receiving the per-downstream gauges and counters
+     */
+    public DownstreamProtectionFilter(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Admits the call through the downstream's circuit breaker and limiter and records its outcome.
+     *
+     * @param exchange the current server exchange
+     * @param chain    provides a way to delegate to the next filter
+     * @return a Mono representing the completion of the filter chain
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null
+                || "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+            return chain.filter(exchange);
+        }
+
+        DownstreamGuard guard = guard(downstreamName(route));
+        return Mono.defer(() -> {
+            CircuitBreaker circuitBreaker = guard.getCircuitBreaker();
+            GradientConcurrencyLimiter limiter = guard.getLimiter();
+
+            if (!circuitBreaker.tryAcquire(System.nanoTime())) {
+                return reject(exchange, guard, guard.getRejectedByCircuit(), "circuit open");
+            }
+            if (!limiter.tryAcquire()) {
+                circuitBreaker.release();
+                return reject(exchange, guard, guard.getRejectedByLimit(), "concurrency limit reached");
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                long now = System.nanoTime();
+                if (signal == SignalType.CANCEL) {
+                    limiter.release();
+                    circuitBreaker.release();
+                    return;
+                }
+                boolean failed = signal == SignalType.ON_ERROR || isServerError(exchange.getResponse().getStatusCode());
+                limiter.onSample(now - start, failed);
+                circuitBreaker.onResult(failed, now);
+            });
+        });
+    }
+
+    /**
+     * Identifies the downstream service of a route by the host of its URI, so that routes
+     * to the same service share one guard.
+     *
+     * @param route the matched route
+     * @return the downstream name
+     */
+    private static String downstreamName(Route route) {
+        String host = route.getUri().getHost();
+        return host != null ? host : route.getId();
+    }
+
+    /**
+     * Gets or creates the guard of a downstream service and registers its meters.
+     *
+     * @param name the downstream name
+     * @return the guard
+     */
+    private DownstreamGuard guard(String name) {
+        DownstreamGuard guard = guards.get(name);
+        if (guard != null) {
+            return guard;
+        }
+        return guards.computeIfAbsent(name, key -> {
+            DownstreamGuard created = new DownstreamGuard(key, properties);
+            Gauge.builder("gateway.downstream.limit", created.getLimiter(), GradientConcurrencyLimiter::getLimit)
+                    .description("Current concurrency limit of the downstream service")
+                    .tag("downstream", key)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.downstream.in.flight", created.getLimiter(), GradientConcurrencyLimiter::getInFlight)
+                    .description("Calls to the downstream service currently in flight")
+                    .tag("downstream", key)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.downstream.circuit.state", created.getCircuitBreaker(),
+                            breaker -> breaker.getState().ordinal())
+                    .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                    .tag("downstream", key)
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.downstream.rejected", created.getRejectedByLimit(), LongAdder::sum)
+                    .description("Calls refused without reaching the downstream service")
+                    .tags("downstream", key, "reason", "limit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("gateway.downstream.rejected", created.getRejectedByCircuit(), LongAdder::sum)
+                    .description("Calls refused without reaching the downstream service")
+                    .tags("downstream", key, "reason", "circuit")
+                    .register(meterRegistry);
+            return created;
+        });
+    }
+
+    private static boolean isServerError(HttpStatusCode status) {
+        return status != null && status.is5xxServerError();
+    }
+
+    /**
+     * Rejects a request with 503 Service Unavailable.
+     *
+     * @param exchange the current server exchange
+     * @param guard    the guard of the downstream service
+     * @param counter  the rejection counter to increment
+     * @param reason   why the request was rejected
+     * @return a Mono representing the rejected response
+     */
+    private Mono<Void> reject(ServerWebExchange exchange, DownstreamGuard guard, LongAdder counter, String reason) {
+        counter.increment();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().add(HttpHeaders.RETRY_AFTER, "1");
+        response.getHeaders().add("Content-Type", "application/json");
+
+        String body = "{\"error\":\"Service Unavailable\",\"message\":\"" + guard.getName()
+                + " is overloaded (" + reason + ")\"}";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes())));
+    }
+
+    /**
+     * Gets the guards of all downstream services called so far.
+     *
+     * @return the downstream guards
+     */
+    public Collection<DownstreamGuard> getGuards() {
+        return guards.values();
+    }
+
+    /**
+     * Defines the order of this filter in the filter chain.
+     *
+     * @return the order value (lower values have higher priority)
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
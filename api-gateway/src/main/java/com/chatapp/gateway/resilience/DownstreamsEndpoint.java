@@ -0,0 +1,50 @@
+package com.chatapp.gateway.resilience;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint at {@code /actuator/downstreams} showing the current concurrency
+ * limit, circuit state and rejection counts of every downstream service.
+ */
+@Component
+@Endpoint(id = "downstreams")
+public class DownstreamsEndpoint {
+
+    private final DownstreamProtectionFilter filter;
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param filter the filter holding the downstream guards
+     */
+    public DownstreamsEndpoint(DownstreamProtectionFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Describes every downstream service called so far.
+     *
+     * @return the downstream state keyed by downstream name
+     */
+    @ReadOperation
+    public Map<String, Map<String, Object>> downstreams() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        for (DownstreamGuard guard : filter.getGuards()) {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("limit", guard.getLimiter().getLimit());
+            state.put("inFlight", guard.getLimiter().getInFlight());
+            state.put("circuitState", guard.getCircuitBreaker().getState());
+            state.put("failureRate", guard.getCircuitBreaker().getFailureRate());
+            state.put("rejectedByLimit", guard.getRejectedByLimit().sum());
+            state.put("rejectedByCircuit", guard.getRejectedByCircuit().sum());
+            result.put(guard.getName(), state);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package com.chatapp.gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit driven by observed latency, after the gradient algorithm.
+ * A long-term average of call latency is compared with the latest latency: while the
+ * two agree the limit grows by roughly its square root per sample, and once latency
+ * rises above the tolerated ratio the limit shrinks in proportion. Failed calls cut the
+ * limit by 10%.
+ * <p>
+ * Acquiring a permit is a lock-free compare-and-set; limit updates are serialized.
+ */
+public class GradientConcurrencyLimiter {
+
+    private final ResilienceProperties.Limit settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    /**
+     * Creates a limiter starting at the configured initial limit.
+     *
+     * @param settings the limit settings
+     */
+    public GradientConcurrencyLimiter(ResilienceProperties.Limit settings) {
+        this.settings = settings;
+        this.estimatedLimit = settings.getInitialLimit();
+        this.limit = settings.getInitialLimit();
+    }
+
+    /**
+     * Takes a permit if fewer calls than the current limit are in flight.
+     *
+     * @return true if the call may proceed; it must then be ended with {@link #onSample} or {@link #release}
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Returns a permit without using the call for the limit estimate, e.g. when it was cancelled.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns a permit and updates the limit from the call outcome.
+     *
+     * @param rttNanos how long the call took
+     * @param failed   whether the call failed
+     */
+    public void onSample(long rttNanos, boolean failed) {
+        int inFlightAtEnd = inFlight.getAndDecrement();
+        update(rttNanos, failed, inFlightAtEnd);
+    }
+
+    private synchronized void update(long rttNanos, boolean failed, int inFlightAtEnd) {
+        if (failed) {
+            estimatedLimit = Math.max(settings.getMinLimit(), estimatedLimit * 0.9);
+            limit = (int) estimatedLimit;
+            return;
+        }
+
+        samples++;
+        double weight = 2.0 / (Math.min(samples, settings.getLongWindow()) + 1);
+        longRttNanos = samples == 1 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) * weight;
+        // Let the average recover quickly after a long slow period ends
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Not enough load to tell whether a higher limit would hurt latency
+        if (inFlightAtEnd < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, settings.getRttTolerance() * longRttNanos / rttNanos));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double target = estimatedLimit * gradient + queueSize;
+        double smoothed = estimatedLimit * (1 - settings.getSmoothing()) + target * settings.getSmoothing();
+        estimatedLimit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), smoothed));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Gets the current concurrency limit.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Gets the number of calls currently holding a permit.
+     *
+     * @return the in-flight count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,60 @@
+package com.chatapp.gateway.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the per-downstream concurrency limiter and circuit breaker.
+ * The same settings apply to every downstream service; each gets its own state.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+
+    /** Whether downstream calls are limited and guarded at all. */
+    private boolean enabled = true;
+
+    /** Adaptive concurrency limit settings. */
+    private Limit limit = new Limit();
+
+    /** Circuit breaker settings. */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Gradient concurrency limit settings.
+     */
+    @Data
+    public static class Limit {
+        /** Concurrent calls allowed before any latency has been observed. */
+        private int initialLimit = 50;
+        /** The limit never drops below this. */
+        private int minLimit = 5;
+        /** The limit never grows above this. */
+        private int maxLimit = 500;
+        /** How much latency growth over the long-term average is tolerated before the limit shrinks. */
+        private double rttTolerance = 1.5;
+        /** Weight of a new limit estimate, between 0 and 1. */
+        private double smoothing = 0.2;
+        /** Number of samples the long-term latency average spans. */
+        private int longWindow = 600;
+    }
+
+    /**
+     * Circuit breaker settings.
+     */
+    @Data
+    public static class CircuitBreaker {
+        /** Percentage of failed calls in the window at which the circuit opens. */
+        private int failureRateThreshold = 50;
+        /** Number of most recent calls the failure rate is computed over. */
+        private int slidingWindowSize = 50;
+        /** Calls needed in the window before the failure rate is evaluated. */
+        private int minimumCalls = 20;
+        /** How long the circuit stays open before probe calls are let through. */
+        private Duration openDuration = Duration.ofSeconds(10);
+        /** Number of probe calls allowed while half-open; all must succeed to close the circuit. */
+        private int halfOpenCalls = 5;
+    }
+}
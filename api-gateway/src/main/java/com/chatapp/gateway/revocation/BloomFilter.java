@@ -0,0 +1,117 @@
+package com.chatapp.gateway.revocation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * Answers "definitely absent" without false negatives; a positive answer must be
+ * confirmed against an exact set. Bits are set with lock-free updates, so adds and
+ * lookups may run concurrently. Entries cannot be removed; the filter is rebuilt instead.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a Bloom filter sized for the given number of entries.
+     *
+     * @param expectedEntries   number of entries the filter is sized for
+     * @param falsePositiveRate target false positive rate at that number of entries
+     */
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        double bitsPerEntry = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long bits = Math.max(64, (long) Math.ceil(entries * bitsPerEntry));
+        this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.bitCount = (long) words.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round(bitsPerEntry * Math.log(2)));
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add
+     */
+    void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                word = words.get(index);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a value may have been added.
+     *
+     * @param value the value to look up
+     * @return false if the value was definitely never added, true if it may have been
+     */
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of hash functions used per entry.
+     *
+     * @return the hash count
+     */
+    int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Gets the size of the filter in bits.
+     *
+     * @return the bit count
+     */
+    long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of the UTF-8 bytes of a value, finished with a mixing step.
+     *
+     * @param value the value to hash
+     * @return the hash
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Spreads the bits of a hash (the MurmurHash3 64-bit finalizer).
+     *
+     * @param hash the hash to mix
+     * @return the mixed hash
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
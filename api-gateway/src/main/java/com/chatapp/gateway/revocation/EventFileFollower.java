@@ -0,0 +1,134 @@
+package com.chatapp.gateway.revocation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Follows an event file that other processes append lines to, handing each new complete
+ * line to the caller. Writers compact the file by writing the lines they keep to a new
+ * file and renaming it over the old one; once the file has been replaced, or has shrunk,
+ * it is read again from the start, so lines the follower had not reached yet are not lost.
+ * A line still being written is consumed once it is complete.
+ */
+@Slf4j
+public class EventFileFollower {
+
+    private static final int MAX_READ_BYTES = 1 << 20;
+
+    private final Path file;
+    private long offset;
+    private Object fileKey;
+
+    /**
+     * Creates a follower that reads the file from the start.
+     *
+     * @param file the event file
+     */
+    public EventFileFollower(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Positions the follower at the current end of the file, so only lines appended
+     * from now on are read.
+     */
+    public synchronized void skipToEnd() {
+        try {
+            fileKey = fileKey();
+            offset = Files.size(file);
+        } catch (IOException e) {
+            fileKey = null;
+            offset = 0;
+        }
+    }
+
+    /**
+     * Reads the lines appended since the last poll.
+     *
+     * @param handler receives each new line, trimmed; blank lines are skipped
+     */
+    public synchronized void poll(Consumer<String> handler) {
+        try {
+            Object key = fileKey();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (!Objects.equals(key, fileKey())) {
+                    // Replaced while being opened; the new file is read on the next poll
+                    return;
+                }
+                long size = channel.size();
+                if (size < offset || fileKey != null && !fileKey.equals(key)) {
+                    log.info("Event file {} was replaced, reading it from the start", file);
+                    offset = 0;
+                }
+                fileKey = key;
+                while (offset < size) {
+                    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - offset, MAX_READ_BYTES));
+                    int read = channel.read(buffer, offset);
+                    int consumed = read > 0 ? consume(buffer.array(), read, handler) : 0;
+                    if (consumed == 0) {
+                        // Nothing read, or a line that is still being written
+                        break;
+                    }
+                    offset += consumed;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            offset = 0;
+            fileKey = null;
+        } catch (IOException e) {
+            log.warn("Cannot read events from {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the position up to which the file has been read.
+     *
+     * @return the byte offset
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the identity of the file currently at the path, such as its inode.
+     *
+     * @return the file key, or null if the file system has none
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    private Object fileKey() throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    /**
+     * Hands the complete lines at the start of a chunk to the handler.
+     *
+     * @param bytes   the chunk
+     * @param length  number of valid bytes in the chunk
+     * @param handler receives each line
+     * @return number of bytes consumed, up to and including the last line break
+     */
+    private static int consume(byte[] bytes, int length, Consumer<String> handler) {
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                String line = new String(bytes, start, i - start, StandardCharsets.UTF_8).trim();
+                if (!line.isEmpty()) {
+                    handler.accept(line);
+                }
+                start = i + 1;
+            }
+        }
+        return start;
+    }
+}
@@ -0,0 +1,75 @@
+package com.chatapp.gateway.revocation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+
+/**
+ * Follows the revocation event file written by user-service and feeds new revocations
+ * into the {@link TokenDenylist}. Each line holds a token id and the expiry of that token
+ * in epoch milliseconds, separated by a space. user-service periodically drops expired
+ * lines by replacing the file; the replacement is then read from the start, and the
+ * revocations it still holds are added again, which the denylist ignores.
+ */
+@Slf4j
+@Component
+public class RevocationEventReader {
+
+    private final RevocationProperties properties;
+    private final TokenDenylist denylist;
+    private final EventFileFollower follower;
+
+    /**
+     * Creates the revocation event reader.
+     *
+     * @param properties the revocation configuration
+     * @param denylist   the denylist to feed
+     */
+    public RevocationEventReader(RevocationProperties properties, TokenDenylist denylist) {
+        this.properties = properties;
+        this.denylist = denylist;
+        this.follower = new EventFileFollower(Paths.get(properties.getFile()));
+    }
+
+    /**
+     * Reads the events appended since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${gateway.revocation.poll-interval-ms:1000}")
+    public void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        follower.poll(line -> parse(line, now));
+    }
+
+    /**
+     * Parses one event line and adds it to the denylist.
+     *
+     * @param line      the event line
+     * @param nowMillis the current time in epoch milliseconds
+     */
+    private void parse(String line, long nowMillis) {
+        int separator = line.indexOf(' ');
+        try {
+            if (separator <= 0) {
+                throw new NumberFormatException("missing expiry");
+            }
+            long expiresAt = Long.parseLong(line.substring(separator + 1).trim());
+            denylist.revoke(line.substring(0, separator), expiresAt, nowMillis);
+        } catch (NumberFormatException e) {
+            log.warn("Skipping malformed revocation event '{}': {}", line, e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the position up to which the event file has been read.
+     *
+     * @return the byte offset
+     */
+    long getOffset() {
+        return follower.getOffset();
+    }
+}
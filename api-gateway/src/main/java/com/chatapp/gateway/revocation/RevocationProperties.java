@@ -0,0 +1,25 @@
+package com.chatapp.gateway.revocation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the access-token denylist.
+ * Revocations are read from the event file user-service appends to on logout.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.revocation")
+public class RevocationProperties {
+
+    /** Whether revoked access tokens are rejected at all. */
+    private boolean enabled = true;
+
+    /** Revocation event file written by user-service, one {@code <jti> <expires-at-millis>} per line. */
+    private String file = "revocations/access-tokens.log";
+
+    /** Number of live revocations the Bloom filter is sized for; it is resized when exceeded. */
+    private int expectedRevocations = 100000;
+
+    /** Target false positive rate of the Bloom filter, between 0 and 1. */
+    private double falsePositiveRate = 0.01;
+}
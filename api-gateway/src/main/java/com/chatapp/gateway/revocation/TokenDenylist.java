@@ -0,0 +1,149 @@
+package com.chatapp.gateway.revocation;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory denylist of revoked access tokens, keyed by token id ({@code jti}).
+ * A Bloom filter answers the common "not revoked" case without touching the exact set;
+ * only Bloom positives are confirmed against the exact set, which maps each revoked
+ * token id to the expiry of its token. Entries are dropped once their token has expired,
+ * since the token would be rejected anyway, and the Bloom filter is rebuilt to match.
+ */
+@Component
+public class TokenDenylist implements MeterBinder {
+
+    private final RevocationProperties properties;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final LongAdder clear = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    private volatile BloomFilter bloom;
+    private volatile int bloomCapacity;
+
+    /**
+     * Creates an empty denylist.
+     *
+     * @param properties the revocation configuration
+     */
+    public TokenDenylist(RevocationProperties properties) {
+        this.properties = properties;
+        this.bloomCapacity = properties.getExpectedRevocations();
+        this.bloom = new BloomFilter(bloomCapacity, properties.getFalsePositiveRate());
+    }
+
+    /**
+     * Adds a revoked token. Tokens that have already expired are ignored.
+     *
+     * @param tokenId         the id of the revoked token
+     * @param expiresAtMillis when the token expires, in epoch milliseconds
+     * @param nowMillis       the current time in epoch milliseconds
+     */
+    public void revoke(String tokenId, long expiresAtMillis, long nowMillis) {
+        if (expiresAtMillis <= nowMillis) {
+            return;
+        }
+        // Exact set first: a concurrent rebuild re-adds every key it finds there
+        revoked.merge(tokenId, expiresAtMillis, Math::max);
+        bloom.add(tokenId);
+        if (revoked.size() > bloomCapacity) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Checks whether a token has been revoked.
+     *
+     * @param tokenId   the id of the token
+     * @param nowMillis the current time in epoch milliseconds
+     * @return true if the token was revoked and has not expired yet
+     */
+    public boolean isRevoked(String tokenId, long nowMillis) {
+        if (!bloom.mightContain(tokenId)) {
+            clear.increment();
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        if (expiresAt == null) {
+            falsePositives.increment();
+            return false;
+        }
+        hits.increment();
+        return nowMillis < expiresAt;
+    }
+
+    /**
+     * Drops revocations of tokens that have expired and rebuilds the Bloom filter.
+     */
+    @Scheduled(fixedDelayString = "${gateway.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        purgeExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * Drops revocations of tokens that have expired at the given time and rebuilds the Bloom filter.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     */
+    void purgeExpired(long nowMillis) {
+        if (revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Gets the number of revoked tokens that have not been purged yet.
+     *
+     * @return the denylist size
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Registers denylist metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.revocation.size", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(registry);
+        FunctionCounter.builder("gateway.revocation.checks", clear, LongAdder::sum)
+                .description("Denylist lookups by outcome")
+                .tag("result", "clear")
+                .register(registry);
+        FunctionCounter.builder("gateway.revocation.checks", hits, LongAdder::sum)
+                .description("Denylist lookups by outcome")
+                .tag("result", "listed")
+                .register(registry);
+        FunctionCounter.builder("gateway.revocation.checks", falsePositives, LongAdder::sum)
+                .description("Denylist lookups by outcome")
+                .tag("result", "false_positive")
+                .register(registry);
+    }
+
+    /**
+     * Replaces the Bloom filter with one built from the exact set, sized for twice its
+     * current size so it does not need rebuilding on the next few revocations.
+     */
+    private synchronized void rebuild() {
+        int capacity = Math.max(properties.getExpectedRevocations(), revoked.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, properties.getFalsePositiveRate());
+        revoked.keySet().forEach(rebuilt::add);
+        bloom = rebuilt;
+        bloomCapacity = capacity;
+        // Ids revoked while the new filter was filled may have gone to the old one
+        revoked.keySet().forEach(rebuilt::add);
+    }
+}
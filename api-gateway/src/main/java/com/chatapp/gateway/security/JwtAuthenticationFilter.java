@@ -1,5 +1,6 @@
 package com.chatapp.gateway.security;
 
+import com.chatapp.gateway.revocation.TokenDenylist;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
@@ -13,17 +14,46 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Global filter for JWT authentication in the API Gateway.
  * This filter intercepts all incoming requests and validates JWT tokens
- * before forwarding requests to downstream services.
+ * before forwarding requests to downstream services. Only access tokens are accepted;
+ * refresh tokens are rejected. Tokens revoked on logout are rejected through an
+ * in-memory {@link TokenDenylist} lookup.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    private final JwtUtil jwtUtil;
+    private final TokenVerifier tokenVerifier;
+    private final TokenDenylist tokenDenylist;
+
+    /**
+     * Filter order. Authentication runs before every filter that depends on the caller,
+     * and before {@code NettyWriteResponseFilter} (-1) so those filters can still
+     * decorate the response.
+     */
+    public static final int ORDER = -300;
+
+    /**
+     * Exchange attribute holding the {@link VerifiedToken} of an authenticated request.
+     * Later filters read the caller from here instead of trusting request headers.
+     */
+    public static final String VERIFIED_TOKEN_ATTR = JwtAuthenticationFilter.class.getName() + ".verifiedToken";
+
+    /** Header carrying the username of the authenticated caller to downstream services. */
+    public static final String USER_ID_HEADER = "X-User-Id";
+
+    /** Header carrying the numeric id ({@code users.id}) of the authenticated caller. */
+    public static final String USER_NUMERIC_ID_HEADER = "X-User-Numeric-Id";
+
+    /** Header carrying the profile version of the authenticated caller when the token was issued. */
+    public static final String USER_PROFILE_VERSION_HEADER = "X-User-Profile-Version";
+
+    private static final List<String> TRUSTED_HEADERS = List.of(
+            USER_ID_HEADER, USER_NUMERIC_ID_HEADER, USER_PROFILE_VERSION_HEADER);
 
     private static final String BEARER_PREFIX = "Bearer ";
     private static final List<String> PUBLIC_PATHS = List.of(
@@ -36,7 +66,8 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     );
 
     /**
-     * Filters incoming requests to validate JWT tokens.
+     * Filters incoming requests to validate JWT tokens. Identity headers sent by the
+     * client are removed from every request, so downstream services can trust them.
      *
      * @param exchange the current server exchange
      * @param chain    provides a way to delegate to the next filter
@@ -47,6 +78,13 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
 
+        if (hasTrustedHeaders(request)) {
+            request = request.mutate()
+                    .headers(headers -> TRUSTED_HEADERS.forEach(headers::remove))
+                    .build();
+            exchange = exchange.mutate().request(request).build();
+        }
+
         // Skip authentication for public paths
         if (isPublicPath(path)) {
             return chain.filter(exchange);
@@ -60,22 +98,47 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
         String token = authHeader.substring(BEARER_PREFIX.length());
 
-        if (!jwtUtil.validateToken(token)) {
+        Optional<VerifiedToken> verified = tokenVerifier.verify(token);
+        if (verified.isEmpty() || verified.get().getSubject() == null || !verified.get().isAccessToken()) {
             return handleUnauthorized(exchange);
         }
 
-        try {
-            String username = jwtUtil.getUsernameFromToken(token);
-
-            // Add username to headers for downstream services
-            ServerHttpRequest mutatedRequest = request.mutate()
-                    .header("X-User-Id", username)
-                    .build();
-
-            return chain.filter(exchange.mutate().request(mutatedRequest).build());
-        } catch (Exception e) {
+        VerifiedToken caller = verified.get();
+        if (caller.getTokenId() != null && tokenDenylist.isRevoked(caller.getTokenId(), System.currentTimeMillis())) {
             return handleUnauthorized(exchange);
         }
+        exchange.getAttributes().put(VERIFIED_TOKEN_ATTR, caller);
+
+        // Add the caller's identity to headers for downstream services
+        ServerHttpRequest mutatedRequest = request.mutate()
+                .headers(headers -> {
+                    headers.set(USER_ID_HEADER, caller.getSubject());
+                    if (caller.getUserId() != null) {
+                        headers.set(USER_NUMERIC_ID_HEADER, caller.getUserId().toString());
+                    }
+                    if (caller.getProfileVersion() != null) {
+                        headers.set(USER_PROFILE_VERSION_HEADER, caller.getProfileVersion().toString());
+                    }
+                })
+                .build();
+
+        return chain.filter(exchange.mutate().request(mutatedRequest).build());
+    }
+
+    /**
+     * Checks whether the client sent any of the headers the gateway sets itself.
+     *
+     * @param request the incoming request
+     * @return true if at least one trusted header is present
+     */
+    private static boolean hasTrustedHeaders(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        for (String name : TRUSTED_HEADERS) {
+            if (headers.containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -110,6 +173,6 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
      */
     @Override
     public int getOrder() {
-        return -1; // High priority to run before other filters
+        return ORDER; // High priority to run before other filters
     }
 }
\ No newline at end of file
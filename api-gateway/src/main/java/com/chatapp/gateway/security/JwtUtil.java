@@ -18,6 +18,8 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    private volatile JwtParser jwtParser;
+
     /**
      * Gets the signing key for JWT operations.
      *
@@ -27,6 +29,38 @@ public class JwtUtil {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
 
+    /**
+     * Gets the JWT parser, building it on first use.
+     * The parser is immutable and thread-safe, so a single instance is shared
+     * instead of deriving the key and building a new parser for every call.
+     *
+     * @return JwtParser configured with the signing key
+     */
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
+    }
+
+    /**
+     * Verifies the token signature and expiration in a single parse.
+     *
+     * @param token the JWT token to verify
+     * @return the claims contained in the token
+     * @throws JwtException if token is invalid, expired or malformed
+     * @throws IllegalArgumentException if token is null or empty
+     */
+    public Claims parseClaims(String token) {
+        return getParser()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
     /**
      * Extracts the username from a JWT token.
      *
@@ -35,12 +69,7 @@ public class JwtUtil {
      * @throws JwtException if token is invalid or malformed
      */
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     /**
@@ -51,10 +80,7 @@ public class JwtUtil {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -69,12 +95,7 @@ public class JwtUtil {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Date expiration = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getExpiration();
+            Date expiration = parseClaims(token).getExpiration();
             return expiration.before(new Date());
         } catch (JwtException | IllegalArgumentException e) {
             return true;
@@ -89,10 +110,6 @@ public class JwtUtil {
      * @throws JwtException if token is invalid or malformed
      */
     public Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parseClaims(token);
     }
 }
\ No newline at end of file
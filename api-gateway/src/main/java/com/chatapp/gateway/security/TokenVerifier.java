@@ -0,0 +1,248 @@
+package com.chatapp.gateway.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-pass JWT verification engine for the API Gateway.
+ * Verifies each token once and keeps a bounded cache of already-verified tokens,
+ * keyed by a SHA-256 digest of the token, so repeat requests skip signature work.
+ * Cache entries expire together with the token they belong to.
+ */
+@Component
+public class TokenVerifier implements MeterBinder {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final int maxEntries;
+    private final Map<String, VerifiedToken> cache = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile Timer cachedTimer;
+    private volatile Timer verifiedTimer;
+    private volatile Timer rejectedTimer;
+
+    /**
+     * Creates a TokenVerifier.
+     *
+     * @param jwtUtil    the JWT utility used to verify tokens on a cache miss
+     * @param maxEntries the maximum number of verified tokens kept in the cache
+     */
+    public TokenVerifier(JwtUtil jwtUtil, @Value("${jwt.cache.max-entries:10000}") int maxEntries) {
+        this.jwtUtil = jwtUtil;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Verifies a JWT token, answering from the cache when the token was verified before.
+     *
+     * @param token the JWT token to verify
+     * @return Optional containing the verified token, empty if the token is invalid or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        String key = digest(token);
+
+        VerifiedToken cached = cache.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                hits.increment();
+                record(cachedTimer, start);
+                return Optional.of(cached);
+            }
+            if (cache.remove(key, cached)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        VerifiedToken verified;
+        try {
+            verified = VerifiedToken.fromClaims(jwtUtil.parseClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            record(rejectedTimer, start);
+            return Optional.empty();
+        }
+        record(verifiedTimer, start);
+
+        if (maxEntries > 0) {
+            if (cache.size() >= maxEntries) {
+                evict(now);
+            }
+            cache.put(key, verified);
+        }
+        return Optional.of(verified);
+    }
+
+    /**
+     * Records the time spent verifying a token, once the timers have been registered.
+     *
+     * @param timer      the timer for the verification outcome, or null before {@link #bindTo}
+     * @param startNanos when verification started, from {@link System#nanoTime()}
+     */
+    private static void record(Timer timer, long startNanos) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Removes expired entries and, if the cache is still full, trims it to 90% of its
+     * capacity so that the cost of a sweep is amortized over many inserts.
+     * Only one thread sweeps at a time; others insert without waiting.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     */
+    private void evict(long nowMillis) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<VerifiedToken> expired = cache.values().iterator();
+            while (expired.hasNext()) {
+                if (expired.next().isExpired(nowMillis)) {
+                    expired.remove();
+                    evictions.increment();
+                }
+            }
+
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<String> keys = cache.keySet().iterator();
+            while (cache.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.increment();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Computes the cache key for a token.
+     *
+     * @param token the JWT token
+     * @return Base64 encoded SHA-256 digest of the token
+     */
+    private static String digest(String token) {
+        MessageDigest digest = SHA_256.get();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Clears all cached tokens.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the number of verifications answered from the cache.
+     *
+     * @return the cache hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of verifications that required a full signature check.
+     *
+     * @return the cache miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries removed because they expired or the cache was full.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the current number of cached tokens.
+     *
+     * @return the cache size
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Registers the cache counters and verification timers with the meter registry.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cachedTimer = verifyTimer(registry, "cached");
+        verifiedTimer = verifyTimer(registry, "verified");
+        rejectedTimer = verifyTimer(registry, "rejected");
+        FunctionCounter.builder("gateway.jwt.cache.hits", this, TokenVerifier::getHitCount)
+                .description("JWT verifications answered from the verified-token cache")
+                .register(registry);
+        FunctionCounter.builder("gateway.jwt.cache.misses", this, TokenVerifier::getMissCount)
+                .description("JWT verifications that required a signature check")
+                .register(registry);
+        FunctionCounter.builder("gateway.jwt.cache.evictions", this, TokenVerifier::getEvictionCount)
+                .description("Verified tokens removed from the cache")
+                .register(registry);
+        Gauge.builder("gateway.jwt.cache.size", this, TokenVerifier::getCacheSize)
+                .description("Verified tokens currently cached")
+                .register(registry);
+    }
+
+    /**
+     * Builds the timer of one verification outcome.
+     *
+     * @param registry the meter registry to register with
+     * @param result   "cached", "verified" or "rejected"
+     * @return the registered timer
+     */
+    private static Timer verifyTimer(MeterRegistry registry, String result) {
+        return Timer.builder("gateway.jwt.verify")
+                .description("Time spent verifying the JWT of a request")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(registry);
+    }
+}
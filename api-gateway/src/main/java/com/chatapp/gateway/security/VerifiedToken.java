@@ -0,0 +1,81 @@
+package com.chatapp.gateway.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Result of a successful JWT verification.
+ * Holds the claims that were extracted during the single signature check so callers
+ * do not need to parse the token again.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+
+    /** Claim holding the numeric user id, set by user-service. */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /** Claim holding the user's profile version, set by user-service. */
+    public static final String PROFILE_VERSION_CLAIM = "pver";
+
+    /** Claim holding the token type, {@value #ACCESS_TOKEN_TYPE} or "refresh", set by user-service. */
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+
+    /** Token type of the tokens accepted as API credentials. */
+    public static final String ACCESS_TOKEN_TYPE = "access";
+
+    /** Claim holding the token generation, carried only by refresh tokens. */
+    public static final String TOKEN_GENERATION_CLAIM = "tgen";
+
+    private final String subject;
+    private final Claims claims;
+    private final long expiresAtMillis;
+    private final Long userId;
+    private final Long profileVersion;
+    private final String tokenId;
+
+    /**
+     * Creates a VerifiedToken from the claims of a verified JWT.
+     * Tokens without an expiration are treated as never expiring; tokens issued before
+     * user-service added the id claims have a null user id, profile version and token id.
+     *
+     * @param claims the claims of the verified token
+     * @return VerifiedToken wrapping the claims
+     */
+    public static VerifiedToken fromClaims(Claims claims) {
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        return new VerifiedToken(claims.getSubject(), claims, expiresAt,
+                claims.get(USER_ID_CLAIM, Long.class), claims.get(PROFILE_VERSION_CLAIM, Long.class),
+                claims.getId());
+    }
+
+    /**
+     * Checks whether this is an access token. Refresh tokens are signed with the same key,
+     * but must only be exchanged at user-service, never used as API credentials. Tokens
+     * issued before the type claim was added are told apart by the generation claim,
+     * which only refresh tokens carry.
+     *
+     * @return true if the token is an access token
+     */
+    public boolean isAccessToken() {
+        if (claims == null) {
+            return true;
+        }
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        return type != null ? ACCESS_TOKEN_TYPE.equals(type) : !claims.containsKey(TOKEN_GENERATION_CLAIM);
+    }
+
+    /**
+     * Checks whether the token has expired at the given time.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return true if the token is expired, false otherwise
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -1,8 +1,18 @@
 package com.chatapp.gateway;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.core.env.Environment;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Integration tests for ApiGatewayApplication.
@@ -12,6 +22,15 @@ import org.springframework.test.context.ActiveProfiles;
 @ActiveProfiles("test")
 class ApiGatewayApplicationTest {
 
+    @Autowired
+    private GlobalCorsProperties globalCorsProperties;
+
+    @Autowired
+    private GatewayProperties gatewayProperties;
+
+    @Autowired
+    private Environment environment;
+
     /**
      * Test that the application context loads successfully.
      * Verifies that all beans are properly configured and the application starts.
@@ -22,6 +41,48 @@ class ApiGatewayApplicationTest {
         // due to configuration errors or missing dependencies
     }
 
+    /**
+     * Test that the global CORS configuration is bound to the gateway.
+     * Verifies that it is not shadowed by a neighbouring block of application.yml.
+     */
+    @Test
+    void shouldBindGlobalCorsConfiguration() {
+        // When
+        CorsConfiguration cors = globalCorsProperties.getCorsConfigurations().get("/**");
+
+        // Then
+        assertNotNull(cors);
+        assertEquals(List.of("*"), cors.getAllowedOrigins());
+        assertEquals(List.of("*"), cors.getAllowedMethods());
+        assertEquals(List.of("*"), cors.getAllowedHeaders());
+    }
+
+    /**
+     * Test that the default filters are bound to the gateway.
+     * Verifies that duplicate CORS response headers are removed on every route.
+     */
+    @Test
+    void shouldBindDefaultFilters() {
+        // When
+        List<FilterDefinition> defaultFilters = gatewayProperties.getDefaultFilters();
+
+        // Then
+        assertEquals(1, defaultFilters.size());
+        assertEquals("DedupeResponseHeader", defaultFilters.get(0).getName());
+        assertTrue(defaultFilters.get(0).getArgs().containsValue(
+                "Access-Control-Allow-Credentials Access-Control-Allow-Origin"));
+    }
+
+    /**
+     * Test that the load balancer settings stay under spring.cloud.loadbalancer.
+     */
+    @Test
+    void shouldBindLoadBalancerSettings() {
+        // Then
+        assertEquals(Boolean.FALSE, environment.getProperty("spring.cloud.loadbalancer.cache.enabled", Boolean.class));
+        assertNull(environment.getProperty("spring.cloud.gateway.cache.enabled"));
+    }
+
     /**
      * Test that the main method runs without throwing exceptions.
      * Verifies that the application can be started programmatically.
@@ -0,0 +1,225 @@
+package com.chatapp.gateway.accesslog;
+
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import com.chatapp.gateway.security.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AccessLogFilter and AccessLogWriter classes.
+ * Tests record contents, byte counting, sampling, dropping when full and file rolling.
+ */
+class AccessLogFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccessLogProperties properties;
+    private AccessLogWriter writer;
+    private AccessLogFilter filter;
+    private Path logFile;
+
+    /**
+     * Set up test environment before each test. The writer thread is not started;
+     * tests write batches explicitly.
+     */
+    @BeforeEach
+    void setUp() {
+        logFile = tempDir.resolve("logs/access.log");
+        properties = new AccessLogProperties();
+        properties.setFile(logFile.toString());
+        properties.setBufferSize(8);
+        writer = new AccessLogWriter(properties);
+        filter = new AccessLogFilter(properties, writer);
+    }
+
+    /**
+     * Test that a request is written as a JSON line with all fields.
+     */
+    @Test
+    void shouldWriteRecordWithAllFields() throws IOException {
+        // Given
+        MockServerWebExchange exchange = exchange("user-profile", "/api/users/7");
+        exchange.getAttributes().put(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR,
+                new VerifiedToken("alice", null, Long.MAX_VALUE, null, null, null));
+        GatewayFilterChain chain = ex -> {
+            ex.getAttributes().put(UpstreamTimingFilter.UPSTREAM_NANOS_ATTR, 2_000_000L);
+            ex.getResponse().setStatusCode(HttpStatus.OK);
+            return ex.getResponse().writeWith(Mono.just(buffer("x".repeat(321))));
+        };
+
+        // When
+        filter.filter(exchange, chain).block();
+        writer.writeBatch();
+
+        // Then
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(1, lines.size());
+        String line = lines.get(0);
+        assertTrue(line.startsWith("{\"ts\":\""), line);
+        assertTrue(line.contains("\"route\":\"user-profile\""), line);
+        assertTrue(line.contains("\"user\":\"alice\""), line);
+        assertTrue(line.contains("\"method\":\"GET\""), line);
+        assertTrue(line.contains("\"path\":\"/api/users/7\""), line);
+        assertTrue(line.contains("\"status\":200"), line);
+        assertTrue(line.contains("\"upstream_us\":2000"), line);
+        assertTrue(line.contains("\"bytes_in\":0"), line);
+        assertTrue(line.contains("\"bytes_out\":321"), line);
+        assertEquals(1, writer.getWrittenCount());
+    }
+
+    /**
+     * Test that chunked bodies without Content-Length are counted.
+     */
+    @Test
+    void shouldCountChunkedBodiesWithoutContentLength() throws IOException {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/api/users/batch").body(Flux.just(buffer("{\"ids\":"), buffer("[1,2]}"))));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route("user-batch"));
+
+        // When
+        filter.filter(exchange, forwarded -> forwarded.getRequest().getBody()
+                .then(forwarded.getResponse().writeAndFlushWith(Flux.just(
+                        Flux.just(buffer("{\"users\":[")), Flux.just(buffer("]}")))))).block();
+        writer.writeBatch();
+
+        // Then
+        assertEquals(-1, exchange.getResponse().getHeaders().getContentLength());
+        String line = Files.readString(logFile);
+        assertTrue(line.contains("\"bytes_in\":13"), line);
+        assertTrue(line.contains("\"bytes_out\":12"), line);
+    }
+
+    /**
+     * Test that unsampled requests are skipped but errors are always logged.
+     */
+    @Test
+    void shouldSampleButKeepErrors() throws IOException {
+        // Given
+        properties.setSampleRate(0.0);
+
+        // When
+        filter.filter(exchange("user-search", "/api/users/search"), respond(HttpStatus.OK)).block();
+        filter.filter(exchange("user-search", "/api/users/search"), respond(HttpStatus.BAD_GATEWAY)).block();
+        writer.writeBatch();
+
+        // Then
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"status\":502"));
+    }
+
+    /**
+     * Test that records are dropped rather than blocking when the buffer is full.
+     */
+    @Test
+    void shouldDropRecordsWhenBufferIsFull() throws IOException {
+        // When
+        for (int i = 0; i < 20; i++) {
+            filter.filter(exchange("user-profile", "/api/users/" + i), respond(HttpStatus.OK)).block();
+        }
+        writer.writeBatch();
+
+        // Then
+        assertEquals(8, Files.readAllLines(logFile).size());
+        assertEquals(12, writer.getDroppedCount());
+    }
+
+    /**
+     * Test that special characters in the path are escaped.
+     */
+    @Test
+    void shouldEscapeStrings() throws IOException {
+        // Given
+        MockServerWebExchange exchange = exchange("user-service", "/api/users/1");
+        exchange.getAttributes().put(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR,
+                new VerifiedToken("ev\"il\\\n", null, Long.MAX_VALUE, null, null, null));
+
+        // When
+        filter.filter(exchange, respond(HttpStatus.OK)).block();
+        writer.writeBatch();
+
+        // Then
+        assertTrue(Files.readString(logFile).contains("\"user\":\"ev\\\"il\\\\\\u000a\""));
+    }
+
+    /**
+     * Test that the file is rolled once it reaches its maximum size.
+     */
+    @Test
+    void shouldRollFile() throws IOException {
+        // Given
+        properties.setMaxFileSize(DataSize.ofBytes(1));
+        properties.setMaxHistory(2);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            filter.filter(exchange("user-profile", "/api/users/" + i), respond(HttpStatus.OK)).block();
+            writer.writeBatch();
+        }
+
+        // Then
+        assertFalse(Files.exists(logFile));
+        assertTrue(Files.readString(Path.of(logFile + ".1")).contains("/api/users/3"));
+        assertTrue(Files.readString(Path.of(logFile + ".2")).contains("/api/users/2"));
+        assertFalse(Files.exists(Path.of(logFile + ".3")));
+    }
+
+    /**
+     * Test that the background writer flushes records and drains the buffer on stop.
+     */
+    @Test
+    void shouldFlushFromBackgroundThread() throws IOException {
+        // Given
+        writer.start();
+
+        // When
+        filter.filter(exchange("user-profile", "/api/users/1"), respond(HttpStatus.OK)).block();
+        writer.stop();
+
+        // Then
+        assertEquals(1, Files.readAllLines(logFile).size());
+    }
+
+    private static MockServerWebExchange exchange(String routeId, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route(routeId));
+        return exchange;
+    }
+
+    private static Route route(String routeId) {
+        return Route.async().id(routeId).uri("http://localhost:8081").predicate(e -> true).build();
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static GatewayFilterChain respond(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.chatapp.gateway.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AccessLogRingBuffer class.
+ * Tests ordering, dropping when full and concurrent producers.
+ */
+class AccessLogRingBufferTest {
+
+    /**
+     * Test that the capacity is rounded up to a power of two.
+     */
+    @Test
+    void shouldRoundCapacityToPowerOfTwo() {
+        assertEquals(2, new AccessLogRingBuffer(1).capacity());
+        assertEquals(8, new AccessLogRingBuffer(5).capacity());
+        assertEquals(16, new AccessLogRingBuffer(16).capacity());
+    }
+
+    /**
+     * Test that records are drained in the order they were published.
+     */
+    @Test
+    void shouldDrainInOrder() {
+        // Given
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            offer(buffer, 200 + i);
+        }
+
+        // When
+        List<Integer> statuses = new ArrayList<>();
+        int drained = buffer.drain(slot -> statuses.add(slot.status), 10);
+
+        // Then
+        assertEquals(5, drained);
+        assertEquals(List.of(200, 201, 202, 203, 204), statuses);
+        assertEquals(0, buffer.drain(slot -> fail("buffer should be empty"), 10));
+    }
+
+    /**
+     * Test that claims fail instead of blocking when the buffer is full, and succeed again once drained.
+     */
+    @Test
+    void shouldRefuseClaimsWhenFull() {
+        // Given
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(offer(buffer, 200));
+        }
+
+        // When & Then
+        assertNull(buffer.claim());
+        assertEquals(2, buffer.drain(slot -> { }, 2));
+        assertTrue(offer(buffer, 201));
+        assertTrue(offer(buffer, 202));
+        assertNull(buffer.claim());
+    }
+
+    /**
+     * Test that a claimed but unpublished slot holds back later records.
+     */
+    @Test
+    void shouldNotDrainPastUnpublishedSlot() {
+        // Given
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(4);
+        AccessLogRingBuffer.Slot pending = buffer.claim();
+        offer(buffer, 201);
+
+        // When
+        int before = buffer.drain(slot -> { }, 10);
+        pending.status = 200;
+        buffer.publish(pending);
+        int after = buffer.drain(slot -> { }, 10);
+
+        // Then
+        assertEquals(0, before);
+        assertEquals(2, after);
+    }
+
+    /**
+     * Test that every record offered by concurrent producers is either drained once or dropped.
+     */
+    @Test
+    void shouldHandleConcurrentProducers() throws InterruptedException {
+        // Given
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 20_000;
+        AtomicInteger dropped = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (!offer(buffer, base + i)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+
+        // When
+        Set<Integer> seen = new HashSet<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        while (done.getCount() > 0) {
+            buffer.drain(slot -> {
+                if (!seen.add(slot.status)) {
+                    duplicates.incrementAndGet();
+                }
+            }, 256);
+        }
+        buffer.drain(slot -> seen.add(slot.status), Integer.MAX_VALUE);
+
+        // Then
+        assertEquals(0, duplicates.get());
+        assertEquals(producers * perProducer, seen.size() + dropped.get());
+    }
+
+    private static boolean offer(AccessLogRingBuffer buffer, int status) {
+        AccessLogRingBuffer.Slot slot = buffer.claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.status = status;
+        buffer.publish(slot);
+        return true;
+    }
+}
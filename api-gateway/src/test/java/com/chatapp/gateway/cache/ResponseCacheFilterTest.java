@@ -0,0 +1,263 @@
+package com.chatapp.gateway.cache;
+
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import com.chatapp.gateway.security.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResponseCacheFilter class.
+ * Tests cache hits, conditional requests, per-caller keys and invalidation on writes.
+ */
+class ResponseCacheFilterTest {
+
+    private ResponseCacheProperties properties;
+    private ResponseCache cache;
+    private ResponseCacheFilter filter;
+    private AtomicInteger downstreamCalls;
+    private HttpStatus downstreamStatus;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        cache = new ResponseCache(properties);
+        filter = new ResponseCacheFilter(cache, properties);
+        downstreamCalls = new AtomicInteger();
+        downstreamStatus = HttpStatus.OK;
+    }
+
+    /**
+     * Test that a repeated GET is served from the cache without calling downstream.
+     */
+    @Test
+    void shouldServeRepeatedRequestFromCache() {
+        // When
+        MockServerWebExchange first = get("user-profile", "/api/users/1", "alice", null);
+        MockServerWebExchange second = get("user-profile", "/api/users/1", "alice", null);
+
+        // Then
+        assertEquals(1, downstreamCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(first.getResponse().getBodyAsString().block(), second.getResponse().getBodyAsString().block());
+        assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+    }
+
+    /**
+     * Test that a matching If-None-Match is answered with 304 without calling downstream.
+     */
+    @Test
+    void shouldAnswerConditionalRequestWithNotModified() {
+        // Given
+        String etag = get("user-profile", "/api/users/1", "alice", null).getResponse().getHeaders().getETag();
+
+        // When
+        MockServerWebExchange conditional = get("user-profile", "/api/users/1", "alice", etag);
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals(etag, conditional.getResponse().getHeaders().getETag());
+        assertEquals("", conditional.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(1, downstreamCalls.get());
+    }
+
+    /**
+     * Test that a stale If-None-Match still receives the full response.
+     */
+    @Test
+    void shouldReturnBodyWhenEtagDoesNotMatch() {
+        // Given
+        get("user-profile", "/api/users/1", "alice", null);
+
+        // When
+        MockServerWebExchange conditional = get("user-profile", "/api/users/1", "alice", "\"outdated\"");
+
+        // Then
+        assertEquals(HttpStatus.OK, conditional.getResponse().getStatusCode());
+        assertFalse(conditional.getResponse().getBodyAsString().block().isEmpty());
+    }
+
+    /**
+     * Test that responses are cached separately per caller and per query.
+     */
+    @Test
+    void shouldKeyCacheByCallerAndQuery() {
+        // When
+        get("user-search", "/api/users/search?keyword=a", "alice", null);
+        get("user-search", "/api/users/search?keyword=a", "bob", null);
+        get("user-search", "/api/users/search?keyword=b", "alice", null);
+        get("user-search", "/api/users/search?keyword=a", "alice", null);
+
+        // Then
+        assertEquals(3, downstreamCalls.get());
+    }
+
+    /**
+     * Test that a successful user update invalidates the profile and search entries.
+     */
+    @Test
+    void shouldInvalidateOnUserUpdate() {
+        // Given
+        get("user-profile", "/api/users/1", "alice", null);
+        get("user-profile", "/api/users/1", "bob", null);
+        get("user-profile", "/api/users/2", "alice", null);
+        get("user-search", "/api/users/search?keyword=a", "alice", null);
+        assertEquals(4, cache.size());
+
+        // When
+        send(MockServerHttpRequest.put("/api/users/1").build(), "user-service", "alice");
+
+        // Then
+        assertEquals(1, cache.size());
+        get("user-profile", "/api/users/1", "alice", null);
+        assertEquals(6, downstreamCalls.get());
+    }
+
+    /**
+     * Test that a failed update leaves the cache untouched.
+     */
+    @Test
+    void shouldNotInvalidateOnFailedUpdate() {
+        // Given
+        get("user-profile", "/api/users/1", "alice", null);
+        downstreamStatus = HttpStatus.BAD_REQUEST;
+
+        // When
+        send(MockServerHttpRequest.put("/api/users/1").build(), "user-service", "alice");
+
+        // Then
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Test that non-200 responses are not cached.
+     */
+    @Test
+    void shouldNotCacheErrorResponses() {
+        // Given
+        downstreamStatus = HttpStatus.NOT_FOUND;
+
+        // When
+        get("user-profile", "/api/users/99", "alice", null);
+        get("user-profile", "/api/users/99", "alice", null);
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test that routes outside the allowlist are not cached.
+     */
+    @Test
+    void shouldIgnoreRoutesOutsideAllowlist() {
+        // When
+        get("user-service", "/api/users/1", "alice", null);
+        get("user-service", "/api/users/1", "alice", null);
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    /**
+     * Test that entries are refetched after the TTL.
+     */
+    @Test
+    void shouldRefetchAfterTtl() throws InterruptedException {
+        // Given
+        properties.setTtl(Duration.ofMillis(1));
+        get("user-profile", "/api/users/1", "alice", null);
+
+        // When
+        Thread.sleep(5);
+        get("user-profile", "/api/users/1", "alice", null);
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    /**
+     * Test that the cache never grows beyond its configured size.
+     */
+    @Test
+    void shouldBoundCacheSize() {
+        // Given
+        properties.setMaxEntries(10);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            get("user-profile", "/api/users/" + i, "alice", null);
+        }
+
+        // Then
+        assertTrue(cache.size() <= 10);
+    }
+
+    /**
+     * Test If-None-Match comparison rules.
+     */
+    @Test
+    void shouldCompareEtagsWeakly() {
+        assertTrue(ResponseCacheFilter.etagMatches(List.of("\"abc\""), "\"abc\""));
+        assertTrue(ResponseCacheFilter.etagMatches(List.of("W/\"abc\""), "\"abc\""));
+        assertTrue(ResponseCacheFilter.etagMatches(List.of("\"x\"", "\"abc\""), "\"abc\""));
+        assertTrue(ResponseCacheFilter.etagMatches(List.of("*"), "\"abc\""));
+        assertFalse(ResponseCacheFilter.etagMatches(List.of("\"abd\""), "\"abc\""));
+        assertFalse(ResponseCacheFilter.etagMatches(List.of(), "\"abc\""));
+    }
+
+    private MockServerWebExchange get(String routeId, String uri, String username, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(uri);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return send(request.build(), routeId, username);
+    }
+
+    private MockServerWebExchange send(MockServerHttpRequest request, String routeId, String username) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route route = Route.async().id(routeId).uri("http://localhost:8081").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR,
+                new VerifiedToken(username, null, Long.MAX_VALUE, null, null, null));
+        filter.filter(exchange, downstream()).block();
+        return exchange;
+    }
+
+    /**
+     * Chain standing in for the proxied call: writes a JSON body like NettyWriteResponseFilter.
+     */
+    private GatewayFilterChain downstream() {
+        return exchange -> {
+            int call = downstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(downstreamStatus);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] body = ("{\"success\":true,\"path\":\"" + exchange.getRequest().getURI()
+                    + "\",\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+}
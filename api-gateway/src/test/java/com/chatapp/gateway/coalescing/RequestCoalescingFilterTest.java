@@ -0,0 +1,202 @@
+package com.chatapp.gateway.coalescing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestCoalescingFilter class.
+ * Tests sharing of in-flight responses, key separation and fallback when the leader fails.
+ */
+class RequestCoalescingFilterTest {
+
+    private CoalescingProperties properties;
+    private RequestCoalescingFilter filter;
+    private AtomicInteger downstreamCalls;
+    private Sinks.Empty<Void> release;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new CoalescingProperties();
+        filter = new RequestCoalescingFilter(properties);
+        downstreamCalls = new AtomicInteger();
+        release = Sinks.empty();
+    }
+
+    /**
+     * Test that concurrent identical requests share one downstream call.
+     */
+    @Test
+    void shouldShareResponseOfInFlightRequest() {
+        // Given
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<Mono<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = exchange("user-profile", "/api/users/1");
+            exchanges.add(exchange);
+            results.add(filter.filter(exchange, slowDownstream()).cache());
+        }
+
+        // When
+        results.forEach(Mono::subscribe);
+        assertEquals(1, filter.getInFlightCount());
+        release.tryEmitEmpty();
+        results.forEach(result -> result.block(Duration.ofSeconds(5)));
+
+        // Then
+        assertEquals(1, downstreamCalls.get());
+        assertEquals(4, filter.getCoalescedCount());
+        assertEquals(0, filter.getInFlightCount());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals(MediaType.APPLICATION_JSON, exchange.getResponse().getHeaders().getContentType());
+            assertEquals("{\"path\":\"/api/users/1\",\"call\":1}", exchange.getResponse().getBodyAsString().block());
+        }
+    }
+
+    /**
+     * Test that requests for different paths or queries are not coalesced.
+     */
+    @Test
+    void shouldNotCoalesceDifferentRequests() {
+        // Given
+        List<Mono<Void>> results = List.of(
+                filter.filter(exchange("user-profile", "/api/users/1"), slowDownstream()).cache(),
+                filter.filter(exchange("user-profile", "/api/users/2"), slowDownstream()).cache(),
+                filter.filter(exchange("user-search", "/api/users/search?keyword=a"), slowDownstream()).cache(),
+                filter.filter(exchange("user-search", "/api/users/search?keyword=b"), slowDownstream()).cache());
+
+        // When
+        results.forEach(Mono::subscribe);
+        release.tryEmitEmpty();
+        results.forEach(result -> result.block(Duration.ofSeconds(5)));
+
+        // Then
+        assertEquals(4, downstreamCalls.get());
+        assertEquals(0, filter.getCoalescedCount());
+    }
+
+    /**
+     * Test that sequential requests each reach downstream since nothing is kept after a response.
+     */
+    @Test
+    void shouldNotReuseCompletedResponses() {
+        // Given
+        release.tryEmitEmpty();
+
+        // When
+        filter.filter(exchange("user-profile", "/api/users/1"), slowDownstream()).block();
+        filter.filter(exchange("user-profile", "/api/users/1"), slowDownstream()).block();
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(0, filter.getInFlightCount());
+    }
+
+    /**
+     * Test that routes outside the allowlist are forwarded individually.
+     */
+    @Test
+    void shouldIgnoreRoutesOutsideAllowlist() {
+        // Given
+        List<Mono<Void>> results = List.of(
+                filter.filter(exchange("user-service", "/api/users/1"), slowDownstream()).cache(),
+                filter.filter(exchange("user-service", "/api/users/1"), slowDownstream()).cache());
+
+        // When
+        results.forEach(Mono::subscribe);
+        release.tryEmitEmpty();
+        results.forEach(result -> result.block(Duration.ofSeconds(5)));
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    /**
+     * Test that waiters forward their own request when the leader is cancelled.
+     */
+    @Test
+    void shouldFallBackWhenLeaderIsCancelled() {
+        // Given
+        MockServerWebExchange followerExchange = exchange("user-profile", "/api/users/1");
+        var leader = filter.filter(exchange("user-profile", "/api/users/1"), slowDownstream()).subscribe();
+        Mono<Void> follower = filter.filter(followerExchange, slowDownstream()).cache();
+        follower.subscribe();
+
+        // When
+        leader.dispose();
+        release.tryEmitEmpty();
+        follower.block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(0, filter.getCoalescedCount());
+        assertEquals("{\"path\":\"/api/users/1\",\"call\":2}", followerExchange.getResponse().getBodyAsString().block());
+    }
+
+    /**
+     * Test that requests are forwarded individually once the in-flight bound is reached.
+     */
+    @Test
+    void shouldBypassWhenTooManyInFlight() {
+        // Given
+        properties.setMaxInFlight(1);
+        List<Mono<Void>> results = List.of(
+                filter.filter(exchange("user-profile", "/api/users/1"), slowDownstream()).cache(),
+                filter.filter(exchange("user-profile", "/api/users/2"), slowDownstream()).cache(),
+                filter.filter(exchange("user-profile", "/api/users/2"), slowDownstream()).cache());
+
+        // When
+        results.forEach(Mono::subscribe);
+        assertEquals(1, filter.getInFlightCount());
+        release.tryEmitEmpty();
+        results.forEach(result -> result.block(Duration.ofSeconds(5)));
+
+        // Then
+        assertEquals(3, downstreamCalls.get());
+    }
+
+    private MockServerWebExchange exchange(String routeId, String uri) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri).build());
+        Route route = Route.async().id(routeId).uri("http://localhost:8081").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    /**
+     * Chain standing in for the proxied call: waits for {@link #release}, then writes a JSON body.
+     */
+    private GatewayFilterChain slowDownstream() {
+        return exchange -> Mono.defer(() -> {
+            int call = downstreamCalls.incrementAndGet();
+            return release.asMono().then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                byte[] body = ("{\"path\":\"" + exchange.getRequest().getURI().getPath()
+                        + "\",\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+            }));
+        });
+    }
+}
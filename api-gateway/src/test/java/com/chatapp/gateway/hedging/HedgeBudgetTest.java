@@ -0,0 +1,54 @@
+package com.chatapp.gateway.hedging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HedgeBudget class.
+ * Tests how the budget limits the extra load from hedging.
+ */
+class HedgeBudgetTest {
+
+    /**
+     * Test that hedges stay within the configured share of requests.
+     */
+    @Test
+    void shouldLimitHedgesToBudgetShare() {
+        // Given
+        HedgeBudget budget = new HedgeBudget(10, 5);
+        int hedges = 0;
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            budget.deposit();
+            if (budget.tryWithdraw()) {
+                hedges++;
+            }
+        }
+
+        // Then
+        assertEquals(100, hedges);
+    }
+
+    /**
+     * Test that unused budget is only saved up to the burst size.
+     */
+    @Test
+    void shouldCapSavedBudgetAtBurst() {
+        // Given
+        HedgeBudget budget = new HedgeBudget(50, 3);
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        // When
+        int hedges = 0;
+        while (budget.tryWithdraw()) {
+            hedges++;
+        }
+
+        // Then
+        assertEquals(3, hedges);
+    }
+}
@@ -0,0 +1,217 @@
+package com.chatapp.gateway.hedging;
+
+import com.chatapp.gateway.loadbalancer.InstanceRegistry;
+import com.chatapp.gateway.loadbalancer.LoadBalancerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HedgingFilter class.
+ * Tests when hedges are sent, which response wins and how the budget limits hedging.
+ */
+class HedgingFilterTest {
+
+    private static final String PRIMARY = "http://localhost:8081";
+    private static final String OTHER = "http://localhost:8083";
+
+    private HedgingProperties properties;
+    private LoadBalancerProperties loadBalancerProperties;
+    private MeterRegistry meterRegistry;
+    private Map<Integer, Duration> delays;
+    private Map<Integer, AtomicInteger> calls;
+    private Map<Integer, AtomicInteger> cancelled;
+    private AtomicInteger routedByChain;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelay(Duration.ofMillis(20));
+        properties.setBudgetPercent(100);
+        loadBalancerProperties = new LoadBalancerProperties();
+        instances(PRIMARY, OTHER);
+        meterRegistry = new SimpleMeterRegistry();
+        delays = new ConcurrentHashMap<>();
+        calls = new ConcurrentHashMap<>();
+        cancelled = new ConcurrentHashMap<>();
+        routedByChain = new AtomicInteger();
+    }
+
+    /**
+     * Test that a slow primary attempt is hedged and the faster hedge answers.
+     */
+    @Test
+    void shouldAnswerFromHedgeWhenPrimaryIsSlow() {
+        // Given
+        delays.put(8081, Duration.ofSeconds(5));
+        MockServerWebExchange exchange = exchange("user-profile");
+
+        // When
+        newFilter().filter(exchange, chain()).block(Duration.ofSeconds(2));
+
+        // Then
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("from 8083", exchange.getResponse().getBodyAsString().block());
+        assertEquals("hedge", exchange.getResponse().getHeaders().getFirst(HedgingFilter.HEDGE_HEADER));
+        assertEquals(1, cancelled.get(8081).get());
+        assertEquals(0, routedByChain.get());
+        assertEquals(1.0, meterRegistry.get("gateway.hedging.hedged").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("gateway.hedging.hedge.wins").functionCounter().count());
+    }
+
+    /**
+     * Test that no hedge is sent when the primary attempt answers in time.
+     */
+    @Test
+    void shouldNotHedgeFastRequests() {
+        // Given
+        MockServerWebExchange exchange = exchange("user-profile");
+
+        // When
+        newFilter().filter(exchange, chain()).block(Duration.ofSeconds(2));
+        sleep(50);
+
+        // Then
+        assertEquals("from 8081", exchange.getResponse().getBodyAsString().block());
+        assertEquals("primary", exchange.getResponse().getHeaders().getFirst(HedgingFilter.HEDGE_HEADER));
+        assertNull(calls.get(8083));
+    }
+
+    /**
+     * Test that no hedge is sent once the budget is used up.
+     */
+    @Test
+    void shouldNotHedgeBeyondBudget() {
+        // Given
+        properties.setBudgetPercent(0);
+        delays.put(8081, Duration.ofMillis(100));
+        MockServerWebExchange exchange = exchange("user-profile");
+
+        // When
+        newFilter().filter(exchange, chain()).block(Duration.ofSeconds(2));
+
+        // Then
+        assertEquals("from 8081", exchange.getResponse().getBodyAsString().block());
+        assertNull(calls.get(8083));
+        assertEquals(1.0, meterRegistry.get("gateway.hedging.budget.exhausted").functionCounter().count());
+    }
+
+    /**
+     * Test that a failing hedge leaves the answer to the primary attempt.
+     */
+    @Test
+    void shouldIgnoreFailedHedge() {
+        // Given
+        delays.put(8081, Duration.ofMillis(100));
+        delays.put(8083, Duration.ZERO);
+        MockServerWebExchange exchange = exchange("user-profile");
+        HedgingFilter filter = newFilter(request -> request.url().getPort() == 8083
+                ? Mono.error(new ConnectException("refused"))
+                : respond(request.url()));
+
+        // When
+        filter.filter(exchange, chain()).block(Duration.ofSeconds(2));
+
+        // Then
+        assertEquals("from 8081", exchange.getResponse().getBodyAsString().block());
+        assertEquals("primary", exchange.getResponse().getHeaders().getFirst(HedgingFilter.HEDGE_HEADER));
+    }
+
+    /**
+     * Test that routes not on the list and services with a single instance are routed as usual.
+     */
+    @Test
+    void shouldRouteAsUsualWhenHedgingDoesNotApply() {
+        // Given
+        HedgingFilter filter = newFilter();
+
+        // When
+        filter.filter(exchange("auth-service"), chain()).block();
+        instances(PRIMARY);
+        newFilter().filter(exchange("user-profile"), chain()).block();
+
+        // Then
+        assertEquals(2, routedByChain.get());
+        assertTrue(calls.isEmpty());
+    }
+
+    private HedgingFilter newFilter() {
+        return newFilter(request -> respond(request.url()));
+    }
+
+    private HedgingFilter newFilter(ExchangeFunction exchangeFunction) {
+        ObjectProvider<List<HttpHeadersFilter>> noHeaderFilters = new StaticListableBeanFactory()
+                .getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class));
+        HedgingFilter filter = new HedgingFilter(properties, new InstanceRegistry(loadBalancerProperties),
+                WebClient.builder().exchangeFunction(exchangeFunction), noHeaderFilters);
+        filter.bindTo(meterRegistry);
+        return filter;
+    }
+
+    private Mono<ClientResponse> respond(URI url) {
+        int port = url.getPort();
+        calls.computeIfAbsent(port, p -> new AtomicInteger()).incrementAndGet();
+        return Mono.delay(delays.getOrDefault(port, Duration.ZERO))
+                .map(tick -> ClientResponse.create(HttpStatus.OK).body("from " + port).build())
+                .doOnCancel(() -> cancelled.computeIfAbsent(port, p -> new AtomicInteger()).incrementAndGet());
+    }
+
+    private void instances(String... uris) {
+        LoadBalancerProperties.Service service = new LoadBalancerProperties.Service();
+        service.setInstances(List.of(uris));
+        loadBalancerProperties.getServices().put("user-service", service);
+    }
+
+    private GatewayFilterChain chain() {
+        return exchange -> {
+            routedByChain.incrementAndGet();
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1"));
+        Route route = Route.async().id(routeId).uri("lb://user-service").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create(PRIMARY + "/api/users/1"));
+        return exchange;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
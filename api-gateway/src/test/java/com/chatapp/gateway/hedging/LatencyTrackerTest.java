@@ -0,0 +1,57 @@
+package com.chatapp.gateway.hedging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyTracker class.
+ * Tests the hedge delay derived from recent latencies.
+ */
+class LatencyTrackerTest {
+
+    /**
+     * Test that the hedge delay follows the configured latency percentile within its bounds.
+     */
+    @Test
+    void shouldDeriveDelayFromLatencyPercentile() {
+        // Given
+        HedgingProperties properties = new HedgingProperties();
+        properties.setSampleWindow(100);
+        properties.setMinDelay(Duration.ofMillis(5));
+        LatencyTracker tracker = new LatencyTracker(properties);
+        assertEquals(properties.getInitialDelay(), tracker.getDelay());
+
+        // When
+        for (int round = 0; round < 64; round++) {
+            for (int i = 1; i <= 100; i++) {
+                tracker.record(i * 1_000_000L);
+            }
+        }
+
+        // Then
+        assertEquals(Duration.ofMillis(95), tracker.getDelay());
+    }
+
+    /**
+     * Test that the hedge delay is kept within its configured bounds.
+     */
+    @Test
+    void shouldClampDelay() {
+        // Given
+        HedgingProperties properties = new HedgingProperties();
+        properties.setSampleWindow(64);
+        properties.setMaxDelay(Duration.ofMillis(200));
+        LatencyTracker tracker = new LatencyTracker(properties);
+
+        // When
+        for (int i = 0; i < 64; i++) {
+            tracker.record(Duration.ofSeconds(3).toNanos());
+        }
+
+        // Then
+        assertEquals(Duration.ofMillis(200), tracker.getDelay());
+    }
+}
@@ -0,0 +1,106 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InstanceRegistry class.
+ * Tests static and file-based instance lists and the ejection bound.
+ */
+class InstanceRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test that static instances are registered per service.
+     */
+    @Test
+    void shouldRegisterStaticInstances() {
+        // Given
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.getServices().put("user-service", service(List.of("http://localhost:8081", "http://localhost:8083"), null));
+
+        // When
+        InstanceRegistry registry = new InstanceRegistry(properties);
+
+        // Then
+        List<ServiceEndpoint> endpoints = registry.getInstances("user-service");
+        assertEquals(2, endpoints.size());
+        assertEquals(8083, endpoints.get(1).getPort());
+        assertEquals("user-service@localhost:8081", endpoints.get(0).getInstanceId());
+        assertTrue(registry.getInstances("other-service").isEmpty());
+    }
+
+    /**
+     * Test that a changed instance file is re-read and unchanged instances keep their state.
+     */
+    @Test
+    void shouldReloadInstanceFile() throws IOException {
+        // Given
+        Path file = tempDir.resolve("user-service.instances");
+        Files.writeString(file, "# user-service\nhttp://localhost:8081\n\nhttp://localhost:8083\n");
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.getServices().put("user-service", service(List.of("http://ignored:1"), file.toString()));
+        InstanceRegistry registry = new InstanceRegistry(properties);
+        ServiceEndpoint kept = registry.getInstances("user-service").get(0);
+        kept.requestStarted();
+
+        // When
+        Files.writeString(file, "http://localhost:8081\nhttp://localhost:8085\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+        registry.refreshFiles();
+
+        // Then
+        List<ServiceEndpoint> endpoints = registry.getInstances("user-service");
+        assertEquals(List.of(URI.create("http://localhost:8081"), URI.create("http://localhost:8085")),
+                endpoints.stream().map(ServiceEndpoint::getUri).toList());
+        assertSame(kept, endpoints.get(0));
+        assertEquals(1, endpoints.get(0).getInFlight());
+    }
+
+    /**
+     * Test that no more than the configured share of instances is ejected.
+     */
+    @Test
+    void shouldBoundEjections() {
+        // Given
+        LoadBalancerProperties properties = new LoadBalancerProperties();
+        properties.getServices().put("user-service", service(List.of(
+                "http://localhost:8081", "http://localhost:8082", "http://localhost:8083", "http://localhost:8084"), null));
+        InstanceRegistry registry = new InstanceRegistry(properties);
+        LoadBalancerProperties.OutlierEjection settings = properties.getOutlierEjection();
+
+        // When
+        int ejected = 0;
+        for (ServiceEndpoint endpoint : registry.getInstances("user-service")) {
+            for (int i = 0; i < settings.getConsecutiveFailures(); i++) {
+                endpoint.requestStarted();
+                endpoint.requestFinished(true, settings, registry.mayEject("user-service", 0), 0);
+            }
+            if (endpoint.isEjected(0)) {
+                ejected++;
+            }
+        }
+
+        // Then
+        assertEquals(2, ejected);
+    }
+
+    private static LoadBalancerProperties.Service service(List<String> instances, String file) {
+        LoadBalancerProperties.Service service = new LoadBalancerProperties.Service();
+        service.setInstances(instances);
+        service.setFile(file);
+        return service;
+    }
+}
@@ -0,0 +1,124 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InstanceTrackingFilter class.
+ * Tests in-flight counting and outlier ejection from request outcomes.
+ */
+class InstanceTrackingFilterTest {
+
+    private LoadBalancerProperties properties;
+    private InstanceRegistry registry;
+    private InstanceTrackingFilter filter;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new LoadBalancerProperties();
+        properties.getOutlierEjection().setConsecutiveFailures(3);
+        LoadBalancerProperties.Service service = new LoadBalancerProperties.Service();
+        service.setInstances(List.of("http://localhost:8081", "http://localhost:8083"));
+        properties.getServices().put("user-service", service);
+        registry = new InstanceRegistry(properties);
+        filter = new InstanceTrackingFilter(registry);
+    }
+
+    /**
+     * Test that a request counts against its instance until it completes or is cancelled.
+     */
+    @Test
+    void shouldCountInFlightRequests() {
+        // Given
+        ServiceEndpoint endpoint = registry.getInstances("user-service").get(0);
+        Sinks.Empty<Void> release = Sinks.empty();
+        GatewayFilterChain slow = exchange -> release.asMono();
+
+        // When
+        filter.filter(exchange(endpoint), slow).subscribe();
+        Disposable cancelled = filter.filter(exchange(endpoint), slow).subscribe();
+
+        // Then
+        assertEquals(2, endpoint.getInFlight());
+        cancelled.dispose();
+        assertEquals(1, endpoint.getInFlight());
+        release.tryEmitEmpty();
+        assertEquals(0, endpoint.getInFlight());
+    }
+
+    /**
+     * Test that an instance is ejected after consecutive server errors and a success resets the count.
+     */
+    @Test
+    void shouldEjectInstanceAfterConsecutiveFailures() {
+        // Given
+        ServiceEndpoint endpoint = registry.getInstances("user-service").get(0);
+        GatewayFilterChain failing = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return Mono.empty();
+        };
+        GatewayFilterChain succeeding = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+
+        // When
+        filter.filter(exchange(endpoint), failing).block();
+        filter.filter(exchange(endpoint), failing).block();
+        filter.filter(exchange(endpoint), succeeding).block();
+        filter.filter(exchange(endpoint), failing).block();
+        filter.filter(exchange(endpoint), failing).block();
+
+        // Then
+        assertTrue(endpoint.isAvailable(System.nanoTime()));
+        filter.filter(exchange(endpoint), exchange -> Mono.error(new IllegalStateException("boom"))).onErrorComplete().block();
+        assertFalse(endpoint.isAvailable(System.nanoTime()));
+    }
+
+    /**
+     * Test that the last available instance is not ejected when that would exceed the allowed share.
+     */
+    @Test
+    void shouldNotEjectBeyondMaxEjectionPercent() {
+        // Given
+        List<ServiceEndpoint> endpoints = registry.getInstances("user-service");
+        GatewayFilterChain failing = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return Mono.empty();
+        };
+
+        // When
+        for (ServiceEndpoint endpoint : endpoints) {
+            for (int i = 0; i < 3; i++) {
+                filter.filter(exchange(endpoint), failing).block();
+            }
+        }
+
+        // Then
+        assertFalse(endpoints.get(0).isAvailable(System.nanoTime()));
+        assertTrue(endpoints.get(1).isAvailable(System.nanoTime()));
+    }
+
+    private static MockServerWebExchange exchange(ServiceEndpoint endpoint) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1").build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR,
+                new DefaultResponse(endpoint));
+        return exchange;
+    }
+}
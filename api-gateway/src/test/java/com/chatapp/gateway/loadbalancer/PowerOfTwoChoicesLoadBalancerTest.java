@@ -0,0 +1,123 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PowerOfTwoChoicesLoadBalancer class.
+ * Tests instance choice by load, health and ejection.
+ */
+class PowerOfTwoChoicesLoadBalancerTest {
+
+    private static final LoadBalancerProperties.OutlierEjection EJECTION = new LoadBalancerProperties.OutlierEjection();
+
+    /**
+     * Test that the less loaded of two instances is always chosen.
+     */
+    @Test
+    void shouldPreferLessLoadedInstance() {
+        // Given
+        ServiceEndpoint busy = endpoint(8081);
+        ServiceEndpoint idle = endpoint(8083);
+        for (int i = 0; i < 5; i++) {
+            busy.requestStarted();
+        }
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertSame(idle, PowerOfTwoChoicesLoadBalancer.choose(List.of(busy, idle), 0));
+        }
+    }
+
+    /**
+     * Test that load is spread over all instances.
+     */
+    @Test
+    void shouldSpreadLoad() {
+        // Given
+        List<ServiceEndpoint> endpoints = List.of(endpoint(8081), endpoint(8082), endpoint(8083), endpoint(8084));
+        Map<ServiceEndpoint, Integer> chosen = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 4000; i++) {
+            ServiceEndpoint endpoint = PowerOfTwoChoicesLoadBalancer.choose(endpoints, 0);
+            endpoint.requestStarted();
+            chosen.merge(endpoint, 1, Integer::sum);
+        }
+
+        // Then
+        for (ServiceEndpoint endpoint : endpoints) {
+            assertEquals(1000, endpoint.getInFlight(), 50);
+        }
+        assertEquals(4, chosen.size());
+    }
+
+    /**
+     * Test that unhealthy and ejected instances are skipped.
+     */
+    @Test
+    void shouldSkipUnavailableInstances() {
+        // Given
+        ServiceEndpoint unhealthy = endpoint(8081);
+        unhealthy.recordProbe(false, 1);
+        ServiceEndpoint ejected = endpoint(8082);
+        for (int i = 0; i < EJECTION.getConsecutiveFailures(); i++) {
+            ejected.requestStarted();
+            ejected.requestFinished(true, EJECTION, true, 0);
+        }
+        ServiceEndpoint available = endpoint(8083);
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertSame(available, PowerOfTwoChoicesLoadBalancer.choose(List.of(unhealthy, ejected, available), 0));
+        }
+    }
+
+    /**
+     * Test that all instances are used when none is available.
+     */
+    @Test
+    void shouldFallBackToAllInstancesWhenNoneAvailable() {
+        // Given
+        ServiceEndpoint first = endpoint(8081);
+        ServiceEndpoint second = endpoint(8083);
+        first.recordProbe(false, 1);
+        second.recordProbe(false, 1);
+
+        // When
+        ServiceEndpoint chosen = PowerOfTwoChoicesLoadBalancer.choose(List.of(first, second), 0);
+
+        // Then
+        assertNotNull(chosen);
+    }
+
+    /**
+     * Test that a service without instances yields an empty response.
+     */
+    @Test
+    void shouldReturnEmptyResponseWithoutInstances() {
+        // Given
+        PowerOfTwoChoicesLoadBalancer loadBalancer =
+                new PowerOfTwoChoicesLoadBalancer("unknown", new InstanceRegistry(new LoadBalancerProperties()));
+
+        // When
+        Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>()).block();
+
+        // Then
+        assertNotNull(response);
+        assertFalse(response.hasServer());
+    }
+
+    private static ServiceEndpoint endpoint(int port) {
+        return new ServiceEndpoint("user-service", URI.create("http://localhost:" + port));
+    }
+}
@@ -0,0 +1,162 @@
+package com.chatapp.gateway.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RouteMetricsFilter class.
+ * Tests latency, status class and byte accounting per route.
+ */
+class RouteMetricsFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private RouteMetricsFilter filter;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new RouteMetricsFilter(registry);
+    }
+
+    /**
+     * Test that requests are timed per route with percentiles.
+     */
+    @Test
+    void shouldRecordLatencyPerRoute() {
+        // When
+        send("user-profile", respond(HttpStatus.OK, 10));
+        send("user-profile", respond(HttpStatus.OK, 10));
+        send("user-search", respond(HttpStatus.OK, 10));
+
+        // Then
+        Timer profile = registry.get("gateway.route.latency").tag("route", "user-profile").timer();
+        assertEquals(2, profile.count());
+        assertEquals(1, registry.get("gateway.route.latency").tag("route", "user-search").timer().count());
+        double[] percentiles = Arrays.stream(profile.takeSnapshot().percentileValues())
+                .mapToDouble(ValueAtPercentile::percentile).toArray();
+        assertArrayEquals(new double[]{0.5, 0.99, 0.999}, percentiles);
+    }
+
+    /**
+     * Test that responses are counted by status class.
+     */
+    @Test
+    void shouldCountStatusClasses() {
+        // When
+        send("user-login", respond(HttpStatus.OK, 0));
+        send("user-login", respond(HttpStatus.UNAUTHORIZED, 0));
+        send("user-login", respond(HttpStatus.TOO_MANY_REQUESTS, 0));
+        send("user-login", exchange -> Mono.error(new IllegalStateException("connection reset")));
+
+        // Then
+        assertEquals(1.0, responses("user-login", "2xx"));
+        assertEquals(2.0, responses("user-login", "4xx"));
+        assertEquals(1.0, responses("user-login", "5xx"));
+    }
+
+    /**
+     * Test that request and response bytes are summed from the bodies streamed through.
+     */
+    @Test
+    void shouldSumBytesInAndOut() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/api/auth/login").body("x".repeat(42)));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route("user-login"));
+
+        // When
+        filter.filter(exchange, echoBodyWithSuffix("y".repeat(86))).block();
+
+        // Then
+        assertEquals(42.0, registry.get("gateway.route.bytes.in").tag("route", "user-login").counter().count());
+        assertEquals(128.0, registry.get("gateway.route.bytes.out").tag("route", "user-login").counter().count());
+    }
+
+    /**
+     * Test that chunked bodies without Content-Length are counted.
+     */
+    @Test
+    void shouldCountChunkedBodiesWithoutContentLength() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/api/users/batch").body(Flux.just(buffer("{\"ids\":"), buffer("[1,2]}"))));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route("user-batch"));
+
+        // When
+        filter.filter(exchange, forwarded -> forwarded.getRequest().getBody()
+                .then(forwarded.getResponse().writeAndFlushWith(Flux.just(
+                        Flux.just(buffer("{\"users\":[")), Flux.just(buffer("]}")))))).block();
+
+        // Then
+        assertEquals(-1, exchange.getResponse().getHeaders().getContentLength());
+        assertEquals(13.0, registry.get("gateway.route.bytes.in").tag("route", "user-batch").counter().count());
+        assertEquals(12.0, registry.get("gateway.route.bytes.out").tag("route", "user-batch").counter().count());
+    }
+
+    /**
+     * Test that meters are created once per route.
+     */
+    @Test
+    void shouldReuseMetersOfRoute() {
+        // When
+        for (int i = 0; i < 100; i++) {
+            send("user-profile", respond(HttpStatus.OK, 0));
+        }
+
+        // Then
+        assertEquals(1, registry.find("gateway.route.latency").timers().size());
+        assertEquals(100, registry.get("gateway.route.latency").timer().count());
+    }
+
+    private double responses(String routeId, String statusClass) {
+        return registry.get("gateway.route.responses").tags("route", routeId, "status", statusClass).counter().count();
+    }
+
+    private void send(String routeId, GatewayFilterChain chain) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1").build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route(routeId));
+        filter.filter(exchange, chain).onErrorResume(e -> Mono.empty()).block();
+    }
+
+    private static Route route(String routeId) {
+        return Route.async().id(routeId).uri("http://localhost:8081").predicate(e -> true).build();
+    }
+
+    private static GatewayFilterChain echoBodyWithSuffix(String suffix) {
+        return exchange -> exchange.getResponse().writeWith(
+                exchange.getRequest().getBody().concatWith(Mono.just(buffer(suffix))));
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static GatewayFilterChain respond(HttpStatus status, int contentLength) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            exchange.getResponse().getHeaders().setContentLength(contentLength);
+            return Mono.empty();
+        };
+    }
+}
@@ -0,0 +1,264 @@
+package com.chatapp.gateway.ratelimit;
+
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import com.chatapp.gateway.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimitFilter class.
+ * Tests per-user, per-IP and per-route limits and the 429 response.
+ */
+class RateLimitFilterTest {
+
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+    private AtomicInteger forwarded;
+    private GatewayFilterChain chain;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setDefaultClient(new RateLimitProperties.Limit(0.01, 2));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, meterRegistry);
+        forwarded = new AtomicInteger();
+        chain = exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        };
+    }
+
+    /**
+     * Test that a user over the limit gets 429 with a Retry-After header.
+     */
+    @Test
+    void shouldRejectUserOverLimitWithRetryAfter() {
+        // When
+        send("user-service", "alice", "10.0.0.1");
+        send("user-service", "alice", "10.0.0.1");
+        MockServerWebExchange rejected = send("user-service", "alice", "10.0.0.1");
+
+        // Then
+        assertEquals(2, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertNotNull(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.rejected").counter().count());
+    }
+
+    /**
+     * Test that different users have independent buckets.
+     */
+    @Test
+    void shouldLimitUsersIndependently() {
+        // When
+        send("user-service", "alice", "10.0.0.1");
+        send("user-service", "alice", "10.0.0.1");
+        MockServerWebExchange bob = send("user-service", "bob", "10.0.0.1");
+
+        // Then
+        assertNull(bob.getResponse().getStatusCode());
+        assertEquals(3, forwarded.get());
+    }
+
+    /**
+     * Test that unauthenticated requests are limited per client IP.
+     */
+    @Test
+    void shouldLimitAnonymousRequestsPerIp() {
+        // When
+        send("user-login", null, "10.0.0.1");
+        send("user-login", null, "10.0.0.1");
+        MockServerWebExchange sameIp = send("user-login", null, "10.0.0.1");
+        MockServerWebExchange otherIp = send("user-login", null, "10.0.0.2");
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, sameIp.getResponse().getStatusCode());
+        assertNull(otherIp.getResponse().getStatusCode());
+    }
+
+    /**
+     * Test that a route limit is shared by all callers.
+     */
+    @Test
+    void shouldApplyAggregateRouteLimit() {
+        // Given
+        RateLimitProperties.RouteLimits limits = new RateLimitProperties.RouteLimits();
+        limits.setClient(new RateLimitProperties.Limit(100, 100));
+        limits.setRoute(new RateLimitProperties.Limit(0.01, 3));
+        properties.getRoutes().put("user-search", limits);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            send("user-search", "user" + i, "10.0.0." + i);
+        }
+
+        // Then
+        assertEquals(3, forwarded.get());
+    }
+
+    /**
+     * Test that requests pass untouched when rate limiting is disabled.
+     */
+    @Test
+    void shouldPassThroughWhenDisabled() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            send("user-service", "alice", "10.0.0.1");
+        }
+
+        // Then
+        assertEquals(10, forwarded.get());
+    }
+
+    /**
+     * Test that a client reaching the gateway directly cannot pick a fresh bucket per
+     * request by changing X-Real-IP.
+     */
+    @Test
+    void shouldIgnoreClientIpHeaderFromUntrustedPeer() {
+        // When
+        send("user-service", null, "10.0.0.1", "203.0.113.7");
+        send("user-service", null, "10.0.0.2", "203.0.113.7");
+        MockServerWebExchange rejected = send("user-service", null, "10.0.0.3", "203.0.113.7");
+
+        // Then
+        assertEquals(2, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+    }
+
+    /**
+     * Test that X-Real-IP set by a proxy in a trusted range keys the bucket.
+     */
+    @Test
+    void shouldHonourClientIpHeaderFromTrustedRange() {
+        // Given
+        properties.setTrustedProxies(List.of("172.18.0.0/16"));
+        filter = new RateLimitFilter(properties, meterRegistry);
+
+        // When
+        send("user-service", null, "10.0.0.1", "172.18.0.5");
+        send("user-service", null, "10.0.0.1", "172.18.0.5");
+        MockServerWebExchange otherClient = send("user-service", null, "10.0.0.2", "172.18.0.5");
+        MockServerWebExchange loopback = send("user-service", null, "10.0.0.1", "127.0.0.1");
+
+        // Then
+        assertNull(otherClient.getResponse().getStatusCode());
+        assertNull(loopback.getResponse().getStatusCode());
+        assertEquals(4, forwarded.get());
+    }
+
+    /**
+     * Test that idle buckets are evicted.
+     */
+    @Test
+    void shouldEvictIdleBuckets() {
+        // Given
+        properties.setDefaultClient(new RateLimitProperties.Limit(1000, 1));
+        send("user-service", "alice", "10.0.0.1");
+        assertEquals(1, filter.getClientBucketCount());
+        properties.setIdleTimeout(Duration.ZERO);
+
+        // When
+        sleep(5);
+        filter.evictIdleBuckets();
+
+        // Then
+        assertEquals(0, filter.getClientBucketCount());
+    }
+
+    /**
+     * Test that clients arriving while the bucket table is full share an overflow
+     * bucket instead of going unlimited.
+     */
+    @Test
+    void shouldShareOverflowBucketWhenTableIsFull() {
+        // Given
+        properties.setMaxBuckets(1);
+        send("user-service", "alice", "10.0.0.1");
+
+        // When
+        send("user-service", "bob", "10.0.0.1");
+        send("user-service", "carol", "10.0.0.1");
+        MockServerWebExchange rejected = send("user-service", "dave", "10.0.0.1");
+
+        // Then
+        assertEquals(1, filter.getClientBucketCount());
+        assertEquals(3, forwarded.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.rejected").tag("scope", "overflow").counter().count());
+    }
+
+    /**
+     * Test that a full table is swept of idle buckets before a new client is sent to
+     * the overflow bucket.
+     */
+    @Test
+    void shouldEvictIdleBucketsWhenTableIsFull() {
+        // Given
+        properties.setMaxBuckets(1);
+        properties.setDefaultClient(new RateLimitProperties.Limit(1000, 1));
+        send("user-service", "alice", "10.0.0.1");
+        properties.setDefaultClient(new RateLimitProperties.Limit(0.01, 1));
+        properties.setIdleTimeout(Duration.ZERO);
+        sleep(5);
+
+        // When
+        send("user-service", "bob", "10.0.0.1");
+        MockServerWebExchange rejected = send("user-service", "bob", "10.0.0.1");
+
+        // Then
+        assertEquals(1, filter.getClientBucketCount());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.rejected").tag("scope", "client").counter().count());
+    }
+
+    private MockServerWebExchange send(String routeId, String username, String ip) {
+        return send(routeId, username, ip, "127.0.0.1");
+    }
+
+    private MockServerWebExchange send(String routeId, String username, String ip, String peer) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/test")
+                .remoteAddress(new InetSocketAddress(peer, 40000))
+                .header("X-Real-IP", ip));
+        Route route = Route.async().id(routeId).uri("http://localhost:8081").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        if (username != null) {
+            exchange.getAttributes().put(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTR,
+                    new VerifiedToken(username, null, Long.MAX_VALUE, null, null, null));
+        }
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
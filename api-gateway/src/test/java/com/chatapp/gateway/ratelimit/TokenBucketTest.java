@@ -0,0 +1,131 @@
+package com.chatapp.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucket class.
+ * Tests burst capacity, refill, retry delays and idle detection.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Test that a new bucket allows exactly its burst and then rejects.
+     */
+    @Test
+    void shouldAllowBurstThenReject() {
+        // Given
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(1, 5, now);
+
+        // When & Then
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+
+    /**
+     * Test that the returned wait time is when the next token becomes available.
+     */
+    @Test
+    void shouldReportWaitUntilNextToken() {
+        // Given
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(2, 1, now);
+        assertEquals(0, bucket.tryAcquire(now));
+
+        // When
+        long wait = bucket.tryAcquire(now);
+
+        // Then
+        assertEquals(SECOND / 2, wait);
+        assertEquals(0, bucket.tryAcquire(now + wait));
+    }
+
+    /**
+     * Test that tokens refill at the configured rate.
+     */
+    @Test
+    void shouldRefillAtConfiguredRate() {
+        // Given
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(10, 10, now);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        // When
+        long later = now + SECOND / 2;
+        int granted = 0;
+        while (bucket.tryAcquire(later) == 0) {
+            granted++;
+        }
+
+        // Then
+        assertEquals(5, granted);
+    }
+
+    /**
+     * Test that concurrent callers never receive more tokens than the burst.
+     */
+    @Test
+    void shouldNotOvergrantUnderContention() throws InterruptedException {
+        // Given
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(0.001, 100, now);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(now) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        assertEquals(100, granted.get());
+    }
+
+    /**
+     * Test that a bucket becomes idle once it has been full for the timeout.
+     */
+    @Test
+    void shouldDetectIdleBucket() {
+        // Given
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(1, 5, now);
+        bucket.tryAcquire(now);
+
+        // When & Then
+        assertFalse(bucket.isIdle(now + SECOND, 60 * SECOND));
+        assertTrue(bucket.isIdle(now + 62 * SECOND, 60 * SECOND));
+    }
+
+    /**
+     * Test that invalid settings are rejected.
+     */
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+    }
+}
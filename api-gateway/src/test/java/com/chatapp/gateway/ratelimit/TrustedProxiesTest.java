@@ -0,0 +1,55 @@
+package com.chatapp.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrustedProxies class.
+ * Tests address, range and host name entries.
+ */
+class TrustedProxiesTest {
+
+    /**
+     * Test that addresses and CIDR ranges match only their own addresses.
+     */
+    @Test
+    void shouldMatchAddressesAndRanges() throws UnknownHostException {
+        // Given
+        TrustedProxies proxies = new TrustedProxies(List.of("10.1.2.3", "172.16.0.0/12", "fd00::/8"));
+
+        // Then
+        assertTrue(proxies.isTrusted(InetAddress.getByName("10.1.2.3")));
+        assertFalse(proxies.isTrusted(InetAddress.getByName("10.1.2.4")));
+        assertTrue(proxies.isTrusted(InetAddress.getByName("172.31.255.1")));
+        assertFalse(proxies.isTrusted(InetAddress.getByName("172.32.0.1")));
+        assertTrue(proxies.isTrusted(InetAddress.getByName("fd12::1")));
+        assertFalse(proxies.isTrusted(InetAddress.getByName("::1")));
+        assertFalse(proxies.isTrusted(null));
+    }
+
+    /**
+     * Test that host names are trusted at the addresses they resolve to.
+     */
+    @Test
+    void shouldMatchResolvedHostNames() throws UnknownHostException {
+        // Given
+        TrustedProxies proxies = new TrustedProxies(List.of("localhost", "no-such-host.invalid"));
+
+        // Then
+        assertTrue(proxies.isTrusted(InetAddress.getByName("127.0.0.1")));
+        assertFalse(proxies.isTrusted(InetAddress.getByName("10.0.0.1")));
+    }
+
+    /**
+     * Test that a malformed range is reported at startup.
+     */
+    @Test
+    void shouldRejectMalformedRange() {
+        assertThrows(IllegalArgumentException.class, () -> new TrustedProxies(List.of("10.0.0.0/33")));
+    }
+}
@@ -0,0 +1,128 @@
+package com.chatapp.gateway.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CircuitBreaker class.
+ * Tests opening on failure rate, half-open probing and closing again.
+ */
+class CircuitBreakerTest {
+
+    private static final long OPEN_NANOS = Duration.ofSeconds(10).toNanos();
+
+    private CircuitBreaker breaker;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties.CircuitBreaker settings = new ResilienceProperties.CircuitBreaker();
+        settings.setSlidingWindowSize(10);
+        settings.setMinimumCalls(10);
+        settings.setFailureRateThreshold(50);
+        settings.setOpenDuration(Duration.ofSeconds(10));
+        settings.setHalfOpenCalls(2);
+        breaker = new CircuitBreaker(settings);
+    }
+
+    /**
+     * Test that the circuit opens once the failure rate reaches the threshold.
+     */
+    @Test
+    void shouldOpenWhenFailureRateReachesThreshold() {
+        // Given
+        record(6, false, 0);
+        record(3, true, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // When
+        record(1, true, 0);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        record(1, true, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(1));
+    }
+
+    /**
+     * Test that failures below the minimum number of calls do not open the circuit.
+     */
+    @Test
+    void shouldNotOpenBeforeMinimumCalls() {
+        // When
+        record(9, true, 0);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Test that successful probes close the circuit after the open duration.
+     */
+    @Test
+    void shouldCloseAfterSuccessfulProbes() {
+        // Given
+        record(10, true, 0);
+
+        // When
+        assertTrue(breaker.tryAcquire(OPEN_NANOS));
+        assertTrue(breaker.tryAcquire(OPEN_NANOS));
+        assertFalse(breaker.tryAcquire(OPEN_NANOS));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(false, OPEN_NANOS);
+        breaker.onResult(false, OPEN_NANOS);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    /**
+     * Test that a failed probe opens the circuit again.
+     */
+    @Test
+    void shouldReopenOnFailedProbe() {
+        // Given
+        record(10, true, 0);
+        assertTrue(breaker.tryAcquire(OPEN_NANOS));
+
+        // When
+        breaker.onResult(true, OPEN_NANOS);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(OPEN_NANOS + 1));
+        assertTrue(breaker.tryAcquire(2 * OPEN_NANOS));
+    }
+
+    /**
+     * Test that a released probe frees its slot.
+     */
+    @Test
+    void shouldFreeProbeSlotOnRelease() {
+        // Given
+        record(10, true, 0);
+        assertTrue(breaker.tryAcquire(OPEN_NANOS));
+        assertTrue(breaker.tryAcquire(OPEN_NANOS));
+
+        // When
+        breaker.release();
+
+        // Then
+        assertTrue(breaker.tryAcquire(OPEN_NANOS));
+    }
+
+    private void record(int calls, boolean failed, long nowNanos) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquire(nowNanos));
+            breaker.onResult(failed, nowNanos);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.chatapp.gateway.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DownstreamProtectionFilter class.
+ * Tests load shedding, circuit opening and the actuator view.
+ */
+class DownstreamProtectionFilterTest {
+
+    private ResilienceProperties properties;
+    private MeterRegistry meterRegistry;
+    private DownstreamProtectionFilter filter;
+    private AtomicInteger downstreamCalls;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new ResilienceProperties();
+        properties.getLimit().setInitialLimit(2);
+        properties.getLimit().setMinLimit(1);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new DownstreamProtectionFilter(properties, meterRegistry);
+        downstreamCalls = new AtomicInteger();
+    }
+
+    /**
+     * Test that calls beyond the concurrency limit are refused with 503.
+     */
+    @Test
+    void shouldShedCallsBeyondLimit() {
+        // Given
+        Sinks.Empty<Void> release = Sinks.empty();
+        GatewayFilterChain slow = exchange -> {
+            downstreamCalls.incrementAndGet();
+            return release.asMono();
+        };
+        filter.filter(exchange("user-profile", "http://user-service:8081"), slow).subscribe();
+        filter.filter(exchange("user-search", "http://user-service:8081"), slow).subscribe();
+
+        // When
+        MockServerWebExchange shed = exchange("user-service", "http://user-service:8081");
+        filter.filter(shed, slow).block();
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals("1", shed.getResponse().getHeaders().getFirst("Retry-After"));
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("gateway.downstream.rejected")
+                .tags("downstream", "user-service", "reason", "limit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("gateway.downstream.in.flight").gauge().value());
+
+        release.tryEmitEmpty();
+        assertEquals(0.0, meterRegistry.get("gateway.downstream.in.flight").gauge().value());
+    }
+
+    /**
+     * Test that each downstream service has its own limit.
+     */
+    @Test
+    void shouldLimitDownstreamsIndependently() {
+        // Given
+        GatewayFilterChain hanging = exchange -> Mono.never();
+        filter.filter(exchange("user-profile", "http://user-service:8081"), hanging).subscribe();
+        filter.filter(exchange("user-profile", "http://user-service:8081"), hanging).subscribe();
+
+        // When
+        MockServerWebExchange other = exchange("websocket-service", "http://websocket-service:8082");
+        filter.filter(other, ok()).block();
+
+        // Then
+        assertEquals(HttpStatus.OK, other.getResponse().getStatusCode());
+        assertEquals(1, downstreamCalls.get());
+    }
+
+    /**
+     * Test that repeated server errors open the circuit and later calls fail fast.
+     */
+    @Test
+    void shouldOpenCircuitOnServerErrors() {
+        // Given
+        GatewayFilterChain failing = exchange -> {
+            downstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return Mono.empty();
+        };
+        for (int i = 0; i < 2; i++) {
+            filter.filter(exchange("user-profile", "http://user-service:8081"), failing).block();
+        }
+        GatewayFilterChain refused = exchange -> {
+            downstreamCalls.incrementAndGet();
+            return Mono.error(new ConnectException("Connection refused"));
+        };
+        for (int i = 0; i < 2; i++) {
+            filter.filter(exchange("user-profile", "http://user-service:8081"), refused)
+                    .onErrorResume(e -> Mono.empty()).block();
+        }
+
+        // When
+        MockServerWebExchange rejected = exchange("user-profile", "http://user-service:8081");
+        filter.filter(rejected, ok()).block();
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals(4, downstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("gateway.downstream.circuit.state").gauge().value());
+        assertEquals(1.0, meterRegistry.get("gateway.downstream.rejected")
+                .tags("downstream", "user-service", "reason", "circuit").functionCounter().count());
+    }
+
+    /**
+     * Test that client errors do not count as downstream failures.
+     */
+    @Test
+    void shouldNotCountClientErrorsAsFailures() {
+        // Given
+        GatewayFilterChain notFound = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return Mono.empty();
+        };
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            filter.filter(exchange("user-profile", "http://user-service:8081"), notFound).block();
+        }
+
+        // Then
+        DownstreamGuard guard = filter.getGuards().iterator().next();
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getCircuitBreaker().getState());
+    }
+
+    /**
+     * Test that the actuator endpoint reports every downstream.
+     */
+    @Test
+    void shouldDescribeDownstreamsOnEndpoint() {
+        // Given
+        filter.filter(exchange("user-profile", "http://user-service:8081"), ok()).block();
+        filter.filter(exchange("websocket-service", "http://websocket-service:8082"), ok()).block();
+
+        // When
+        Map<String, Map<String, Object>> downstreams = new DownstreamsEndpoint(filter).downstreams();
+
+        // Then
+        assertEquals(2, downstreams.size());
+        Map<String, Object> userService = downstreams.get("user-service");
+        assertEquals(2, userService.get("limit"));
+        assertEquals(0, userService.get("inFlight"));
+        assertEquals(CircuitBreaker.State.CLOSED, userService.get("circuitState"));
+        assertEquals(0L, userService.get("rejectedByLimit"));
+    }
+
+    private GatewayFilterChain ok() {
+        return exchange -> {
+            downstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange(String routeId, String uri) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1").build());
+        Route route = Route.async().id(routeId).uri(uri).predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
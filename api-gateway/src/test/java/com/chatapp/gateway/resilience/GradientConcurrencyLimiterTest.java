@@ -0,0 +1,133 @@
+package com.chatapp.gateway.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GradientConcurrencyLimiter class.
+ * Tests permit accounting and how the limit follows observed latency.
+ */
+class GradientConcurrencyLimiterTest {
+
+    private static final long FAST = 10_000_000L;
+
+    private ResilienceProperties.Limit settings;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        settings = new ResilienceProperties.Limit();
+        settings.setInitialLimit(20);
+        settings.setMinLimit(2);
+        settings.setMaxLimit(100);
+    }
+
+    /**
+     * Test that no more permits than the limit are handed out.
+     */
+    @Test
+    void shouldRefusePermitsBeyondLimit() {
+        // Given
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(settings);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // Then
+        assertFalse(limiter.tryAcquire());
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(20, limiter.getInFlight());
+    }
+
+    /**
+     * Test that the limit grows while latency stays flat under load.
+     */
+    @Test
+    void shouldGrowLimitWhileLatencyIsStable() {
+        // Given
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(settings);
+
+        // When
+        runAtFullLoad(limiter, 200, FAST);
+
+        // Then
+        assertEquals(100, limiter.getLimit());
+    }
+
+    /**
+     * Test that the limit shrinks when latency rises above the long-term average.
+     */
+    @Test
+    void shouldShrinkLimitWhenLatencyRises() {
+        // Given
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(settings);
+        runAtFullLoad(limiter, 200, FAST);
+        int before = limiter.getLimit();
+
+        // When
+        runAtFullLoad(limiter, 20, FAST * 10);
+
+        // Then
+        assertTrue(limiter.getLimit() < before / 2, "limit was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= settings.getMinLimit());
+    }
+
+    /**
+     * Test that the limit does not grow when the downstream is lightly used.
+     */
+    @Test
+    void shouldNotGrowLimitWithoutLoad() {
+        // Given
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(settings);
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSample(FAST, false);
+        }
+
+        // Then
+        assertEquals(20, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Test that failures cut the limit down to the minimum.
+     */
+    @Test
+    void shouldBackOffOnFailures() {
+        // Given
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(settings);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSample(FAST, true);
+        }
+
+        // Then
+        assertEquals(2, limiter.getLimit());
+    }
+
+    /**
+     * Keeps the limiter saturated: every sample is taken with all permits in use.
+     */
+    private static void runAtFullLoad(GradientConcurrencyLimiter limiter, int samples, long rttNanos) {
+        for (int i = 0; i < samples; i++) {
+            while (limiter.tryAcquire()) {
+                // fill up to the current limit
+            }
+            limiter.onSample(rttNanos, false);
+            while (limiter.getInFlight() > 0) {
+                limiter.release();
+            }
+        }
+    }
+}
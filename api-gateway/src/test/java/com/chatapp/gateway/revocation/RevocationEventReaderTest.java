@@ -0,0 +1,143 @@
+package com.chatapp.gateway.revocation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RevocationEventReader class.
+ * Tests incremental reading of the revocation event file, including after it is replaced.
+ */
+class RevocationEventReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private TokenDenylist denylist;
+    private RevocationEventReader reader;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("access-tokens.log");
+        RevocationProperties properties = new RevocationProperties();
+        properties.setFile(file.toString());
+        denylist = new TokenDenylist(properties);
+        reader = new RevocationEventReader(properties, denylist);
+    }
+
+    /**
+     * Test that appended events are picked up on the next poll.
+     */
+    @Test
+    void shouldReadAppendedEvents() throws IOException {
+        // Given
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        reader.poll();
+        append("jti-1 " + expiresAt + "\n");
+
+        // When
+        reader.poll();
+        append("jti-2 " + expiresAt + "\n");
+        reader.poll();
+
+        // Then
+        assertTrue(denylist.isRevoked("jti-1", System.currentTimeMillis()));
+        assertTrue(denylist.isRevoked("jti-2", System.currentTimeMillis()));
+        assertEquals(Files.size(file), reader.getOffset());
+    }
+
+    /**
+     * Test that an incomplete last line is only consumed once it is complete.
+     */
+    @Test
+    void shouldWaitForCompleteLines() throws IOException {
+        // Given
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        append("jti-1 " + expiresAt + "\njti-2 " + expiresAt);
+
+        // When
+        reader.poll();
+
+        // Then
+        assertTrue(denylist.isRevoked("jti-1", System.currentTimeMillis()));
+        assertFalse(denylist.isRevoked("jti-2", System.currentTimeMillis()));
+        append("\n");
+        reader.poll();
+        assertTrue(denylist.isRevoked("jti-2", System.currentTimeMillis()));
+    }
+
+    /**
+     * Test that malformed lines and expired tokens are skipped.
+     */
+    @Test
+    void shouldSkipMalformedAndExpiredEvents() throws IOException {
+        // Given
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        append("garbage\njti-1 soon\njti-2 1000\n\njti-3 " + expiresAt + "\n");
+
+        // When
+        reader.poll();
+
+        // Then
+        assertEquals(1, denylist.size());
+        assertTrue(denylist.isRevoked("jti-3", System.currentTimeMillis()));
+    }
+
+    /**
+     * Test that a truncated file is read again from the start.
+     */
+    @Test
+    void shouldRestartAfterTruncation() throws IOException {
+        // Given
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        append("jti-1 " + expiresAt + "\njti-2 " + expiresAt + "\n");
+        reader.poll();
+
+        // When
+        Files.writeString(file, "jti-3 " + expiresAt + "\n");
+        reader.poll();
+
+        // Then
+        assertTrue(denylist.isRevoked("jti-3", System.currentTimeMillis()));
+        assertEquals(Files.size(file), reader.getOffset());
+    }
+
+    /**
+     * Test that a file replaced by a compacted copy is read from the start, even once
+     * appends have made it larger than the position reached in the old file.
+     */
+    @Test
+    void shouldRestartAfterReplacement() throws IOException {
+        // Given
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        append("jti-1 " + expiresAt + "\n");
+        reader.poll();
+
+        // When
+        Path compacted = tempDir.resolve("access-tokens.log.tmp");
+        Files.writeString(compacted, "jti-2 " + expiresAt + "\njti-3 " + expiresAt + "\n");
+        Files.move(compacted, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        reader.poll();
+
+        // Then
+        assertTrue(denylist.isRevoked("jti-2", System.currentTimeMillis()));
+        assertTrue(denylist.isRevoked("jti-3", System.currentTimeMillis()));
+        assertEquals(Files.size(file), reader.getOffset());
+    }
+
+    private void append(String content) throws IOException {
+        Files.writeString(file, content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
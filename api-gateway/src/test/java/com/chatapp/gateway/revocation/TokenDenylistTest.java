@@ -0,0 +1,102 @@
+package com.chatapp.gateway.revocation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenDenylist class.
+ * Tests revocation lookups, expiry, purging and Bloom filter resizing.
+ */
+class TokenDenylistTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private RevocationProperties properties;
+    private TokenDenylist denylist;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new RevocationProperties();
+        properties.setExpectedRevocations(100);
+        denylist = new TokenDenylist(properties);
+    }
+
+    /**
+     * Test that revoked tokens are listed and other tokens are not.
+     */
+    @Test
+    void shouldListRevokedTokens() {
+        // Given
+        denylist.revoke("jti-1", NOW + 60_000, NOW);
+
+        // When & Then
+        assertTrue(denylist.isRevoked("jti-1", NOW));
+        assertFalse(denylist.isRevoked("jti-2", NOW));
+    }
+
+    /**
+     * Test that a revocation stops applying once the token has expired and is then purged.
+     */
+    @Test
+    void shouldForgetRevocationsOfExpiredTokens() {
+        // Given
+        denylist.revoke("jti-1", NOW + 60_000, NOW);
+        denylist.revoke("jti-2", NOW + 120_000, NOW);
+        denylist.revoke("jti-3", NOW - 1, NOW);
+
+        // When
+        denylist.purgeExpired(NOW + 60_000);
+
+        // Then
+        assertEquals(1, denylist.size());
+        assertFalse(denylist.isRevoked("jti-1", NOW + 60_000));
+        assertTrue(denylist.isRevoked("jti-2", NOW + 60_000));
+    }
+
+    /**
+     * Test that no revocation is lost when the denylist outgrows its Bloom filter.
+     */
+    @Test
+    void shouldKeepAllRevocationsWhenGrowingBeyondExpectedSize() {
+        // When
+        for (int i = 0; i < 1000; i++) {
+            denylist.revoke("jti-" + i, NOW + 60_000, NOW);
+        }
+
+        // Then
+        assertEquals(1000, denylist.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(denylist.isRevoked("jti-" + i, NOW));
+        }
+    }
+
+    /**
+     * Test that the Bloom filter answers most lookups of unrevoked tokens on its own.
+     */
+    @Test
+    void shouldAnswerMostUnrevokedLookupsFromBloomFilter() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        denylist.bindTo(registry);
+        for (int i = 0; i < 100; i++) {
+            denylist.revoke("revoked-" + i, NOW + 60_000, NOW);
+        }
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(denylist.isRevoked("valid-" + i, NOW));
+        }
+
+        // Then
+        double falsePositives = registry.get("gateway.revocation.checks").tag("result", "false_positive")
+                .functionCounter().count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertEquals(100.0, registry.get("gateway.revocation.size").gauge().value());
+    }
+}
@@ -1,12 +1,29 @@
 package com.chatapp.gateway.security;
 
+import com.chatapp.gateway.revocation.RevocationProperties;
+import com.chatapp.gateway.revocation.TokenDenylist;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for JwtAuthenticationFilter class.
@@ -16,8 +33,9 @@ import static org.junit.jupiter.api.Assertions.*;
 class JwtAuthenticationFilterTest {
 
     @Mock
-    private JwtUtil jwtUtil;
+    private TokenVerifier tokenVerifier;
 
+    private TokenDenylist tokenDenylist;
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     /**
@@ -25,7 +43,8 @@ class JwtAuthenticationFilterTest {
      */
     @BeforeEach
     void setUp() {
-        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil);
+        tokenDenylist = new TokenDenylist(new RevocationProperties());
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(tokenVerifier, tokenDenylist);
     }
 
     /**
@@ -38,18 +57,170 @@ class JwtAuthenticationFilterTest {
         int order = jwtAuthenticationFilter.getOrder();
 
         // Then
-        assertEquals(-1, order);
+        assertEquals(JwtAuthenticationFilter.ORDER, order);
+        assertTrue(order < NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER);
     }
 
     /**
-     * Test filter can be created with JwtUtil dependency.
+     * Test filter can be created with TokenVerifier dependency.
      */
     @Test
-    void shouldCreateFilterWithJwtUtil() {
+    void shouldCreateFilterWithTokenVerifier() {
         // Given & When
-        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenVerifier, tokenDenylist);
 
         // Then
         assertNotNull(filter);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that the numeric id and profile version are forwarded as headers.
+     */
+    @Test
+    void shouldForwardUserIdentityHeaders() {
+        // Given
+        when(tokenVerifier.verify("valid-token"))
+                .thenReturn(Optional.of(new VerifiedToken("alice", null, Long.MAX_VALUE, 42L, 7L, null)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer valid-token"));
+
+        // When
+        HttpHeaders forwarded = forwardedHeaders(exchange);
+
+        // Then
+        assertEquals("alice", forwarded.getFirst(JwtAuthenticationFilter.USER_ID_HEADER));
+        assertEquals("42", forwarded.getFirst(JwtAuthenticationFilter.USER_NUMERIC_ID_HEADER));
+        assertEquals("7", forwarded.getFirst(JwtAuthenticationFilter.USER_PROFILE_VERSION_HEADER));
+    }
+
+    /**
+     * Test that client-supplied identity headers are replaced on authenticated requests.
+     */
+    @Test
+    void shouldReplaceClientSuppliedIdentityHeaders() {
+        // Given
+        when(tokenVerifier.verify("legacy-token"))
+                .thenReturn(Optional.of(new VerifiedToken("alice", null, Long.MAX_VALUE, null, null, null)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer legacy-token")
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, "admin")
+                .header(JwtAuthenticationFilter.USER_NUMERIC_ID_HEADER, "1")
+                .header(JwtAuthenticationFilter.USER_PROFILE_VERSION_HEADER, "99"));
+
+        // When
+        HttpHeaders forwarded = forwardedHeaders(exchange);
+
+        // Then
+        assertEquals(List.of("alice"), forwarded.get(JwtAuthenticationFilter.USER_ID_HEADER));
+        assertFalse(forwarded.containsKey(JwtAuthenticationFilter.USER_NUMERIC_ID_HEADER));
+        assertFalse(forwarded.containsKey(JwtAuthenticationFilter.USER_PROFILE_VERSION_HEADER));
+    }
+
+    /**
+     * Test that client-supplied identity headers are removed on public paths.
+     */
+    @Test
+    void shouldStripIdentityHeadersOnPublicPaths() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/auth/login")
+                .header(JwtAuthenticationFilter.USER_NUMERIC_ID_HEADER, "1"));
+
+        // When
+        HttpHeaders forwarded = forwardedHeaders(exchange);
+
+        // Then
+        assertFalse(forwarded.containsKey(JwtAuthenticationFilter.USER_NUMERIC_ID_HEADER));
+    }
+
+    /**
+     * Test that requests without a token are rejected.
+     */
+    @Test
+    void shouldRejectRequestWithoutToken() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1"));
+
+        // When
+        HttpHeaders forwarded = forwardedHeaders(exchange);
+
+        // Then
+        assertNull(forwarded);
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    /**
+     * Test that a revoked token is rejected while other tokens of the same user pass.
+     */
+    @Test
+    void shouldRejectRevokedToken() {
+        // Given
+        when(tokenVerifier.verify("revoked-token"))
+                .thenReturn(Optional.of(new VerifiedToken("alice", null, Long.MAX_VALUE, 42L, 7L, "jti-1")));
+        when(tokenVerifier.verify("other-token"))
+                .thenReturn(Optional.of(new VerifiedToken("alice", null, Long.MAX_VALUE, 42L, 7L, "jti-2")));
+        tokenDenylist.revoke("jti-1", Long.MAX_VALUE, System.currentTimeMillis());
+        MockServerWebExchange revoked = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer revoked-token"));
+        MockServerWebExchange other = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer other-token"));
+
+        // When & Then
+        assertNull(forwardedHeaders(revoked));
+        assertEquals(HttpStatus.UNAUTHORIZED, revoked.getResponse().getStatusCode());
+        assertNotNull(forwardedHeaders(other));
+    }
+
+    /**
+     * Test that refresh tokens are not accepted as API credentials, by type claim or,
+     * for tokens without one, by their generation claim.
+     */
+    @Test
+    void shouldRejectRefreshToken() {
+        // Given
+        when(tokenVerifier.verify("refresh-token")).thenReturn(Optional.of(token("refresh", 3L)));
+        when(tokenVerifier.verify("untyped-refresh-token")).thenReturn(Optional.of(token(null, 3L)));
+        when(tokenVerifier.verify("access-token")).thenReturn(Optional.of(token(VerifiedToken.ACCESS_TOKEN_TYPE, null)));
+        MockServerWebExchange refresh = bearer("refresh-token");
+        MockServerWebExchange untypedRefresh = bearer("untyped-refresh-token");
+        MockServerWebExchange access = bearer("access-token");
+
+        // When & Then
+        assertNull(forwardedHeaders(refresh));
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh.getResponse().getStatusCode());
+        assertNull(forwardedHeaders(untypedRefresh));
+        assertEquals(HttpStatus.UNAUTHORIZED, untypedRefresh.getResponse().getStatusCode());
+        assertNotNull(forwardedHeaders(access));
+    }
+
+    private static VerifiedToken token(String type, Long generation) {
+        Claims claims = Jwts.claims().setSubject("alice");
+        if (type != null) {
+            claims.put(VerifiedToken.TOKEN_TYPE_CLAIM, type);
+        }
+        if (generation != null) {
+            claims.put(VerifiedToken.TOKEN_GENERATION_CLAIM, generation);
+        }
+        return VerifiedToken.fromClaims(claims);
+    }
+
+    private static MockServerWebExchange bearer(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    /**
+     * Runs the filter and returns the headers the next filter received.
+     *
+     * @param exchange the exchange to filter
+     * @return the forwarded request headers, or null if the request was not forwarded
+     */
+    private HttpHeaders forwardedHeaders(MockServerWebExchange exchange) {
+        AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+        GatewayFilterChain chain = ex -> {
+            forwarded.set(ex);
+            return Mono.empty();
+        };
+        jwtAuthenticationFilter.filter(exchange, chain).block();
+        return forwarded.get() != null ? forwarded.get().getRequest().getHeaders() : null;
+    }
+}
@@ -0,0 +1,257 @@
+package com.chatapp.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenVerifier class.
+ * Tests single-pass verification, cache hits and misses, and cache bounds.
+ */
+class TokenVerifierTest {
+
+    private final String testSecret = "mySecretKey123456789012345678901234567890";
+
+    private JwtUtil jwtUtil;
+    private TokenVerifier tokenVerifier;
+
+    /**
+     * Set up test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", testSecret);
+        tokenVerifier = new TokenVerifier(jwtUtil, 100);
+    }
+
+    /**
+     * Test that a valid token is verified and its subject extracted.
+     */
+    @Test
+    void shouldVerifyValidToken() {
+        // Given
+        String token = createToken("testuser", 3600000);
+
+        // When
+        Optional<VerifiedToken> verified = tokenVerifier.verify(token);
+
+        // Then
+        assertTrue(verified.isPresent());
+        assertEquals("testuser", verified.get().getSubject());
+        assertEquals(1, tokenVerifier.getMissCount());
+        assertEquals(0, tokenVerifier.getHitCount());
+    }
+
+    /**
+     * Test that the numeric user id, profile version and token id claims are extracted.
+     */
+    @Test
+    void shouldExtractUserIdAndProfileVersion() {
+        // Given
+        String token = Jwts.builder()
+                .setSubject("testuser")
+                .setId("jti-1")
+                .claim(VerifiedToken.USER_ID_CLAIM, 42L)
+                .claim(VerifiedToken.PROFILE_VERSION_CLAIM, 7L)
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(Keys.hmacShaKeyFor(testSecret.getBytes()))
+                .compact();
+
+        // When
+        Optional<VerifiedToken> result = tokenVerifier.verify(token);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(42L, result.get().getUserId());
+        assertEquals(7L, result.get().getProfileVersion());
+        assertEquals("jti-1", result.get().getTokenId());
+        assertNull(tokenVerifier.verify(createToken("legacy", 3600000)).get().getUserId());
+    }
+
+    /**
+     * Test that repeat verification of the same token is answered from the cache.
+     */
+    @Test
+    void shouldAnswerRepeatVerificationFromCache() {
+        // Given
+        String token = createToken("testuser", 3600000);
+        VerifiedToken first = tokenVerifier.verify(token).orElseThrow();
+
+        // When
+        VerifiedToken second = tokenVerifier.verify(token).orElseThrow();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, tokenVerifier.getHitCount());
+        assertEquals(1, tokenVerifier.getMissCount());
+        assertEquals(1, tokenVerifier.getCacheSize());
+    }
+
+    /**
+     * Test that malformed, empty and null tokens are rejected and not cached.
+     */
+    @Test
+    void shouldRejectInvalidTokens() {
+        assertTrue(tokenVerifier.verify("invalid.jwt.token").isEmpty());
+        assertTrue(tokenVerifier.verify("").isEmpty());
+        assertTrue(tokenVerifier.verify(null).isEmpty());
+        assertEquals(0, tokenVerifier.getCacheSize());
+    }
+
+    /**
+     * Test that tokens signed with another key are rejected.
+     */
+    @Test
+    void shouldRejectTokenWithWrongSignature() {
+        // Given
+        SecretKey otherKey = Keys.hmacShaKeyFor("anotherSecretKey12345678901234567890123".getBytes());
+        String token = Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(otherKey)
+                .compact();
+
+        // When & Then
+        assertTrue(tokenVerifier.verify(token).isEmpty());
+    }
+
+    /**
+     * Test that expired tokens are rejected.
+     */
+    @Test
+    void shouldRejectExpiredToken() {
+        // Given
+        String token = createToken("testuser", -3600000);
+
+        // When & Then
+        assertTrue(tokenVerifier.verify(token).isEmpty());
+    }
+
+    /**
+     * Test that a cached entry stops being served once the token expires.
+     */
+    @Test
+    void shouldNotServeCachedEntryAfterExpiration() {
+        // Given
+        String token = createToken("testuser", 1500);
+        assertTrue(tokenVerifier.verify(token).isPresent());
+
+        // When
+        sleep(1600);
+
+        // Then
+        assertTrue(tokenVerifier.verify(token).isEmpty());
+        assertEquals(0, tokenVerifier.getHitCount());
+        assertEquals(1, tokenVerifier.getEvictionCount());
+    }
+
+    /**
+     * Test that the cache never grows beyond its configured capacity.
+     */
+    @Test
+    void shouldBoundCacheSize() {
+        // When
+        for (int i = 0; i < 250; i++) {
+            assertTrue(tokenVerifier.verify(createToken("user" + i, 3600000)).isPresent());
+        }
+
+        // Then
+        assertTrue(tokenVerifier.getCacheSize() <= 100);
+        assertTrue(tokenVerifier.getEvictionCount() >= 150);
+    }
+
+    /**
+     * Test that caching can be disabled with a zero capacity.
+     */
+    @Test
+    void shouldVerifyWithoutCachingWhenCapacityIsZero() {
+        // Given
+        TokenVerifier uncached = new TokenVerifier(jwtUtil, 0);
+        String token = createToken("testuser", 3600000);
+
+        // When
+        uncached.verify(token);
+        uncached.verify(token);
+
+        // Then
+        assertEquals(0, uncached.getCacheSize());
+        assertEquals(2, uncached.getMissCount());
+    }
+
+    /**
+     * Test that cache counters are published to the meter registry.
+     */
+    @Test
+    void shouldPublishCacheMetrics() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tokenVerifier.bindTo(registry);
+        String token = createToken("testuser", 3600000);
+
+        // When
+        tokenVerifier.verify(token);
+        tokenVerifier.verify(token);
+
+        // Then
+        assertEquals(1.0, registry.get("gateway.jwt.cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("gateway.jwt.cache.misses").functionCounter().count());
+        assertEquals(1.0, registry.get("gateway.jwt.cache.size").gauge().value());
+    }
+
+    /**
+     * Test that verification time is recorded per outcome.
+     */
+    @Test
+    void shouldTimeVerificationByOutcome() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tokenVerifier.bindTo(registry);
+        String token = createToken("testuser", 3600000);
+
+        // When
+        tokenVerifier.verify(token);
+        tokenVerifier.verify(token);
+        tokenVerifier.verify(token);
+        tokenVerifier.verify("not.a.token");
+
+        // Then
+        assertEquals(2, registry.get("gateway.jwt.verify").tag("result", "cached").timer().count());
+        assertEquals(1, registry.get("gateway.jwt.verify").tag("result", "verified").timer().count());
+        assertEquals(1, registry.get("gateway.jwt.verify").tag("result", "rejected").timer().count());
+    }
+
+    /**
+     * Helper method to create a signed JWT token for testing.
+     *
+     * @param username the username to include in the token
+     * @param expirationOffset offset in milliseconds from current time for expiration
+     * @return a signed JWT token string
+     */
+    private String createToken(String username, long expirationOffset) {
+        SecretKey key = Keys.hmacShaKeyFor(testSecret.getBytes());
+        return Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expirationOffset))
+                .signWith(key)
+                .compact();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
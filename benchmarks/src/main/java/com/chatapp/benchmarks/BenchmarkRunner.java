@@ -0,0 +1,52 @@
+package com.chatapp.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar.
+ * Runs JMH with machine-readable JSON results by default, or compares two result
+ * files when invoked with the {@code compare} command.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar                                  # all benchmarks, writes jmh-result.json
+ * java -jar target/benchmarks.jar Jwt -rff release-1.2.json        # any JMH option is passed through
+ * java -jar target/benchmarks.jar compare base.json new.json 10    # fail if anything regressed by more than 10%
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    /** Result file written when no {@code -rff} option is given. */
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks or the result comparison.
+     *
+     * @param args JMH command line options, or {@code compare <baseline> <current> [thresholdPercent]}
+     * @throws Exception if JMH or the comparison fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "compare".equals(args[0])) {
+            int exitCode = ResultComparator.run(Arrays.copyOfRange(args, 1, args.length), System.out);
+            System.exit(exitCode);
+            return;
+        }
+
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.add("-rff");
+            jmhArgs.add(DEFAULT_RESULT_FILE);
+        }
+        Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
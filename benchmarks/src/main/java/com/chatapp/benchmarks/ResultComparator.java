@@ -0,0 +1,122 @@
+package com.chatapp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and reports benchmarks that got slower.
+ * Throughput scores regress when they drop; time-based scores regress when they grow.
+ */
+public final class ResultComparator {
+
+    static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ResultComparator() {
+    }
+
+    /**
+     * Compares a baseline result file with a current one and prints a report.
+     *
+     * @param args  {@code <baseline.json> <current.json> [thresholdPercent]}
+     * @param out   stream the report is written to
+     * @return 0 if nothing regressed beyond the threshold, 1 if something did, 2 on usage errors
+     * @throws IOException if a result file cannot be read
+     */
+    public static int run(String[] args, PrintStream out) throws IOException {
+        if (args.length < 2) {
+            out.println("Usage: compare <baseline.json> <current.json> [thresholdPercent]");
+            return 2;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> current = read(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                out.printf("NEW        %-90s %14.3f %s%n", entry.getKey(), after.value, after.unit);
+                continue;
+            }
+            double change = changePercent(before, after);
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            out.printf("%-10s %-90s %14.3f -> %14.3f %s (%+.1f%% slower)%n",
+                    regressed ? "REGRESSED" : "OK", entry.getKey(), before.value, after.value, after.unit, change);
+        }
+        out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+        return regressions > 0 ? 1 : 0;
+    }
+
+    /**
+     * Calculates how much slower the current score is than the baseline, in percent.
+     * Negative values mean the benchmark got faster.
+     *
+     * @param before the baseline score
+     * @param after  the current score
+     * @return the slowdown in percent
+     */
+    static double changePercent(Score before, Score after) {
+        if (before.value == 0) {
+            return 0;
+        }
+        double ratio = "thrpt".equals(after.mode)
+                ? before.value / after.value
+                : after.value / before.value;
+        return (ratio - 1.0) * 100.0;
+    }
+
+    /**
+     * Reads a JMH JSON result file into scores keyed by benchmark name, mode and parameters.
+     *
+     * @param file the result file
+     * @return scores keyed by benchmark identity
+     * @throws IOException if the file cannot be read or parsed
+     */
+    static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : MAPPER.readTree(file)) {
+            String mode = result.path("mode").asText();
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(" [").append(mode).append(']');
+            JsonNode params = result.path("params");
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            JsonNode metric = result.path("primaryMetric");
+            scores.put(key.toString(), new Score(mode, metric.path("score").asDouble(), metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    /**
+     * Primary metric of one benchmark run.
+     */
+    static final class Score {
+        final String mode;
+        final double value;
+        final String unit;
+
+        Score(String mode, double value, String unit) {
+            this.mode = mode;
+            this.value = value;
+            this.unit = unit;
+        }
+    }
+}
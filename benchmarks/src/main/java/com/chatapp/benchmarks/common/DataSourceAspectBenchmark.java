@@ -0,0 +1,75 @@
+package com.chatapp.benchmarks.common;
+
+import com.chatapp.common.annotation.ReadOnlyRepository;
+import com.chatapp.common.annotation.WriteRepository;
+import com.chatapp.common.aspect.DataSourceAspect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the around-advice overhead that {@link DataSourceAspect} adds to every
+ * service method annotated for read/write routing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataSourceAspectBenchmark {
+
+    private RoutedService direct;
+    private RoutedService proxied;
+    private int value;
+
+    @Setup
+    public void setUp() {
+        direct = new RoutedService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new RoutedService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new DataSourceAspect());
+        proxied = factory.getProxy();
+    }
+
+    @Benchmark
+    public int directCall() {
+        return direct.read(value++);
+    }
+
+    @Benchmark
+    public int proxiedWithoutAdvice() {
+        return proxied.plain(value++);
+    }
+
+    @Benchmark
+    public int readOnlyAdvice() {
+        return proxied.read(value++);
+    }
+
+    @Benchmark
+    public int writeAdvice() {
+        return proxied.write(value++);
+    }
+
+    /**
+     * Minimal service with one method per routing annotation.
+     */
+    public static class RoutedService {
+
+        public int plain(int input) {
+            return input + 1;
+        }
+
+        @ReadOnlyRepository
+        public int read(int input) {
+            return input + 1;
+        }
+
+        @WriteRepository
+        public int write(int input) {
+            return input + 1;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.chatapp.benchmarks.gateway;
+
+import com.chatapp.gateway.security.JwtUtil;
+import com.chatapp.gateway.security.TokenVerifier;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JWT verification cost in the API Gateway: the plain {@link JwtUtil} calls
+ * and the {@link TokenVerifier} with a cold and a warm verified-token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GatewayJwtBenchmark {
+
+    static final String SECRET = "mySecretKey123456789012345678901234567890";
+
+    private JwtUtil jwtUtil;
+    private TokenVerifier cachingVerifier;
+    private TokenVerifier uncachedVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil();
+        cachingVerifier = new TokenVerifier(jwtUtil, 10000);
+        uncachedVerifier = new TokenVerifier(jwtUtil, 0);
+        token = signedToken("benchmark-user");
+        cachingVerifier.verify(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String validateThenGetUsername() {
+        return jwtUtil.validateToken(token) ? jwtUtil.getUsernameFromToken(token) : null;
+    }
+
+    @Benchmark
+    public Optional<?> verifyUncached() {
+        return uncachedVerifier.verify(token);
+    }
+
+    @Benchmark
+    public Optional<?> verifyCached() {
+        return cachingVerifier.verify(token);
+    }
+
+    static JwtUtil newJwtUtil() {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "jwtSecret", SECRET);
+        return util;
+    }
+
+    static String signedToken(String username) {
+        return Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+}
@@ -0,0 +1,63 @@
+package com.chatapp.benchmarks.gateway;
+
+import com.chatapp.gateway.revocation.RevocationProperties;
+import com.chatapp.gateway.revocation.TokenDenylist;
+import com.chatapp.gateway.security.JwtAuthenticationFilter;
+import com.chatapp.gateway.security.TokenVerifier;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JwtAuthenticationFilter#filter} end to end with a chain that completes
+ * immediately. Each invocation builds a fresh mock exchange, so the
+ * {@code exchangeOnly} benchmark gives the fixture cost to subtract.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"10000", "0"})
+    public int cacheEntries;
+
+    private JwtAuthenticationFilter filter;
+    private GatewayFilterChain chain;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        filter = new JwtAuthenticationFilter(new TokenVerifier(GatewayJwtBenchmark.newJwtUtil(), cacheEntries),
+                new TokenDenylist(new RevocationProperties()));
+        chain = exchange -> Mono.empty();
+        authorization = "Bearer " + GatewayJwtBenchmark.signedToken("benchmark-user");
+    }
+
+    @Benchmark
+    public MockServerWebExchange exchangeOnly() {
+        return newExchange("/api/users/1");
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() {
+        return filter.filter(newExchange("/api/users/1"), chain).block();
+    }
+
+    @Benchmark
+    public Object publicPathRequest() {
+        return filter.filter(newExchange("/api/auth/login"), chain).block();
+    }
+
+    private MockServerWebExchange newExchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .header(HttpHeaders.AUTHORIZATION, authorization));
+    }
+}
@@ -0,0 +1,37 @@
+package com.chatapp.benchmarks.userservice;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures BCrypt password verification at different cost factors.
+ * Cost 10 is the default used by {@code AppConfig.passwordEncoder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int cost;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(cost);
+        hash = passwordEncoder.encode("password123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("password123", hash);
+    }
+}
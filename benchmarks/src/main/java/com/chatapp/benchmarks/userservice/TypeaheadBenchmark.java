@@ -0,0 +1,106 @@
+package com.chatapp.benchmarks.userservice;
+
+import com.chatapp.userservice.service.search.PrefixIndex;
+import com.chatapp.userservice.service.search.TrigramIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares typeahead through {@code PrefixIndex}, ranked with a caller's contacts, with
+ * the first search page of the {@code TrigramIndex} the users list previously fired per
+ * keystroke, over the same generated users. Setup prints the heap each index takes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TypeaheadBenchmark {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson"};
+
+    @Param({"1000000"})
+    public int users;
+
+    /** Successive keystrokes of a common first name, and one exact username. */
+    @Param({"j", "jo", "joh", "user0424242"})
+    public String prefix;
+
+    @Param({"10"})
+    public int limit;
+
+    @Param({"1000"})
+    public int maxCandidates;
+
+    private PrefixIndex prefixes;
+    private TrigramIndex trigrams;
+    private Map<Long, Double> contacts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] usernames = new String[users];
+        String[] fullNames = new String[users];
+        for (int i = 0; i < users; i++) {
+            usernames[i] = String.format("user%07d", i);
+            fullNames[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        }
+
+        long before = usedHeap();
+        prefixes = new PrefixIndex();
+        for (int i = 0; i < users; i++) {
+            prefixes.put(i, random.nextInt(20) == 0 ? 0.25f : 1.0f, usernames[i], fullNames[i]);
+        }
+        prefixes.compact();
+        long prefixBytes = usedHeap() - before;
+
+        before = usedHeap();
+        trigrams = new TrigramIndex();
+        for (int i = 0; i < users; i++) {
+            trigrams.put(i, usernames[i], usernames[i], fullNames[i]);
+        }
+        trigrams.compact();
+        long trigramBytes = usedHeap() - before;
+        System.out.printf("%nPrefixIndex: %d bytes/user, TrigramIndex: %d bytes/user%n",
+                prefixBytes / users, trigramBytes / users);
+
+        contacts = new HashMap<>();
+        for (int i = 0; i < 32; i++) {
+            contacts.put((long) random.nextInt(users), 1.0 + random.nextInt(5));
+        }
+    }
+
+    /**
+     * Typeahead: ranked completions of the prefix, with the caller's contacts.
+     */
+    @Benchmark
+    public List<Long> prefixIndex() {
+        return prefixes.complete(prefix, contacts, maxCandidates, limit);
+    }
+
+    /**
+     * Previous per-keystroke path: the first substring search page in username order.
+     */
+    @Benchmark
+    public List<Long> trigramIndexPage() {
+        return trigrams.search(prefix, null, 0, limit);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
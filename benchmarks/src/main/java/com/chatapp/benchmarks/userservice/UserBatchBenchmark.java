@@ -0,0 +1,126 @@
+package com.chatapp.benchmarks.userservice;
+
+import com.chatapp.userservice.dto.UserResponse;
+import com.chatapp.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving the participants of a conversation one {@code findById} at a time,
+ * as clients did with one {@code GET /api/users/{id}} per participant, with the single
+ * {@code findResponsesByIdIn} query behind {@code POST /api/users/batch}. Queries run
+ * through Hibernate on an in-memory H2 database, so the sequential lookups are measured
+ * without the network round trip each of them pays against MySQL and over HTTP.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class UserBatchBenchmark {
+
+    @Param({"100000"})
+    public int users;
+
+    /** A direct conversation, a group and a large group's member panel. */
+    @Param({"2", "50", "500"})
+    public int batchSize;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private UserRepository userRepository;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:user-batch;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.chatapp.userservice.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.query.in_clause_parameter_padding", "true"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        userRepository = new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class);
+
+        String passwordHash = "$2a$10$" + "x".repeat(53);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO users (id, username, email, "
+                     + "password_hash, full_name, avatar_url, status, profile_version, token_generation, created_at, "
+                     + "updated_at) VALUES (?, ?, ?, ?, ?, ?, 'ACTIVE', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")) {
+            for (int i = 1; i <= users; i++) {
+                String username = String.format("user%07d", i);
+                insert.setLong(1, i);
+                insert.setString(2, username);
+                insert.setString(3, username + "@example.com");
+                insert.setString(4, passwordHash);
+                insert.setString(5, "User " + i);
+                insert.setString(6, "/storage/avatars/" + username + ".png");
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        Random random = new Random(42);
+        ids = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            ids.add(1L + random.nextInt(users));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Previous path: one primary key lookup per participant, each mapped to a response.
+     */
+    @Benchmark
+    public List<UserResponse> sequentialLookups() {
+        try {
+            List<UserResponse> responses = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                userRepository.findById(id).map(UserResponse::fromUser).ifPresent(responses::add);
+            }
+            return responses;
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Current path: every participant selected as a projection in one IN query.
+     */
+    @Benchmark
+    public List<UserResponse> batchQuery() {
+        try {
+            return userRepository.findResponsesByIdIn(ids);
+        } finally {
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.chatapp.benchmarks.userservice;
+
+import com.chatapp.userservice.dto.UserResponse;
+import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the previous unbounded user search, which loaded full {@code User} entities
+ * and mapped them to responses, with one keyset page selected as {@code UserResponse}
+ * projections through {@code UserRepository.searchPage}. Both include JSON serialization
+ * of the response body. Queries run through Hibernate on an in-memory H2 database; run
+ * with {@code -prof gc} to see the allocation per search next to the latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class UserPageBenchmark {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson"};
+
+    // The search query before keyset pagination
+    private static final String UNBOUNDED_SEARCH = "SELECT u FROM User u WHERE " +
+            "LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%'))";
+
+    @Param({"100000"})
+    public int users;
+
+    /** A keyword matching every user, and a frequent last name. */
+    @Param({"a", "garcia"})
+    public String keyword;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:user-page;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.chatapp.userservice.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        userRepository = new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class);
+
+        Random random = new Random(42);
+        String passwordHash = "$2a$10$" + "x".repeat(53);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO users (id, username, email, "
+                     + "password_hash, full_name, avatar_url, status, profile_version, token_generation, created_at, "
+                     + "updated_at) VALUES (?, ?, ?, ?, ?, ?, 'ACTIVE', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")) {
+            for (int i = 1; i <= users; i++) {
+                String username = String.format("user%07d", i);
+                insert.setLong(1, i);
+                insert.setString(2, username);
+                insert.setString(3, username + "@example.com");
+                insert.setString(4, passwordHash);
+                insert.setString(5, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                insert.setString(6, "/storage/avatars/" + username + ".png");
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Previous path: every matching user loaded as a managed entity, then mapped.
+     */
+    @Benchmark
+    public byte[] unboundedEntities() throws JsonProcessingException {
+        try {
+            List<UserResponse> responses = entityManager.createQuery(UNBOUNDED_SEARCH, User.class)
+                    .setParameter("keyword", keyword)
+                    .getResultList()
+                    .stream()
+                    .map(UserResponse::fromUser)
+                    .collect(Collectors.toList());
+            return objectMapper.writeValueAsBytes(responses);
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Current path: one page plus the look-ahead row, selected as projections.
+     */
+    @Benchmark
+    public byte[] keysetProjection() throws JsonProcessingException {
+        try {
+            List<UserResponse> page = userRepository.searchPage(keyword, PageRequest.of(0, pageSize + 1));
+            return objectMapper.writeValueAsBytes(page.subList(0, Math.min(pageSize, page.size())));
+        } finally {
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.chatapp.benchmarks.userservice;
+
+import com.chatapp.userservice.dto.UserResponse;
+import com.chatapp.userservice.repository.UserRepository;
+import com.chatapp.userservice.service.cache.ProfileInvalidationChannel;
+import com.chatapp.userservice.service.cache.UserProfileCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Compares profile reads by id straight from the database with reads through
+ * {@code UserProfileCache} as {@code UserService.getUserById} does them, over a skewed
+ * (Zipf) popularity of users. On the cached path one read in {@code readsPerChange}
+ * is preceded by a profile change on another instance, delivered as an invalidation.
+ * The cache sees the whole read sequence once during setup, and each iteration then
+ * prints the share of cached reads answered without the database.
+ * Queries run through Hibernate on an in-memory H2 database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class UserProfileCacheBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 20;
+
+    @Param({"100000"})
+    public int users;
+
+    /** Room for a tenth of the users, and for all of them (the default). */
+    @Param({"10000", "100000"})
+    public int maxEntries;
+
+    @Param({"1000"})
+    public int readsPerChange;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private UserRepository userRepository;
+    private UserProfileCache cache;
+    private LongConsumer otherInstances;
+    private long[] reads;
+    private long[] changes;
+    private int next;
+    private long cachedReads;
+    private long databaseReads;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:user-profile-cache;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.chatapp.userservice.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = entityManagerFactory.createEntityManager();
+        userRepository = new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class);
+
+        String passwordHash = "$2a$10$" + "x".repeat(53);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO users (id, username, email, "
+                     + "password_hash, full_name, avatar_url, status, profile_version, token_generation, created_at, "
+                     + "updated_at) VALUES (?, ?, ?, ?, ?, ?, 'ACTIVE', 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")) {
+            for (int i = 1; i <= users; i++) {
+                String username = String.format("user%07d", i);
+                insert.setLong(1, i);
+                insert.setString(2, username);
+                insert.setString(3, username + "@example.com");
+                insert.setString(4, passwordHash);
+                insert.setString(5, "User " + i);
+                insert.setString(6, "/storage/avatars/" + username + ".png");
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        cache = new UserProfileCache(true, maxEntries, 300_000, 5_000, new ProfileInvalidationChannel() {
+            @Override
+            public void publish(long userId) {
+            }
+
+            @Override
+            public void subscribe(LongConsumer listener) {
+                otherInstances = listener;
+            }
+        });
+
+        // Popularity rank r is read with probability proportional to 1 / r
+        Random random = new Random(42);
+        double[] cumulative = new double[users];
+        double sum = 0;
+        for (int rank = 0; rank < users; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        long[] idsByRank = new long[users];
+        for (int i = 0; i < users; i++) {
+            idsByRank[i] = i + 1;
+        }
+        for (int i = users - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = idsByRank[i];
+            idsByRank[i] = idsByRank[j];
+            idsByRank[j] = swap;
+        }
+        reads = new long[SEQUENCE_LENGTH];
+        changes = new long[SEQUENCE_LENGTH];
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            reads[i] = idsByRank[rank >= 0 ? rank : Math.min(-rank - 1, users - 1)];
+            changes[i] = 1 + random.nextInt(users);
+        }
+
+        // Steady state: the cache has seen the whole read sequence once
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            cached();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounts() {
+        cachedReads = 0;
+        databaseReads = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHitRatio() {
+        if (cachedReads + databaseReads > 0) {
+            System.out.printf("%nHit ratio: %.4f over %d reads, %d profiles cached%n",
+                    (double) cachedReads / (cachedReads + databaseReads), cachedReads + databaseReads, cache.size());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Previous path: every read loads the user by primary key.
+     */
+    @Benchmark
+    public UserResponse database() {
+        long id = reads[next++ & (SEQUENCE_LENGTH - 1)];
+        try {
+            return userRepository.findById(id).map(UserResponse::fromUser).orElse(null);
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Current path: cache first, loading and caching the user on a miss.
+     */
+    @Benchmark
+    public UserResponse cached() {
+        int position = next++ & (SEQUENCE_LENGTH - 1);
+        if (position % readsPerChange == 0) {
+            otherInstances.accept(changes[position]);
+        }
+        long id = reads[position];
+        UserResponse user = cache.get(id);
+        if (user != null) {
+            cachedReads++;
+            return user;
+        }
+        databaseReads++;
+        long stamp = cache.stamp();
+        try {
+            user = userRepository.findById(id).map(UserResponse::fromUser).orElse(null);
+        } finally {
+            entityManager.clear();
+        }
+        if (user != null) {
+            cache.put(user, stamp);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,42 @@
+package com.chatapp.benchmarks.userservice;
+
+import com.chatapp.userservice.dto.UserResponse;
+import com.chatapp.userservice.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entity to DTO mapping done for every user returned by the API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserResponseMappingBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .username("benchmark-user")
+                .email("benchmark@example.com")
+                .passwordHash("$2a$10$abcdefghijklmnopqrstuuJ5P8o0R2Dq1w6k1w1s4c2cYyBqfQm6")
+                .fullName("Benchmark User")
+                .avatarUrl("/storage/avatars/benchmark.png")
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse fromUser() {
+        return UserResponse.fromUser(user);
+    }
+}
@@ -0,0 +1,129 @@
+package com.chatapp.benchmarks.userservice;
+
+import com.chatapp.userservice.service.search.TrigramIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares user search through the in-memory {@code TrigramIndex} with the
+ * LIKE query user search ran before pagination, against an in-memory H2 copy of the
+ * same generated users. H2 keeps every row in memory, so the SQL side is a lower bound
+ * for the full table scan MySQL performs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class UserSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson"};
+    private static final String[] DOMAINS = {"example.com", "mail.example.org", "chat.example.net"};
+
+    // Same predicate as UserRepository.MATCHES_KEYWORD, without a limit
+    private static final String SEARCH_SQL = "SELECT id, username, email, password_hash, full_name, avatar_url, "
+            + "status, created_at, updated_at FROM users WHERE "
+            + "LOWER(username) LIKE LOWER(CONCAT('%', ?, '%')) OR "
+            + "LOWER(full_name) LIKE LOWER(CONCAT('%', ?, '%')) OR "
+            + "LOWER(email) LIKE LOWER(CONCAT('%', ?, '%'))";
+
+    @Param({"1000000"})
+    public int users;
+
+    /** A frequent last name, one exact username, and a string matching nothing. */
+    @Param({"garcia", "user0424242", "zzqx"})
+    public String keyword;
+
+    @Param({"50"})
+    public int limit;
+
+    private TrigramIndex index;
+    private Connection connection;
+    private PreparedStatement search;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:user-search;MODE=MySQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50) NOT NULL, "
+                    + "email VARCHAR(100) NOT NULL, password_hash VARCHAR(255) NOT NULL, full_name VARCHAR(100), "
+                    + "avatar_url VARCHAR(255), status VARCHAR(20) NOT NULL, created_at TIMESTAMP, updated_at TIMESTAMP)");
+        }
+        index = new TrigramIndex();
+        Random random = new Random(42);
+        String passwordHash = "$2a$10$" + "x".repeat(53);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO users VALUES "
+                + "(?, ?, ?, ?, ?, NULL, 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")) {
+            for (int i = 0; i < users; i++) {
+                String username = String.format("user%07d", i);
+                String fullName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                String email = username + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+                index.put(i, username, username, fullName, email);
+                insert.setLong(1, i);
+                insert.setString(2, username);
+                insert.setString(3, email);
+                insert.setString(4, passwordHash);
+                insert.setString(5, fullName);
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        index.compact();
+        search = connection.prepareStatement(SEARCH_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Current path: the unbounded LIKE query, reading every matching row.
+     */
+    @Benchmark
+    public int sqlLikeQuery() throws SQLException {
+        search.setString(1, keyword);
+        search.setString(2, keyword);
+        search.setString(3, keyword);
+        int rows = 0;
+        try (ResultSet resultSet = search.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Indexed path: matching ids up to the result limit.
+     */
+    @Benchmark
+    public List<Long> trigramIndex() {
+        return index.search(keyword, limit);
+    }
+
+    /**
+     * Indexed keyset path: the first page in username order, which visits every match.
+     */
+    @Benchmark
+    public List<Long> trigramIndexPage() {
+        return index.search(keyword, null, 0, limit);
+    }
+}
@@ -0,0 +1,41 @@
+package com.chatapp.benchmarks.userservice;
+
+import com.chatapp.userservice.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures token issuing and validation in user-service's {@link JwtUtil}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceJwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "mySecretKey123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 900000);
+        ReflectionTestUtils.setField(jwtUtil, "jwtRefreshExpirationMs", 604800000);
+        token = jwtUtil.generateAccessToken("benchmark-user", 1L, 0L);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken("benchmark-user", 1L, 0L);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+}
@@ -0,0 +1,77 @@
+package com.chatapp.benchmarks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResultComparator class.
+ * Tests regression detection across throughput and average-time results.
+ */
+class ResultComparatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldPassWhenScoresAreWithinThreshold() throws IOException {
+        Path baseline = write("baseline.json", result("a.Bench.avg", "avgt", 100.0, "{}"));
+        Path current = write("current.json", result("a.Bench.avg", "avgt", 105.0, "{}"));
+
+        assertEquals(0, run(baseline, current, "10"));
+    }
+
+    @Test
+    void shouldFailWhenAverageTimeGrowsBeyondThreshold() throws IOException {
+        Path baseline = write("baseline.json", result("a.Bench.avg", "avgt", 100.0, "{}"));
+        Path current = write("current.json", result("a.Bench.avg", "avgt", 150.0, "{}"));
+
+        assertEquals(1, run(baseline, current, "10"));
+    }
+
+    @Test
+    void shouldFailWhenThroughputDropsBeyondThreshold() throws IOException {
+        Path baseline = write("baseline.json", result("a.Bench.ops", "thrpt", 1000.0, "{}"));
+        Path current = write("current.json", result("a.Bench.ops", "thrpt", 500.0, "{}"));
+
+        assertEquals(1, run(baseline, current, "10"));
+    }
+
+    @Test
+    void shouldCompareParameterizedRunsSeparately() throws IOException {
+        Path baseline = write("baseline.json",
+                result("a.Bench.matches", "avgt", 1.0, "{\"cost\":\"4\"}") + ","
+                        + result("a.Bench.matches", "avgt", 60.0, "{\"cost\":\"10\"}"));
+        Path current = write("current.json",
+                result("a.Bench.matches", "avgt", 1.0, "{\"cost\":\"4\"}") + ","
+                        + result("a.Bench.matches", "avgt", 61.0, "{\"cost\":\"10\"}"));
+
+        assertEquals(0, run(baseline, current, "10"));
+    }
+
+    @Test
+    void shouldReportUsageWithoutFiles() throws IOException {
+        assertEquals(2, ResultComparator.run(new String[0], new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    private int run(Path baseline, Path current, String threshold) throws IOException {
+        return ResultComparator.run(new String[]{baseline.toString(), current.toString(), threshold},
+                new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    private Path write(String name, String results) throws IOException {
+        return Files.writeString(tempDir.resolve(name), "[" + results + "]");
+    }
+
+    private static String result(String benchmark, String mode, double score, String params) {
+        return "{\"benchmark\":\"" + benchmark + "\",\"mode\":\"" + mode + "\",\"params\":" + params
+                + ",\"primaryMetric\":{\"score\":" + score + ",\"scoreUnit\":\"ns/op\"}}";
+    }
+}
@@ -0,0 +1,3 @@
+-- Profile version carried in access tokens, incremented on every profile update
+ALTER TABLE users
+    ADD COLUMN profile_version BIGINT NOT NULL DEFAULT 0 AFTER status;
@@ -0,0 +1,4 @@
+-- Name the unique keys so registration can tell a duplicate username from a duplicate email
+ALTER TABLE users
+    RENAME INDEX username TO uk_users_username,
+    RENAME INDEX email TO uk_users_email;
@@ -0,0 +1,17 @@
+-- Store refresh tokens as their SHA-256 digest instead of the full JWT
+ALTER TABLE refresh_tokens
+    ADD COLUMN token_hash BINARY(32) NULL AFTER id;
+
+UPDATE refresh_tokens
+    SET token_hash = UNHEX(SHA2(token, 256));
+
+ALTER TABLE refresh_tokens
+    MODIFY COLUMN token_hash BINARY(32) NOT NULL,
+    ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    DROP INDEX idx_token,
+    DROP COLUMN token;
+
+-- Plain indexes duplicating the unique keys on the same columns
+ALTER TABLE users
+    DROP INDEX idx_username,
+    DROP INDEX idx_email;
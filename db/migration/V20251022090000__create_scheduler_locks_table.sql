@@ -0,0 +1,8 @@
+-- One row per scheduled job; the instance holding an unexpired lease runs the job
+CREATE TABLE scheduler_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP(3) NOT NULL,
+    locked_by VARCHAR(255)
+);
+
+INSERT INTO scheduler_locks (name, locked_until) VALUES ('refresh-token-purge', '1970-01-01 00:00:01');
@@ -0,0 +1,16 @@
+-- One session per user and device; the least recently used sessions are evicted beyond the cap
+ALTER TABLE refresh_tokens
+    ADD COLUMN device_id VARCHAR(64) NULL AFTER user_id,
+    ADD COLUMN last_used_at TIMESTAMP(3) NULL AFTER expires_at;
+
+UPDATE refresh_tokens
+    SET device_id = CONCAT('legacy-', id),
+        last_used_at = created_at;
+
+-- The unique key leads with user_id, so it also serves the foreign key in place of idx_user_id
+ALTER TABLE refresh_tokens
+    MODIFY COLUMN device_id VARCHAR(64) NOT NULL,
+    MODIFY COLUMN last_used_at TIMESTAMP(3) NOT NULL,
+    ADD CONSTRAINT uk_refresh_tokens_user_device UNIQUE (user_id, device_id),
+    ADD INDEX idx_user_last_used (user_id, last_used_at),
+    DROP INDEX idx_user_id;
@@ -0,0 +1,4 @@
+-- Bumped to invalidate all refresh tokens of a user at once; changed rows are followed through updated_at
+ALTER TABLE users
+    ADD COLUMN token_generation BIGINT NOT NULL DEFAULT 0 AFTER profile_version,
+    ADD INDEX idx_updated_at (updated_at);
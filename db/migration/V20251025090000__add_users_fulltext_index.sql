@@ -0,0 +1,4 @@
+-- Backs search.mode=fulltext: MATCH ... AGAINST over the ngram parser, which splits text into
+-- ngram_token_size character tokens (default 2) so substrings inside words can be matched
+ALTER TABLE users
+    ADD FULLTEXT INDEX ft_users_search (username, full_name, email) WITH PARSER ngram;
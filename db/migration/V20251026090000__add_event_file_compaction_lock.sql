@@ -0,0 +1,2 @@
+-- Lease of the job dropping expired lines from the shared event files
+INSERT INTO scheduler_locks (name, locked_until) VALUES ('event-file-compaction', '1970-01-01 00:00:01');
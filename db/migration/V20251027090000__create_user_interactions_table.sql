@@ -0,0 +1,12 @@
+-- Interactions ranking typeahead suggestions; affinity is as of updated_at (epoch milliseconds)
+-- and halves every configured half-life. Only each caller's strongest contacts are kept.
+CREATE TABLE user_interactions (
+    caller_id BIGINT NOT NULL,
+    contact_id BIGINT NOT NULL,
+    affinity DOUBLE NOT NULL,
+    updated_at BIGINT NOT NULL,
+
+    PRIMARY KEY (caller_id, contact_id),
+    FOREIGN KEY (caller_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (contact_id) REFERENCES users(id) ON DELETE CASCADE
+);
@@ -23,7 +23,9 @@ export class AuthService {
   }
 
   login(credentials: UserLoginRequest): Observable<any> {
-    return this.userService.login(credentials).pipe(
+    // Reuse this browser's device id so logging in again replaces its session
+    const deviceId = localStorage.getItem('deviceId') || undefined;
+    return this.userService.login({ ...credentials, deviceId }).pipe(
       tap(response => {
         if (response.success && response.data) {
           this.setAuthData(response.data);
@@ -34,13 +36,14 @@ export class AuthService {
 
   logout(): Observable<any> {
     const refreshToken = this.getRefreshToken();
+    const accessToken = this.getAccessToken();
 
     // Clear local data first
     this.clearAuthData();
 
     // If we have refresh token, call logout API to revoke it (ignore errors)
     if (refreshToken) {
-      return this.userService.logout(refreshToken).pipe(
+      return this.userService.logout(refreshToken, accessToken).pipe(
         tap(() => console.log('Refresh token revoked successfully')),
         // Ignore errors - logout should always succeed locally
         catchError(() => {
@@ -73,9 +76,14 @@ export class AuthService {
   private setAuthData(authResponse: AuthResponse): void {
     localStorage.setItem('accessToken', authResponse.accessToken);
     localStorage.setItem('refreshToken', authResponse.refreshToken);
-    localStorage.setItem('currentUser', JSON.stringify(authResponse.user));
-
-    this.currentUserSubject.next(authResponse.user);
+    if (authResponse.deviceId) {
+      localStorage.setItem('deviceId', authResponse.deviceId);
+    }
+    // Refreshes served without a database lookup carry no user; keep the stored one
+    if (authResponse.user) {
+      localStorage.setItem('currentUser', JSON.stringify(authResponse.user));
+      this.currentUserSubject.next(authResponse.user);
+    }
     this.isAuthenticatedSubject.next(true);
   }
 
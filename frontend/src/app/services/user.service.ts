@@ -20,6 +20,7 @@ export interface UserRegistrationRequest {
 export interface UserLoginRequest {
   usernameOrEmail: string;
   password: string;
+  deviceId?: string;
 }
 
 export interface UserResponse {
@@ -33,6 +34,17 @@ export interface UserResponse {
   updatedAt: string;
 }
 
+export interface UserPage {
+  items: UserResponse[];
+  nextCursor?: string;
+}
+
+export interface UserBatchResponse {
+  // In request order; null where the id has no user
+  users: (UserResponse | null)[];
+  missingIds: number[];
+}
+
 export interface UserUpdateRequest {
   email?: string;
   fullName?: string;
@@ -42,8 +54,9 @@ export interface UserUpdateRequest {
 export interface AuthResponse {
   accessToken: string;
   refreshToken: string;
+  deviceId?: string;
   tokenType: string;
-  user: UserResponse;
+  user?: UserResponse;
 }
 
 @Injectable({
@@ -82,9 +95,44 @@ export class UserService {
     );
   }
 
-  searchUsers(keyword: string): Observable<ApiResponse<UserResponse[]>> {
+  getUserByUsername(username: string): Observable<ApiResponse<UserResponse>> {
+    return this.http.get<ApiResponse<UserResponse>>(`${this.apiUrl}/users/username/${encodeURIComponent(username)}`).pipe(
+      map(response => {
+        if (response.success && response.data) {
+          response.data = this.processUserResponse(response.data);
+        }
+        return response;
+      })
+    );
+  }
+
+  getUsersByIds(ids: number[]): Observable<ApiResponse<UserBatchResponse>> {
+    return this.http.post<ApiResponse<UserBatchResponse>>(`${this.apiUrl}/users/batch`, { ids }).pipe(
+      map(response => {
+        if (response.success && response.data) {
+          response.data.users = response.data.users.map(user => user ? this.processUserResponse(user) : null);
+        }
+        return response;
+      })
+    );
+  }
+
+  searchUsers(keyword: string, cursor?: string, limit?: number): Observable<ApiResponse<UserPage>> {
     const params = new HttpParams().set('keyword', keyword);
-    return this.http.get<ApiResponse<UserResponse[]>>(`${this.apiUrl}/users/search`, { params }).pipe(
+    return this.getUserPage(`${this.apiUrl}/users/search`, this.pageParams(params, cursor, limit));
+  }
+
+  listUsers(cursor?: string, limit?: number): Observable<ApiResponse<UserPage>> {
+    return this.getUserPage(`${this.apiUrl}/users`, this.pageParams(new HttpParams(), cursor, limit));
+  }
+
+  typeahead(prefix: string, limit?: number): Observable<ApiResponse<UserResponse[]>> {
+    // Ranked for the signed-in user, whose token the auth interceptor attaches
+    let params = new HttpParams().set('prefix', prefix);
+    if (limit) {
+      params = params.set('limit', limit);
+    }
+    return this.http.get<ApiResponse<UserResponse[]>>(`${this.apiUrl}/users/typeahead`, { params }).pipe(
       map(response => {
         if (response.success && response.data) {
           response.data = response.data.map(user => this.processUserResponse(user));
@@ -94,14 +142,42 @@ export class UserService {
     );
   }
 
+  recordInteraction(userId: number): Observable<ApiResponse<string>> {
+    return this.http.post<ApiResponse<string>>(`${this.apiUrl}/users/${userId}/interactions`, null);
+  }
+
+  private pageParams(params: HttpParams, cursor?: string, limit?: number): HttpParams {
+    // The cursor is the nextCursor of the previous page, passed back unchanged
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    if (limit) {
+      params = params.set('limit', limit);
+    }
+    return params;
+  }
+
+  private getUserPage(url: string, params: HttpParams): Observable<ApiResponse<UserPage>> {
+    return this.http.get<ApiResponse<UserPage>>(url, { params }).pipe(
+      map(response => {
+        if (response.success && response.data) {
+          response.data.items = response.data.items.map(user => this.processUserResponse(user));
+        }
+        return response;
+      })
+    );
+  }
+
   refreshToken(refreshToken: string): Observable<ApiResponse<AuthResponse>> {
     return this.http.post<ApiResponse<AuthResponse>>(`${this.apiUrl}/auth/refresh`, refreshToken, {
       headers: { 'Content-Type': 'text/plain' }
     });
   }
 
-  logout(refreshToken: string): Observable<ApiResponse<string>> {
-    return this.http.post<ApiResponse<string>>(`${this.apiUrl}/auth/logout`, { refreshToken });
+  logout(refreshToken: string, accessToken?: string | null): Observable<ApiResponse<string>> {
+    // The access token is sent explicitly so it is revoked too; local auth data is already cleared
+    const headers: { [header: string]: string } = accessToken ? { Authorization: `Bearer ${accessToken}` } : {};
+    return this.http.post<ApiResponse<string>>(`${this.apiUrl}/auth/logout`, { refreshToken }, { headers });
   }
 
   updateUser(id: number, request: UserUpdateRequest): Observable<ApiResponse<UserResponse>> {
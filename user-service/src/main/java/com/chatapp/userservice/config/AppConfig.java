@@ -1,5 +1,6 @@
 package com.chatapp.userservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -19,12 +20,14 @@ public class AppConfig {
 
     /**
      * Configures the password encoder for user password hashing.
+     * Hashing work is run through {@code PasswordHasher}, not on request threads.
      *
+     * @param cost the BCrypt cost new hashes are created with
      * @return BCryptPasswordEncoder instance for secure password hashing
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt-cost:10}") int cost) {
+        return new BCryptPasswordEncoder(cost);
     }
 
     /**
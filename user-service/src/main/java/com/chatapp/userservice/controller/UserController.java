@@ -1,9 +1,15 @@
 package com.chatapp.userservice.controller;
 
 import com.chatapp.userservice.dto.*;
+import com.chatapp.userservice.security.ClientAddressResolver;
+import com.chatapp.userservice.security.LoginThrottledException;
+import com.chatapp.userservice.security.PasswordHashingRejectedException;
+import com.chatapp.userservice.service.TokenRefreshService;
 import com.chatapp.userservice.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,9 +25,18 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class UserController {
 
+    /** Header carrying the numeric id of the caller, set by the API gateway from the verified access token. */
+    private static final String USER_NUMERIC_ID_HEADER = "X-User-Numeric-Id";
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenRefreshService tokenRefreshService;
+
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
     /**
      * Registers a new user in the system.
      *
@@ -34,6 +49,8 @@ public class UserController {
             UserResponse userResponse = userService.registerUser(request);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("User registered successfully", userResponse));
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error(e.getMessage()));
@@ -44,13 +61,21 @@ public class UserController {
      * Authenticates a user and returns access and refresh tokens.
      *
      * @param request the login request containing username/email and password
+     * @param httpRequest the servlet request the client address is taken from
      * @return ResponseEntity containing the API response with authentication tokens and user data
      */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> loginUser(@Valid @RequestBody UserLoginRequest request) {
+    public ResponseEntity<ApiResponse<AuthResponse>> loginUser(@Valid @RequestBody UserLoginRequest request,
+                                                               HttpServletRequest httpRequest) {
         try {
-            AuthResponse authResponse = userService.loginUser(request);
+            AuthResponse authResponse = userService.loginUser(request, clientAddressResolver.clientAddress(httpRequest));
             return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error(e.getMessage()));
@@ -71,15 +96,111 @@ public class UserController {
     }
 
     /**
-     * Searches for users based on a keyword matching username, email, or full name.
+     * Retrieves a user by their username, ignoring case.
+     *
+     * @param username the username of the user
+     * @return ResponseEntity containing the API response with user data or 404 if not found
+     */
+    @GetMapping("/username/{username}")
+    public ResponseEntity<ApiResponse<UserResponse>> getUserByUsername(@PathVariable String username) {
+        return userService.getUserByUsername(username)
+                .map(user -> ResponseEntity.ok(ApiResponse.success(user)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retrieves several users by their unique identifiers in one request, such as the
+     * participants of a conversation or the members of a group.
+     *
+     * @param request the batch request containing the user ids
+     * @return ResponseEntity containing the API response with the users in request order and the ids not found,
+     *         or 400 if too many ids are requested
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<UserBatchResponse>> getUsersByIds(@Valid @RequestBody UserBatchRequest request) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(userService.getUsersByIds(request.getIds())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Searches for users based on a keyword matching username, email, or full name,
+     * one page at a time in username order.
      *
      * @param keyword the search keyword to match against user fields
-     * @return ResponseEntity containing the API response with list of matching users
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, omitted for the default
+     * @return ResponseEntity containing the API response with a page of matching users or 400 for an invalid cursor
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<UserResponse>>> searchUsers(@RequestParam String keyword) {
-        List<UserResponse> users = userService.searchUsers(keyword);
-        return ResponseEntity.ok(ApiResponse.success(users));
+    public ResponseEntity<ApiResponse<UserPage>> searchUsers(@RequestParam String keyword,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(userService.searchUsers(keyword, cursor, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Suggests users with a word of their username or full name starting with the prefix,
+     * ranked by account status and, for an authenticated caller, their interaction history.
+     *
+     * @param prefix the start of a word of the username or full name
+     * @param limit the number of suggestions, omitted for the default
+     * @param callerId the numeric id of the caller, if identified by the gateway
+     * @return ResponseEntity containing the API response with the suggested users, best first
+     */
+    @GetMapping("/typeahead")
+    public ResponseEntity<ApiResponse<List<UserResponse>>> typeahead(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = USER_NUMERIC_ID_HEADER, required = false) Long callerId) {
+        return ResponseEntity.ok(ApiResponse.success(userService.typeahead(callerId, prefix, limit)));
+    }
+
+    /**
+     * Records that the caller interacted with a user, such as opening a conversation with
+     * them, so that user ranks higher in the caller's typeahead suggestions.
+     *
+     * @param id the unique identifier of the user the caller interacted with
+     * @param callerId the numeric id of the caller, set by the gateway
+     * @return ResponseEntity containing the API response with confirmation or 400 if the caller is not identified
+     */
+    @PostMapping("/{id}/interactions")
+    public ResponseEntity<ApiResponse<String>> recordInteraction(
+            @PathVariable Long id,
+            @RequestHeader(value = USER_NUMERIC_ID_HEADER, required = false) Long callerId) {
+        try {
+            userService.recordInteraction(callerId, id);
+            return ResponseEntity.ok(ApiResponse.success("Interaction recorded"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Lists all users one page at a time in username order.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, omitted for the default
+     * @return ResponseEntity containing the API response with a page of users or 400 for an invalid cursor
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<UserPage>> listUsers(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(userService.listUsers(cursor, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     /**
@@ -91,7 +212,7 @@ public class UserController {
     @PostMapping("/refresh")
     public ResponseEntity<ApiResponse<AuthResponse>> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
         try {
-            AuthResponse authResponse = userService.refreshAccessToken(request.getRefreshToken());
+            AuthResponse authResponse = tokenRefreshService.refresh(request.getRefreshToken());
             return ResponseEntity.ok(ApiResponse.success("Token refreshed successfully", authResponse));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
@@ -100,14 +221,21 @@ public class UserController {
     }
 
     /**
-     * Logs out a user by revoking their refresh token.
+     * Logs out a user by revoking their refresh token and, when sent along, their access token.
      *
      * @param refreshToken the refresh token to revoke
+     * @param authorization the optional Authorization header carrying the access token to revoke
      * @return ResponseEntity containing the API response with logout confirmation
      */
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<String>> logout(@Valid @RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<ApiResponse<String>> logout(
+            @Valid @RequestBody RefreshTokenRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
         try {
+            String accessToken = bearerToken(authorization);
+            if (accessToken != null) {
+                userService.revokeAccessToken(accessToken);
+            }
             userService.revokeRefreshToken(request.getRefreshToken());
             return ResponseEntity.ok(ApiResponse.success("Logged out successfully"));
         } catch (RuntimeException e) {
@@ -136,4 +264,30 @@ public class UserController {
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the response for a request refused because password hashing is saturated.
+     *
+     * @param e the rejection
+     * @param <T> the response payload type
+     * @return ResponseEntity with status 503 and a Retry-After header
+     */
+    private <T> ResponseEntity<ApiResponse<T>> serviceUnavailable(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(e.getMessage()));
+    }
+
+    /**
+     * Gets the token of a bearer Authorization header.
+     *
+     * @param authorization the Authorization header, or null
+     * @return the token, or null if the header is missing or not a bearer token
+     */
+    private String bearerToken(String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            return authorization.substring("Bearer ".length());
+        }
+        return null;
+    }
+}
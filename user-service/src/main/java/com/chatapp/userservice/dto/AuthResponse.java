@@ -11,6 +11,7 @@ import lombok.Builder;
 public class AuthResponse {
     private String accessToken;
     private String refreshToken;
+    private String deviceId;
     @Builder.Default
     private String tokenType = "Bearer";
     private UserResponse user;
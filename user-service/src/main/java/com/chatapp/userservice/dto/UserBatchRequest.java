@@ -0,0 +1,25 @@
+package com.chatapp.userservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data transfer object for looking up several users at once, such as the participants
+ * of a conversation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchRequest {
+
+    /**
+     * The ids of the users to look up, in the order the results are wanted.
+     */
+    @NotEmpty(message = "Ids must not be empty")
+    private List<@NotNull(message = "Ids must not be null") Long> ids;
+}
@@ -0,0 +1,17 @@
+package com.chatapp.userservice.dto;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the users of a batch lookup, in request order. Ids without
+ * a user have a null entry in {@code users} and are listed in {@code missingIds}.
+ */
+@Data
+@Builder
+public class UserBatchResponse {
+    private List<UserResponse> users;
+    private List<Long> missingIds;
+}
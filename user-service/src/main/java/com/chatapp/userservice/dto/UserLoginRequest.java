@@ -1,6 +1,7 @@
 package com.chatapp.userservice.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 /**
@@ -13,4 +14,10 @@ public class UserLoginRequest {
 
     @NotBlank(message = "Password is required")
     private String password;
+
+    /**
+     * Identifies the client device across logins; a new one is assigned when absent.
+     */
+    @Size(max = 64, message = "Device id must be at most 64 characters")
+    private String deviceId;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.chatapp.userservice.dto;
+
+import lombok.Data;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of users ordered by username, with the cursor
+ * that continues after it.
+ */
+@Data
+@Builder
+public class UserPage {
+    private List<UserResponse> items;
+    private String nextCursor;
+}
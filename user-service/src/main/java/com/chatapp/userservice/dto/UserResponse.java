@@ -1,16 +1,19 @@
 package com.chatapp.userservice.dto;
 
 import com.chatapp.userservice.model.User;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Builder;
 import java.time.LocalDateTime;
 
 /**
  * Data Transfer Object for user response containing user information
- * without sensitive data like password hash.
+ * without sensitive data like password hash. Repository queries select it directly
+ * through the all-arguments constructor, reading only these columns.
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class UserResponse {
     private Long id;
     private String username;
@@ -1,7 +1,9 @@
 package com.chatapp.userservice.model;
 
+import com.chatapp.userservice.security.TokenDigest;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -10,7 +12,9 @@ import java.time.LocalDateTime;
 
 /**
  * Entity representing a refresh token for user authentication.
- * Stores JWT refresh tokens with expiration information.
+ * Each row is the session of one user on one device. Stores the SHA-256 digest of
+ * the session's current JWT refresh token with expiration information; the token
+ * itself is never persisted.
  */
 @Entity
 @Table(name = "refresh_tokens")
@@ -23,27 +27,41 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @NotBlank
-    @Column(unique = true, nullable = false)
-    private String token;
+    @NotNull
+    @Column(name = "token_hash", nullable = false, unique = true, length = TokenDigest.LENGTH,
+            columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    /**
+     * Identifies the client device; a user has at most one session per device.
+     */
+    @NotBlank
+    @Column(name = "device_id", nullable = false, length = 64)
+    private String deviceId;
+
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
 
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     /**
      * JPA lifecycle callback method executed before entity persistence.
-     * Sets the creation timestamp.
+     * Sets the creation timestamp, and the last use if not set.
      */
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        if (lastUsedAt == null) {
+            lastUsedAt = createdAt;
+        }
     }
 
     /**
@@ -15,25 +15,35 @@ import java.time.LocalDateTime;
  * Contains user authentication and profile information.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class User {
+
+    /** Name of the unique key on {@code users.username}. */
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+
+    /** Name of the unique key on {@code users.email}. */
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotBlank
     @Size(min = 3, max = 50)
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
 
     @NotBlank
     @Email
     @Size(max = 100)
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @NotBlank
@@ -54,6 +64,22 @@ public class User {
     @Builder.Default
     private UserStatus status = UserStatus.ACTIVE;
 
+    /**
+     * Incremented on every profile change; carried in access tokens so downstream
+     * services can tell whether profile data they hold is current.
+     */
+    @Column(name = "profile_version", nullable = false)
+    @Builder.Default
+    private Long profileVersion = 0L;
+
+    /**
+     * Carried in refresh tokens; incrementing it invalidates every refresh token of the
+     * user that was issued before.
+     */
+    @Column(name = "token_generation", nullable = false)
+    @Builder.Default
+    private Long tokenGeneration = 0L;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
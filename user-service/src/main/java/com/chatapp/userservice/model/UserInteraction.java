@@ -0,0 +1,55 @@
+package com.chatapp.userservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Entity representing a caller's affinity for another user, raised by each interaction
+ * and used to rank typeahead suggestions. The affinity is as of {@code updatedAt} and
+ * decays from there.
+ */
+@Entity
+@Table(name = "user_interactions")
+@IdClass(UserInteraction.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserInteraction {
+    @Id
+    @Column(name = "caller_id")
+    private Long callerId;
+
+    @Id
+    @Column(name = "contact_id")
+    private Long contactId;
+
+    @Column(nullable = false)
+    private double affinity;
+
+    /**
+     * Time of the last interaction in epoch milliseconds.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private long updatedAt;
+
+    /**
+     * Primary key of an interaction: the caller and the user they interacted with.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long callerId;
+        private Long contactId;
+    }
+}
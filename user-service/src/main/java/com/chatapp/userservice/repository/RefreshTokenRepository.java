@@ -5,7 +5,9 @@ import com.chatapp.userservice.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -18,12 +20,23 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
     /**
-     * Finds a refresh token by its token value.
+     * Finds a refresh token by the digest of its value, loading its user in the same query.
      *
-     * @param token the token string to search for
-     * @return Optional containing the refresh token if found
+     * @param tokenHash the SHA-256 digest of the token
+     * @return Optional containing the refresh token with its user if found
      */
-    Optional<RefreshToken> findByToken(String token);
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findWithUserByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    /**
+     * Deletes a refresh token by the digest of its value.
+     *
+     * @param tokenHash the SHA-256 digest of the token
+     * @return the number of deleted tokens
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") byte[] tokenHash);
 
     /**
      * Deletes refresh tokens associated with a specific user.
@@ -33,13 +46,73 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     void deleteByUser(User user);
 
     /**
-     * Deletes all expired refresh tokens.
+     * Creates the session of a user on a device, or replaces the token of the existing
+     * session on that device, in a single statement.
+     *
+     * @param userId the user id
+     * @param deviceId the device id
+     * @param tokenHash the SHA-256 digest of the new token
+     * @param expiresAt when the new token expires
+     * @param now the current date and time
+     * @return the number of affected rows as reported by the database
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO refresh_tokens (user_id, device_id, token_hash, expires_at, last_used_at, created_at) " +
+                   "VALUES (:userId, :deviceId, :tokenHash, :expiresAt, :now, :now) " +
+                   "ON DUPLICATE KEY UPDATE token_hash = VALUES(token_hash), expires_at = VALUES(expires_at), " +
+                   "last_used_at = VALUES(last_used_at)",
+           nativeQuery = true)
+    int upsertSession(@Param("userId") Long userId, @Param("deviceId") String deviceId,
+                      @Param("tokenHash") byte[] tokenHash, @Param("expiresAt") LocalDateTime expiresAt,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes the least recently used sessions of a user beyond the given number, in a
+     * single statement.
+     *
+     * @param userId the user id
+     * @param keep the number of most recently used sessions to keep
+     * @return the number of evicted sessions
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE user_id = :userId AND id NOT IN (" +
+                   "SELECT id FROM (SELECT id FROM refresh_tokens WHERE user_id = :userId " +
+                   "ORDER BY last_used_at DESC, id DESC LIMIT :keep) newest)",
+           nativeQuery = true)
+    int evictOldestSessions(@Param("userId") Long userId, @Param("keep") int keep);
+
+    /**
+     * Replaces the token of a session in place, provided it still holds the presented token.
+     *
+     * @param id the session id
+     * @param currentHash the SHA-256 digest of the presented token
+     * @param newHash the SHA-256 digest of the new token
+     * @param expiresAt when the new token expires
+     * @param now the current date and time
+     * @return 1 if the token was replaced, 0 if the session no longer holds the presented token
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken rt SET rt.tokenHash = :newHash, rt.expiresAt = :expiresAt, rt.lastUsedAt = :now " +
+           "WHERE rt.id = :id AND rt.tokenHash = :currentHash")
+    int rotate(@Param("id") Long id, @Param("currentHash") byte[] currentHash, @Param("newHash") byte[] newHash,
+               @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes up to {@code limit} expired refresh tokens, oldest first, walking
+     * {@code idx_expires_at} so each call locks only a bounded range of rows.
      *
      * @param now the current date and time for comparison
+     * @param limit the maximum number of tokens to delete
+     * @return the number of deleted tokens
      */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :now")
-    void deleteExpiredTokens(LocalDateTime now);
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < :now ORDER BY expires_at LIMIT :limit",
+           nativeQuery = true)
+    int deleteExpiredChunk(@Param("now") LocalDateTime now, @Param("limit") int limit);
 
     /**
      * Deletes all refresh tokens for a specific user.
@@ -0,0 +1,49 @@
+package com.chatapp.userservice.repository;
+
+import com.chatapp.userservice.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for SchedulerLock entity operations.
+ * Acquires and releases job leases with single conditional updates, so competing
+ * instances never both hold the same lease.
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * Takes the lease on a job if it has expired or is already held by the caller.
+     *
+     * @param name the job name
+     * @param owner the identifier of the calling instance
+     * @param now the current date and time
+     * @param until when the lease should expire
+     * @return 1 if the lease was taken, 0 if another instance holds it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :until, l.lockedBy = :owner " +
+           "WHERE l.name = :name AND (l.lockedUntil <= :now OR l.lockedBy = :owner)")
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+                   @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Gives up the lease on a job if the caller holds it.
+     *
+     * @param name the job name
+     * @param owner the identifier of the calling instance
+     * @param now the current date and time
+     * @return 1 if the lease was released, 0 if the caller did not hold it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
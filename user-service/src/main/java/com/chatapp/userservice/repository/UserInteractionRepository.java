@@ -0,0 +1,68 @@
+package com.chatapp.userservice.repository;
+
+import com.chatapp.userservice.model.UserInteraction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository interface for UserInteraction entity operations.
+ * Affinities are decayed in the statements themselves, so instances recording
+ * interactions of the same caller never overwrite each other's counts.
+ */
+@Repository
+public interface UserInteractionRepository extends JpaRepository<UserInteraction, UserInteraction.Key> {
+
+    /**
+     * Finds the interactions of a caller.
+     *
+     * @param callerId the id of the caller
+     * @return the caller's interactions in no particular order
+     */
+    List<UserInteraction> findByCallerId(Long callerId);
+
+    /**
+     * Adds one to a caller's affinity for another user after decaying it to the given
+     * time, creating the interaction if it does not exist, in a single statement.
+     *
+     * @param callerId the id of the caller
+     * @param contactId the id of the user the caller interacted with
+     * @param now the current time in epoch milliseconds
+     * @param halfLifeMillis the time after which an interaction counts half
+     * @return the number of affected rows as reported by the database
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO user_interactions (caller_id, contact_id, affinity, updated_at) " +
+                   "VALUES (:callerId, :contactId, 1, :now) " +
+                   "ON DUPLICATE KEY UPDATE affinity = affinity * POWER(0.5, (:now - updated_at) / :halfLifeMillis) + 1, " +
+                   "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int record(@Param("callerId") Long callerId, @Param("contactId") Long contactId,
+               @Param("now") long now, @Param("halfLifeMillis") double halfLifeMillis);
+
+    /**
+     * Deletes the weakest interactions of a caller beyond the given number, in a single
+     * statement.
+     *
+     * @param callerId the id of the caller
+     * @param now the current time in epoch milliseconds
+     * @param halfLifeMillis the time after which an interaction counts half
+     * @param keep the number of strongest interactions to keep
+     * @return the number of deleted interactions
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM user_interactions WHERE caller_id = :callerId AND contact_id NOT IN (" +
+                   "SELECT contact_id FROM (SELECT contact_id FROM user_interactions WHERE caller_id = :callerId " +
+                   "ORDER BY affinity * POWER(0.5, (:now - updated_at) / :halfLifeMillis) DESC, contact_id " +
+                   "LIMIT :keep) strongest)",
+           nativeQuery = true)
+    int deleteWeakest(@Param("callerId") Long callerId, @Param("now") long now,
+                      @Param("halfLifeMillis") double halfLifeMillis, @Param("keep") int keep);
+}
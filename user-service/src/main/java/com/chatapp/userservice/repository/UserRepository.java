@@ -1,13 +1,26 @@
 package com.chatapp.userservice.repository;
 
+import com.chatapp.userservice.dto.UserResponse;
 import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.security.UserTokenState;
+import com.chatapp.userservice.service.search.UserSearchDocument;
+import com.chatapp.userservice.service.search.UserSearchHit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for User entity operations.
@@ -16,6 +29,27 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /** Constructor expression selecting the columns of a {@link UserResponse}. */
+    String USER_RESPONSE = "new com.chatapp.userservice.dto.UserResponse(u.id, u.username, u.email, u.fullName, " +
+            "u.avatarUrl, u.status, u.createdAt, u.updatedAt)";
+
+    /** Keyset condition for the position after {@code :username} and {@code :id}. */
+    String AFTER_CURSOR = "(u.username > :username OR (u.username = :username AND u.id > :id))";
+
+    /** Case-insensitive substring match of {@code :keyword} on username, full name or email. */
+    String MATCHES_KEYWORD = "(LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')))";
+
+    /**
+     * Users matching {@code :query} through the {@code ft_users_search} FULLTEXT index, with
+     * their relevance. MATCH in the select list and in the filter is evaluated once by MySQL.
+     */
+    String FULLTEXT_MATCHES = "(SELECT u.id, u.username, u.email, u.full_name AS fullName, " +
+            "u.avatar_url AS avatarUrl, u.status, u.created_at AS createdAt, u.updated_at AS updatedAt, " +
+            "MATCH(u.username, u.full_name, u.email) AGAINST (:query IN BOOLEAN MODE) AS relevance " +
+            "FROM users u WHERE MATCH(u.username, u.full_name, u.email) AGAINST (:query IN BOOLEAN MODE)) m";
+
     /**
      * Finds a user by their username.
      *
@@ -32,6 +66,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Finds the users whose username or email equals the given value, in one query served
+     * by the unique indexes on both columns. At most two users can match: one by username
+     * and another by email.
+     *
+     * @param usernameOrEmail the username or email address to search for
+     * @return List of matching users
+     */
+    @Query("SELECT u FROM User u WHERE u.username = :value OR u.email = :value")
+    List<User> findByUsernameOrEmail(@Param("value") String usernameOrEmail);
+
+    /**
+     * Finds the usernames of the users holding the given username or email, in one query
+     * served by the unique indexes on both columns, without loading the users.
+     *
+     * @param username the username to look for
+     * @param email the email address to look for
+     * @return the usernames of the matching users; at most two
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username = :username OR u.email = :email")
+    List<String> findUsernamesByUsernameOrEmail(@Param("username") String username, @Param("email") String email);
+
     /**
      * Checks if a user exists with the given username.
      *
@@ -49,16 +105,144 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     /**
-     * Searches for users by keyword matching username, full name, or email.
+     * Finds the first page of users ordered by username and id, selecting only the
+     * columns of the response. Served by the unique index on username.
+     *
+     * @param page the page size; the page number must be 0
+     * @return the first users in username order
+     */
+    @Query("SELECT " + USER_RESPONSE + " FROM User u ORDER BY u.username, u.id")
+    List<UserResponse> findPage(Pageable page);
+
+    /**
+     * Finds the page of users following the given position in username and id order,
+     * selecting only the columns of the response.
+     *
+     * @param username the username of the last user of the previous page
+     * @param id the id of the last user of the previous page
+     * @param page the page size; the page number must be 0
+     * @return the users after the given position in username order
+     */
+    @Query("SELECT " + USER_RESPONSE + " FROM User u WHERE " + AFTER_CURSOR + " ORDER BY u.username, u.id")
+    List<UserResponse> findPageAfter(@Param("username") String username, @Param("id") Long id, Pageable page);
+
+    /**
+     * Finds the first users whose username starts with the given pattern, in username
+     * order. A prefix pattern is a range scan of the unique username index.
+     *
+     * @param pattern the LIKE pattern, with {@code !} escaping wildcards in the prefix
+     * @param page the number of users; the page number must be 0
+     * @return the first matching users in username order
+     */
+    @Query("SELECT " + USER_RESPONSE + " FROM User u WHERE u.username LIKE :pattern ESCAPE '!' ORDER BY u.username, u.id")
+    List<UserResponse> findByUsernameLike(@Param("pattern") String pattern, Pageable page);
+
+    /**
+     * Finds the first page of users whose username, full name or email contains the
+     * keyword, ordered by username and id and selecting only the columns of the response.
      *
      * @param keyword the search keyword
-     * @return List of users matching the search criteria
+     * @param page the page size; the page number must be 0
+     * @return the first matching users in username order
+     */
+    @Query("SELECT " + USER_RESPONSE + " FROM User u WHERE " + MATCHES_KEYWORD + " ORDER BY u.username, u.id")
+    List<UserResponse> searchPage(@Param("keyword") String keyword, Pageable page);
+
+    /**
+     * Finds the page of users matching the keyword that follows the given position in
+     * username and id order, selecting only the columns of the response.
+     *
+     * @param keyword the search keyword
+     * @param username the username of the last user of the previous page
+     * @param id the id of the last user of the previous page
+     * @param page the page size; the page number must be 0
+     * @return the matching users after the given position in username order
+     */
+    @Query("SELECT " + USER_RESPONSE + " FROM User u WHERE " + AFTER_CURSOR + " AND " + MATCHES_KEYWORD +
+           " ORDER BY u.username, u.id")
+    List<UserResponse> searchPageAfter(@Param("keyword") String keyword, @Param("username") String username,
+                                       @Param("id") Long id, Pageable page);
+
+    /**
+     * Finds the first page of users matching a full-text boolean query, most relevant first.
+     * Needs the {@code ft_users_search} index, so it only runs on MySQL.
+     *
+     * @param query the boolean-mode query
+     * @param limit the maximum number of users returned
+     * @return the most relevant matching users with their relevance
+     */
+    @Query(value = "SELECT * FROM " + FULLTEXT_MATCHES + " ORDER BY m.relevance DESC, m.id LIMIT :limit",
+           nativeQuery = true)
+    List<UserSearchHit> fulltextSearchPage(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Finds the page of users matching a full-text boolean query that follows the given
+     * position in relevance order.
+     *
+     * @param query the boolean-mode query
+     * @param relevance the relevance of the last user of the previous page
+     * @param id the id of the last user of the previous page
+     * @param limit the maximum number of users returned
+     * @return the matching users after the given position with their relevance
+     */
+    @Query(value = "SELECT * FROM " + FULLTEXT_MATCHES + " WHERE m.relevance < :relevance OR " +
+                   "(m.relevance = :relevance AND m.id > :id) ORDER BY m.relevance DESC, m.id LIMIT :limit",
+           nativeQuery = true)
+    List<UserSearchHit> fulltextSearchPageAfter(@Param("query") String query, @Param("relevance") double relevance,
+                                                @Param("id") Long id, @Param("limit") int limit);
+
+    /**
+     * Finds the given users, selecting only the columns of the response.
+     *
+     * @param ids the user ids
+     * @return the users that exist, in no particular order
+     */
+    @Query("SELECT " + USER_RESPONSE + " FROM User u WHERE u.id IN :ids")
+    List<UserResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams the searchable fields of every user. The minimum fetch size makes MySQL
+     * Connector/J stream rows one by one instead of buffering the whole result, so the
+     * caller must consume the stream inside a transaction and close it.
+     *
+     * @return stream of search documents of all users
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.chatapp.userservice.service.search.UserSearchDocument(u.id, u.username, u.fullName, u.email, " +
+           "u.status) FROM User u")
+    Stream<UserSearchDocument> streamSearchDocuments();
+
+    /**
+     * Finds the searchable fields of users changed since the given time, as a change feed.
+     *
+     * @param since the earliest update time to include
+     * @return search documents of users updated at or after {@code since}
+     */
+    @Query("SELECT new com.chatapp.userservice.service.search.UserSearchDocument(u.id, u.username, u.fullName, u.email, " +
+           "u.status) FROM User u WHERE u.updatedAt >= :since")
+    List<UserSearchDocument> findSearchDocumentsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Finds the token state of users changed since the given time, as a change feed.
+     *
+     * @param since the earliest update time to include
+     * @return token states of users updated at or after {@code since}
+     */
+    @Query("SELECT new com.chatapp.userservice.security.UserTokenState(u.id, u.tokenGeneration, u.profileVersion) " +
+           "FROM User u WHERE u.updatedAt >= :since")
+    List<UserTokenState> findTokenStatesUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Increments the token generation of a user, invalidating all their refresh tokens.
+     *
+     * @param id the user id
+     * @param now the current date and time, recorded as the update time
+     * @return 1 if the user exists, 0 otherwise
      */
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<User> searchUsers(@Param("keyword") String keyword);
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenGeneration = u.tokenGeneration + 1, u.updatedAt = :now WHERE u.id = :id")
+    int incrementTokenGeneration(@Param("id") Long id, @Param("now") LocalDateTime now);
 
     /**
      * Finds all users with the specified status.
@@ -0,0 +1,67 @@
+package com.chatapp.userservice.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Determines the address of the client that sent a request, for keying per-source login
+ * throttling. Every proxy on the way (nginx, the API gateway) appends the address it
+ * received the request from to X-Forwarded-For, after whatever the client sent itself.
+ * The header is therefore read from the right: starting at the socket peer, each hop
+ * that is a trusted proxy is replaced by the entry it appended, and the first untrusted
+ * hop is the client. Entries left of it are client-supplied and ignored.
+ */
+@Component
+public class ClientAddressResolver {
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final TrustedProxies trustedProxies;
+
+    /**
+     * Creates the resolver.
+     *
+     * @param trustedProxies the proxies whose X-Forwarded-For entries are believed: IP addresses,
+     *                       CIDR ranges or host names
+     * @throws IllegalArgumentException if an address or range is malformed
+     */
+    public ClientAddressResolver(@Value("${login.trusted-proxies:127.0.0.1,::1}") List<String> trustedProxies) {
+        this.trustedProxies = new TrustedProxies(trustedProxies);
+    }
+
+    /**
+     * Gets the address of the client that sent a request.
+     *
+     * @param request the servlet request
+     * @return the address of the nearest hop that is not a trusted proxy
+     */
+    public String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || forwardedFor.isBlank()) {
+            return address;
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0 && trustedProxies.isTrusted(address); i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            address = hop;
+        }
+        return address;
+    }
+
+    /**
+     * Resolves the host names among the trusted proxies again, so proxies whose address
+     * changes, such as restarted containers, stay trusted.
+     */
+    @Scheduled(fixedDelayString = "${login.trusted-proxy-refresh-ms:30000}")
+    public void refreshTrustedProxies() {
+        trustedProxies.resolve();
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Utility class for JWT token operations including generation, validation, and extraction of claims.
@@ -14,6 +15,24 @@ import java.util.Date;
 @Component
 public class JwtUtil {
 
+    /** Claim holding the numeric id of the user ({@code users.id}). */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /** Claim holding the profile version of the user at the time the token was issued. */
+    public static final String PROFILE_VERSION_CLAIM = "pver";
+
+    /** Claim holding the token generation of the user a refresh token was issued in. */
+    public static final String TOKEN_GENERATION_CLAIM = "tgen";
+
+    /** Claim holding the token type, so refresh tokens are not accepted as access tokens. */
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+
+    /** Token type of access tokens. */
+    public static final String ACCESS_TOKEN_TYPE = "access";
+
+    /** Token type of refresh tokens. */
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -33,14 +52,23 @@ public class JwtUtil {
     }
 
     /**
-     * Generates an access token for the specified username.
+     * Generates an access token for the specified user. Besides the username as subject,
+     * the token carries the numeric user id and profile version so downstream services
+     * do not need to look the user up, a unique token id so it can be revoked, and its
+     * token type.
      *
-     * @param username the username to include in the token
+     * @param username       the username to include in the token
+     * @param userId         the numeric id of the user
+     * @param profileVersion the current profile version of the user
      * @return the generated access token
      */
-    public String generateAccessToken(String username) {
+    public String generateAccessToken(String username, Long userId, long profileVersion) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(PROFILE_VERSION_CLAIM, profileVersion)
+                .claim(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -48,14 +76,26 @@ public class JwtUtil {
     }
 
     /**
-     * Generates a refresh token for the specified username.
+     * Generates a refresh token for the specified user. Each token gets a unique id,
+     * so tokens issued within the same second still differ. The token carries the user's
+     * id, profile version and token generation, so it can be checked and exchanged for an
+     * access token without looking the user up. Its token type keeps the gateway from
+     * accepting it as an access token.
      *
-     * @param username the username to include in the token
+     * @param username        the username to include in the token
+     * @param userId          the numeric id of the user
+     * @param profileVersion  the current profile version of the user
+     * @param tokenGeneration the current token generation of the user
      * @return the generated refresh token
      */
-    public String generateRefreshToken(String username) {
+    public String generateRefreshToken(String username, Long userId, long profileVersion, long tokenGeneration) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(PROFILE_VERSION_CLAIM, profileVersion)
+                .claim(TOKEN_GENERATION_CLAIM, tokenGeneration)
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationMs))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -78,6 +118,21 @@ public class JwtUtil {
                 .getSubject();
     }
 
+    /**
+     * Verifies a JWT token and returns all of its claims.
+     *
+     * @param token the JWT token to parse
+     * @return the claims of the token
+     * @throws JwtException if token is invalid, expired or malformed
+     */
+    public Claims getClaimsFromToken(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
     /**
      * Validates whether a JWT token is valid and not expired.
      *
@@ -0,0 +1,257 @@
+package com.chatapp.userservice.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory tracker of failed logins per account and per client address, used to refuse
+ * credential-stuffing traffic before any database lookup or password hashing.
+ * Failures are counted in sliding windows approximated from the current and the previous
+ * fixed window, so each tracked key costs a few fields. The number of tracked keys is
+ * bounded; beyond it idle keys are dropped first, then arbitrary ones.
+ */
+@Component
+public class LoginAttemptTracker implements MeterBinder {
+
+    private final int maxAccountFailures;
+    private final int maxSourceFailures;
+    private final long windowMillis;
+    private final int maxTracked;
+    private final LongSupplier clock;
+
+    private final Map<String, SlidingWindow> accounts = new ConcurrentHashMap<>();
+    private final Map<String, SlidingWindow> sources = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder accountRejections = new LongAdder();
+    private final LongAdder sourceRejections = new LongAdder();
+
+    /**
+     * Creates the tracker.
+     *
+     * @param maxAccountFailures failed logins per account within a window before the account is refused
+     * @param maxSourceFailures  failed logins per client address within a window before the address is refused
+     * @param windowSeconds      length of the sliding window in seconds
+     * @param maxTracked         maximum number of accounts and addresses tracked each
+     */
+    @Autowired
+    public LoginAttemptTracker(@Value("${login.attempts.max-account-failures:10}") int maxAccountFailures,
+                               @Value("${login.attempts.max-source-failures:50}") int maxSourceFailures,
+                               @Value("${login.attempts.window-seconds:900}") long windowSeconds,
+                               @Value("${login.attempts.max-tracked:100000}") int maxTracked) {
+        this(maxAccountFailures, maxSourceFailures, windowSeconds, maxTracked, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the tracker with the given time source.
+     *
+     * @param maxAccountFailures failed logins per account within a window before the account is refused
+     * @param maxSourceFailures  failed logins per client address within a window before the address is refused
+     * @param windowSeconds      length of the sliding window in seconds
+     * @param maxTracked         maximum number of accounts and addresses tracked each
+     * @param clock              supplies the current time in epoch milliseconds
+     */
+    LoginAttemptTracker(int maxAccountFailures, int maxSourceFailures, long windowSeconds, int maxTracked,
+                        LongSupplier clock) {
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxSourceFailures = maxSourceFailures;
+        this.windowMillis = windowSeconds * 1000;
+        this.maxTracked = maxTracked;
+        this.clock = clock;
+    }
+
+    /**
+     * Refuses the attempt if the account or the client address is over its failure limit.
+     *
+     * @param account the username or email the client tries to log in with
+     * @param source  the client address, or null if unknown
+     * @throws LoginThrottledException if the attempt must be refused
+     */
+    public void checkAllowed(String account, String source) {
+        long now = clock.getAsLong();
+        // Each window is read once: a concurrent eviction may remove it between two lookups
+        SlidingWindow sourceWindow = source != null ? sources.get(source) : null;
+        if (isOver(sourceWindow, maxSourceFailures, now)) {
+            sourceRejections.increment();
+            throw new LoginThrottledException("Too many failed login attempts, please retry later",
+                    sourceWindow.secondsUntilBelow(maxSourceFailures, now, windowMillis));
+        }
+        String key = normalize(account);
+        SlidingWindow accountWindow = key != null ? accounts.get(key) : null;
+        if (isOver(accountWindow, maxAccountFailures, now)) {
+            accountRejections.increment();
+            throw new LoginThrottledException("Too many failed login attempts, please retry later",
+                    accountWindow.secondsUntilBelow(maxAccountFailures, now, windowMillis));
+        }
+    }
+
+    /**
+     * Counts a failed login against the account and the client address.
+     *
+     * @param account the username or email the client tried to log in with
+     * @param source  the client address, or null if unknown
+     */
+    public void recordFailure(String account, String source) {
+        long now = clock.getAsLong();
+        String key = normalize(account);
+        if (key != null) {
+            accounts.computeIfAbsent(key, k -> new SlidingWindow(now)).add(now, windowMillis);
+            evictIfNeeded(accounts, now);
+        }
+        if (source != null) {
+            sources.computeIfAbsent(source, k -> new SlidingWindow(now)).add(now, windowMillis);
+            evictIfNeeded(sources, now);
+        }
+    }
+
+    /**
+     * Clears the failures of an account after a successful login. Failures of the client
+     * address are kept, so one valid account cannot reset an address trying many others.
+     *
+     * @param account the username or email the client logged in with
+     */
+    public void recordSuccess(String account) {
+        String key = normalize(account);
+        if (key != null) {
+            accounts.remove(key);
+        }
+    }
+
+    /**
+     * Gets the number of tracked accounts and client addresses.
+     *
+     * @return the tracked key count
+     */
+    public int getTrackedCount() {
+        return accounts.size() + sources.size();
+    }
+
+    /**
+     * Registers login throttling metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("login.attempts.tracked", this, LoginAttemptTracker::getTrackedCount)
+                .description("Accounts and client addresses with recent failed logins")
+                .register(registry);
+        FunctionCounter.builder("login.attempts.rejected", accountRejections, LongAdder::sum)
+                .description("Login attempts refused before checking the password")
+                .tag("reason", "account")
+                .register(registry);
+        FunctionCounter.builder("login.attempts.rejected", sourceRejections, LongAdder::sum)
+                .description("Login attempts refused before checking the password")
+                .tag("reason", "source")
+                .register(registry);
+    }
+
+    private boolean isOver(SlidingWindow window, int limit, long now) {
+        return window != null && window.estimate(now, windowMillis) >= limit;
+    }
+
+    /**
+     * Keeps a map within the tracking bound, dropping idle keys first. Only one thread
+     * evicts at a time; others carry on without waiting.
+     *
+     * @param windows the map to shrink
+     * @param now     the current time in epoch milliseconds
+     */
+    private void evictIfNeeded(Map<String, SlidingWindow> windows, long now) {
+        if (windows.size() <= maxTracked || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            windows.values().removeIf(window -> window.isIdle(now, windowMillis));
+            Iterator<SlidingWindow> iterator = windows.values().iterator();
+            int target = maxTracked - maxTracked / 10;
+            while (windows.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String normalize(String account) {
+        if (account == null || account.isBlank()) {
+            return null;
+        }
+        return account.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Failure count over a sliding window, estimated from the count of the current fixed
+     * window plus the share of the previous window that still overlaps the sliding one.
+     */
+    private static final class SlidingWindow {
+
+        private long windowStart;
+        private int current;
+        private int previous;
+
+        SlidingWindow(long now) {
+            this.windowStart = now;
+        }
+
+        synchronized void add(long now, long windowMillis) {
+            roll(now, windowMillis);
+            current++;
+        }
+
+        synchronized double estimate(long now, long windowMillis) {
+            roll(now, windowMillis);
+            double elapsed = (now - windowStart) / (double) windowMillis;
+            return previous * (1 - elapsed) + current;
+        }
+
+        synchronized boolean isIdle(long now, long windowMillis) {
+            roll(now, windowMillis);
+            return current == 0 && previous == 0;
+        }
+
+        /**
+         * Estimates how long until the failure count drops below a limit.
+         *
+         * @param limit        the failure limit
+         * @param now          the current time in epoch milliseconds
+         * @param windowMillis the window length
+         * @return the delay in whole seconds, at least 1
+         */
+        synchronized long secondsUntilBelow(int limit, long now, long windowMillis) {
+            roll(now, windowMillis);
+            long untilRoll = windowStart + windowMillis - now;
+            long wait;
+            if (current >= limit) {
+                // Only the next roll moves the current count out; it then decays like the previous one
+                wait = untilRoll + (long) Math.ceil(windowMillis * (1 - (limit - 1) / (double) current));
+            } else {
+                double needed = (limit - current) / (double) previous;
+                wait = (long) Math.ceil(windowMillis * (1 - needed)) - (now - windowStart);
+            }
+            return Math.max(1, (wait + 999) / 1000);
+        }
+
+        private void roll(long now, long windowMillis) {
+            long elapsedWindows = (now - windowStart) / windowMillis;
+            if (elapsedWindows >= 1) {
+                previous = elapsedWindows == 1 ? current : 0;
+                current = 0;
+                windowStart += elapsedWindows * windowMillis;
+            }
+        }
+    }
+}
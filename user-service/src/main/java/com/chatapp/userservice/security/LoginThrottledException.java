@@ -0,0 +1,24 @@
+package com.chatapp.userservice.security;
+
+/**
+ * Thrown when a login attempt is refused because the account or the client address has
+ * failed too many logins recently. Callers should answer with 429.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Gets how long the client should wait before trying again.
+     *
+     * @return the delay in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,210 @@
+package com.chatapp.userservice.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt password hashing and verification on a dedicated executor sized to the
+ * CPU count, so a burst of logins cannot occupy every request thread with hashing work.
+ * The executor queue is bounded; when it is full, or the task does not complete in
+ * time, the call fails fast with a {@link PasswordHashingRejectedException}.
+ * Only the caller's wait is bounded: a task that gives up while queued is dropped, but
+ * one that already started runs to completion, since BCrypt does not check interrupts.
+ */
+@Component
+public class PasswordHasher implements MeterBinder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int cost;
+    private final long maxWaitMillis;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile Timer hashTimer;
+    private volatile Timer verifyTimer;
+
+    /**
+     * Creates the password hasher.
+     *
+     * @param passwordEncoder the BCrypt encoder doing the actual work
+     * @param cost            the BCrypt cost new hashes are created with
+     * @param threads         number of hashing threads, or 0 for one per CPU
+     * @param queueCapacity   number of hashing tasks that may wait for a thread
+     * @param maxWaitMillis   how long a caller waits for its task to complete before giving up
+     */
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${password.bcrypt-cost:10}") int cost,
+                          @Value("${password.hashing.threads:0}") int threads,
+                          @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${password.hashing.max-wait-ms:2000}") long maxWaitMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.cost = cost;
+        this.maxWaitMillis = maxWaitMillis;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hashes a raw password.
+     *
+     * @param rawPassword the password to hash
+     * @return the BCrypt hash
+     * @throws PasswordHashingRejectedException if the hashing executor is saturated
+     */
+    public String hash(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword), hashTimer);
+    }
+
+    /**
+     * Checks a raw password against a stored hash.
+     *
+     * @param rawPassword  the password to check
+     * @param passwordHash the stored hash
+     * @return true if the password matches
+     * @throws PasswordHashingRejectedException if the hashing executor is saturated
+     */
+    public boolean matches(String rawPassword, String passwordHash) {
+        return run(() -> passwordEncoder.matches(rawPassword, passwordHash), verifyTimer);
+    }
+
+    /**
+     * Checks whether a stored hash was created with a different cost than the configured one.
+     *
+     * @param passwordHash the stored hash
+     * @return true if the password should be hashed again on the next successful login
+     */
+    public boolean needsRehash(String passwordHash) {
+        if (passwordHash == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(passwordHash);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    /**
+     * Gets the number of hashing tasks waiting for a thread.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the number of hashing tasks refused because the executor was saturated.
+     *
+     * @return the rejection count
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Registers hashing metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("password.hashing.queue.depth", this, PasswordHasher::getQueueDepth)
+                .description("Password hashing tasks waiting for a thread")
+                .register(registry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks running")
+                .register(registry);
+        FunctionCounter.builder("password.hashing.rejected", rejected, LongAdder::sum)
+                .description("Password hashing tasks refused because the executor was saturated")
+                .register(registry);
+        hashTimer = Timer.builder("password.hashing.latency")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "hash")
+                .register(registry);
+        verifyTimer = Timer.builder("password.hashing.latency")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "verify")
+                .register(registry);
+    }
+
+    /**
+     * Stops the hashing threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a hashing task on the executor and waits for its result.
+     *
+     * @param task  the task to run
+     * @param timer the timer to record the task's run time with, or null before metrics are bound
+     * @param <T>   the result type
+     * @return the task's result
+     */
+    private <T> T run(Callable<T> task, Timer timer) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    if (timer != null) {
+                        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Too many authentication requests, please retry shortly", e);
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the task if still queued; a running BCrypt ignores the interrupt and finishes
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Too many authentication requests, please retry shortly", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+}
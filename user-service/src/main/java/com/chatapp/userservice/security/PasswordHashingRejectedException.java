@@ -0,0 +1,16 @@
+package com.chatapp.userservice.security;
+
+/**
+ * Thrown when password hashing work cannot be accepted because the hashing executor is
+ * saturated. Callers should answer with 503 so clients back off instead of queueing.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
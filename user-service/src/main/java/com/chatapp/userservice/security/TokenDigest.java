@@ -0,0 +1,32 @@
+package com.chatapp.userservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the digests tokens are stored under, so the database holds a fixed-size
+ * key instead of the token itself.
+ */
+public final class TokenDigest {
+
+    /** Length in bytes of a token digest. */
+    public static final int LENGTH = 32;
+
+    private TokenDigest() {
+    }
+
+    /**
+     * Computes the SHA-256 digest of a token.
+     *
+     * @param token the token
+     * @return the 32-byte digest
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.chatapp.userservice.security;
+
+import com.chatapp.common.annotation.ReadOnlyRepository;
+import com.chatapp.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token generations and profile versions of recently changed users, used to
+ * exchange refresh tokens for access tokens without touching the database.
+ * The map is kept warm by polling {@code users.updated_at} as a change feed. It starts
+ * with every user changed within one refresh-token lifetime, and an entry is dropped
+ * once it is older than that lifetime. A user missing from the map has therefore not
+ * changed since any still-valid refresh token was issued, so the values carried in the
+ * token are current. Active only with {@code jwt.refresh.mode: generation}; while the
+ * feed is not caught up, callers fall back to the database.
+ */
+@Slf4j
+@Component
+public class TokenGenerationCache implements MeterBinder {
+
+    static final String GENERATION_MODE = "generation";
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long lifetimeMillis;
+    private final long overlapMillis;
+    private final long maxStalenessMillis;
+    private final LongSupplier clock;
+
+    private final Map<Long, Entry> states = new ConcurrentHashMap<>();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private volatile long lastPolledMillis = -1;
+    private volatile long lastSuccessMillis = -1;
+
+    /**
+     * Creates the cache.
+     *
+     * @param userRepository     the user repository the change feed is read from
+     * @param mode               the refresh mode; the cache is active for {@code generation}
+     * @param lifetimeMillis     the refresh-token lifetime in milliseconds
+     * @param overlapMillis      how far each poll reaches back before the previous one, covering
+     *                           timestamp precision and replica lag
+     * @param maxStalenessMillis how long after the last successful poll the map is still trusted
+     */
+    @Autowired
+    public TokenGenerationCache(UserRepository userRepository,
+                                @Value("${jwt.refresh.mode:session}") String mode,
+                                @Value("${jwt.refresh-expiration}") long lifetimeMillis,
+                                @Value("${jwt.refresh.generation.overlap-ms:5000}") long overlapMillis,
+                                @Value("${jwt.refresh.generation.max-staleness-ms:30000}") long maxStalenessMillis) {
+        this(userRepository, GENERATION_MODE.equalsIgnoreCase(mode), lifetimeMillis, overlapMillis,
+                maxStalenessMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the cache with the given time source.
+     *
+     * @param userRepository     the user repository the change feed is read from
+     * @param enabled            whether the cache is active
+     * @param lifetimeMillis     the refresh-token lifetime in milliseconds
+     * @param overlapMillis      how far each poll reaches back before the previous one
+     * @param maxStalenessMillis how long after the last successful poll the map is still trusted
+     * @param clock              supplies the current time in epoch milliseconds
+     */
+    TokenGenerationCache(UserRepository userRepository, boolean enabled, long lifetimeMillis, long overlapMillis,
+                         long maxStalenessMillis, LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.lifetimeMillis = lifetimeMillis;
+        this.overlapMillis = overlapMillis;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether refresh tokens are validated against token generations.
+     *
+     * @return true in generation mode
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks whether the map is caught up with the change feed and can answer without
+     * the database.
+     *
+     * @return true if enabled and the feed was read successfully recently
+     */
+    public boolean isReady() {
+        return enabled && lastSuccessMillis >= 0 && clock.getAsLong() - lastSuccessMillis <= maxStalenessMillis;
+    }
+
+    /**
+     * Checks the values carried in a refresh token against the known state of its user.
+     *
+     * @param userId          the user id from the token
+     * @param tokenGeneration the token generation from the token
+     * @param profileVersion  the profile version from the token
+     * @return the current state of the user, or empty if the token's generation is outdated
+     */
+    public Optional<UserTokenState> verify(Long userId, long tokenGeneration, long profileVersion) {
+        Entry entry = states.get(userId);
+        UserTokenState current = entry != null ? entry.state
+                : new UserTokenState(userId, tokenGeneration, profileVersion);
+        if (current.getTokenGeneration() != tokenGeneration) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        accepted.increment();
+        return Optional.of(current);
+    }
+
+    /**
+     * Counts a refresh that had to be served from the database.
+     */
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    /**
+     * Records that a user's token generation has moved past the given one, so this
+     * instance rejects older tokens before the change feed delivers the new value.
+     *
+     * @param userId          the user id
+     * @param tokenGeneration the generation that is no longer valid
+     * @param profileVersion  the last known profile version of the user
+     */
+    public void invalidate(Long userId, long tokenGeneration, long profileVersion) {
+        apply(new UserTokenState(userId, tokenGeneration + 1, profileVersion), clock.getAsLong());
+    }
+
+    /**
+     * Reads users changed since the previous poll and drops entries older than one
+     * refresh-token lifetime. The first poll loads every user changed within one lifetime.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.generation.poll-interval-ms:1000}")
+    @ReadOnlyRepository
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long since = lastPolledMillis < 0 ? now - lifetimeMillis : lastPolledMillis - overlapMillis;
+        try {
+            for (UserTokenState state : userRepository.findTokenStatesUpdatedSince(toLocalDateTime(since))) {
+                apply(state, now);
+            }
+            states.values().removeIf(entry -> now - entry.receivedAtMillis > lifetimeMillis);
+            lastPolledMillis = now;
+            lastSuccessMillis = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read user token generations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the number of users held in the map.
+     *
+     * @return the map size
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Registers token generation metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("refresh.generation.users", this, TokenGenerationCache::size)
+                .description("Recently changed users held for database-free refresh")
+                .register(registry);
+        FunctionCounter.builder("refresh.generation.checks", accepted, LongAdder::sum)
+                .description("Refresh tokens checked against token generations by outcome")
+                .tag("result", "accepted")
+                .register(registry);
+        FunctionCounter.builder("refresh.generation.checks", rejected, LongAdder::sum)
+                .description("Refresh tokens checked against token generations by outcome")
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("refresh.generation.checks", fallbacks, LongAdder::sum)
+                .description("Refresh tokens checked against token generations by outcome")
+                .tag("result", "fallback")
+                .register(registry);
+    }
+
+    private void apply(UserTokenState state, long now) {
+        states.merge(state.getUserId(), new Entry(state, now),
+                (existing, update) -> new Entry(existing.state.merge(update.state), now));
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * A user's state with the time it was last received.
+     */
+    private static final class Entry {
+
+        private final UserTokenState state;
+        private final long receivedAtMillis;
+
+        Entry(UserTokenState state, long receivedAtMillis) {
+            this.state = state;
+            this.receivedAtMillis = receivedAtMillis;
+        }
+    }
+}
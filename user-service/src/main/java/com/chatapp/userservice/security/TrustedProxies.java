@@ -0,0 +1,151 @@
+package com.chatapp.userservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The proxies whose client address headers are believed. Entries are IP addresses,
+ * CIDR ranges or host names; host names are resolved by {@link #resolve()}, so proxies
+ * on dynamic addresses, such as containers found by service name, are followed.
+ */
+@Slf4j
+class TrustedProxies {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9A-Fa-f:][0-9A-Fa-f:.]*:[0-9A-Fa-f:.]*");
+
+    private final List<Range> ranges = new ArrayList<>();
+    private final List<String> hostNames = new ArrayList<>();
+    private volatile List<InetAddress> resolved = List.of();
+
+    /**
+     * Parses the trusted proxy entries and resolves the host names among them.
+     *
+     * @param entries IP addresses, CIDR ranges ({@code 10.0.0.0/8}) or host names
+     * @throws IllegalArgumentException if an address or range is malformed
+     */
+    TrustedProxies(List<String> entries) {
+        for (String entry : entries) {
+            String value = entry.trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            int slash = value.indexOf('/');
+            String address = slash >= 0 ? value.substring(0, slash) : value;
+            if (IPV4.matcher(address).matches() || address.contains(":")) {
+                ranges.add(Range.parse(address, slash >= 0 ? value.substring(slash + 1) : null));
+            } else {
+                hostNames.add(value);
+            }
+        }
+        resolve();
+    }
+
+    /**
+     * Resolves the configured host names again. A name that does not resolve is skipped
+     * until a later call, e.g. while its container is not up yet.
+     */
+    void resolve() {
+        if (hostNames.isEmpty()) {
+            return;
+        }
+        List<InetAddress> addresses = new ArrayList<>();
+        for (String hostName : hostNames) {
+            try {
+                addresses.addAll(Arrays.asList(InetAddress.getAllByName(hostName)));
+            } catch (UnknownHostException e) {
+                log.debug("Trusted proxy {} does not resolve: {}", hostName, e.getMessage());
+            }
+        }
+        resolved = List.copyOf(addresses);
+    }
+
+    /**
+     * Tells whether a socket peer is a trusted proxy.
+     *
+     * @param address the peer address, or null if unknown
+     * @return true if the address matches an entry
+     */
+    boolean isTrusted(InetAddress address) {
+        if (address == null) {
+            return false;
+        }
+        for (Range range : ranges) {
+            if (range.contains(address)) {
+                return true;
+            }
+        }
+        return resolved.contains(address);
+    }
+
+    /**
+     * Tells whether an address read from a request header is a trusted proxy. Only IP
+     * literals are parsed, so a header value never triggers a host name lookup.
+     *
+     * @param address the address text, or null
+     * @return true if the address is an IP literal matching an entry
+     */
+    boolean isTrusted(String address) {
+        if (address == null || !(IPV4.matcher(address).matches() || IPV6.matcher(address).matches())) {
+            return false;
+        }
+        try {
+            return isTrusted(InetAddress.getByName(address));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    /**
+     * An address range given by a network address and prefix length.
+     */
+    private static final class Range {
+
+        private final byte[] network;
+        private final int prefixLength;
+
+        private Range(byte[] network, int prefixLength) {
+            this.network = network;
+            this.prefixLength = prefixLength;
+        }
+
+        static Range parse(String address, String prefix) {
+            byte[] network;
+            try {
+                network = InetAddress.getByName(address).getAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("Invalid trusted proxy address: " + address, e);
+            }
+            int prefixLength = prefix != null ? Integer.parseInt(prefix) : network.length * 8;
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix: " + address + "/" + prefix);
+            }
+            return new Range(network, prefixLength);
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.chatapp.userservice.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The parts of a user needed to check a refresh token and issue an access token.
+ */
+@Getter
+@AllArgsConstructor
+public class UserTokenState {
+
+    private final Long userId;
+    private final long tokenGeneration;
+    private final long profileVersion;
+
+    /**
+     * Combines two states of the same user, keeping the newer value of each field. Both
+     * fields only ever grow, so an older state arriving late cannot undo a newer one.
+     *
+     * @param other another state of the same user
+     * @return the combined state
+     */
+    public UserTokenState merge(UserTokenState other) {
+        return new UserTokenState(userId,
+                Math.max(tokenGeneration, other.tokenGeneration),
+                Math.max(profileVersion, other.profileVersion));
+    }
+}
@@ -0,0 +1,73 @@
+package com.chatapp.userservice.service;
+
+import com.chatapp.userservice.dto.AuthResponse;
+import com.chatapp.userservice.security.JwtUtil;
+import com.chatapp.userservice.security.TokenGenerationCache;
+import com.chatapp.userservice.security.UserTokenState;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Exchanges refresh tokens for access tokens. In generation refresh mode a refresh token
+ * is accepted when its token generation matches the user's current one held by
+ * {@link TokenGenerationCache}, without any database access; the refresh token is then
+ * not rotated and the response carries no user profile. Otherwise, and for tokens that
+ * carry no generation, the refresh goes through {@link UserService#refreshAccessToken}.
+ * Not transactional, so the common case does not even borrow a connection.
+ */
+@Service
+public class TokenRefreshService {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenGenerationCache tokenGenerationCache;
+
+    /**
+     * Refreshes an access token using a refresh token.
+     *
+     * @param refreshToken the refresh token
+     * @return AuthResponse containing the new access token and the refresh token to use next
+     * @throws RuntimeException if the refresh token is invalid, expired or revoked
+     */
+    public AuthResponse refresh(String refreshToken) {
+        if (!tokenGenerationCache.isReady()) {
+            return fallback(refreshToken);
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.getClaimsFromToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+
+        Long userId = claims.get(JwtUtil.USER_ID_CLAIM, Long.class);
+        Long generation = claims.get(JwtUtil.TOKEN_GENERATION_CLAIM, Long.class);
+        Long profileVersion = claims.get(JwtUtil.PROFILE_VERSION_CLAIM, Long.class);
+        if (userId == null || generation == null || profileVersion == null) {
+            return fallback(refreshToken);
+        }
+
+        UserTokenState state = tokenGenerationCache.verify(userId, generation, profileVersion)
+                .orElseThrow(() -> new RuntimeException("Refresh token revoked"));
+
+        return AuthResponse.builder()
+                .accessToken(jwtUtil.generateAccessToken(claims.getSubject(), userId, state.getProfileVersion()))
+                .refreshToken(refreshToken)
+                .build();
+    }
+
+    private AuthResponse fallback(String refreshToken) {
+        if (tokenGenerationCache.isEnabled()) {
+            tokenGenerationCache.recordFallback();
+        }
+        return userService.refreshAccessToken(refreshToken);
+    }
+}
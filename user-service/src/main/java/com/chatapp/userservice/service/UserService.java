@@ -8,15 +8,43 @@ import com.chatapp.userservice.model.User;
 import com.chatapp.userservice.repository.RefreshTokenRepository;
 import com.chatapp.userservice.repository.UserRepository;
 import com.chatapp.userservice.security.JwtUtil;
+import com.chatapp.userservice.security.LoginAttemptTracker;
+import com.chatapp.userservice.security.PasswordHasher;
+import com.chatapp.userservice.security.TokenDigest;
+import com.chatapp.userservice.security.TokenGenerationCache;
+import com.chatapp.userservice.service.cache.UserProfileCache;
+import com.chatapp.userservice.service.revocation.TokenRevocationPublisher;
+import com.chatapp.userservice.service.search.InteractionHistory;
+import com.chatapp.userservice.service.search.UserCursor;
+import com.chatapp.userservice.service.search.UserSearchHit;
+import com.chatapp.userservice.service.search.UserSearchIndex;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +55,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class UserService {
 
+    static final String FULLTEXT_MODE = "fulltext";
+
     @Autowired
     private UserRepository userRepository;
 
@@ -34,120 +64,495 @@ public class UserService {
     private RefreshTokenRepository refreshTokenRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationPublisher tokenRevocationPublisher;
+
+    @Autowired
+    private TokenGenerationCache tokenGenerationCache;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private InteractionHistory interactionHistory;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${session.max-per-user:5}")
+    private int maxSessionsPerUser;
+
+    @Value("${search.mode:memory}")
+    private String searchMode;
+
+    @Value("${search.fulltext.min-keyword-length:2}")
+    private int minFulltextKeywordLength;
+
+    @Value("${search.page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${search.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${typeahead.limit:10}")
+    private int defaultTypeaheadLimit;
+
+    @Value("${typeahead.max-limit:20}")
+    private int maxTypeaheadLimit;
+
+    @Value("${typeahead.max-candidates:1000}")
+    private int typeaheadMaxCandidates;
+
+    @Value("${batch.max-ids:500}")
+    private int maxBatchIds;
+
 
     /**
-     * Registers a new user in the system after validating uniqueness of username and email.
+     * Registers a new user. Taken usernames and emails are refused by one lookup before
+     * the password is hashed, so duplicate registrations do not occupy the hashing
+     * threads. A registration racing another for the same username or email is still
+     * refused by the unique keys on {@code users}, reported as the same error.
+     * Runs without a transaction of its own: the lookup and the insert each take a short
+     * one, so no database connection is held while waiting for the hashing threads.
      *
      * @param request the registration request containing user details
      * @return UserResponse containing the registered user's information
      * @throws RuntimeException if username or email already exists
+     * @throws com.chatapp.userservice.security.PasswordHashingRejectedException if password hashing is saturated
      */
     @WriteRepository
+    @Transactional(propagation = Propagation.SUPPORTS)
     public UserResponse registerUser(UserRegistrationRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
+        List<String> taken = inTransaction(status ->
+                userRepository.findUsernamesByUsernameOrEmail(request.getUsername(), request.getEmail()));
+        if (taken.stream().anyMatch(username -> username.equalsIgnoreCase(request.getUsername()))) {
             throw new RuntimeException("Username already exists");
         }
-
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (!taken.isEmpty()) {
             throw new RuntimeException("Email already exists");
         }
 
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHasher.hash(request.getPassword()))
                 .fullName(request.getFullName())
                 .status(User.UserStatus.ACTIVE)
                 .build();
 
-        User savedUser = userRepository.save(user);
-        return UserResponse.fromUser(savedUser);
+        User savedUser;
+        try {
+            savedUser = inTransaction(status -> userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUserError(e);
+        }
+        userSearchIndex.put(savedUser);
+        UserResponse response = UserResponse.fromUser(savedUser);
+        userProfileCache.add(response);
+        return response;
     }
 
     /**
-     * Authenticates a user and generates access and refresh tokens.
+     * Maps a failed user insert to the error for the unique key it violated.
+     *
+     * @param e the failure reported by the insert
+     * @return the "already exists" error for the violated key, or a generic error otherwise
+     */
+    private RuntimeException duplicateUserError(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(User.USERNAME_CONSTRAINT)) {
+            return new RuntimeException("Username already exists");
+        }
+        if (message.contains(User.EMAIL_CONSTRAINT)) {
+            return new RuntimeException("Email already exists");
+        }
+        return new RuntimeException("Registration failed", e);
+    }
+
+    /**
+     * Authenticates a user and generates access and refresh tokens. A password hash
+     * created with another BCrypt cost than the configured one is replaced on success.
+     * Accounts and client addresses with too many recent failures are refused before
+     * the user is looked up or the password is hashed. Logging in again on a device
+     * replaces that device's session and leaves the user's other devices logged in.
+     * Runs without a transaction of its own: the lookup and the session writes each take
+     * a short one, so no database connection is held while waiting for the hashing threads.
      *
      * @param request the login request containing username/email and password
+     * @param sourceAddress the client address, or null if unknown
      * @return AuthResponse containing authentication tokens and user information
      * @throws RuntimeException if authentication fails or user not found
+     * @throws com.chatapp.userservice.security.LoginThrottledException if too many logins failed recently
+     * @throws com.chatapp.userservice.security.PasswordHashingRejectedException if password hashing is saturated
      */
     @WriteRepository
-    public AuthResponse loginUser(UserLoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsernameOrEmail())
-                .orElseGet(() -> userRepository.findByEmail(request.getUsernameOrEmail())
-                        .orElseThrow(() -> new RuntimeException("User not found")));
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public AuthResponse loginUser(UserLoginRequest request, String sourceAddress) {
+        loginAttemptTracker.checkAllowed(request.getUsernameOrEmail(), sourceAddress);
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-            throw new RuntimeException("Invalid credentials");
+        // One query for both columns; a username match wins over another user's email
+        Optional<User> found = inTransaction(status -> userRepository.findByUsernameOrEmail(request.getUsernameOrEmail())
+                .stream()
+                .min(Comparator.comparing(u -> !u.getUsername().equals(request.getUsernameOrEmail()))));
+        if (found.isEmpty()) {
+            loginAttemptTracker.recordFailure(request.getUsernameOrEmail(), sourceAddress);
+            throw new RuntimeException("User not found");
         }
+        User user = found.get();
 
-        String accessToken = jwtUtil.generateAccessToken(user.getUsername());
-        String refreshToken = createRefreshToken(user);
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
+            loginAttemptTracker.recordFailure(request.getUsernameOrEmail(), sourceAddress);
+            throw new RuntimeException("Invalid credentials");
+        }
+        loginAttemptTracker.recordSuccess(request.getUsernameOrEmail());
+
+        String rehashed = passwordHasher.needsRehash(user.getPasswordHash())
+                ? passwordHasher.hash(request.getPassword()) : null;
+        String deviceId = request.getDeviceId() != null && !request.getDeviceId().isBlank()
+                ? request.getDeviceId() : UUID.randomUUID().toString();
+
+        return inTransaction(status -> {
+            User current = user;
+            if (rehashed != null) {
+                user.setPasswordHash(rehashed);
+                current = userRepository.save(user);
+            }
+            String accessToken = jwtUtil.generateAccessToken(current.getUsername(), current.getId(),
+                    current.getProfileVersion());
+            String refreshToken = createRefreshToken(current, deviceId);
+
+            return AuthResponse.builder()
+                    .accessToken(accessToken)
+                    .refreshToken(refreshToken)
+                    .deviceId(deviceId)
+                    .user(UserResponse.fromUser(current))
+                    .build();
+        });
+    }
 
-        return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .user(UserResponse.fromUser(user))
-                .build();
+    /**
+     * Runs database work of a method without a transaction of its own in a short
+     * transaction, or in the caller's if there is one.
+     */
+    private <T> T inTransaction(TransactionCallback<T> action) {
+        return new TransactionTemplate(transactionManager).execute(action);
     }
 
     /**
-     * Retrieves a user by their unique identifier.
+     * Retrieves a user by their unique identifier, from the profile cache when it holds
+     * the user. Runs without a transaction of its own, so a cache hit does not take a
+     * database connection.
      *
      * @param id the unique identifier of the user
      * @return Optional containing UserResponse if user exists, empty otherwise
      */
     @ReadOnlyRepository
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<UserResponse> getUserById(Long id) {
-        return userRepository.findById(id)
+        UserResponse cached = userProfileCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = userProfileCache.stamp();
+        Optional<UserResponse> user = userRepository.findById(id)
                 .map(UserResponse::fromUser);
+        user.ifPresent(found -> userProfileCache.put(found, stamp));
+        return user;
     }
 
     /**
-     * Searches for users based on a keyword matching username, email, or full name.
+     * Retrieves a user by their username, ignoring case, from the profile cache when it
+     * holds the user. Runs without a transaction of its own, so a cache hit does not take
+     * a database connection.
+     *
+     * @param username the username of the user
+     * @return Optional containing UserResponse if user exists, empty otherwise
+     */
+    @ReadOnlyRepository
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<UserResponse> getUserByUsername(String username) {
+        UserResponse cached = userProfileCache.getByUsername(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = userProfileCache.stamp();
+        Optional<UserResponse> user = userRepository.findByUsername(username)
+                .map(UserResponse::fromUser);
+        user.ifPresent(found -> userProfileCache.put(found, stamp));
+        return user;
+    }
+
+    /**
+     * Retrieves several users by their unique identifiers, such as the participants of a
+     * conversation. Users held in the profile cache are taken from it, and the others are
+     * loaded with a single query. Each distinct id is looked up once.
+     *
+     * @param ids the unique identifiers of the users, in the order the results are wanted
+     * @return the users in request order, with a null entry and a missing id for each id without a user
+     * @throws IllegalArgumentException if more ids are requested than the configured maximum
+     */
+    @ReadOnlyRepository
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public UserBatchResponse getUsersByIds(List<Long> ids) {
+        if (ids.size() > maxBatchIds) {
+            throw new IllegalArgumentException("At most " + maxBatchIds + " ids can be requested at once");
+        }
+        Map<Long, UserResponse> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            UserResponse cached = userProfileCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            long stamp = userProfileCache.stamp();
+            for (UserResponse user : userRepository.findResponsesByIdIn(uncached)) {
+                found.put(user.getId(), user);
+                userProfileCache.put(user, stamp);
+            }
+        }
+        List<UserResponse> users = new ArrayList<>(ids.size());
+        Set<Long> missingIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            UserResponse user = found.get(id);
+            users.add(user);
+            if (user == null) {
+                missingIds.add(id);
+            }
+        }
+        return UserBatchResponse.builder()
+                .users(users)
+                .missingIds(new ArrayList<>(missingIds))
+                .build();
+    }
+
+    /**
+     * Searches for users based on a keyword matching username, email, or full name,
+     * one page at a time. Once the in-memory search index is ready, the page is found in
+     * the index and only those users are loaded by primary key. In full-text mode the
+     * FULLTEXT index answers keywords of at least the ngram token size, most relevant
+     * first. Otherwise the keyword is matched by the LIKE query. Except in full-text
+     * mode, pages are in username order.
      *
      * @param keyword the search keyword
-     * @return List of UserResponse objects matching the search criteria
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the requested page size, or null for the default; capped at the configured maximum
+     * @return the page of matching users and the cursor of the next page, if any
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    @ReadOnlyRepository
+    public UserPage searchUsers(String keyword, String cursor, Integer limit) {
+        UserCursor after = cursor != null ? UserCursor.decode(cursor) : null;
+        int pageSize = pageSize(limit);
+        if (FULLTEXT_MODE.equalsIgnoreCase(searchMode) && keyword.trim().length() >= minFulltextKeywordLength) {
+            return fulltextSearch(keyword, after, pageSize);
+        }
+        List<UserResponse> users;
+        if (userSearchIndex.isReady()) {
+            users = findResponsesInOrder(userSearchIndex.search(keyword, after != null ? after.getKey() : null,
+                    after != null ? after.getId() : 0, pageSize + 1));
+        } else {
+            userSearchIndex.recordFallback();
+            Pageable page = PageRequest.of(0, pageSize + 1);
+            users = after == null
+                    ? userRepository.searchPage(keyword, page)
+                    : userRepository.searchPageAfter(keyword, after.getKey(), after.getId(), page);
+        }
+        return toPage(users, pageSize);
+    }
+
+    /**
+     * Searches through the FULLTEXT index. The keyword is matched as one phrase, so
+     * boolean operators in it have no effect; with the ngram parser a phrase matches
+     * wherever its characters appear in sequence.
+     */
+    private UserPage fulltextSearch(String keyword, UserCursor after, int pageSize) {
+        userSearchIndex.recordFulltext();
+        String query = '"' + keyword.trim().replace('"', ' ') + '"';
+        List<UserSearchHit> hits = after == null
+                ? userRepository.fulltextSearchPage(query, pageSize + 1)
+                : userRepository.fulltextSearchPageAfter(query, after.getRelevance(), after.getId(), pageSize + 1);
+        return toPage(hits, pageSize, UserService::toResponse,
+                hit -> new UserCursor(Double.toString(hit.getRelevance()), hit.getId()));
+    }
+
+    private static UserResponse toResponse(UserSearchHit hit) {
+        return UserResponse.builder()
+                .id(hit.getId())
+                .username(hit.getUsername())
+                .email(hit.getEmail())
+                .fullName(hit.getFullName())
+                .avatarUrl(hit.getAvatarUrl())
+                .status(User.UserStatus.valueOf(hit.getStatus()))
+                .createdAt(hit.getCreatedAt())
+                .updatedAt(hit.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Lists all users one page at a time in username order.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the requested page size, or null for the default; capped at the configured maximum
+     * @return the page of users and the cursor of the next page, if any
+     * @throws IllegalArgumentException if the cursor is invalid
      */
     @ReadOnlyRepository
-    public List<UserResponse> searchUsers(String keyword) {
-        return userRepository.searchUsers(keyword)
+    public UserPage listUsers(String cursor, Integer limit) {
+        UserCursor after = cursor != null ? UserCursor.decode(cursor) : null;
+        int pageSize = pageSize(limit);
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<UserResponse> users = after == null
+                ? userRepository.findPage(page)
+                : userRepository.findPageAfter(after.getKey(), after.getId(), page);
+        return toPage(users, pageSize);
+    }
+
+    /**
+     * Suggests users with a word of their username or full name starting with the prefix,
+     * as the caller types. Once the prefix index is ready, suggestions are ranked in memory
+     * by account status and the caller's interaction history, and only those users are
+     * loaded by primary key. Until then, the first users whose username starts with the
+     * prefix are returned in username order.
+     *
+     * @param callerId the id of the caller, or null for suggestions without history
+     * @param prefix the start of a word of the username or full name
+     * @param limit the requested number of suggestions, or null for the default; capped at the configured maximum
+     * @return the suggested users, best first; empty for a blank prefix
+     */
+    @ReadOnlyRepository
+    public List<UserResponse> typeahead(Long callerId, String prefix, Integer limit) {
+        String trimmed = prefix.trim();
+        if (trimmed.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit != null ? limit : defaultTypeaheadLimit, maxTypeaheadLimit));
+        if (userSearchIndex.isTypeaheadReady()) {
+            Map<Long, Double> affinities = callerId != null ? interactionHistory.affinities(callerId) : Map.of();
+            return findResponsesInOrder(userSearchIndex.typeahead(trimmed, affinities, typeaheadMaxCandidates, size));
+        }
+        userSearchIndex.recordFallback();
+        String pattern = trimmed.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        return userRepository.findByUsernameLike(pattern, PageRequest.of(0, size));
+    }
+
+    /**
+     * Records that the caller interacted with another user, such as opening a conversation
+     * with them, which raises that user in the caller's typeahead suggestions.
+     *
+     * @param callerId the id of the caller
+     * @param userId the id of the user the caller interacted with
+     * @throws RuntimeException if the caller is not identified or either user does not exist
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void recordInteraction(Long callerId, Long userId) {
+        if (callerId == null) {
+            throw new RuntimeException("Caller not identified");
+        }
+        try {
+            interactionHistory.record(callerId, userId);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("User not found");
+        }
+    }
+
+    /**
+     * Loads users by primary key in the order of the given ids, skipping ids without a user.
+     */
+    private List<UserResponse> findResponsesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserResponse> found = userRepository.findResponsesByIdIn(ids)
                 .stream()
-                .map(UserResponse::fromUser)
+                .collect(Collectors.toMap(UserResponse::getId, Function.identity()));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private int pageSize(Integer limit) {
+        return Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize));
+    }
+
+    /**
+     * Builds a page in username order from up to one user more than the page size.
+     */
+    private UserPage toPage(List<UserResponse> users, int pageSize) {
+        return toPage(users, pageSize, Function.identity(), user -> new UserCursor(user.getUsername(), user.getId()));
+    }
+
+    /**
+     * Builds a page from up to one row more than the page size; the extra row only
+     * signals that a next page exists, which continues after the last row of this one.
+     */
+    private <T> UserPage toPage(List<T> rows, int pageSize, Function<T, UserResponse> toResponse,
+                                Function<T, UserCursor> toCursor) {
+        List<UserResponse> items = rows.stream()
+                .limit(pageSize)
+                .map(toResponse)
                 .collect(Collectors.toList());
+        return UserPage.builder()
+                .items(items)
+                .nextCursor(rows.size() > pageSize ? toCursor.apply(rows.get(pageSize - 1)).encode() : null)
+                .build();
     }
 
     /**
-     * Creates a new refresh token for the specified user, removing any existing tokens.
+     * Creates or replaces the session of a user on a device, then evicts the user's least
+     * recently used sessions beyond the per-user cap. In generation refresh mode a refresh
+     * token is accepted without its session row, so evicted sessions are only cut off by
+     * bumping the user's token generation; the new session then gets a token of the new
+     * generation, and the user's other devices must log in again.
      *
      * @param user the user to create a refresh token for
+     * @param deviceId the device the session belongs to
      * @return the generated refresh token string
      */
-    private String createRefreshToken(User user) {
-        refreshTokenRepository.deleteAllByUser(user);
-
-        String token = jwtUtil.generateRefreshToken(user.getUsername());
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(token)
-                .user(user)
-                .expiresAt(LocalDateTime.now().plusDays(7))
-                .build();
-
-        refreshTokenRepository.save(refreshToken);
+    private String createRefreshToken(User user, String deviceId) {
+        long generation = user.getTokenGeneration();
+        String token = jwtUtil.generateRefreshToken(user.getUsername(), user.getId(), user.getProfileVersion(),
+                generation);
+        LocalDateTime now = LocalDateTime.now();
+
+        refreshTokenRepository.upsertSession(user.getId(), deviceId, TokenDigest.sha256(token), now.plusDays(7), now);
+        if (refreshTokenRepository.evictOldestSessions(user.getId(), maxSessionsPerUser) > 0
+                && tokenGenerationCache.isEnabled()) {
+            userRepository.incrementTokenGeneration(user.getId(), now);
+            tokenGenerationCache.invalidate(user.getId(), generation, user.getProfileVersion());
+            token = jwtUtil.generateRefreshToken(user.getUsername(), user.getId(), user.getProfileVersion(),
+                    generation + 1);
+            refreshTokenRepository.upsertSession(user.getId(), deviceId, TokenDigest.sha256(token),
+                    now.plusDays(7), now);
+        }
         return token;
     }
 
     /**
-     * Refreshes an access token using a valid refresh token.
+     * Refreshes an access token using a valid refresh token. The refresh token is rotated:
+     * its session row is updated in place with a new token, and the presented one stops working.
+     * A token issued in an older token generation than the user's current one is refused and
+     * its session removed, since bumping the generation logs the user out on all devices
+     * without deleting their other sessions.
      *
      * @param refreshToken the refresh token to validate and use for generating new access token
-     * @return AuthResponse containing the new access token and user information
-     * @throws RuntimeException if refresh token is invalid, expired, or not found
+     * @return AuthResponse containing the new access and refresh tokens and user information
+     * @throws RuntimeException if refresh token is invalid, expired, revoked or not found
      */
     @WriteRepository
     public AuthResponse refreshAccessToken(String refreshToken) {
@@ -156,11 +561,13 @@ public class UserService {
             throw new RuntimeException("Invalid refresh token");
         }
 
-        // Get username from JWT
-        String username = jwtUtil.getUsernameFromToken(refreshToken);
+        // Get username and token generation from JWT
+        Claims claims = jwtUtil.getClaimsFromToken(refreshToken);
+        String username = claims.getSubject();
+        Long generation = claims.get(JwtUtil.TOKEN_GENERATION_CLAIM, Long.class);
 
-        // Find token in database
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
+        // Find token and its user in database
+        RefreshToken token = refreshTokenRepository.findWithUserByTokenHash(TokenDigest.sha256(refreshToken))
                 .orElseThrow(() -> new RuntimeException("Refresh token not found"));
 
         // Check if token is expired in database
@@ -174,17 +581,38 @@ public class UserService {
             throw new RuntimeException("Token username mismatch");
         }
 
-        String newAccessToken = jwtUtil.generateAccessToken(username);
+        // Tokens issued before the generation carry none and are only cut off by their session row
+        if (generation != null && generation < token.getUser().getTokenGeneration()) {
+            refreshTokenRepository.delete(token);
+            throw new RuntimeException("Refresh token revoked");
+        }
+
+        // Rotate in place; fails if a concurrent refresh already replaced the presented token
+        User user = token.getUser();
+        String newRefreshToken = jwtUtil.generateRefreshToken(username, user.getId(), user.getProfileVersion(),
+                user.getTokenGeneration());
+        LocalDateTime now = LocalDateTime.now();
+        if (refreshTokenRepository.rotate(token.getId(), token.getTokenHash(), TokenDigest.sha256(newRefreshToken),
+                now.plusDays(7), now) == 0) {
+            throw new RuntimeException("Refresh token not found");
+        }
+
+        String newAccessToken = jwtUtil.generateAccessToken(username, user.getId(), user.getProfileVersion());
 
         return AuthResponse.builder()
                 .accessToken(newAccessToken)
-                .refreshToken(refreshToken)
-                .user(UserResponse.fromUser(token.getUser()))
+                .refreshToken(newRefreshToken)
+                .deviceId(token.getDeviceId())
+                .user(UserResponse.fromUser(user))
                 .build();
     }
 
     /**
-     * Revokes a refresh token by removing it from the database.
+     * Revokes a refresh token by removing it from the database. In generation refresh mode
+     * the user's token generation is also bumped, since refresh tokens are then accepted
+     * without a database lookup; this logs the user out on all devices. The bump happens
+     * whenever the token verifies, even if its session row is already gone, such as after
+     * the session was evicted, since such a token still refreshes in that mode.
      *
      * @param refreshToken the refresh token to revoke
      * @throws RuntimeException if refresh token is invalid or not found
@@ -196,15 +624,58 @@ public class UserService {
             throw new RuntimeException("Invalid refresh token");
         }
 
-        // Find and delete token from database
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
-                .orElseThrow(() -> new RuntimeException("Refresh token not found"));
+        // Delete token from database
+        int deleted = refreshTokenRepository.deleteByTokenHash(TokenDigest.sha256(refreshToken));
+        boolean invalidated = tokenGenerationCache.isEnabled()
+                && invalidateRefreshTokens(jwtUtil.getClaimsFromToken(refreshToken));
+        if (deleted == 0 && !invalidated) {
+            throw new RuntimeException("Refresh token not found");
+        }
+    }
 
-        refreshTokenRepository.delete(token);
+    /**
+     * Bumps the token generation of the user a refresh token belongs to, invalidating all
+     * their refresh tokens, and applies the bump locally ahead of the change feed.
+     * Tokens issued before generations were introduced carry no generation and are skipped.
+     *
+     * @param claims the claims of the refresh token
+     * @return true if the generation was bumped
+     */
+    private boolean invalidateRefreshTokens(Claims claims) {
+        Long userId = claims.get(JwtUtil.USER_ID_CLAIM, Long.class);
+        Long generation = claims.get(JwtUtil.TOKEN_GENERATION_CLAIM, Long.class);
+        Long profileVersion = claims.get(JwtUtil.PROFILE_VERSION_CLAIM, Long.class);
+        if (userId == null || generation == null || profileVersion == null) {
+            return false;
+        }
+        userRepository.incrementTokenGeneration(userId, LocalDateTime.now());
+        tokenGenerationCache.invalidate(userId, generation, profileVersion);
+        return true;
     }
 
     /**
-     * Updates a user's profile information.
+     * Revokes an access token so the gateway rejects it for the rest of its lifetime.
+     * Tokens that are invalid, already expired or carry no token id are ignored, since
+     * they are rejected anyway or cannot be singled out.
+     *
+     * @param accessToken the access token to revoke
+     * @throws RuntimeException if the revocation could not be published
+     */
+    public void revokeAccessToken(String accessToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.getClaimsFromToken(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        if (claims.getId() != null && claims.getExpiration() != null) {
+            tokenRevocationPublisher.publish(claims.getId(), claims.getExpiration().getTime());
+        }
+    }
+
+    /**
+     * Updates a user's profile information. The updated profile replaces the cached one,
+     * and the other instances are told to drop theirs.
      * Username cannot be updated for security and consistency reasons.
      *
      * @param id the unique identifier of the user to update
@@ -235,7 +706,13 @@ public class UserService {
             user.setAvatarUrl(request.getAvatarUrl());
         }
 
-        User updatedUser = userRepository.save(user);
-        return UserResponse.fromUser(updatedUser);
+        user.setProfileVersion(user.getProfileVersion() + 1);
+
+        // Flushed so the response carries the update time that is cached
+        User updatedUser = userRepository.saveAndFlush(user);
+        userSearchIndex.put(updatedUser);
+        UserResponse response = UserResponse.fromUser(updatedUser);
+        userProfileCache.update(response);
+        return response;
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.chatapp.userservice.service.cache;
+
+import com.chatapp.userservice.service.eventfile.EventFile;
+import com.chatapp.userservice.service.eventfile.EventFileFollower;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+/**
+ * File-based implementation of the ProfileInvalidationChannel interface, for instances
+ * sharing a volume. Each invalidation is appended to an {@link EventFile} as one
+ * {@code <user-id> <instance-id> <published-at-millis>} line, and every instance follows
+ * the file from where it stood at startup, skipping its own lines. An invalidation only
+ * matters until every instance has polled past it, so {@link #compact(long)} drops lines
+ * older than the retention; followers then read the kept lines again, which only drops
+ * a few more cached profiles.
+ */
+@Slf4j
+@Component
+public class FileProfileInvalidationChannel implements ProfileInvalidationChannel {
+
+    private final EventFile file;
+    private final EventFileFollower follower;
+    private final long retentionMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final List<LongConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates the channel, positioned at the current end of the file.
+     *
+     * @param file            path of the invalidation event file shared by all instances
+     * @param retentionMillis how long invalidations are kept in the file
+     */
+    public FileProfileInvalidationChannel(
+            @Value("${profile-cache.invalidation.file:invalidations/profiles.log}") String file,
+            @Value("${profile-cache.invalidation.retention-ms:60000}") long retentionMillis) {
+        this.file = new EventFile(Paths.get(file));
+        this.follower = new EventFileFollower(this.file.getFile());
+        this.follower.skipToEnd();
+        this.retentionMillis = retentionMillis;
+    }
+
+    @Override
+    public void publish(long userId) {
+        try {
+            file.append(userId + " " + instanceId + " " + System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to publish profile invalidation", e);
+        }
+    }
+
+    @Override
+    public void subscribe(LongConsumer listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public int compact(long nowMillis) {
+        try {
+            return file.compact(line -> publishedAfter(line, nowMillis - retentionMillis));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compact profile invalidations", e);
+        }
+    }
+
+    /**
+     * Reads the invalidations appended since the last poll and passes those of other
+     * instances to the listeners.
+     */
+    @Scheduled(fixedDelayString = "${profile-cache.invalidation.poll-interval-ms:500}")
+    public void poll() {
+        follower.poll(this::parse);
+    }
+
+    /**
+     * Parses one event line and notifies the listeners unless this instance wrote it.
+     *
+     * @param line the event line
+     */
+    private void parse(String line) {
+        String[] fields = line.split(" ");
+        if (fields.length > 1 && instanceId.equals(fields[1])) {
+            return;
+        }
+        try {
+            long userId = Long.parseLong(fields[0]);
+            for (LongConsumer listener : listeners) {
+                listener.accept(userId);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Skipping malformed profile invalidation '{}': {}", line, e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether an invalidation line was published after the given time; lines
+     * without a publication time are never needed.
+     */
+    private static boolean publishedAfter(String line, long thresholdMillis) {
+        String[] fields = line.split(" ");
+        try {
+            return fields.length > 2 && Long.parseLong(fields[2]) > thresholdMillis;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
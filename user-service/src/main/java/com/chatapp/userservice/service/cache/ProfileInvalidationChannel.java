@@ -0,0 +1,36 @@
+package com.chatapp.userservice.service.cache;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Interface for telling the other user-service instances that a user's profile changed,
+ * so they drop it from their {@link UserProfileCache}.
+ * Provides abstraction for different transports (shared file, message broker, etc.).
+ */
+public interface ProfileInvalidationChannel {
+
+    /**
+     * Publishes that a user's profile changed on this instance.
+     *
+     * @param userId the id of the changed user
+     * @throws RuntimeException if the invalidation could not be published
+     */
+    void publish(long userId);
+
+    /**
+     * Registers a listener for the profile changes published by other instances.
+     *
+     * @param listener called with the id of each user changed on another instance
+     */
+    void subscribe(LongConsumer listener);
+
+    /**
+     * Drops the retained invalidations every instance has had time to receive, for
+     * transports that retain every invalidation published.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return number of invalidations dropped
+     * @throws RuntimeException if the retained invalidations could not be compacted
+     */
+    int compact(long nowMillis);
+}
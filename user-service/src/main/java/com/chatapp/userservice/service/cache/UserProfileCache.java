@@ -0,0 +1,368 @@
+package com.chatapp.userservice.service.cache;
+
+import com.chatapp.userservice.dto.UserResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of user profiles by id and by username, so profile reads
+ * mostly skip the database. Entries expire after a fixed time, and beyond the maximum
+ * size the least recently read entries are dropped first. Profiles written on this
+ * instance replace the cached entry, and the change is published through the
+ * {@link ProfileInvalidationChannel} so the other instances drop theirs.
+ * <p>
+ * A profile read from the read replica may predate a change that has not replicated
+ * yet. Such a read is not cached if the user changed after the read began, or within
+ * the replica lag before it; the caller still gets the value, and later reads reload it.
+ * Cached responses are shared and must not be modified.
+ */
+@Slf4j
+@Component
+public class UserProfileCache implements MeterBinder {
+
+    private static final int MAX_TOMBSTONES = 1_024;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long replicaLagMillis;
+    private final ProfileInvalidationChannel channel;
+    private final LongSupplier clock;
+
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byUsername = new ConcurrentHashMap<>();
+    private final Map<Long, Tombstone> tombstones = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder localInvalidations = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+
+    /**
+     * Creates the cache and subscribes it to the invalidations of other instances.
+     *
+     * @param enabled          whether profiles are cached
+     * @param maxEntries       the most profiles kept; the least recently read are dropped first
+     * @param ttlMillis        how long a profile is served from the cache after it was loaded
+     * @param replicaLagMillis how long after a change profiles read from the replica are not cached
+     * @param channel          the channel carrying invalidations between instances
+     */
+    @Autowired
+    public UserProfileCache(@Value("${profile-cache.enabled:true}") boolean enabled,
+                            @Value("${profile-cache.max-entries:100000}") int maxEntries,
+                            @Value("${profile-cache.ttl-ms:300000}") long ttlMillis,
+                            @Value("${profile-cache.replica-lag-ms:5000}") long replicaLagMillis,
+                            ProfileInvalidationChannel channel) {
+        this(enabled, maxEntries, ttlMillis, replicaLagMillis, channel, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the cache with the given time source.
+     *
+     * @param enabled          whether profiles are cached
+     * @param maxEntries       the most profiles kept
+     * @param ttlMillis        how long a profile is served from the cache after it was loaded
+     * @param replicaLagMillis how long after a change profiles read from the replica are not cached
+     * @param channel          the channel carrying invalidations between instances
+     * @param clock            supplies the current time in epoch milliseconds
+     */
+    UserProfileCache(boolean enabled, int maxEntries, long ttlMillis, long replicaLagMillis,
+                     ProfileInvalidationChannel channel, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.replicaLagMillis = replicaLagMillis;
+        this.channel = channel;
+        this.clock = clock;
+        channel.subscribe(userId -> {
+            remoteInvalidations.increment();
+            invalidateLocally(userId);
+        });
+    }
+
+    /**
+     * Gets a cached profile by user id.
+     *
+     * @param id the user id
+     * @return the cached profile, or null if it is not cached or has expired
+     */
+    public UserResponse get(long id) {
+        return enabled ? read(byId.get(id)) : null;
+    }
+
+    /**
+     * Gets a cached profile by username, ignoring case as the username key of
+     * {@code users} does.
+     *
+     * @param username the username
+     * @return the cached profile, or null if it is not cached or has expired
+     */
+    public UserResponse getByUsername(String username) {
+        return enabled ? read(byUsername.get(normalize(username))) : null;
+    }
+
+    /**
+     * Gets the stamp to pass to {@link #put} for a profile about to be loaded.
+     *
+     * @return the current invalidation stamp
+     */
+    public long stamp() {
+        return sequence.get();
+    }
+
+    /**
+     * Caches a profile read from the database, unless the user changed after the given
+     * stamp was taken or within the replica lag.
+     *
+     * @param user  the profile read
+     * @param stamp the result of {@link #stamp()} taken before the read
+     */
+    public void put(UserResponse user, long stamp) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        Tombstone tombstone = tombstones.get(user.getId());
+        if (tombstone != null && (tombstone.sequence > stamp || now - tombstone.invalidatedAt < replicaLagMillis)) {
+            return;
+        }
+        Entry entry = store(user, now);
+        // An invalidation that raced with the store wins
+        tombstone = tombstones.get(user.getId());
+        if (tombstone != null && tombstone.sequence > stamp) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * Caches a profile just created on this instance. No other instance can hold it, so
+     * nothing is published.
+     *
+     * @param user the created profile
+     */
+    public void add(UserResponse user) {
+        if (enabled) {
+            store(user, clock.getAsLong());
+        }
+    }
+
+    /**
+     * Caches a profile just written on this instance, replacing the previous one, and
+     * tells the other instances to drop theirs. A failure to publish is logged; the other
+     * instances then serve their entry until it expires.
+     *
+     * @param user the written profile
+     */
+    public void update(UserResponse user) {
+        localInvalidations.increment();
+        invalidateLocally(user.getId());
+        if (enabled) {
+            store(user, clock.getAsLong());
+        }
+        try {
+            channel.publish(user.getId());
+        } catch (RuntimeException e) {
+            log.warn("Cannot publish profile invalidation of user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the number of cached profiles.
+     *
+     * @return the cached profile count
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache since startup.
+     *
+     * @return the hit ratio between 0 and 1; 0 before the first lookup
+     */
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Registers profile cache metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.profile.cache.requests", hits, LongAdder::sum)
+                .description("Profile lookups by whether the cache answered them")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("user.profile.cache.requests", misses, LongAdder::sum)
+                .description("Profile lookups by whether the cache answered them")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("user.profile.cache.hit.ratio", this, UserProfileCache::hitRatio)
+                .description("Share of profile lookups answered from the cache since startup")
+                .register(registry);
+        Gauge.builder("user.profile.cache.size", this, UserProfileCache::size)
+                .description("Profiles held in the cache")
+                .register(registry);
+        FunctionCounter.builder("user.profile.cache.evictions", evictions, LongAdder::sum)
+                .description("Profiles dropped from the cache")
+                .tag("reason", "size")
+                .register(registry);
+        FunctionCounter.builder("user.profile.cache.evictions", expirations, LongAdder::sum)
+                .description("Profiles dropped from the cache")
+                .tag("reason", "expired")
+                .register(registry);
+        FunctionCounter.builder("user.profile.cache.invalidations", localInvalidations, LongAdder::sum)
+                .description("Profiles invalidated after a change")
+                .tag("source", "local")
+                .register(registry);
+        FunctionCounter.builder("user.profile.cache.invalidations", remoteInvalidations, LongAdder::sum)
+                .description("Profiles invalidated after a change")
+                .tag("source", "remote")
+                .register(registry);
+    }
+
+    private UserResponse read(Entry entry) {
+        long now = clock.getAsLong();
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (now - entry.loadedAt >= ttlMillis) {
+            if (remove(entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        if (entry.lastReadAt != now) {
+            entry.lastReadAt = now;
+        }
+        hits.increment();
+        return entry.user;
+    }
+
+    private Entry store(UserResponse user, long now) {
+        Entry entry = new Entry(user, now);
+        Entry previous = byId.put(user.getId(), entry);
+        if (previous != null) {
+            byUsername.remove(normalize(previous.user.getUsername()), previous);
+        }
+        byUsername.put(normalize(user.getUsername()), entry);
+        evictIfNeeded(now);
+        return entry;
+    }
+
+    /**
+     * Drops a user's profile and blocks caching it from reads that began before, or
+     * within the replica lag.
+     */
+    private void invalidateLocally(long userId) {
+        long now = clock.getAsLong();
+        tombstones.put(userId, new Tombstone(sequence.incrementAndGet(), now));
+        Entry entry = byId.get(userId);
+        if (entry != null) {
+            remove(entry);
+        }
+        if (tombstones.size() > MAX_TOMBSTONES) {
+            tombstones.values().removeIf(tombstone -> now - tombstone.invalidatedAt >= replicaLagMillis);
+        }
+    }
+
+    private boolean remove(Entry entry) {
+        byUsername.remove(normalize(entry.user.getUsername()), entry);
+        return byId.remove(entry.user.getId(), entry);
+    }
+
+    /**
+     * Keeps the cache within its maximum size: drops expired entries, then the least
+     * recently read down to nine tenths of the maximum, so eviction runs once per tenth
+     * of the maximum stored. Only one thread evicts at a time; others carry on without
+     * waiting.
+     *
+     * @param now the current time in epoch milliseconds
+     */
+    private void evictIfNeeded(long now) {
+        if (byId.size() <= maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (Entry entry : byId.values()) {
+                if (now - entry.loadedAt >= ttlMillis && remove(entry)) {
+                    expirations.increment();
+                }
+            }
+            int excess = byId.size() - (maxEntries - maxEntries / 10);
+            if (excess <= 0) {
+                return;
+            }
+            long[] readTimes = byId.values().stream().mapToLong(entry -> entry.lastReadAt).toArray();
+            Arrays.sort(readTimes);
+            long cutoff = readTimes[Math.min(excess, readTimes.length) - 1];
+            for (Entry entry : byId.values()) {
+                if (entry.lastReadAt <= cutoff && remove(entry)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A cached profile with the time it was loaded and last read.
+     */
+    private static final class Entry {
+
+        final UserResponse user;
+        final long loadedAt;
+        volatile long lastReadAt;
+
+        Entry(UserResponse user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+            this.lastReadAt = loadedAt;
+        }
+    }
+
+    /**
+     * The last invalidation of a user: its position in the invalidation sequence and when
+     * it happened.
+     */
+    private static final class Tombstone {
+
+        final long sequence;
+        final long invalidatedAt;
+
+        Tombstone(long sequence, long invalidatedAt) {
+            this.sequence = sequence;
+            this.invalidatedAt = invalidatedAt;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.chatapp.userservice.service.eventfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Writing side of an event file shared by processes on one volume: lines are appended,
+ * and lines no longer needed are dropped by compaction. Appends and compactions take an
+ * exclusive lock on a {@code .lock} file next to the event file, so a compaction never
+ * loses a line appended by another process meanwhile. A compaction writes the kept lines
+ * to a new file and renames it over the old one, which followers detect and read from the
+ * start. Within one process, all writers of a file must share one instance.
+ */
+public class EventFile {
+
+    private final Path file;
+    private final Path lockFile;
+    private final Path compactedFile;
+
+    /**
+     * Creates the event file.
+     *
+     * @param file path of the event file
+     */
+    public EventFile(Path file) {
+        this.file = file;
+        this.lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        this.compactedFile = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Appends one line with a single write.
+     *
+     * @param line the line, without line break
+     * @throws IOException if the line could not be written
+     */
+    public synchronized void append(String line) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel lock = openLock(); FileLock ignored = lock.lock()) {
+            Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Drops the lines that are no longer needed. The file is only replaced if at least
+     * one line is dropped, so followers do not read it again for nothing.
+     *
+     * @param keep tells whether a line is still needed; blank lines are always dropped
+     * @return number of lines dropped
+     * @throws IOException if the file could not be read or replaced
+     */
+    public synchronized int compact(Predicate<String> keep) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel lock = openLock(); FileLock ignored = lock.lock()) {
+            // Appends are single writes under the lock, so every line is complete
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            ByteArrayOutputStream kept = new ByteArrayOutputStream();
+            int dropped = 0;
+            for (String line : lines) {
+                if (!line.isBlank() && keep.test(line.trim())) {
+                    kept.writeBytes((line + "\n").getBytes(StandardCharsets.UTF_8));
+                } else {
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                Files.write(compactedFile, kept.toByteArray());
+                Files.move(compactedFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return dropped;
+        }
+    }
+
+    /**
+     * Gets the path of the event file.
+     *
+     * @return the path
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    private FileChannel openLock() throws IOException {
+        return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+}
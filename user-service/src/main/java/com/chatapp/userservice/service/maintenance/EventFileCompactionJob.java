@@ -0,0 +1,75 @@
+package com.chatapp.userservice.service.maintenance;
+
+import com.chatapp.userservice.repository.SchedulerLockRepository;
+import com.chatapp.userservice.service.cache.ProfileInvalidationChannel;
+import com.chatapp.userservice.service.revocation.TokenRevocationPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Periodically drops the lines no longer needed from the event files shared with other
+ * processes, which would otherwise grow with every event and be replayed in full by
+ * each follower on startup. Revocations are dropped once their token has expired, and
+ * profile invalidations once every instance has had time to read them.
+ * Only the instance holding the {@code scheduler_locks} lease compacts.
+ */
+@Slf4j
+@Component
+public class EventFileCompactionJob {
+
+    static final String LOCK_NAME = "event-file-compaction";
+
+    private final TokenRevocationPublisher tokenRevocationPublisher;
+    private final ProfileInvalidationChannel profileInvalidationChannel;
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final long leaseMillis;
+    private final String owner;
+
+    /**
+     * Creates the compaction job.
+     *
+     * @param tokenRevocationPublisher   the publisher retaining token revocations
+     * @param profileInvalidationChannel the channel retaining profile invalidations
+     * @param schedulerLockRepository    the repository holding job leases
+     * @param leaseMillis                how long a run may hold the lease in milliseconds
+     */
+    @Autowired
+    public EventFileCompactionJob(TokenRevocationPublisher tokenRevocationPublisher,
+                                  ProfileInvalidationChannel profileInvalidationChannel,
+                                  SchedulerLockRepository schedulerLockRepository,
+                                  @Value("${event-file.compaction.lease-ms:60000}") long leaseMillis) {
+        this.tokenRevocationPublisher = tokenRevocationPublisher;
+        this.profileInvalidationChannel = profileInvalidationChannel;
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.leaseMillis = leaseMillis;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Compacts the event files if this instance wins the lease.
+     */
+    @Scheduled(initialDelayString = "${event-file.compaction.initial-delay-ms:60000}",
+               fixedDelayString = "${event-file.compaction.interval-ms:300000}")
+    public void compact() {
+        LocalDateTime start = LocalDateTime.now();
+        if (schedulerLockRepository.tryAcquire(LOCK_NAME, owner, start, start.plusNanos(leaseMillis * 1_000_000)) == 0) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            int revocations = tokenRevocationPublisher.compact(now);
+            int invalidations = profileInvalidationChannel.compact(now);
+            log.debug("Dropped {} expired token revocations and {} old profile invalidations", revocations,
+                    invalidations);
+        } finally {
+            schedulerLockRepository.release(LOCK_NAME, owner, LocalDateTime.now());
+        }
+    }
+}
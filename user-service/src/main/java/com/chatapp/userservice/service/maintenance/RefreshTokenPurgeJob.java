@@ -0,0 +1,133 @@
+package com.chatapp.userservice.service.maintenance;
+
+import com.chatapp.userservice.repository.RefreshTokenRepository;
+import com.chatapp.userservice.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically deletes expired refresh tokens. Rows are deleted in bounded chunks,
+ * oldest first, each in its own transaction and with a pause in between, so the purge
+ * never holds locks for long or floods replicas with one large delete. Only the
+ * instance holding the {@code scheduler_locks} lease runs the purge; a run stops early
+ * once half the lease has passed so the lease cannot expire under it.
+ */
+@Slf4j
+@Component
+public class RefreshTokenPurgeJob implements MeterBinder {
+
+    static final String LOCK_NAME = "refresh-token-purge";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final long leaseMillis;
+    private final String owner;
+    private final LongAdder purged = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private volatile Timer duration;
+
+    /**
+     * Creates the purge job.
+     *
+     * @param refreshTokenRepository  the refresh token repository
+     * @param schedulerLockRepository the repository holding job leases
+     * @param chunkSize               maximum rows deleted per statement
+     * @param pauseMillis             pause between chunks in milliseconds
+     * @param leaseMillis             how long a run may hold the lease in milliseconds
+     */
+    @Autowired
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                                SchedulerLockRepository schedulerLockRepository,
+                                @Value("${refresh-token.purge.chunk-size:1000}") int chunkSize,
+                                @Value("${refresh-token.purge.pause-ms:200}") long pauseMillis,
+                                @Value("${refresh-token.purge.lease-ms:600000}") long leaseMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.leaseMillis = leaseMillis;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Purges expired refresh tokens if this instance wins the lease.
+     */
+    @Scheduled(initialDelayString = "${refresh-token.purge.initial-delay-ms:60000}",
+               fixedDelayString = "${refresh-token.purge.interval-ms:300000}")
+    public void purgeExpired() {
+        LocalDateTime start = LocalDateTime.now();
+        if (schedulerLockRepository.tryAcquire(LOCK_NAME, owner, start, start.plusNanos(leaseMillis * 1_000_000)) == 0) {
+            skipped.increment();
+            return;
+        }
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(leaseMillis / 2);
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = refreshTokenRepository.deleteExpiredChunk(start, chunkSize);
+                total += deleted;
+                purged.add(deleted);
+            } while (deleted == chunkSize && System.nanoTime() < deadlineNanos && pause());
+        } finally {
+            schedulerLockRepository.release(LOCK_NAME, owner, LocalDateTime.now());
+            long elapsedNanos = System.nanoTime() - startNanos;
+            if (duration != null) {
+                duration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            }
+            log.debug("Purged {} expired refresh tokens in {} ms", total, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    /**
+     * Registers purge metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("refresh.tokens.purge.rows", purged, LongAdder::sum)
+                .description("Expired refresh tokens deleted by the purge job")
+                .register(registry);
+        FunctionCounter.builder("refresh.tokens.purge.skipped", skipped, LongAdder::sum)
+                .description("Purge runs skipped because another instance held the lease")
+                .register(registry);
+        duration = Timer.builder("refresh.tokens.purge.duration")
+                .description("Time taken by purge runs on the lease holder")
+                .register(registry);
+    }
+
+    /**
+     * Waits between chunks.
+     *
+     * @return false if the thread was interrupted and the run should stop
+     */
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
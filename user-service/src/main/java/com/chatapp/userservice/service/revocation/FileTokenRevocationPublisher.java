@@ -0,0 +1,61 @@
+package com.chatapp.userservice.service.revocation;
+
+import com.chatapp.userservice.service.eventfile.EventFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * File-based implementation of the TokenRevocationPublisher interface.
+ * Appends one {@code <jti> <expires-at-millis>} line per revocation to an {@link EventFile}
+ * that the API gateway follows. Each line is written with a single append, so concurrent
+ * writers, including other user-service instances sharing the file, never interleave.
+ * Lines of expired tokens are dropped by {@link #compact(long)}.
+ */
+@Component
+public class FileTokenRevocationPublisher implements TokenRevocationPublisher {
+
+    private final EventFile file;
+
+    /**
+     * Creates the publisher.
+     *
+     * @param file path of the revocation event file
+     */
+    public FileTokenRevocationPublisher(@Value("${jwt.revocation.file:revocations/access-tokens.log}") String file) {
+        this.file = new EventFile(Paths.get(file));
+    }
+
+    @Override
+    public void publish(String tokenId, long expiresAtMillis) {
+        try {
+            file.append(tokenId + " " + expiresAtMillis);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to publish token revocation", e);
+        }
+    }
+
+    @Override
+    public int compact(long nowMillis) {
+        try {
+            return file.compact(line -> expiresAfter(line, nowMillis));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compact token revocations", e);
+        }
+    }
+
+    /**
+     * Checks whether a revocation line is for a token that is still valid; malformed
+     * lines are never needed.
+     */
+    private static boolean expiresAfter(String line, long nowMillis) {
+        int separator = line.indexOf(' ');
+        try {
+            return separator > 0 && Long.parseLong(line.substring(separator + 1).trim()) > nowMillis;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.chatapp.userservice.service.revocation;
+
+/**
+ * Interface for publishing access-token revocations to the services that verify tokens.
+ * Provides abstraction for different transports (shared file, message broker, etc.).
+ */
+public interface TokenRevocationPublisher {
+
+    /**
+     * Publishes the revocation of an access token.
+     *
+     * @param tokenId         the id ({@code jti}) of the revoked token
+     * @param expiresAtMillis when the token expires, in epoch milliseconds; consumers may forget the revocation afterwards
+     * @throws RuntimeException if the revocation could not be published
+     */
+    void publish(String tokenId, long expiresAtMillis);
+
+    /**
+     * Drops the retained revocations of tokens that have expired, for transports that
+     * retain every revocation published.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return number of revocations dropped
+     * @throws RuntimeException if the retained revocations could not be compacted
+     */
+    int compact(long nowMillis);
+}
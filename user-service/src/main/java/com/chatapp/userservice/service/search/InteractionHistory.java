@@ -0,0 +1,195 @@
+package com.chatapp.userservice.service.search;
+
+import com.chatapp.userservice.model.UserInteraction;
+import com.chatapp.userservice.repository.UserInteractionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent interactions of each caller with other users, used to rank typeahead suggestions.
+ * Each interaction adds one to the caller's affinity for the other user, and affinities
+ * halve every half-life, so frequent and recent contacts rank first. Interactions are
+ * stored in {@code user_interactions}, keeping each caller's strongest contacts, so the
+ * history survives restarts and is shared by all instances. Each instance caches the
+ * contacts of its most recent callers, loaded on a miss and reloaded once older than the
+ * refresh interval, so interactions recorded by other instances show up within it.
+ */
+@Component
+public class InteractionHistory implements MeterBinder {
+
+    private final UserInteractionRepository repository;
+    private final int maxCallers;
+    private final int maxContacts;
+    private final double halfLifeMillis;
+    private final long refreshMillis;
+    private final LongSupplier clock;
+    private final Map<Long, Contacts> callers = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * Creates the interaction history.
+     *
+     * @param repository     the repository storing interactions
+     * @param maxCallers     the most callers cached
+     * @param maxContacts    the most contacts kept per caller; the weakest are dropped first
+     * @param halfLifeMillis the time after which an interaction counts half
+     * @param refreshMillis  the time after which a caller's cached contacts are reloaded
+     */
+    @Autowired
+    public InteractionHistory(UserInteractionRepository repository,
+                              @Value("${typeahead.history.max-callers:50000}") int maxCallers,
+                              @Value("${typeahead.history.max-contacts:32}") int maxContacts,
+                              @Value("${typeahead.history.half-life-ms:604800000}") long halfLifeMillis,
+                              @Value("${typeahead.history.refresh-ms:60000}") long refreshMillis) {
+        this(repository, maxCallers, maxContacts, halfLifeMillis, refreshMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the interaction history with the given time source.
+     *
+     * @param repository     the repository storing interactions
+     * @param maxCallers     the most callers cached
+     * @param maxContacts    the most contacts kept per caller
+     * @param halfLifeMillis the time after which an interaction counts half
+     * @param refreshMillis  the time after which a caller's cached contacts are reloaded
+     * @param clock          supplies the current time in epoch milliseconds
+     */
+    InteractionHistory(UserInteractionRepository repository, int maxCallers, int maxContacts,
+                       long halfLifeMillis, long refreshMillis, LongSupplier clock) {
+        this.repository = repository;
+        this.maxCallers = maxCallers;
+        this.maxContacts = maxContacts;
+        this.halfLifeMillis = halfLifeMillis;
+        this.refreshMillis = refreshMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Records that a caller interacted with another user and drops the caller's cached
+     * contacts, so the next lookup on this instance sees the interaction.
+     *
+     * @param callerId  the id of the caller
+     * @param contactId the id of the user the caller interacted with
+     * @throws org.springframework.dao.DataIntegrityViolationException if either user does not exist
+     */
+    public void record(long callerId, long contactId) {
+        if (callerId == contactId) {
+            return;
+        }
+        long now = clock.getAsLong();
+        repository.record(callerId, contactId, now, halfLifeMillis);
+        repository.deleteWeakest(callerId, now, halfLifeMillis, maxContacts);
+        callers.remove(callerId);
+    }
+
+    /**
+     * Gets a caller's current affinity for each of their contacts.
+     *
+     * @param callerId the id of the caller
+     * @return affinity by contact id; empty for callers without history
+     */
+    public Map<Long, Double> affinities(long callerId) {
+        long now = clock.getAsLong();
+        Contacts contacts = callers.get(callerId);
+        if (contacts == null || now - contacts.loadedAt >= refreshMillis) {
+            contacts = new Contacts(repository.findByCallerId(callerId), now);
+            callers.put(callerId, contacts);
+            evictIfNeeded(now);
+        }
+        return contacts.affinities(now);
+    }
+
+    /**
+     * Gets the number of callers whose contacts are cached.
+     *
+     * @return the cached caller count
+     */
+    public int size() {
+        return callers.size();
+    }
+
+    /**
+     * Registers interaction history metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.typeahead.history.callers", this, InteractionHistory::size)
+                .description("Callers whose interaction history is cached for typeahead ranking")
+                .register(registry);
+    }
+
+    /**
+     * Keeps the cache within the caller bound, dropping contacts due for a reload first.
+     * Only one thread evicts at a time; others carry on without waiting.
+     *
+     * @param now the current time in epoch milliseconds
+     */
+    private void evictIfNeeded(long now) {
+        if (callers.size() <= maxCallers || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            callers.values().removeIf(contacts -> now - contacts.loadedAt >= refreshMillis);
+            Iterator<Contacts> iterator = callers.values().iterator();
+            int target = maxCallers - maxCallers / 10;
+            while (callers.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private double decay(double affinity, long fromMillis, long toMillis) {
+        return affinity * Math.pow(0.5, (toMillis - fromMillis) / halfLifeMillis);
+    }
+
+    /**
+     * The contacts of one caller as loaded, in parallel arrays, each with its affinity as
+     * of its last interaction. Never modified after loading.
+     */
+    private final class Contacts {
+
+        private final long[] ids;
+        private final double[] affinities;
+        private final long[] updatedAt;
+        private final long loadedAt;
+
+        Contacts(List<UserInteraction> interactions, long loadedAt) {
+            int size = interactions.size();
+            this.ids = new long[size];
+            this.affinities = new double[size];
+            this.updatedAt = new long[size];
+            for (int i = 0; i < size; i++) {
+                UserInteraction interaction = interactions.get(i);
+                ids[i] = interaction.getContactId();
+                affinities[i] = interaction.getAffinity();
+                updatedAt[i] = interaction.getUpdatedAt();
+            }
+            this.loadedAt = loadedAt;
+        }
+
+        Map<Long, Double> affinities(long now) {
+            Map<Long, Double> result = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                result.put(ids[i], decay(affinities[i], updatedAt[i], now));
+            }
+            return result;
+        }
+    }
+}
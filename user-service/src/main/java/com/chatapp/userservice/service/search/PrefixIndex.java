@@ -0,0 +1,450 @@
+package com.chatapp.userservice.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive word-prefix index ranking completions by a per-document boost and a
+ * per-query affinity.
+ * <p>
+ * Every document gets an ordinal and one lower-cased text holding its fields. Each word
+ * start in that text is one entry of a sorted {@code long[]}, packing the ordinal and
+ * the offset of the word, ordered by the text from that offset on. A prefix is found by
+ * binary search and its completions are the run of entries that follow, so "ann" finds
+ * both "annie" and "Mary Ann". Beyond the texts, each word costs eight bytes.
+ * <p>
+ * Entries are kept in two sorted runs: the main run, rebuilt by compaction, and a small
+ * tail that each put inserts into. A query walks both runs in order, ranking every
+ * document with an affinity up front. It stops once the best documents found cannot be
+ * outranked by any later document without an affinity, and after at most
+ * {@code maxCandidates} entries, so its cost is bounded whatever the prefix. Once the
+ * tail outgrows the compaction threshold, as in a bulk load, puts append to it unsorted
+ * and queries scan it in full until the next compaction sorts it.
+ * <p>
+ * Changing a document appends it under a new ordinal and leaves a tombstone, whose
+ * entries keep their text until compaction drops them. Reads share a lock, writes are
+ * exclusive.
+ */
+public class PrefixIndex {
+
+    private static final char FIELD_SEPARATOR = '\n';
+    private static final int MAX_OFFSET = 0xFFFF;
+    private static final int MIN_COMPACTION_BACKLOG = 1024;
+
+    /** Orders candidates from the worst to the best: lower score, then found later. */
+    private static final Comparator<Candidate> WORST_FIRST = Comparator
+            .comparingDouble((Candidate candidate) -> candidate.score)
+            .thenComparing(Comparator.comparingInt((Candidate candidate) -> candidate.position).reversed());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    private long[] ids = new long[1024];
+    private float[] boosts = new float[1024];
+    private String[] texts = new String[1024];
+    private long[] entries = new long[0];
+    private long[] tail = new long[1024];
+    private int tailSize;
+    private boolean tailSorted = true;
+    private int next;
+    private int tombstones;
+    private float maxBoost;
+
+    /**
+     * Adds a document or replaces its previous fields and boost.
+     *
+     * @param id     the document id
+     * @param boost  the weight of the document in every ranking; must be positive
+     * @param fields the fields whose words are completed; null fields are skipped
+     */
+    public void put(long id, float boost, String... fields) {
+        String text = normalize(fields);
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(id);
+            if (previous != null) {
+                if (text.equals(texts[previous]) && boost == boosts[previous]) {
+                    return;
+                }
+                removed.set(previous);
+                tombstones++;
+            }
+            int ordinal = append(id, boost, text);
+            for (int offset = 0; offset < text.length() && offset <= MAX_OFFSET; offset++) {
+                if (isWordStart(text, offset)) {
+                    addToTail(entry(ordinal, offset));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the best-ranked documents with a word starting with the prefix, ignoring
+     * case. A document scores its boost times one plus its affinity; ties go to the
+     * document with an affinity, then to the one whose matching word sorts first.
+     *
+     * @param prefix        the start of a word, possibly followed by later words
+     * @param affinities    affinity by document id; these documents are always ranked
+     * @param maxCandidates the most entries examined besides the documents with an affinity
+     * @param limit         the maximum number of ids returned
+     * @return ids of the best-ranked matching documents, best first, at most {@code limit}
+     */
+    public List<Long> complete(String prefix, Map<Long, Double> affinities, int maxCandidates, int limit) {
+        String query = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        if (query.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+            int position = 0;
+            for (Map.Entry<Long, Double> affinity : affinities.entrySet()) {
+                Integer ordinal = ordinals.get(affinity.getKey());
+                if (ordinal != null && matches(texts[ordinal], query)) {
+                    offer(best, limit, new Candidate(ordinal, boosts[ordinal] * (1 + affinity.getValue()), position++));
+                }
+            }
+
+            int j = tailSize;
+            if (tailSorted) {
+                j = lowerBound(tail, tailSize, query);
+            } else {
+                for (int k = 0; k < tailSize; k++) {
+                    int ordinal = ordinal(tail[k]);
+                    if (startsWith(tail[k], query) && isNew(ordinal, affinities, best)) {
+                        offer(best, limit, new Candidate(ordinal, boosts[ordinal], position++));
+                    }
+                }
+            }
+
+            int i = lowerBound(entries, entries.length, query);
+            for (int examined = 0; examined < maxCandidates; examined++) {
+                boolean inEntries = i < entries.length && startsWith(entries[i], query);
+                boolean inTail = j < tailSize && startsWith(tail[j], query);
+                if (!inEntries && !inTail
+                        || best.size() == limit && best.peek().score >= maxBoost) {
+                    break;
+                }
+                long entry = inEntries && (!inTail || compareEntries(entries[i], tail[j]) <= 0)
+                        ? entries[i++] : tail[j++];
+                int ordinal = ordinal(entry);
+                if (isNew(ordinal, affinities, best)) {
+                    offer(best, limit, new Candidate(ordinal, boosts[ordinal], position++));
+                }
+            }
+
+            List<Candidate> ranked = new ArrayList<>(best);
+            ranked.sort(WORST_FIRST.reversed());
+            List<Long> result = new ArrayList<>(ranked.size());
+            for (Candidate candidate : ranked) {
+                result.add(ids[candidate.ordinal]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the index if tombstones exceed a quarter of the live documents or the
+     * tail exceeds a sixty-fourth of the main run.
+     *
+     * @return true if the index was compacted
+     */
+    public boolean compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            int live = ordinals.size();
+            boolean needed = tombstones > Math.max(MIN_COMPACTION_BACKLOG, live / 4)
+                    || tailSize > tailThreshold();
+            if (needed) {
+                compactLocked();
+            }
+            return needed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops tombstones and merges the tail into the main run in one linear pass.
+     * Queries wait while this runs.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of documents in the index.
+     *
+     * @return the live document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void offer(PriorityQueue<Candidate> best, int limit, Candidate candidate) {
+        best.add(candidate);
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    /**
+     * Checks that a document is live and neither ranked with its affinity nor found
+     * through another of its words.
+     */
+    private boolean isNew(int ordinal, Map<Long, Double> affinities, PriorityQueue<Candidate> best) {
+        if (removed.get(ordinal) || affinities.containsKey(ids[ordinal])) {
+            return false;
+        }
+        for (Candidate candidate : best) {
+            if (candidate.ordinal == ordinal) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int tailThreshold() {
+        return Math.max(MIN_COMPACTION_BACKLOG, entries.length / 64);
+    }
+
+    /**
+     * Finds the first of the sorted entries whose text from its offset on is not less
+     * than the query.
+     */
+    private int lowerBound(long[] run, int size, String query) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareFrom(texts[ordinal(run[mid])], offset(run[mid]), query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean startsWith(long entry, String query) {
+        return texts[ordinal(entry)].startsWith(query, offset(entry));
+    }
+
+    private int append(long id, float boost, String text) {
+        if (next == ids.length) {
+            ids = Arrays.copyOf(ids, next * 2);
+            boosts = Arrays.copyOf(boosts, next * 2);
+            texts = Arrays.copyOf(texts, next * 2);
+        }
+        int ordinal = next++;
+        ids[ordinal] = id;
+        boosts[ordinal] = boost;
+        texts[ordinal] = text;
+        ordinals.put(id, ordinal);
+        maxBoost = Math.max(maxBoost, boost);
+        return ordinal;
+    }
+
+    private void addToTail(long entry) {
+        if (tailSize == tail.length) {
+            tail = Arrays.copyOf(tail, tailSize * 2);
+        }
+        if (!tailSorted || tailSize >= tailThreshold()) {
+            tailSorted = false;
+            tail[tailSize++] = entry;
+            return;
+        }
+        int low = 0;
+        int high = tailSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareEntries(tail[mid], entry) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        System.arraycopy(tail, low, tail, low + 1, tailSize - low);
+        tail[low] = entry;
+        tailSize++;
+    }
+
+    private void compactLocked() {
+        int[] renumbered = new int[next];
+        long[] oldIds = ids;
+        float[] oldBoosts = boosts;
+        String[] oldTexts = texts;
+        int live = ordinals.size();
+        ids = new long[Math.max(1024, live + live / 4)];
+        boosts = new float[ids.length];
+        texts = new String[ids.length];
+        ordinals.clear();
+        maxBoost = 0;
+        int count = 0;
+        for (int ordinal = 0; ordinal < next; ordinal++) {
+            renumbered[ordinal] = -1;
+            if (!removed.get(ordinal)) {
+                renumbered[ordinal] = count;
+                ids[count] = oldIds[ordinal];
+                boosts[count] = oldBoosts[ordinal];
+                texts[count] = oldTexts[ordinal];
+                ordinals.put(oldIds[ordinal], count);
+                maxBoost = Math.max(maxBoost, oldBoosts[ordinal]);
+                count++;
+            }
+        }
+
+        // Renumbering keeps the relative order of ordinals, so sorted runs stay sorted
+        int kept = renumber(entries, entries.length, renumbered);
+        int keptTail = renumber(tail, tailSize, renumbered);
+        if (!tailSorted) {
+            Long[] sorted = new Long[keptTail];
+            for (int i = 0; i < keptTail; i++) {
+                sorted[i] = tail[i];
+            }
+            Arrays.sort(sorted, this::compareEntries);
+            for (int i = 0; i < keptTail; i++) {
+                tail[i] = sorted[i];
+            }
+        }
+        long[] merged = new long[kept + keptTail];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < kept || j < keptTail) {
+            if (j == keptTail || (i < kept && compareEntries(entries[i], tail[j]) <= 0)) {
+                merged[k++] = entries[i++];
+            } else {
+                merged[k++] = tail[j++];
+            }
+        }
+        entries = merged;
+        tail = new long[1024];
+        tailSize = 0;
+        tailSorted = true;
+        removed.clear();
+        next = count;
+        tombstones = 0;
+    }
+
+    /**
+     * Rewrites the entries of live documents in place with their new ordinals and drops
+     * the rest, returning how many were kept.
+     */
+    private static int renumber(long[] run, int size, int[] renumbered) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int ordinal = renumbered[ordinal(run[i])];
+            if (ordinal >= 0) {
+                run[kept++] = entry(ordinal, offset(run[i]));
+            }
+        }
+        return kept;
+    }
+
+    private int compareEntries(long a, long b) {
+        String textA = texts[ordinal(a)];
+        String textB = texts[ordinal(b)];
+        int offsetA = offset(a);
+        int offsetB = offset(b);
+        int length = Math.min(textA.length() - offsetA, textB.length() - offsetB);
+        for (int i = 0; i < length; i++) {
+            int byChar = Character.compare(textA.charAt(offsetA + i), textB.charAt(offsetB + i));
+            if (byChar != 0) {
+                return byChar;
+            }
+        }
+        int byLength = Integer.compare(textA.length() - offsetA, textB.length() - offsetB);
+        return byLength != 0 ? byLength : Long.compare(a, b);
+    }
+
+    private static int compareFrom(String text, int offset, String query) {
+        int length = Math.min(text.length() - offset, query.length());
+        for (int i = 0; i < length; i++) {
+            int byChar = Character.compare(text.charAt(offset + i), query.charAt(i));
+            if (byChar != 0) {
+                return byChar;
+            }
+        }
+        return Integer.compare(text.length() - offset, query.length());
+    }
+
+    private static boolean matches(String text, String query) {
+        for (int offset = 0; offset < text.length() && offset <= MAX_OFFSET; offset++) {
+            if (isWordStart(text, offset) && text.startsWith(query, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordStart(String text, int offset) {
+        return Character.isLetterOrDigit(text.charAt(offset))
+                && (offset == 0 || !Character.isLetterOrDigit(text.charAt(offset - 1)));
+    }
+
+    private static long entry(int ordinal, int offset) {
+        return ((long) ordinal << 16) | offset;
+    }
+
+    private static int ordinal(long entry) {
+        return (int) (entry >>> 16);
+    }
+
+    private static int offset(long entry) {
+        return (int) (entry & MAX_OFFSET);
+    }
+
+    private static String normalize(String... fields) {
+        StringBuilder text = new StringBuilder();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append(FIELD_SEPARATOR);
+            }
+            text.append(field.toLowerCase(Locale.ROOT));
+        }
+        return text.toString();
+    }
+
+    /**
+     * A ranked document, with the order in which the query found it to break ties.
+     */
+    private static final class Candidate {
+
+        private final int ordinal;
+        private final double score;
+        private final int position;
+
+        Candidate(int ordinal, double score, int position) {
+            this.ordinal = ordinal;
+            this.score = score;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.chatapp.userservice.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive substring index over a few text fields per document.
+ * Every document gets an ordinal, and each trigram of its lower-cased text maps to the
+ * sorted list of ordinals containing it. A query of three or more characters walks the
+ * shortest posting list of its trigrams, checks the others by binary search and
+ * confirms each candidate with a substring test, stopping at the result limit. Shorter
+ * queries have no trigram and scan the stored texts instead, which also stops at the limit.
+ * <p>
+ * Keyset queries return matches ordered by each document's lower-cased sort key and id.
+ * Compaction renumbers all documents in that order, so in the sorted prefix a page
+ * starts at the cursor found by binary search and ends after {@code limit} matches.
+ * Documents put since then form an unsorted tail that is searched in full and merged in.
+ * <p>
+ * Changing a document appends it under a new ordinal and leaves a tombstone, keeping
+ * posting lists sorted. Compaction runs on request, once tombstones or the unsorted
+ * tail grow too large. Reads share a lock, writes are exclusive.
+ */
+public class TrigramIndex {
+
+    private static final char FIELD_SEPARATOR = '\n';
+    private static final int MIN_COMPACTION_BACKLOG = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[1024];
+    private String[] keys = new String[1024];
+    private String[] texts = new String[1024];
+    private int next;
+    private int sorted;
+    private int tombstones;
+
+    /**
+     * Adds a document or replaces its previous fields.
+     *
+     * @param id      the document id
+     * @param sortKey the value keyset queries order matches by
+     * @param fields  the searchable fields; null fields are skipped
+     */
+    public void put(long id, String sortKey, String... fields) {
+        String text = normalize(fields);
+        String key = sortKey.toLowerCase(Locale.ROOT);
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(id);
+            if (previous != null) {
+                if (text.equals(texts[previous]) && key.equals(keys[previous])) {
+                    return;
+                }
+                texts[previous] = null;
+                tombstones++;
+            }
+            append(id, key, text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds documents with any field containing the keyword, ignoring case.
+     *
+     * @param keyword the substring to look for; blank matches every document
+     * @param limit   the maximum number of ids returned
+     * @return ids of matching documents in ordinal order, at most {@code limit}
+     */
+    public List<Long> search(String keyword, int limit) {
+        String query = normalizeQuery(keyword);
+        List<Long> result = new ArrayList<>(Math.min(limit, 64));
+        if (limit <= 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            forEachMatch(query, 0, next, ordinal -> {
+                result.add(ids[ordinal]);
+                return result.size() < limit;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Finds one page of documents with any field containing the keyword, ignoring case,
+     * ordered by sort key and id.
+     *
+     * @param keyword  the substring to look for; blank matches every document
+     * @param afterKey the sort key of the last document of the previous page, or null for the first page
+     * @param afterId  the id of the last document of the previous page
+     * @param limit    the maximum number of ids returned
+     * @return ids of matching documents after the given position, at most {@code limit}
+     */
+    public List<Long> search(String keyword, String afterKey, long afterId, int limit) {
+        String query = normalizeQuery(keyword);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        String after = afterKey != null ? afterKey.toLowerCase(Locale.ROOT) : null;
+        lock.readLock().lock();
+        try {
+            Comparator<Integer> order = (a, b) -> compare(keys[a], ids[a], keys[b], ids[b]);
+            List<Integer> page = new ArrayList<>(limit);
+            forEachMatch(query, after == null ? 0 : firstSortedAfter(after, afterId), sorted, ordinal -> {
+                page.add(ordinal);
+                return page.size() < limit;
+            });
+
+            PriorityQueue<Integer> tail = new PriorityQueue<>(limit + 1, order.reversed());
+            forEachMatch(query, sorted, next, ordinal -> {
+                if (after == null || compare(keys[ordinal], ids[ordinal], after, afterId) > 0) {
+                    tail.add(ordinal);
+                    if (tail.size() > limit) {
+                        tail.poll();
+                    }
+                }
+                return true;
+            });
+            if (!tail.isEmpty()) {
+                page.addAll(tail);
+                page.sort(order);
+            }
+
+            List<Long> result = new ArrayList<>(Math.min(limit, page.size()));
+            for (int i = 0; i < page.size() && i < limit; i++) {
+                result.add(ids[page.get(i)]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the index if tombstones exceed a quarter of the live documents or the
+     * unsorted tail exceeds an eighth of them.
+     *
+     * @return true if the index was compacted
+     */
+    public boolean compactIfNeeded() {
+        lock.writeLock().lock();
+        try {
+            int live = ordinals.size();
+            boolean needed = tombstones > Math.max(MIN_COMPACTION_BACKLOG, live / 4)
+                    || next - sorted > Math.max(MIN_COMPACTION_BACKLOG, live / 8);
+            if (needed) {
+                compactLocked();
+            }
+            return needed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops tombstones and renumbers every document in sort-key order. Searches wait
+     * while this runs; call it after a bulk load and then through {@link #compactIfNeeded()}.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of documents in the index.
+     *
+     * @return the live document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes the ordinal of every live document in {@code [from, to)} containing the
+     * query to the visitor, in ordinal order, until the visitor returns false.
+     */
+    private void forEachMatch(String query, int from, int to, IntPredicate visitor) {
+        if (from >= to) {
+            return;
+        }
+        if (query.length() < 3) {
+            scan(query, from, to, visitor);
+        } else {
+            lookup(query, from, to, visitor);
+        }
+    }
+
+    private void scan(String query, int from, int to, IntPredicate visitor) {
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            String text = texts[ordinal];
+            if (text != null && text.contains(query) && !visitor.test(ordinal)) {
+                return;
+            }
+        }
+    }
+
+    private void lookup(String query, int from, int to, IntPredicate visitor) {
+        Set<Long> keys = trigrams(query);
+        Postings[] lists = new Postings[keys.size()];
+        int i = 0;
+        for (Long key : keys) {
+            Postings list = postings.get(key);
+            if (list == null) {
+                return;
+            }
+            lists[i++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        Postings shortest = lists[0];
+        int start = Arrays.binarySearch(shortest.ordinals, 0, shortest.size, from);
+        for (int p = start >= 0 ? start : -start - 1; p < shortest.size; p++) {
+            int ordinal = shortest.ordinals[p];
+            if (ordinal >= to) {
+                return;
+            }
+            String text = texts[ordinal];
+            if (text == null || !containsAll(lists, ordinal) || !text.contains(query)) {
+                continue;
+            }
+            if (!visitor.test(ordinal)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the first ordinal of the sorted prefix positioned after the given key and id.
+     * Tombstones keep their key, so the prefix stays ordered.
+     */
+    private int firstSortedAfter(String key, long id) {
+        int low = 0;
+        int high = sorted;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(keys[mid], ids[mid], key, id) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(String key, long id, String otherKey, long otherId) {
+        int byKey = key.compareTo(otherKey);
+        return byKey != 0 ? byKey : Long.compare(id, otherId);
+    }
+
+    private static boolean containsAll(Postings[] lists, int ordinal) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i].ordinals, 0, lists[i].size, ordinal) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void append(long id, String key, String text) {
+        if (next == ids.length) {
+            ids = Arrays.copyOf(ids, next * 2);
+            keys = Arrays.copyOf(keys, next * 2);
+            texts = Arrays.copyOf(texts, next * 2);
+        }
+        int ordinal = next++;
+        ids[ordinal] = id;
+        keys[ordinal] = key;
+        texts[ordinal] = text;
+        ordinals.put(id, ordinal);
+        if (ordinal == sorted && (ordinal == 0 || compare(keys[ordinal - 1], ids[ordinal - 1], key, id) < 0)) {
+            sorted++;
+        }
+        for (Long trigram : trigrams(text)) {
+            postings.computeIfAbsent(trigram, k -> new Postings()).add(ordinal);
+        }
+    }
+
+    private void compactLocked() {
+        Integer[] live = new Integer[ordinals.size()];
+        int count = 0;
+        for (int ordinal = 0; ordinal < next; ordinal++) {
+            if (texts[ordinal] != null) {
+                live[count++] = ordinal;
+            }
+        }
+        Arrays.sort(live, 0, count, (a, b) -> compare(keys[a], ids[a], keys[b], ids[b]));
+
+        long[] oldIds = ids;
+        String[] oldKeys = keys;
+        String[] oldTexts = texts;
+        postings.clear();
+        ordinals.clear();
+        ids = new long[Math.max(1024, count + count / 4)];
+        keys = new String[ids.length];
+        texts = new String[ids.length];
+        next = 0;
+        sorted = 0;
+        tombstones = 0;
+        for (int i = 0; i < count; i++) {
+            append(oldIds[live[i]], oldKeys[live[i]], oldTexts[live[i]]);
+        }
+    }
+
+    private static String normalizeQuery(String keyword) {
+        return keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalize(String... fields) {
+        StringBuilder text = new StringBuilder();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append(FIELD_SEPARATOR);
+            }
+            text.append(field.toLowerCase(Locale.ROOT));
+        }
+        return text.toString();
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            keys.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return keys;
+    }
+
+    /**
+     * Ordinals containing one trigram, in ascending order.
+     */
+    private static final class Postings {
+
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.chatapp.userservice.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last user of a page ordered by a sort key and id. The key is the
+ * username for pages in username order and the relevance score for full-text search.
+ * Clients receive it as an opaque URL-safe string and pass it back unchanged to fetch
+ * the next page.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCursor {
+
+    private final String key;
+    private final long id;
+
+    /**
+     * Encodes the cursor for a client.
+     *
+     * @return the opaque cursor string
+     */
+    public String encode() {
+        byte[] value = (id + ":" + key).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    /**
+     * Reads the key as a relevance score.
+     *
+     * @return the relevance score of the last user of the previous page
+     * @throws IllegalArgumentException if the key is not a number
+     */
+    public double getRelevance() {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Decodes a cursor received from a client.
+     *
+     * @param cursor the opaque cursor string
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static UserCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new UserCursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
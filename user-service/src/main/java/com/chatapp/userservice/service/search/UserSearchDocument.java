@@ -0,0 +1,19 @@
+package com.chatapp.userservice.service.search;
+
+import com.chatapp.userservice.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The searchable fields of a user, read without loading the full entity.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSearchDocument {
+
+    private final Long id;
+    private final String username;
+    private final String fullName;
+    private final String email;
+    private final User.UserStatus status;
+}
@@ -0,0 +1,28 @@
+package com.chatapp.userservice.service.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user matched by full-text search with its relevance score, read by a native query
+ * whose column aliases match these getters.
+ */
+public interface UserSearchHit {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getFullName();
+
+    String getAvatarUrl();
+
+    String getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    double getRelevance();
+}
@@ -0,0 +1,329 @@
+package com.chatapp.userservice.service.search;
+
+import com.chatapp.common.annotation.ReadOnlyRepository;
+import com.chatapp.common.config.DataSourceContextHolder;
+import com.chatapp.common.config.DataSourceType;
+import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory indexes of users answering searches and typeahead without scanning the
+ * {@code users} table: a trigram index over username, full name and email, active with
+ * {@code search.mode: memory}, and a word-prefix index over username and full name,
+ * active with {@code typeahead.enabled}. Both are built after startup from one streaming
+ * read of the read replica and kept current by local registrations and profile updates
+ * and by polling {@code users.updated_at} for changes made on other instances. Until
+ * they are built, or when the change feed has not been read for too long, callers use
+ * the SQL queries.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex implements MeterBinder {
+
+    static final String MEMORY_MODE = "memory";
+
+    /** Typeahead weight of each account status; inactive and banned users rank below active ones. */
+    private static final Map<User.UserStatus, Float> STATUS_BOOSTS = Map.of(
+            User.UserStatus.ACTIVE, 1.0f,
+            User.UserStatus.INACTIVE, 0.25f,
+            User.UserStatus.BANNED, 0.01f);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean searchEnabled;
+    private final boolean typeaheadEnabled;
+    private final long overlapMillis;
+    private final long maxStalenessMillis;
+    private final LongSupplier clock;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private final PrefixIndex prefixes = new PrefixIndex();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final LongAdder indexQueries = new LongAdder();
+    private final LongAdder sqlQueries = new LongAdder();
+    private final LongAdder fulltextQueries = new LongAdder();
+    private final LongAdder typeaheadQueries = new LongAdder();
+
+    private volatile boolean built;
+    private volatile long lastPolledMillis = -1;
+    private volatile long lastSuccessMillis = -1;
+
+    /**
+     * Creates the search index.
+     *
+     * @param userRepository     the user repository the index is read from
+     * @param transactionManager the transaction manager used for the streaming read
+     * @param mode               the search mode; the trigram index is active for {@code memory}
+     * @param typeaheadEnabled   whether the prefix index for typeahead is active
+     * @param overlapMillis      how far each poll reaches back before the previous one, covering
+     *                           timestamp precision and replica lag
+     * @param maxStalenessMillis how long after the last successful poll the index is still trusted
+     */
+    @Autowired
+    public UserSearchIndex(UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${search.mode:memory}") String mode,
+                           @Value("${typeahead.enabled:true}") boolean typeaheadEnabled,
+                           @Value("${search.memory.overlap-ms:5000}") long overlapMillis,
+                           @Value("${search.memory.max-staleness-ms:60000}") long maxStalenessMillis) {
+        this(userRepository, transactionManager, MEMORY_MODE.equalsIgnoreCase(mode), typeaheadEnabled,
+                overlapMillis, maxStalenessMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the search index with the given time source.
+     *
+     * @param userRepository     the user repository the index is read from
+     * @param transactionManager the transaction manager used for the streaming read
+     * @param searchEnabled      whether the trigram index is active
+     * @param typeaheadEnabled   whether the prefix index is active
+     * @param overlapMillis      how far each poll reaches back before the previous one
+     * @param maxStalenessMillis how long after the last successful poll the index is still trusted
+     * @param clock              supplies the current time in epoch milliseconds
+     */
+    UserSearchIndex(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                    boolean searchEnabled, boolean typeaheadEnabled, long overlapMillis, long maxStalenessMillis,
+                    LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.searchEnabled = searchEnabled;
+        this.typeaheadEnabled = typeaheadEnabled;
+        this.overlapMillis = overlapMillis;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts building the indexes in the background once the application is ready, so
+     * startup is not held up by reading every user.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (isEnabled()) {
+            startBuild();
+        }
+    }
+
+    /**
+     * Checks whether searches can be answered from the index.
+     *
+     * @return true if enabled, built and the change feed was read successfully recently
+     */
+    public boolean isReady() {
+        return searchEnabled && isCurrent();
+    }
+
+    /**
+     * Checks whether typeahead can be answered from the prefix index.
+     *
+     * @return true if enabled, built and the change feed was read successfully recently
+     */
+    public boolean isTypeaheadReady() {
+        return typeaheadEnabled && isCurrent();
+    }
+
+    /**
+     * Finds one page of users with a username, full name or email containing the keyword,
+     * ignoring case, ordered by username and id.
+     *
+     * @param keyword       the search keyword
+     * @param afterUsername the username of the last user of the previous page, or null for the first page
+     * @param afterId       the id of the last user of the previous page
+     * @param limit         the maximum number of ids returned
+     * @return ids of matching users after the given position, at most {@code limit}
+     */
+    public List<Long> search(String keyword, String afterUsername, long afterId, int limit) {
+        indexQueries.increment();
+        return index.search(keyword, afterUsername, afterId, limit);
+    }
+
+    /**
+     * Finds the best-ranked users with a word of their username or full name starting
+     * with the prefix, ignoring case. Users rank by their account status, raised by the
+     * caller's affinity for them.
+     *
+     * @param prefix        the start of a word of the username or full name
+     * @param affinities    the caller's affinity by user id; these users are always ranked
+     * @param maxCandidates the most index entries examined besides the caller's contacts
+     * @param limit         the maximum number of ids returned
+     * @return ids of the best-ranked users, best first, at most {@code limit}
+     */
+    public List<Long> typeahead(String prefix, Map<Long, Double> affinities, int maxCandidates, int limit) {
+        typeaheadQueries.increment();
+        return prefixes.complete(prefix, affinities, maxCandidates, limit);
+    }
+
+    /**
+     * Counts a search that had to be answered by the SQL query.
+     */
+    public void recordFallback() {
+        sqlQueries.increment();
+    }
+
+    /**
+     * Counts a search answered by the FULLTEXT index.
+     */
+    public void recordFulltext() {
+        fulltextQueries.increment();
+    }
+
+    /**
+     * Adds a user, or replaces their indexed fields after a change.
+     *
+     * @param user the registered or updated user
+     */
+    public void put(User user) {
+        put(user.getId(), user.getUsername(), user.getFullName(), user.getEmail(), user.getStatus());
+    }
+
+    /**
+     * Reads users changed since the previous poll and compacts the index once enough
+     * users have changed. While the index has not been built, a failed build is started
+     * again instead.
+     */
+    @Scheduled(fixedDelayString = "${search.memory.poll-interval-ms:2000}")
+    @ReadOnlyRepository
+    public void poll() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!built) {
+            startBuild();
+            return;
+        }
+        long now = clock.getAsLong();
+        try {
+            userRepository.findSearchDocumentsUpdatedSince(toLocalDateTime(lastPolledMillis - overlapMillis))
+                    .forEach(this::put);
+            index.compactIfNeeded();
+            prefixes.compactIfNeeded();
+            lastPolledMillis = now;
+            lastSuccessMillis = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read user search changes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads every user into the indexes with one streaming read of the read replica, then
+     * orders them. Users changed while the read runs are picked up by
+     * the next poll, which reaches back to the start of the build.
+     */
+    void build() {
+        long startedAt = clock.getAsLong();
+        DataSourceContextHolder.setDataSourceType(DataSourceType.READ);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserSearchDocument> documents = userRepository.streamSearchDocuments()) {
+                    documents.forEach(this::put);
+                }
+            });
+            index.compact();
+            prefixes.compact();
+            lastPolledMillis = startedAt;
+            lastSuccessMillis = clock.getAsLong();
+            built = true;
+            log.info("Built user search index with {} users in {} ms", size(), clock.getAsLong() - startedAt);
+        } catch (RuntimeException e) {
+            log.warn("Failed to build user search index: {}", e.getMessage());
+        } finally {
+            DataSourceContextHolder.clearDataSourceType();
+            building.set(false);
+        }
+    }
+
+    /**
+     * Gets the number of users in the indexes.
+     *
+     * @return the indexed user count
+     */
+    public int size() {
+        return Math.max(index.size(), prefixes.size());
+    }
+
+    /**
+     * Registers search index metrics with the meter registry.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.search.index.users", this, UserSearchIndex::size)
+                .description("Users held in the in-memory search index")
+                .register(registry);
+        FunctionCounter.builder("user.search.queries", indexQueries, LongAdder::sum)
+                .description("User searches by the path that answered them")
+                .tag("path", "index")
+                .register(registry);
+        FunctionCounter.builder("user.search.queries", sqlQueries, LongAdder::sum)
+                .description("User searches by the path that answered them")
+                .tag("path", "sql")
+                .register(registry);
+        FunctionCounter.builder("user.search.queries", fulltextQueries, LongAdder::sum)
+                .description("User searches by the path that answered them")
+                .tag("path", "fulltext")
+                .register(registry);
+        FunctionCounter.builder("user.search.queries", typeaheadQueries, LongAdder::sum)
+                .description("User searches by the path that answered them")
+                .tag("path", "typeahead")
+                .register(registry);
+    }
+
+    private void put(UserSearchDocument document) {
+        put(document.getId(), document.getUsername(), document.getFullName(), document.getEmail(),
+                document.getStatus());
+    }
+
+    private void put(Long id, String username, String fullName, String email, User.UserStatus status) {
+        if (searchEnabled) {
+            index.put(id, username, username, fullName, email);
+        }
+        if (typeaheadEnabled) {
+            prefixes.put(id, STATUS_BOOSTS.getOrDefault(status, 1.0f), username, fullName);
+        }
+    }
+
+    private boolean isEnabled() {
+        return searchEnabled || typeaheadEnabled;
+    }
+
+    private boolean isCurrent() {
+        return built && clock.getAsLong() - lastSuccessMillis <= maxStalenessMillis;
+    }
+
+    private void startBuild() {
+        if (building.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::build, "user-search-index-build");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -1,6 +1,8 @@
 package com.chatapp.userservice.controller;
 
 import com.chatapp.userservice.dto.*;
+import com.chatapp.userservice.security.ClientAddressResolver;
+import com.chatapp.userservice.service.TokenRefreshService;
 import com.chatapp.userservice.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +33,12 @@ class UserControllerTest {
         @MockBean
         private UserService userService;
 
+        @MockBean
+        private TokenRefreshService tokenRefreshService;
+
+        @MockBean
+        private ClientAddressResolver clientAddressResolver;
+
         @Autowired
         private ObjectMapper objectMapper;
 
@@ -114,7 +122,7 @@ class UserControllerTest {
 
         @Test
         void loginUser_Success() throws Exception {
-                when(userService.loginUser(any(UserLoginRequest.class)))
+                when(userService.loginUser(any(UserLoginRequest.class), any()))
                                 .thenReturn(authResponse);
 
                 mockMvc.perform(post("/api/users/login")
@@ -127,12 +135,12 @@ class UserControllerTest {
                                 .andExpect(jsonPath("$.data.refreshToken").value("refresh-token"))
                                 .andExpect(jsonPath("$.data.user.username").value("testuser"));
 
-                verify(userService).loginUser(any(UserLoginRequest.class));
+                verify(userService).loginUser(any(UserLoginRequest.class), any());
         }
 
         @Test
         void loginUser_InvalidCredentials() throws Exception {
-                when(userService.loginUser(any(UserLoginRequest.class)))
+                when(userService.loginUser(any(UserLoginRequest.class), any()))
                                 .thenThrow(new RuntimeException("Invalid credentials"));
 
                 mockMvc.perform(post("/api/users/login")
@@ -168,22 +176,22 @@ class UserControllerTest {
 
         @Test
         void searchUsers_Success() throws Exception {
-                List<UserResponse> users = Arrays.asList(userResponse);
-                when(userService.searchUsers("test")).thenReturn(users);
+                UserPage page = UserPage.builder().items(Arrays.asList(userResponse)).build();
+                when(userService.searchUsers("test", null, null)).thenReturn(page);
 
                 mockMvc.perform(get("/api/users/search")
                                 .param("keyword", "test"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$.success").value(true))
-                                .andExpect(jsonPath("$.data").isArray())
-                                .andExpect(jsonPath("$.data[0].username").value("testuser"));
+                                .andExpect(jsonPath("$.data.items").isArray())
+                                .andExpect(jsonPath("$.data.items[0].username").value("testuser"));
 
-                verify(userService).searchUsers("test");
+                verify(userService).searchUsers("test", null, null);
         }
 
         @Test
         void refreshToken_Success() throws Exception {
-                when(userService.refreshAccessToken("refresh-token"))
+                when(tokenRefreshService.refresh("refresh-token"))
                                 .thenReturn(authResponse);
 
                 mockMvc.perform(post("/api/users/refresh")
@@ -199,7 +207,7 @@ class UserControllerTest {
 
         @Test
         void refreshToken_InvalidToken() throws Exception {
-                when(userService.refreshAccessToken("invalid-token"))
+                when(tokenRefreshService.refresh("invalid-token"))
                                 .thenThrow(new RuntimeException("Invalid refresh token"));
 
                 mockMvc.perform(post("/api/users/refresh")
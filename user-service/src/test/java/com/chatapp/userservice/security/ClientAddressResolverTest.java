@@ -0,0 +1,68 @@
+package com.chatapp.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientAddressResolverTest {
+
+    // Gateway and nginx containers
+    private final ClientAddressResolver resolver = new ClientAddressResolver(List.of("172.18.0.0/16", "127.0.0.1"));
+
+    @Test
+    void clientAddress_NoForwardedFor_ReturnsRemoteAddress() {
+        assertEquals("172.18.0.5", resolver.clientAddress(request("172.18.0.5", null)));
+    }
+
+    @Test
+    void clientAddress_ThroughNginxAndGateway_ReturnsAddressNginxAppended() {
+        // nginx appends the client, the gateway appends nginx
+        MockHttpServletRequest request = request("172.18.0.5", "203.0.113.7, 172.18.0.3");
+
+        assertEquals("203.0.113.7", resolver.clientAddress(request));
+    }
+
+    @Test
+    void clientAddress_SpoofedLeadingEntry_Ignored() {
+        MockHttpServletRequest request = request("172.18.0.5", "198.51.100.1, 172.18.0.9, 203.0.113.7, 172.18.0.3");
+
+        assertEquals("203.0.113.7", resolver.clientAddress(request));
+    }
+
+    @Test
+    void clientAddress_ClientBypassingNginx_ReturnsAddressGatewayAppended() {
+        // Sent straight to the gateway's published port with a forged header
+        MockHttpServletRequest request = request("172.18.0.5", "198.51.100.1, 203.0.113.7");
+
+        assertEquals("203.0.113.7", resolver.clientAddress(request));
+    }
+
+    @Test
+    void clientAddress_UntrustedPeer_IgnoresForwardedFor() {
+        assertEquals("203.0.113.7", resolver.clientAddress(request("203.0.113.7", "198.51.100.1")));
+    }
+
+    @Test
+    void clientAddress_OnlyTrustedHops_ReturnsLeftmost() {
+        assertEquals("172.18.0.3", resolver.clientAddress(request("127.0.0.1", "172.18.0.3, 172.18.0.5")));
+    }
+
+    @Test
+    void clientAddress_HostNameEntry_NotTrusted() {
+        MockHttpServletRequest request = request("172.18.0.5", "198.51.100.1, localhost");
+
+        assertEquals("localhost", resolver.clientAddress(request));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
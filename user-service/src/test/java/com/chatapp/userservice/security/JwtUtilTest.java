@@ -1,5 +1,8 @@
 package com.chatapp.userservice.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -22,25 +25,67 @@ class JwtUtilTest {
 
     @Test
     void generateAccessToken_Success() {
-        String token = jwtUtil.generateAccessToken("testuser");
+        String token = jwtUtil.generateAccessToken("testuser", 42L, 3L);
 
         assertNotNull(token);
         assertTrue(token.length() > 0);
         assertEquals("testuser", jwtUtil.getUsernameFromToken(token));
     }
 
+    @Test
+    void generateAccessToken_CarriesUserIdAndProfileVersion() {
+        String token = jwtUtil.generateAccessToken("testuser", 42L, 3L);
+
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor("mySecretKeyForTestingPurposesOnly1234567890".getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+
+        assertEquals(42L, claims.get(JwtUtil.USER_ID_CLAIM, Long.class));
+        assertEquals(3L, claims.get(JwtUtil.PROFILE_VERSION_CLAIM, Long.class));
+    }
+
+    @Test
+    void generateAccessToken_CarriesUniqueTokenId() {
+        Claims first = jwtUtil.getClaimsFromToken(jwtUtil.generateAccessToken("testuser", 42L, 3L));
+        Claims second = jwtUtil.getClaimsFromToken(jwtUtil.generateAccessToken("testuser", 42L, 3L));
+
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+    }
+
     @Test
     void generateRefreshToken_Success() {
-        String token = jwtUtil.generateRefreshToken("testuser");
+        String token = jwtUtil.generateRefreshToken("testuser", 1L, 0L, 0L);
 
         assertNotNull(token);
         assertTrue(token.length() > 0);
         assertEquals("testuser", jwtUtil.getUsernameFromToken(token));
     }
 
+    @Test
+    void generateRefreshToken_CarriesUserIdProfileVersionAndGeneration() {
+        Claims claims = jwtUtil.getClaimsFromToken(jwtUtil.generateRefreshToken("testuser", 42L, 3L, 7L));
+
+        assertEquals(42L, claims.get(JwtUtil.USER_ID_CLAIM, Long.class));
+        assertEquals(3L, claims.get(JwtUtil.PROFILE_VERSION_CLAIM, Long.class));
+        assertEquals(7L, claims.get(JwtUtil.TOKEN_GENERATION_CLAIM, Long.class));
+        assertNotNull(claims.getId());
+    }
+
+    @Test
+    void generateTokens_CarryTokenType() {
+        Claims access = jwtUtil.getClaimsFromToken(jwtUtil.generateAccessToken("testuser", 42L, 3L));
+        Claims refresh = jwtUtil.getClaimsFromToken(jwtUtil.generateRefreshToken("testuser", 42L, 3L, 7L));
+
+        assertEquals(JwtUtil.ACCESS_TOKEN_TYPE, access.get(JwtUtil.TOKEN_TYPE_CLAIM, String.class));
+        assertEquals(JwtUtil.REFRESH_TOKEN_TYPE, refresh.get(JwtUtil.TOKEN_TYPE_CLAIM, String.class));
+    }
+
     @Test
     void validateToken_ValidToken_ReturnsTrue() {
-        String token = jwtUtil.generateAccessToken("testuser");
+        String token = jwtUtil.generateAccessToken("testuser", 42L, 3L);
 
         boolean isValid = jwtUtil.validateToken(token);
 
@@ -59,7 +104,7 @@ class JwtUtilTest {
     @Test
     void validateToken_ExpiredToken_ReturnsFalse() {
         ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", -1000);
-        String expiredToken = jwtUtil.generateAccessToken("testuser");
+        String expiredToken = jwtUtil.generateAccessToken("testuser", 42L, 3L);
 
         try {
             Thread.sleep(100);
@@ -74,7 +119,7 @@ class JwtUtilTest {
 
     @Test
     void getUsernameFromToken_ValidToken_ReturnsUsername() {
-        String token = jwtUtil.generateAccessToken("testuser");
+        String token = jwtUtil.generateAccessToken("testuser", 42L, 3L);
 
         String username = jwtUtil.getUsernameFromToken(token);
 
@@ -83,7 +128,7 @@ class JwtUtilTest {
 
     @Test
     void getExpirationDateFromToken_ValidToken_ReturnsExpirationDate() {
-        String token = jwtUtil.generateAccessToken("testuser");
+        String token = jwtUtil.generateAccessToken("testuser", 42L, 3L);
 
         Date expirationDate = jwtUtil.getExpirationDateFromToken(token);
 
@@ -93,8 +138,8 @@ class JwtUtilTest {
 
     @Test
     void accessTokenExpiration_ShorterThanRefreshToken() {
-        String accessToken = jwtUtil.generateAccessToken("testuser");
-        String refreshToken = jwtUtil.generateRefreshToken("testuser");
+        String accessToken = jwtUtil.generateAccessToken("testuser", 42L, 3L);
+        String refreshToken = jwtUtil.generateRefreshToken("testuser", 1L, 0L, 0L);
 
         Date accessExpiration = jwtUtil.getExpirationDateFromToken(accessToken);
         Date refreshExpiration = jwtUtil.getExpirationDateFromToken(refreshToken);
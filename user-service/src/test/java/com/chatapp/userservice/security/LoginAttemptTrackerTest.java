@@ -0,0 +1,82 @@
+package com.chatapp.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void checkAllowed_AccountOverLimit_IsRejected() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(3, 100, 60, 1000, now::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tracker.bindTo(registry);
+
+        for (int i = 0; i < 3; i++) {
+            tracker.checkAllowed("Alice", "10.0.0." + i);
+            tracker.recordFailure("Alice", "10.0.0." + i);
+        }
+
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> tracker.checkAllowed(" alice ", "10.0.0.9"));
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertDoesNotThrow(() -> tracker.checkAllowed("bob", "10.0.0.9"));
+        assertEquals(1.0, registry.get("login.attempts.rejected").tag("reason", "account").functionCounter().count());
+    }
+
+    @Test
+    void checkAllowed_SourceOverLimit_IsRejectedForAnyAccount() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(100, 3, 60, 1000, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> tracker.checkAllowed("someone-else", "10.0.0.1"));
+        assertDoesNotThrow(() -> tracker.checkAllowed("someone-else", "10.0.0.2"));
+    }
+
+    @Test
+    void checkAllowed_FailuresAgeOutOfSlidingWindow() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(2, 100, 60, 1000, now::get);
+        tracker.recordFailure("alice", null);
+        tracker.recordFailure("alice", null);
+
+        // Halfway into the next window half of the previous window still counts
+        now.addAndGet(90_000);
+        assertDoesNotThrow(() -> tracker.checkAllowed("alice", null));
+        tracker.recordFailure("alice", null);
+        assertThrows(LoginThrottledException.class, () -> tracker.checkAllowed("alice", null));
+
+        now.addAndGet(120_000);
+        assertDoesNotThrow(() -> tracker.checkAllowed("alice", null));
+    }
+
+    @Test
+    void recordSuccess_ClearsAccountButNotSource() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(2, 2, 60, 1000, now::get);
+        tracker.recordFailure("alice", "10.0.0.1");
+        tracker.recordFailure("alice", "10.0.0.1");
+
+        tracker.recordSuccess("alice");
+
+        assertDoesNotThrow(() -> tracker.checkAllowed("alice", "10.0.0.2"));
+        assertThrows(LoginThrottledException.class, () -> tracker.checkAllowed("alice", "10.0.0.1"));
+    }
+
+    @Test
+    void recordFailure_TrackedKeysStayBounded() {
+        LoginAttemptTracker tracker = new LoginAttemptTracker(5, 5, 60, 100, now::get);
+
+        for (int i = 0; i < 1000; i++) {
+            tracker.recordFailure("user" + i, "10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        assertTrue(tracker.getTrackedCount() <= 200);
+    }
+}
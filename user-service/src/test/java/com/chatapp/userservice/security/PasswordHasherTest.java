@@ -0,0 +1,107 @@
+package com.chatapp.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void hashAndMatches_RunOnHashingThreads() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 4, 2, 8, 5000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        passwordHasher.bindTo(registry);
+
+        String hash = passwordHasher.hash("password123");
+
+        assertTrue(passwordHasher.matches("password123", hash));
+        assertFalse(passwordHasher.matches("wrong", hash));
+        assertEquals(1, registry.get("password.hashing.latency").tag("operation", "hash").timer().count());
+        assertEquals(2, registry.get("password.hashing.latency").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    void needsRehash_DetectsCostChange() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(5), 5, 1, 1, 5000);
+
+        assertFalse(passwordHasher.needsRehash(new BCryptPasswordEncoder(5).encode("password123")));
+        assertTrue(passwordHasher.needsRehash(new BCryptPasswordEncoder(4).encode("password123")));
+        assertTrue(passwordHasher.needsRehash(new BCryptPasswordEncoder(6).encode("password123")));
+        assertFalse(passwordHasher.needsRehash("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void matches_SaturatedExecutor_RejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        passwordHasher = new PasswordHasher(blockingEncoder, 4, 1, 1, 5000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        passwordHasher.bindTo(registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> passwordHasher.matches("a", "hash"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> passwordHasher.matches("b", "hash"));
+            while (passwordHasher.getQueueDepth() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(PasswordHashingRejectedException.class, () -> passwordHasher.matches("c", "hash"));
+            assertEquals(1, passwordHasher.getRejectedCount());
+            assertEquals(1.0, registry.get("password.hashing.rejected").functionCounter().count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void matches_TaskNotStartedInTime_Rejects() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        passwordHasher = new PasswordHasher(blockingEncoder, 4, 1, 4, 100);
+        try {
+            assertThrows(PasswordHashingRejectedException.class, () -> passwordHasher.matches("a", "hash"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.chatapp.userservice.security;
+
+import com.chatapp.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenGenerationCacheTest {
+
+    private static final long LIFETIME = 60_000;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private TokenGenerationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TokenGenerationCache(userRepository, true, LIFETIME, 5_000, 30_000, now::get);
+    }
+
+    @Test
+    void isReady_OnlyAfterSuccessfulPollAndUntilStale() {
+        when(userRepository.findTokenStatesUpdatedSince(any())).thenReturn(List.of());
+        assertFalse(cache.isReady());
+
+        cache.poll();
+        assertTrue(cache.isReady());
+
+        when(userRepository.findTokenStatesUpdatedSince(any())).thenThrow(new RuntimeException("replica down"));
+        now.addAndGet(31_000);
+        cache.poll();
+        assertFalse(cache.isReady());
+    }
+
+    @Test
+    void verify_UnknownUser_TrustsTokenValues() {
+        Optional<UserTokenState> state = cache.verify(1L, 0L, 4L);
+
+        assertTrue(state.isPresent());
+        assertEquals(4L, state.get().getProfileVersion());
+    }
+
+    @Test
+    void verify_GenerationBumpedInFeed_RejectsOlderTokens() {
+        when(userRepository.findTokenStatesUpdatedSince(any()))
+                .thenReturn(List.of(new UserTokenState(1L, 2L, 5L)));
+        cache.poll();
+
+        assertTrue(cache.verify(1L, 1L, 4L).isEmpty());
+        UserTokenState current = cache.verify(1L, 2L, 4L).orElseThrow();
+        assertEquals(5L, current.getProfileVersion());
+    }
+
+    @Test
+    void invalidate_AppliesLocallyAndIsNotUndoneByOlderFeedValues() {
+        cache.invalidate(1L, 0L, 0L);
+        when(userRepository.findTokenStatesUpdatedSince(any()))
+                .thenReturn(List.of(new UserTokenState(1L, 0L, 0L)));
+        cache.poll();
+
+        assertTrue(cache.verify(1L, 0L, 0L).isEmpty());
+        assertTrue(cache.verify(1L, 1L, 0L).isPresent());
+    }
+
+    @Test
+    void poll_DropsEntriesOlderThanTokenLifetime() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        when(userRepository.findTokenStatesUpdatedSince(any()))
+                .thenReturn(List.of(new UserTokenState(1L, 2L, 0L)))
+                .thenReturn(List.of());
+        cache.poll();
+        assertEquals(1, cache.size());
+
+        now.addAndGet(LIFETIME + 1);
+        cache.poll();
+
+        assertEquals(0, cache.size());
+        assertEquals(0.0, registry.get("refresh.generation.users").gauge().value());
+    }
+
+    @Test
+    void poll_Disabled_DoesNotReadFeed() {
+        TokenGenerationCache disabled = new TokenGenerationCache(userRepository, false, LIFETIME, 5_000, 30_000, now::get);
+
+        disabled.poll();
+
+        assertFalse(disabled.isReady());
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,145 @@
+package com.chatapp.userservice.service;
+
+import com.chatapp.userservice.dto.UserLoginRequest;
+import com.chatapp.userservice.dto.UserRegistrationRequest;
+import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.repository.RefreshTokenRepository;
+import com.chatapp.userservice.repository.UserRepository;
+import com.chatapp.userservice.security.JwtUtil;
+import com.chatapp.userservice.security.LoginAttemptTracker;
+import com.chatapp.userservice.security.PasswordHasher;
+import com.chatapp.userservice.security.TokenGenerationCache;
+import com.chatapp.userservice.service.cache.ProfileInvalidationChannel;
+import com.chatapp.userservice.service.cache.UserProfileCache;
+import com.chatapp.userservice.service.revocation.TokenRevocationPublisher;
+import com.chatapp.userservice.service.search.InteractionHistory;
+import com.chatapp.userservice.service.search.UserSearchIndex;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Not run in a test transaction, so the service's own transactions are the only ones; own database, so the
+// committed rows do not leak into the other cached contexts
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:password-hashing-connection;MODE=MySQL")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+class PasswordHashingConnectionTest {
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.chatapp.userservice")
+    @Import({UserService.class, JwtUtil.class, UserProfileCache.class})
+    static class TestConfig {
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private PasswordHasher passwordHasher;
+
+    @MockBean
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @MockBean
+    private TokenRevocationPublisher tokenRevocationPublisher;
+
+    @MockBean
+    private TokenGenerationCache tokenGenerationCache;
+
+    @MockBean
+    private UserSearchIndex userSearchIndex;
+
+    @MockBean
+    private InteractionHistory interactionHistory;
+
+    @MockBean
+    private ProfileInvalidationChannel profileInvalidationChannel;
+
+    // Active pool connections and whether a transaction was open, seen by each hashing call
+    private final List<Integer> activeConnections = new ArrayList<>();
+    private final List<Boolean> transactionActive = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(User.builder()
+                .username("existinguser")
+                .email("existing@example.com")
+                .passwordHash("hashedPassword")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void loginUser_PasswordCheckedAndRehashed_NoConnectionHeld() {
+        when(passwordHasher.matches(anyString(), anyString())).thenAnswer(recordingHashCall(true));
+        when(passwordHasher.needsRehash(anyString())).thenReturn(true);
+        when(passwordHasher.hash(anyString())).thenAnswer(recordingHashCall("rehashedPassword"));
+        UserLoginRequest request = new UserLoginRequest();
+        request.setUsernameOrEmail("existinguser");
+        request.setPassword("password123");
+
+        assertNotNull(userService.loginUser(request, "10.0.0.1").getRefreshToken());
+
+        assertEquals(List.of(0, 0), activeConnections);
+        assertEquals(List.of(false, false), transactionActive);
+        assertEquals("rehashedPassword", userRepository.findByUsername("existinguser").orElseThrow().getPasswordHash());
+    }
+
+    @Test
+    void registerUser_PasswordHashed_NoConnectionHeld() {
+        when(passwordHasher.hash(anyString())).thenAnswer(recordingHashCall("hashedPassword"));
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername("newuser");
+        request.setEmail("new@example.com");
+        request.setPassword("password123");
+
+        assertEquals("newuser", userService.registerUser(request).getUsername());
+
+        assertEquals(List.of(0), activeConnections);
+        assertEquals(List.of(false), transactionActive);
+    }
+
+    private <T> Answer<T> recordingHashCall(T result) {
+        return invocation -> {
+            activeConnections.add(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections());
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return result;
+        };
+    }
+}
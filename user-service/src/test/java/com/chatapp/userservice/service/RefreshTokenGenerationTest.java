@@ -0,0 +1,144 @@
+package com.chatapp.userservice.service;
+
+import com.chatapp.userservice.dto.UserLoginRequest;
+import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.security.JwtUtil;
+import com.chatapp.userservice.security.LoginAttemptTracker;
+import com.chatapp.userservice.security.PasswordHasher;
+import com.chatapp.userservice.security.TokenGenerationCache;
+import com.chatapp.userservice.service.cache.ProfileInvalidationChannel;
+import com.chatapp.userservice.service.cache.UserProfileCache;
+import com.chatapp.userservice.service.revocation.TokenRevocationPublisher;
+import com.chatapp.userservice.service.search.InteractionHistory;
+import com.chatapp.userservice.service.search.UserSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+// Own database: the schema script cannot run twice against the one shared by the other cached contexts
+@DataJpaTest(properties = {"jwt.refresh.mode=generation", "session.max-per-user=2",
+        "spring.datasource.url=jdbc:h2:mem:refresh-generation;MODE=MySQL"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class RefreshTokenGenerationTest {
+
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.chatapp.userservice")
+    @Import({UserService.class, TokenRefreshService.class, JwtUtil.class, TokenGenerationCache.class,
+            UserProfileCache.class})
+    static class TestConfig {
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenRefreshService tokenRefreshService;
+
+    @SpyBean
+    private TokenGenerationCache tokenGenerationCache;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private PasswordHasher passwordHasher;
+
+    @MockBean
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @MockBean
+    private TokenRevocationPublisher tokenRevocationPublisher;
+
+    @MockBean
+    private UserSearchIndex userSearchIndex;
+
+    @MockBean
+    private InteractionHistory interactionHistory;
+
+    @MockBean
+    private ProfileInvalidationChannel profileInvalidationChannel;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persistAndFlush(User.builder()
+                .username("existinguser")
+                .email("existing@example.com")
+                .passwordHash("hashedPassword")
+                .build());
+        entityManager.clear();
+        when(passwordHasher.matches(anyString(), anyString())).thenReturn(true);
+        tokenGenerationCache.poll();
+        assertTrue(tokenGenerationCache.isReady());
+    }
+
+    @Test
+    void evictedSession_RefreshRejectedAndLogoutStillRevokes() {
+        String evicted = login("device-1");
+        login("device-2");
+        String current = login("device-3");
+
+        RuntimeException refreshEvicted = assertThrows(RuntimeException.class,
+                () -> tokenRefreshService.refresh(evicted));
+        assertEquals("Refresh token revoked", refreshEvicted.getMessage());
+        assertNotNull(tokenRefreshService.refresh(current).getAccessToken());
+
+        userService.revokeRefreshToken(evicted);
+        entityManager.clear();
+        tokenGenerationCache.poll();
+
+        assertThrows(RuntimeException.class, () -> tokenRefreshService.refresh(evicted));
+        assertThrows(RuntimeException.class, () -> tokenRefreshService.refresh(current));
+    }
+
+    @Test
+    void logoutOnOneDevice_CacheNotReady_OtherDeviceRefreshRejected() {
+        String deviceA = login("device-1");
+        String deviceB = login("device-2");
+
+        userService.revokeRefreshToken(deviceA);
+        entityManager.clear();
+        // As after a restart, before the first poll
+        doReturn(false).when(tokenGenerationCache).isReady();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> tokenRefreshService.refresh(deviceB));
+        assertEquals("Refresh token revoked", exception.getMessage());
+    }
+
+    @Test
+    void logout_SessionRowGone_RevokesInsteadOfNotFound() {
+        String token = login("device-1");
+        entityManager.getEntityManager().createQuery("DELETE FROM RefreshToken").executeUpdate();
+
+        userService.revokeRefreshToken(token);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> tokenRefreshService.refresh(token));
+        assertEquals("Refresh token revoked", exception.getMessage());
+    }
+
+    private String login(String deviceId) {
+        UserLoginRequest request = new UserLoginRequest();
+        request.setUsernameOrEmail("existinguser");
+        request.setPassword("password123");
+        request.setDeviceId(deviceId);
+        String refreshToken = userService.loginUser(request, "10.0.0.1").getRefreshToken();
+        // Each request loads the user afresh
+        entityManager.clear();
+        return refreshToken;
+    }
+}
@@ -0,0 +1,93 @@
+package com.chatapp.userservice.service;
+
+import com.chatapp.userservice.dto.AuthResponse;
+import com.chatapp.userservice.security.JwtUtil;
+import com.chatapp.userservice.security.TokenGenerationCache;
+import com.chatapp.userservice.security.UserTokenState;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRefreshServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private TokenGenerationCache tokenGenerationCache;
+
+    @InjectMocks
+    private TokenRefreshService tokenRefreshService;
+
+    @Test
+    void refresh_CacheReady_IssuesAccessTokenWithoutUserService() {
+        when(tokenGenerationCache.isReady()).thenReturn(true);
+        when(jwtUtil.getClaimsFromToken("refresh-token")).thenReturn(claims(3));
+        when(tokenGenerationCache.verify(1L, 3L, 2L)).thenReturn(Optional.of(new UserTokenState(1L, 3L, 4L)));
+        when(jwtUtil.generateAccessToken("testuser", 1L, 4L)).thenReturn("access-token");
+
+        AuthResponse result = tokenRefreshService.refresh("refresh-token");
+
+        assertEquals("access-token", result.getAccessToken());
+        assertEquals("refresh-token", result.getRefreshToken());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void refresh_OutdatedGeneration_IsRejected() {
+        when(tokenGenerationCache.isReady()).thenReturn(true);
+        when(jwtUtil.getClaimsFromToken("refresh-token")).thenReturn(claims(3));
+        when(tokenGenerationCache.verify(1L, 3L, 2L)).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> tokenRefreshService.refresh("refresh-token"));
+
+        assertEquals("Refresh token revoked", exception.getMessage());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void refresh_CacheNotReady_FallsBackToDatabase() {
+        AuthResponse fromDatabase = AuthResponse.builder().accessToken("access-token").build();
+        when(tokenGenerationCache.isReady()).thenReturn(false);
+        when(tokenGenerationCache.isEnabled()).thenReturn(true);
+        when(userService.refreshAccessToken("refresh-token")).thenReturn(fromDatabase);
+
+        assertSame(fromDatabase, tokenRefreshService.refresh("refresh-token"));
+        verify(tokenGenerationCache).recordFallback();
+    }
+
+    @Test
+    void refresh_TokenWithoutGeneration_FallsBackToDatabase() {
+        Claims legacy = Jwts.claims();
+        legacy.setSubject("testuser");
+        when(tokenGenerationCache.isReady()).thenReturn(true);
+        when(jwtUtil.getClaimsFromToken("legacy-token")).thenReturn(legacy);
+
+        tokenRefreshService.refresh("legacy-token");
+
+        verify(userService).refreshAccessToken("legacy-token");
+    }
+
+    private Claims claims(long generation) {
+        Claims claims = Jwts.claims();
+        claims.setSubject("testuser");
+        claims.put(JwtUtil.USER_ID_CLAIM, 1);
+        claims.put(JwtUtil.PROFILE_VERSION_CLAIM, 2);
+        claims.put(JwtUtil.TOKEN_GENERATION_CLAIM, generation);
+        return claims;
+    }
+}
@@ -0,0 +1,304 @@
+package com.chatapp.userservice.service;
+
+import com.chatapp.userservice.dto.AuthResponse;
+import com.chatapp.userservice.dto.UserBatchResponse;
+import com.chatapp.userservice.dto.UserLoginRequest;
+import com.chatapp.userservice.dto.UserPage;
+import com.chatapp.userservice.dto.UserRegistrationRequest;
+import com.chatapp.userservice.dto.UserResponse;
+import com.chatapp.userservice.model.RefreshToken;
+import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.security.JwtUtil;
+import com.chatapp.userservice.security.LoginAttemptTracker;
+import com.chatapp.userservice.security.PasswordHasher;
+import com.chatapp.userservice.security.TokenDigest;
+import com.chatapp.userservice.security.TokenGenerationCache;
+import com.chatapp.userservice.service.cache.ProfileInvalidationChannel;
+import com.chatapp.userservice.service.cache.UserProfileCache;
+import com.chatapp.userservice.service.revocation.TokenRevocationPublisher;
+import com.chatapp.userservice.service.search.InteractionHistory;
+import com.chatapp.userservice.service.search.UserSearchIndex;
+import io.jsonwebtoken.Jwts;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class UserServiceQueryCountTest {
+
+    // Own configuration: the application class also scans the read/write routing data sources
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.chatapp.userservice")
+    @Import({UserService.class, UserProfileCache.class})
+    static class TestConfig {
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private PasswordHasher passwordHasher;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @MockBean
+    private TokenRevocationPublisher tokenRevocationPublisher;
+
+    @MockBean
+    private TokenGenerationCache tokenGenerationCache;
+
+    @MockBean
+    private UserSearchIndex userSearchIndex;
+
+    @MockBean
+    private InteractionHistory interactionHistory;
+
+    @MockBean
+    private ProfileInvalidationChannel profileInvalidationChannel;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persistAndFlush(User.builder()
+                .username("existinguser")
+                .email("existing@example.com")
+                .passwordHash("hashedPassword")
+                .build());
+        entityManager.clear();
+        when(passwordHasher.hash(anyString())).thenReturn("hashedPassword");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listUsers_PagesInUsernameOrder_OneQueryPerPage() {
+        persistUsers("carol", "alice", "bob");
+
+        UserPage first = userService.listUsers(null, 2);
+        UserPage second = userService.listUsers(first.getNextCursor(), 2);
+
+        assertEquals(List.of("alice", "bob"), usernames(first));
+        assertEquals(List.of("carol", "existinguser"), usernames(second));
+        assertNull(second.getNextCursor());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchUsers_SqlPath_PagesMatchesWithCursor() {
+        persistUsers("carol", "alice", "bob");
+
+        UserPage first = userService.searchUsers("EXAMPLE.org", null, 2);
+        UserPage second = userService.searchUsers("EXAMPLE.org", first.getNextCursor(), 2);
+
+        assertEquals(List.of("alice", "bob"), usernames(first));
+        assertEquals(List.of("carol"), usernames(second));
+        assertNull(second.getNextCursor());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void typeahead_SqlPath_MatchesUsernamePrefixInOneQuery() {
+        persistUsers("carol", "alice", "al_x", "alfred");
+
+        List<UserResponse> result = userService.typeahead(null, "al", 2);
+        List<UserResponse> escaped = userService.typeahead(null, "al_", 10);
+
+        assertEquals(List.of("al_x", "alfred"), result.stream().map(UserResponse::getUsername).toList());
+        assertEquals(List.of("al_x"), escaped.stream().map(UserResponse::getUsername).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUserById_RepeatedLookups_OnlyFirstQueries() {
+        List<Long> ids = persistUsers("alice");
+
+        UserResponse first = userService.getUserById(ids.get(0)).orElseThrow();
+        UserResponse second = userService.getUserById(ids.get(0)).orElseThrow();
+        UserResponse byUsername = userService.getUserByUsername("ALICE").orElseThrow();
+
+        assertEquals("alice", first.getUsername());
+        assertSame(first, second);
+        assertSame(first, byUsername);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUsersByIds_PartlyCached_QueriesOnlyTheRestOnce() {
+        List<Long> ids = persistUsers("carol", "alice", "bob");
+        userService.getUserById(ids.get(1));
+        statistics.clear();
+
+        UserBatchResponse result = userService.getUsersByIds(ids);
+        UserBatchResponse again = userService.getUsersByIds(ids);
+
+        assertEquals(result.getUsers(), again.getUsers());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUsersByIds_LoadsAllUsersInOneQueryInRequestOrder() {
+        List<Long> ids = persistUsers("carol", "alice", "bob");
+
+        UserBatchResponse result = userService.getUsersByIds(List.of(ids.get(2), -1L, ids.get(0), ids.get(2)));
+
+        assertEquals(Arrays.asList("bob", null, "carol", "bob"), result.getUsers().stream()
+                .map(user -> user != null ? user.getUsername() : null)
+                .toList());
+        assertEquals(List.of(-1L), result.getMissingIds());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void registerUser_IssuesOneLookupAndOneInsert() {
+        userService.registerUser(registration("newuser", "new@example.com"));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void registerUser_DuplicateUsername_IssuesSingleLookup() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.registerUser(registration("existinguser", "new@example.com")));
+
+        assertEquals("Username already exists", exception.getMessage());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        verify(passwordHasher, never()).hash(anyString());
+    }
+
+    @Test
+    void registerUser_DuplicateEmail_IssuesSingleLookup() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.registerUser(registration("newuser", "existing@example.com")));
+
+        assertEquals("Email already exists", exception.getMessage());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        verify(passwordHasher, never()).hash(anyString());
+    }
+
+    @Test
+    void loginUser_ByEmail_LooksUpUserInSingleQuery() {
+        UserLoginRequest request = new UserLoginRequest();
+        request.setUsernameOrEmail("existing@example.com");
+        request.setPassword("wrong");
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.loginUser(request, "10.0.0.1"));
+
+        assertEquals("Invalid credentials", exception.getMessage());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void refreshAccessToken_LoadsTokenAndUserInSingleQuery() {
+        User user = entityManager.getEntityManager()
+                .createQuery("SELECT u FROM User u WHERE u.username = 'existinguser'", User.class)
+                .getSingleResult();
+        entityManager.persistAndFlush(RefreshToken.builder()
+                .tokenHash(TokenDigest.sha256("refresh-token"))
+                .user(user)
+                .deviceId("device-1")
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .build());
+        entityManager.clear();
+        when(jwtUtil.validateToken("refresh-token")).thenReturn(true);
+        when(jwtUtil.getClaimsFromToken("refresh-token")).thenReturn(Jwts.claims().setSubject("existinguser"));
+        when(jwtUtil.generateAccessToken(eq("existinguser"), anyLong(), anyLong())).thenReturn("access-token");
+        when(jwtUtil.generateRefreshToken(eq("existinguser"), anyLong(), anyLong(), anyLong())).thenReturn("rotated-refresh-token");
+        statistics.clear();
+
+        AuthResponse result = userService.refreshAccessToken("refresh-token");
+
+        assertEquals("existinguser", result.getUser().getUsername());
+        // Fetch-joined lookup plus the in-place rotation
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void loginUser_UpsertsSessionAndEvictsOldestBeyondCap() {
+        when(passwordHasher.matches(anyString(), anyString())).thenReturn(true);
+        when(jwtUtil.generateRefreshToken(eq("existinguser"), anyLong(), anyLong(), anyLong())).thenReturn("t1", "t2", "t3", "t4", "t5", "t6", "t7");
+
+        for (int i = 1; i <= 6; i++) {
+            userService.loginUser(login("device-" + i), "10.0.0.1");
+        }
+        statistics.clear();
+        userService.loginUser(login("device-6"), "10.0.0.1");
+
+        // Lookup, upsert and eviction; no delete-then-insert
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(5L, entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(rt) FROM RefreshToken rt", Long.class).getSingleResult());
+        assertEquals(0L, entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(rt) FROM RefreshToken rt WHERE rt.deviceId = 'device-1'", Long.class)
+                .getSingleResult());
+    }
+
+    private UserLoginRequest login(String deviceId) {
+        UserLoginRequest request = new UserLoginRequest();
+        request.setUsernameOrEmail("existinguser");
+        request.setPassword("password123");
+        request.setDeviceId(deviceId);
+        return request;
+    }
+
+    private UserRegistrationRequest registration(String username, String email) {
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername(username);
+        request.setEmail(email);
+        request.setPassword("password123");
+        request.setFullName("New User");
+        return request;
+    }
+
+    private List<Long> persistUsers(String... usernames) {
+        List<Long> ids = new ArrayList<>();
+        for (String username : usernames) {
+            ids.add(entityManager.persist(User.builder()
+                    .username(username)
+                    .email(username + "@example.org")
+                    .passwordHash("hashedPassword")
+                    .build()).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return ids;
+    }
+
+    private static List<String> usernames(UserPage page) {
+        return page.getItems().stream().map(UserResponse::getUsername).toList();
+    }
+}
@@ -6,17 +6,37 @@ import com.chatapp.userservice.model.User;
 import com.chatapp.userservice.repository.RefreshTokenRepository;
 import com.chatapp.userservice.repository.UserRepository;
 import com.chatapp.userservice.security.JwtUtil;
+import com.chatapp.userservice.security.LoginAttemptTracker;
+import com.chatapp.userservice.security.LoginThrottledException;
+import com.chatapp.userservice.security.PasswordHasher;
+import com.chatapp.userservice.security.TokenDigest;
+import com.chatapp.userservice.security.TokenGenerationCache;
+import com.chatapp.userservice.service.cache.UserProfileCache;
+import com.chatapp.userservice.service.revocation.TokenRevocationPublisher;
+import com.chatapp.userservice.service.search.InteractionHistory;
+import com.chatapp.userservice.service.search.UserCursor;
+import com.chatapp.userservice.service.search.UserSearchHit;
+import com.chatapp.userservice.service.search.UserSearchIndex;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,11 +53,32 @@ class UserServiceTest {
     private RefreshTokenRepository refreshTokenRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private LoginAttemptTracker loginAttemptTracker;
 
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenRevocationPublisher tokenRevocationPublisher;
+
+    @Mock
+    private TokenGenerationCache tokenGenerationCache;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private InteractionHistory interactionHistory;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private UserService userService;
 
@@ -71,19 +112,20 @@ class UserServiceTest {
 
         testRefreshToken = RefreshToken.builder()
                 .id(1L)
-                .token("refresh-token-123")
+                .tokenHash(TokenDigest.sha256("refresh-token-123"))
                 .user(testUser)
+                .deviceId("device-1")
                 .expiresAt(LocalDateTime.now().plusDays(7))
                 .createdAt(LocalDateTime.now())
                 .build();
+
+        ReflectionTestUtils.setField(userService, "maxSessionsPerUser", 5);
     }
 
     @Test
     void registerUser_Success() {
-        when(userRepository.existsByUsername(registrationRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(registrationRequest.getEmail())).thenReturn(false);
-        when(passwordEncoder.encode(registrationRequest.getPassword())).thenReturn("hashedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(passwordHasher.hash(registrationRequest.getPassword())).thenReturn("hashedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         UserResponse result = userService.registerUser(registrationRequest);
 
@@ -91,62 +133,181 @@ class UserServiceTest {
         assertEquals(testUser.getUsername(), result.getUsername());
         assertEquals(testUser.getEmail(), result.getEmail());
         assertEquals(testUser.getFullName(), result.getFullName());
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).findUsernamesByUsernameOrEmail("testuser", "test@example.com");
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userSearchIndex).put(testUser);
+        verify(userProfileCache).add(result);
     }
 
     @Test
-    void registerUser_UsernameExists_ThrowsException() {
-        when(userRepository.existsByUsername(registrationRequest.getUsername())).thenReturn(true);
+    void registerUser_UsernameExists_ThrowsWithoutHashing() {
+        when(userRepository.findUsernamesByUsernameOrEmail("testuser", "test@example.com"))
+                .thenReturn(List.of("otheruser", "TestUser"));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> userService.registerUser(registrationRequest));
 
         assertEquals("Username already exists", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(passwordHasher, never()).hash(any());
+        verify(userRepository, never()).saveAndFlush(any());
     }
 
     @Test
-    void registerUser_EmailExists_ThrowsException() {
-        when(userRepository.existsByUsername(registrationRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(registrationRequest.getEmail())).thenReturn(true);
+    void registerUser_EmailExists_ThrowsWithoutHashing() {
+        when(userRepository.findUsernamesByUsernameOrEmail("testuser", "test@example.com"))
+                .thenReturn(List.of("otheruser"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.registerUser(registrationRequest));
+
+        assertEquals("Email already exists", exception.getMessage());
+        verify(passwordHasher, never()).hash(any());
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void registerUser_ConcurrentUsernameInsert_ThrowsUsernameExists() {
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("insert",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'testuser' for key 'users.uk_users_username'")));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.registerUser(registrationRequest));
+
+        assertEquals("Username already exists", exception.getMessage());
+    }
+
+    @Test
+    void registerUser_ConcurrentEmailInsert_ThrowsEmailExists() {
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("insert",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'test@example.com' for key 'users.uk_users_email'")));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> userService.registerUser(registrationRequest));
 
         assertEquals("Email already exists", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     void loginUser_Success() {
-        when(userRepository.findByUsername(loginRequest.getUsernameOrEmail()))
-                .thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateAccessToken(testUser.getUsername())).thenReturn("access-token");
-        when(jwtUtil.generateRefreshToken(testUser.getUsername())).thenReturn("jwt-refresh-token");
-        when(refreshTokenRepository.save(any(RefreshToken.class))).thenReturn(testRefreshToken);
+        when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
+                .thenReturn(List.of(testUser));
+        when(passwordHasher.matches(loginRequest.getPassword(), testUser.getPasswordHash())).thenReturn(true);
+        when(jwtUtil.generateAccessToken(testUser.getUsername(), 1L, 0L)).thenReturn("access-token");
+        when(jwtUtil.generateRefreshToken(testUser.getUsername(), 1L, 0L, 0L)).thenReturn("jwt-refresh-token");
+        loginRequest.setDeviceId("device-1");
 
-        AuthResponse result = userService.loginUser(loginRequest);
+        AuthResponse result = userService.loginUser(loginRequest, "10.0.0.1");
 
         assertNotNull(result);
         assertEquals("access-token", result.getAccessToken());
         assertEquals("jwt-refresh-token", result.getRefreshToken());
+        assertEquals("device-1", result.getDeviceId());
+        assertEquals(testUser.getUsername(), result.getUser().getUsername());
+        verify(refreshTokenRepository).upsertSession(eq(1L), eq("device-1"),
+                eq(TokenDigest.sha256("jwt-refresh-token")), any(), any());
+        verify(refreshTokenRepository).evictOldestSessions(1L, 5);
+        verify(refreshTokenRepository, never()).deleteAllByUser(any());
+        verify(jwtUtil).generateRefreshToken(testUser.getUsername(), 1L, 0L, 0L);
+        verify(loginAttemptTracker).recordSuccess(loginRequest.getUsernameOrEmail());
+    }
+
+    @Test
+    void loginUser_GenerationModeEvictsSessions_BumpsGenerationAndReissuesToken() {
+        when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
+                .thenReturn(List.of(testUser));
+        when(passwordHasher.matches(loginRequest.getPassword(), testUser.getPasswordHash())).thenReturn(true);
+        when(jwtUtil.generateRefreshToken(testUser.getUsername(), 1L, 0L, 0L)).thenReturn("old-generation-token");
+        when(jwtUtil.generateRefreshToken(testUser.getUsername(), 1L, 0L, 1L)).thenReturn("new-generation-token");
+        when(refreshTokenRepository.evictOldestSessions(1L, 5)).thenReturn(1);
+        when(tokenGenerationCache.isEnabled()).thenReturn(true);
+        loginRequest.setDeviceId("device-1");
+
+        AuthResponse result = userService.loginUser(loginRequest, "10.0.0.1");
+
+        assertEquals("new-generation-token", result.getRefreshToken());
+        verify(userRepository).incrementTokenGeneration(eq(1L), any());
+        verify(tokenGenerationCache).invalidate(1L, 0L, 0L);
+        verify(refreshTokenRepository).upsertSession(eq(1L), eq("device-1"),
+                eq(TokenDigest.sha256("new-generation-token")), any(), any());
+    }
+
+    @Test
+    void loginUser_PasswordHashWithOldCost_IsRehashed() {
+        when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
+                .thenReturn(List.of(testUser));
+        when(passwordHasher.matches(loginRequest.getPassword(), "hashedPassword")).thenReturn(true);
+        when(passwordHasher.needsRehash("hashedPassword")).thenReturn(true);
+        when(passwordHasher.hash(loginRequest.getPassword())).thenReturn("rehashedPassword");
+        when(userRepository.save(testUser)).thenReturn(testUser);
+        when(jwtUtil.generateRefreshToken(testUser.getUsername(), 1L, 0L, 0L)).thenReturn("jwt-refresh-token");
+
+        userService.loginUser(loginRequest, "10.0.0.1");
+
+        assertEquals("rehashedPassword", testUser.getPasswordHash());
+        verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void loginUser_WithoutDeviceId_AssignsNewDevice() {
+        when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
+                .thenReturn(List.of(testUser));
+        when(passwordHasher.matches(loginRequest.getPassword(), testUser.getPasswordHash())).thenReturn(true);
+        when(jwtUtil.generateRefreshToken(testUser.getUsername(), 1L, 0L, 0L)).thenReturn("jwt-refresh-token");
+
+        AuthResponse result = userService.loginUser(loginRequest, "10.0.0.1");
+
+        assertNotNull(result.getDeviceId());
+        verify(refreshTokenRepository).upsertSession(eq(1L), eq(result.getDeviceId()), any(), any(), any());
+    }
+
+    @Test
+    void loginUser_UsernameMatchPreferredOverEmailMatch() {
+        User emailMatch = User.builder().id(2L).username("other").email(loginRequest.getUsernameOrEmail())
+                .passwordHash("otherHash").build();
+        when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
+                .thenReturn(List.of(emailMatch, testUser));
+        when(passwordHasher.matches(loginRequest.getPassword(), testUser.getPasswordHash())).thenReturn(true);
+        when(jwtUtil.generateRefreshToken(testUser.getUsername(), 1L, 0L, 0L)).thenReturn("jwt-refresh-token");
+
+        AuthResponse result = userService.loginUser(loginRequest, "10.0.0.1");
+
         assertEquals(testUser.getUsername(), result.getUser().getUsername());
-        verify(refreshTokenRepository).deleteAllByUser(testUser);
-        verify(refreshTokenRepository).save(any(RefreshToken.class));
-        verify(jwtUtil).generateRefreshToken(testUser.getUsername());
     }
 
     @Test
     void loginUser_UserNotFound_ThrowsException() {
-        when(userRepository.findByUsername(loginRequest.getUsernameOrEmail()))
-                .thenReturn(Optional.empty());
-        when(userRepository.findByEmail(loginRequest.getUsernameOrEmail()))
-                .thenReturn(Optional.empty());
+        when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
+                .thenReturn(List.of());
 
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> userService.loginUser(loginRequest));
+                () -> userService.loginUser(loginRequest, "10.0.0.1"));
 
         assertEquals("User not found", exception.getMessage());
+        verify(loginAttemptTracker).recordFailure(loginRequest.getUsernameOrEmail(), "10.0.0.1");
+    }
+
+    @Test
+    void loginUser_InvalidPassword_RecordsFailure() {
+        when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
+                .thenReturn(List.of(testUser));
+        when(passwordHasher.matches(loginRequest.getPassword(), testUser.getPasswordHash())).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.loginUser(loginRequest, "10.0.0.1"));
+
+        assertEquals("Invalid credentials", exception.getMessage());
+        verify(loginAttemptTracker).recordFailure(loginRequest.getUsernameOrEmail(), "10.0.0.1");
+        verify(loginAttemptTracker, never()).recordSuccess(any());
+    }
+
+    @Test
+    void loginUser_Throttled_SkipsLookupAndHashing() {
+        doThrow(new LoginThrottledException("Too many failed login attempts, please retry later", 30))
+                .when(loginAttemptTracker).checkAllowed(loginRequest.getUsernameOrEmail(), "10.0.0.1");
+
+        assertThrows(LoginThrottledException.class, () -> userService.loginUser(loginRequest, "10.0.0.1"));
+
+        verifyNoInteractions(userRepository, passwordHasher);
     }
 
     @Test
@@ -167,36 +328,324 @@ class UserServiceTest {
         Optional<UserResponse> result = userService.getUserById(1L);
 
         assertFalse(result.isPresent());
+        verify(userProfileCache, never()).put(any(), anyLong());
+    }
+
+    @Test
+    void getUserById_Cached_SkipsDatabase() {
+        UserResponse cached = UserResponse.fromUser(testUser);
+        when(userProfileCache.get(1L)).thenReturn(cached);
+
+        Optional<UserResponse> result = userService.getUserById(1L);
+
+        assertSame(cached, result.orElseThrow());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserById_NotCached_CachesWithStampTakenBeforeLoad() {
+        when(userProfileCache.stamp()).thenReturn(7L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        Optional<UserResponse> result = userService.getUserById(1L);
+
+        assertEquals(testUser.getUsername(), result.orElseThrow().getUsername());
+        verify(userProfileCache).put(result.get(), 7L);
+    }
+
+    @Test
+    void getUserByUsername_CachedOrLoaded() {
+        UserResponse cached = UserResponse.fromUser(testUser);
+        when(userProfileCache.getByUsername("TestUser")).thenReturn(cached);
+        when(userRepository.findByUsername("other")).thenReturn(Optional.empty());
+
+        assertSame(cached, userService.getUserByUsername("TestUser").orElseThrow());
+        assertFalse(userService.getUserByUsername("other").isPresent());
+        verify(userRepository, never()).findByUsername("TestUser");
+    }
+
+    @Test
+    void getUsersByIds_ReturnsUsersInRequestOrderAndMarksMissing() {
+        ReflectionTestUtils.setField(userService, "maxBatchIds", 500);
+        UserResponse other = UserResponse.builder().id(2L).username("other").build();
+        when(userRepository.findResponsesByIdIn(List.of(2L, 9L, 1L)))
+                .thenReturn(List.of(UserResponse.fromUser(testUser), other));
+
+        UserBatchResponse result = userService.getUsersByIds(List.of(2L, 9L, 1L, 2L, 9L));
+
+        assertEquals(Arrays.asList(other, null, UserResponse.fromUser(testUser), other, null), result.getUsers());
+        assertEquals(List.of(9L), result.getMissingIds());
+    }
+
+    @Test
+    void getUsersByIds_PartlyCached_QueriesOnlyUncachedIds() {
+        ReflectionTestUtils.setField(userService, "maxBatchIds", 500);
+        UserResponse cached = UserResponse.builder().id(2L).username("other").build();
+        UserResponse loaded = UserResponse.fromUser(testUser);
+        when(userProfileCache.get(2L)).thenReturn(cached);
+        when(userProfileCache.stamp()).thenReturn(3L);
+        when(userRepository.findResponsesByIdIn(List.of(1L))).thenReturn(List.of(loaded));
+
+        UserBatchResponse result = userService.getUsersByIds(List.of(2L, 1L));
+
+        assertEquals(List.of(cached, loaded), result.getUsers());
+        assertEquals(List.of(), result.getMissingIds());
+        verify(userProfileCache).put(loaded, 3L);
+    }
+
+    @Test
+    void getUsersByIds_AllCached_SkipsDatabase() {
+        ReflectionTestUtils.setField(userService, "maxBatchIds", 500);
+        UserResponse cached = UserResponse.fromUser(testUser);
+        when(userProfileCache.get(1L)).thenReturn(cached);
+
+        UserBatchResponse result = userService.getUsersByIds(List.of(1L, 1L));
+
+        assertEquals(List.of(cached, cached), result.getUsers());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUsersByIds_TooManyIds_ThrowsWithoutQuerying() {
+        ReflectionTestUtils.setField(userService, "maxBatchIds", 2);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsersByIds(List.of(1L, 2L, 3L)));
+
+        assertEquals("At most 2 ids can be requested at once", exception.getMessage());
+        verify(userRepository, never()).findResponsesByIdIn(any());
     }
 
     @Test
     void searchUsers_Success() {
-        List<User> users = Arrays.asList(testUser);
-        when(userRepository.searchUsers("test")).thenReturn(users);
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 50);
+        when(userRepository.searchPage("test", PageRequest.of(0, 21)))
+                .thenReturn(List.of(UserResponse.fromUser(testUser)));
 
-        List<UserResponse> result = userService.searchUsers("test");
+        UserPage result = userService.searchUsers("test", null, null);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(testUser.getUsername(), result.getItems().get(0).getUsername());
+        assertNull(result.getNextCursor());
+        verify(userSearchIndex).recordFallback();
+    }
+
+    @Test
+    void searchUsers_MoreMatches_ReturnsCursorOfLastItem() {
+        ReflectionTestUtils.setField(userService, "maxPageSize", 50);
+        UserResponse first = UserResponse.builder().id(5L).username("alice").build();
+        UserResponse second = UserResponse.builder().id(3L).username("bob").build();
+        when(userRepository.searchPageAfter("a", "aaron", 9L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(first, second));
+
+        UserPage result = userService.searchUsers("a", new UserCursor("aaron", 9L).encode(), 1);
+
+        assertEquals(List.of(first), result.getItems());
+        UserCursor next = UserCursor.decode(result.getNextCursor());
+        assertEquals("alice", next.getKey());
+        assertEquals(5L, next.getId());
+    }
+
+    @Test
+    void searchUsers_LimitAboveMaximum_CapsPageSize() {
+        ReflectionTestUtils.setField(userService, "maxPageSize", 50);
+        when(userRepository.searchPage("test", PageRequest.of(0, 51))).thenReturn(List.of());
+
+        userService.searchUsers("test", null, 10_000);
+
+        verify(userRepository).searchPage("test", PageRequest.of(0, 51));
+    }
+
+    @Test
+    void searchUsers_InvalidCursor_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers("test", "not a cursor", null));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void searchUsers_IndexReady_LoadsMatchesByIdInIndexOrder() {
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 50);
+        UserResponse other = UserResponse.builder().id(2L).username("atest").build();
+        when(userSearchIndex.isReady()).thenReturn(true);
+        when(userSearchIndex.search("test", null, 0, 21)).thenReturn(List.of(2L, 1L));
+        when(userRepository.findResponsesByIdIn(List.of(2L, 1L)))
+                .thenReturn(List.of(UserResponse.fromUser(testUser), other));
+
+        UserPage result = userService.searchUsers("test", null, null);
+
+        assertEquals(List.of("atest", testUser.getUsername()),
+                result.getItems().stream().map(UserResponse::getUsername).toList());
+        verify(userRepository, never()).searchPage(any(), any());
+    }
+
+    @Test
+    void searchUsers_FulltextMode_PagesByRelevanceCursor() {
+        ReflectionTestUtils.setField(userService, "searchMode", "fulltext");
+        ReflectionTestUtils.setField(userService, "minFulltextKeywordLength", 2);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 50);
+        UserSearchHit first = hit(4L, "testuser", 2.5);
+        UserSearchHit second = hit(7L, "tester", 1.25);
+        when(userRepository.fulltextSearchPageAfter("\"te st\"", 3.0, 9L, 2))
+                .thenReturn(List.of(first, second));
+
+        UserPage result = userService.searchUsers(" te\"st ", new UserCursor("3.0", 9L).encode(), 1);
+
+        assertEquals(List.of("testuser"), result.getItems().stream().map(UserResponse::getUsername).toList());
+        assertEquals(User.UserStatus.ACTIVE, result.getItems().get(0).getStatus());
+        UserCursor next = UserCursor.decode(result.getNextCursor());
+        assertEquals(2.5, next.getRelevance());
+        assertEquals(4L, next.getId());
+        verify(userSearchIndex).recordFulltext();
+        verify(userSearchIndex, never()).isReady();
+    }
+
+    @Test
+    void searchUsers_FulltextModeShortKeyword_UsesLikeQuery() {
+        ReflectionTestUtils.setField(userService, "searchMode", "fulltext");
+        ReflectionTestUtils.setField(userService, "minFulltextKeywordLength", 2);
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 50);
+        when(userRepository.searchPage("t", PageRequest.of(0, 21))).thenReturn(List.of());
+
+        userService.searchUsers("t", null, null);
+
+        verify(userRepository, never()).fulltextSearchPage(anyString(), anyInt());
+        verify(userSearchIndex).recordFallback();
+    }
+
+    @Test
+    void searchUsers_FulltextModeCursorWithoutRelevance_ThrowsException() {
+        ReflectionTestUtils.setField(userService, "searchMode", "fulltext");
+        ReflectionTestUtils.setField(userService, "minFulltextKeywordLength", 2);
+        String cursor = new UserCursor("alice", 1L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> userService.searchUsers("test", cursor, null));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void typeahead_IndexReady_RanksWithCallerHistoryAndLoadsInRankOrder() {
+        ReflectionTestUtils.setField(userService, "defaultTypeaheadLimit", 10);
+        ReflectionTestUtils.setField(userService, "maxTypeaheadLimit", 20);
+        ReflectionTestUtils.setField(userService, "typeaheadMaxCandidates", 1000);
+        UserResponse other = UserResponse.builder().id(2L).username("tester").build();
+        when(interactionHistory.affinities(7L)).thenReturn(Map.of(2L, 3.0));
+        when(userSearchIndex.isTypeaheadReady()).thenReturn(true);
+        when(userSearchIndex.typeahead("te", Map.of(2L, 3.0), 1000, 10)).thenReturn(List.of(2L, 1L));
+        when(userRepository.findResponsesByIdIn(List.of(2L, 1L)))
+                .thenReturn(List.of(UserResponse.fromUser(testUser), other));
+
+        List<UserResponse> result = userService.typeahead(7L, " te ", null);
+
+        assertEquals(List.of("tester", "testuser"), result.stream().map(UserResponse::getUsername).toList());
+    }
+
+    @Test
+    void typeahead_AnonymousCaller_RanksWithoutHistory() {
+        ReflectionTestUtils.setField(userService, "maxTypeaheadLimit", 20);
+        ReflectionTestUtils.setField(userService, "typeaheadMaxCandidates", 1000);
+        when(userSearchIndex.isTypeaheadReady()).thenReturn(true);
+        when(userSearchIndex.typeahead("te", Map.of(), 1000, 5)).thenReturn(List.of());
+
+        assertEquals(List.of(), userService.typeahead(null, "te", 5));
+        verifyNoInteractions(interactionHistory, userRepository, jwtUtil);
+    }
+
+    @Test
+    void typeahead_IndexNotReady_MatchesEscapedUsernamePrefix() {
+        ReflectionTestUtils.setField(userService, "maxTypeaheadLimit", 20);
+        when(userRepository.findByUsernameLike("a!_b!%%", PageRequest.of(0, 20)))
+                .thenReturn(List.of(UserResponse.fromUser(testUser)));
+
+        List<UserResponse> result = userService.typeahead(null, "a_b%", 100);
 
-        assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testUser.getUsername(), result.get(0).getUsername());
+        verify(userSearchIndex).recordFallback();
+    }
+
+    @Test
+    void typeahead_BlankPrefix_ReturnsNothing() {
+        assertEquals(List.of(), userService.typeahead(null, "  ", null));
+        verifyNoInteractions(userRepository, userSearchIndex);
+    }
+
+    @Test
+    void recordInteraction_IdentifiedCaller_RecordsForCaller() {
+        userService.recordInteraction(7L, 2L);
+
+        verify(interactionHistory).record(7L, 2L);
+        verifyNoInteractions(jwtUtil);
+    }
+
+    @Test
+    void recordInteraction_UnknownUser_ThrowsException() {
+        doThrow(new DataIntegrityViolationException("fk_contact")).when(interactionHistory).record(7L, 999L);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.recordInteraction(7L, 999L));
+
+        assertEquals("User not found", exception.getMessage());
+    }
+
+    @Test
+    void recordInteraction_UnidentifiedCaller_ThrowsException() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.recordInteraction(null, 2L));
+
+        assertEquals("Caller not identified", exception.getMessage());
+        verifyNoInteractions(interactionHistory);
+    }
+
+    @Test
+    void listUsers_WithCursor_ReadsPageAfterCursor() {
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 50);
+        when(userRepository.findPageAfter("testuser", 1L, PageRequest.of(0, 21)))
+                .thenReturn(List.of());
+
+        UserPage result = userService.listUsers(new UserCursor("testuser", 1L).encode(), null);
+
+        assertTrue(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void refreshAccessToken_Success() {
         when(jwtUtil.validateToken("refresh-token-123")).thenReturn(true);
-        when(jwtUtil.getUsernameFromToken("refresh-token-123")).thenReturn("testuser");
-        when(refreshTokenRepository.findByToken("refresh-token-123"))
+        when(jwtUtil.getClaimsFromToken("refresh-token-123")).thenReturn(refreshClaims("testuser", 0));
+        when(refreshTokenRepository.findWithUserByTokenHash(TokenDigest.sha256("refresh-token-123")))
                 .thenReturn(Optional.of(testRefreshToken));
-        when(jwtUtil.generateAccessToken(testUser.getUsername())).thenReturn("new-access-token");
+        when(jwtUtil.generateAccessToken(testUser.getUsername(), 1L, 0L)).thenReturn("new-access-token");
+        when(jwtUtil.generateRefreshToken("testuser", 1L, 0L, 0L)).thenReturn("refresh-token-456");
+        when(refreshTokenRepository.rotate(eq(1L), eq(TokenDigest.sha256("refresh-token-123")),
+                eq(TokenDigest.sha256("refresh-token-456")), any(), any())).thenReturn(1);
 
         AuthResponse result = userService.refreshAccessToken("refresh-token-123");
 
         assertNotNull(result);
         assertEquals("new-access-token", result.getAccessToken());
-        assertEquals("refresh-token-123", result.getRefreshToken());
+        assertEquals("refresh-token-456", result.getRefreshToken());
+        assertEquals("device-1", result.getDeviceId());
         assertEquals(testUser.getUsername(), result.getUser().getUsername());
         verify(jwtUtil).validateToken("refresh-token-123");
-        verify(jwtUtil).getUsernameFromToken("refresh-token-123");
+        verify(jwtUtil).getClaimsFromToken("refresh-token-123");
+    }
+
+    @Test
+    void refreshAccessToken_ConcurrentlyRotated_ThrowsException() {
+        when(jwtUtil.validateToken("refresh-token-123")).thenReturn(true);
+        when(jwtUtil.getClaimsFromToken("refresh-token-123")).thenReturn(refreshClaims("testuser", 0));
+        when(refreshTokenRepository.findWithUserByTokenHash(TokenDigest.sha256("refresh-token-123")))
+                .thenReturn(Optional.of(testRefreshToken));
+        when(jwtUtil.generateRefreshToken("testuser", 1L, 0L, 0L)).thenReturn("refresh-token-456");
+        when(refreshTokenRepository.rotate(any(), any(), any(), any(), any())).thenReturn(0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.refreshAccessToken("refresh-token-123"));
+
+        assertEquals("Refresh token not found", exception.getMessage());
     }
 
     @Test
@@ -208,14 +657,14 @@ class UserServiceTest {
 
         assertEquals("Invalid refresh token", exception.getMessage());
         verify(jwtUtil).validateToken("invalid-jwt-token");
-        verify(refreshTokenRepository, never()).findByToken(anyString());
+        verify(refreshTokenRepository, never()).findWithUserByTokenHash(any());
     }
 
     @Test
     void refreshAccessToken_TokenNotFoundInDatabase_ThrowsException() {
         when(jwtUtil.validateToken("valid-jwt-token")).thenReturn(true);
-        when(jwtUtil.getUsernameFromToken("valid-jwt-token")).thenReturn("testuser");
-        when(refreshTokenRepository.findByToken("valid-jwt-token"))
+        when(jwtUtil.getClaimsFromToken("valid-jwt-token")).thenReturn(refreshClaims("testuser", 0));
+        when(refreshTokenRepository.findWithUserByTokenHash(TokenDigest.sha256("valid-jwt-token")))
                 .thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -227,14 +676,14 @@ class UserServiceTest {
     @Test
     void refreshAccessToken_ExpiredToken_ThrowsException() {
         RefreshToken expiredToken = RefreshToken.builder()
-                .token("expired-token")
+                .tokenHash(TokenDigest.sha256("expired-token"))
                 .user(testUser)
                 .expiresAt(LocalDateTime.now().minusDays(1))
                 .build();
 
         when(jwtUtil.validateToken("expired-token")).thenReturn(true);
-        when(jwtUtil.getUsernameFromToken("expired-token")).thenReturn("testuser");
-        when(refreshTokenRepository.findByToken("expired-token"))
+        when(jwtUtil.getClaimsFromToken("expired-token")).thenReturn(refreshClaims("testuser", 0));
+        when(refreshTokenRepository.findWithUserByTokenHash(TokenDigest.sha256("expired-token")))
                 .thenReturn(Optional.of(expiredToken));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -247,8 +696,8 @@ class UserServiceTest {
     @Test
     void refreshAccessToken_UsernameMismatch_ThrowsException() {
         when(jwtUtil.validateToken("refresh-token-123")).thenReturn(true);
-        when(jwtUtil.getUsernameFromToken("refresh-token-123")).thenReturn("differentuser");
-        when(refreshTokenRepository.findByToken("refresh-token-123"))
+        when(jwtUtil.getClaimsFromToken("refresh-token-123")).thenReturn(refreshClaims("differentuser", 0));
+        when(refreshTokenRepository.findWithUserByTokenHash(TokenDigest.sha256("refresh-token-123")))
                 .thenReturn(Optional.of(testRefreshToken));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -258,16 +707,86 @@ class UserServiceTest {
     }
 
     @Test
-    void revokeRefreshToken_Success() {
+    void refreshAccessToken_OlderTokenGeneration_RevokedAndSessionRemoved() {
+        testUser.setTokenGeneration(1L);
         when(jwtUtil.validateToken("refresh-token-123")).thenReturn(true);
-        when(refreshTokenRepository.findByToken("refresh-token-123"))
+        when(jwtUtil.getClaimsFromToken("refresh-token-123")).thenReturn(refreshClaims("testuser", 0));
+        when(refreshTokenRepository.findWithUserByTokenHash(TokenDigest.sha256("refresh-token-123")))
                 .thenReturn(Optional.of(testRefreshToken));
 
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.refreshAccessToken("refresh-token-123"));
+
+        assertEquals("Refresh token revoked", exception.getMessage());
+        verify(refreshTokenRepository).delete(testRefreshToken);
+        verify(refreshTokenRepository, never()).rotate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void revokeRefreshToken_Success() {
+        when(jwtUtil.validateToken("refresh-token-123")).thenReturn(true);
+        when(refreshTokenRepository.deleteByTokenHash(TokenDigest.sha256("refresh-token-123"))).thenReturn(1);
+
         userService.revokeRefreshToken("refresh-token-123");
 
         verify(jwtUtil).validateToken("refresh-token-123");
-        verify(refreshTokenRepository).findByToken("refresh-token-123");
-        verify(refreshTokenRepository).delete(testRefreshToken);
+        verify(refreshTokenRepository).deleteByTokenHash(TokenDigest.sha256("refresh-token-123"));
+    }
+
+    @Test
+    void revokeRefreshToken_GenerationMode_BumpsTokenGeneration() {
+        Claims claims = Jwts.claims();
+        claims.put(JwtUtil.USER_ID_CLAIM, 1);
+        claims.put(JwtUtil.TOKEN_GENERATION_CLAIM, 3);
+        claims.put(JwtUtil.PROFILE_VERSION_CLAIM, 2);
+        when(jwtUtil.validateToken("refresh-token-123")).thenReturn(true);
+        when(refreshTokenRepository.deleteByTokenHash(TokenDigest.sha256("refresh-token-123"))).thenReturn(1);
+        when(tokenGenerationCache.isEnabled()).thenReturn(true);
+        when(jwtUtil.getClaimsFromToken("refresh-token-123")).thenReturn(claims);
+
+        userService.revokeRefreshToken("refresh-token-123");
+
+        verify(userRepository).incrementTokenGeneration(eq(1L), any());
+        verify(tokenGenerationCache).invalidate(1L, 3L, 2L);
+    }
+
+    @Test
+    void revokeRefreshToken_GenerationModeSessionGone_StillBumpsTokenGeneration() {
+        Claims claims = Jwts.claims();
+        claims.put(JwtUtil.USER_ID_CLAIM, 1);
+        claims.put(JwtUtil.TOKEN_GENERATION_CLAIM, 3);
+        claims.put(JwtUtil.PROFILE_VERSION_CLAIM, 2);
+        when(jwtUtil.validateToken("evicted-token")).thenReturn(true);
+        when(refreshTokenRepository.deleteByTokenHash(TokenDigest.sha256("evicted-token"))).thenReturn(0);
+        when(tokenGenerationCache.isEnabled()).thenReturn(true);
+        when(jwtUtil.getClaimsFromToken("evicted-token")).thenReturn(claims);
+
+        userService.revokeRefreshToken("evicted-token");
+
+        verify(userRepository).incrementTokenGeneration(eq(1L), any());
+        verify(tokenGenerationCache).invalidate(1L, 3L, 2L);
+    }
+
+    @Test
+    void revokeAccessToken_PublishesTokenIdAndExpiry() {
+        Claims claims = Jwts.claims();
+        claims.setId("jti-1");
+        claims.setExpiration(new Date(1_700_000_000_000L));
+        when(jwtUtil.getClaimsFromToken("access-token")).thenReturn(claims);
+
+        userService.revokeAccessToken("access-token");
+
+        verify(tokenRevocationPublisher).publish("jti-1", 1_700_000_000_000L);
+    }
+
+    @Test
+    void revokeAccessToken_InvalidToken_IsIgnored() {
+        when(jwtUtil.getClaimsFromToken("expired-token"))
+                .thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        userService.revokeAccessToken("expired-token");
+
+        verify(tokenRevocationPublisher, never()).publish(anyString(), anyLong());
     }
 
     @Test
@@ -279,22 +798,48 @@ class UserServiceTest {
 
         assertEquals("Invalid refresh token", exception.getMessage());
         verify(jwtUtil).validateToken("invalid-jwt-token");
-        verify(refreshTokenRepository, never()).findByToken(anyString());
-        verify(refreshTokenRepository, never()).delete(any());
+        verify(refreshTokenRepository, never()).deleteByTokenHash(any());
     }
 
     @Test
     void revokeRefreshToken_TokenNotFoundInDatabase_ThrowsException() {
         when(jwtUtil.validateToken("valid-jwt-token")).thenReturn(true);
-        when(refreshTokenRepository.findByToken("valid-jwt-token"))
-                .thenReturn(Optional.empty());
+        when(refreshTokenRepository.deleteByTokenHash(TokenDigest.sha256("valid-jwt-token"))).thenReturn(0);
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> userService.revokeRefreshToken("valid-jwt-token"));
 
         assertEquals("Refresh token not found", exception.getMessage());
         verify(jwtUtil).validateToken("valid-jwt-token");
-        verify(refreshTokenRepository).findByToken("valid-jwt-token");
-        verify(refreshTokenRepository, never()).delete(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateUser_IncrementsProfileVersion() {
+        UserUpdateRequest request = new UserUpdateRequest();
+        request.setFullName("Renamed User");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserResponse result = userService.updateUser(1L, request);
+
+        assertEquals("Renamed User", result.getFullName());
+        assertEquals(1L, testUser.getProfileVersion());
+        verify(userSearchIndex).put(testUser);
+        verify(userProfileCache).update(result);
+    }
+
+    private static Claims refreshClaims(String username, long tokenGeneration) {
+        Claims claims = Jwts.claims().setSubject(username);
+        claims.put(JwtUtil.TOKEN_GENERATION_CLAIM, tokenGeneration);
+        return claims;
+    }
+
+    private static UserSearchHit hit(Long id, String username, double relevance) {
+        UserSearchHit hit = mock(UserSearchHit.class);
+        lenient().when(hit.getId()).thenReturn(id);
+        lenient().when(hit.getUsername()).thenReturn(username);
+        lenient().when(hit.getStatus()).thenReturn("ACTIVE");
+        lenient().when(hit.getRelevance()).thenReturn(relevance);
+        return hit;
+    }
+}
@@ -0,0 +1,101 @@
+package com.chatapp.userservice.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileProfileInvalidationChannelTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void poll_OtherInstancePublished_NotifiesListenersOnce() {
+        String file = directory.resolve("invalidations/profiles.log").toString();
+        FileProfileInvalidationChannel writer = new FileProfileInvalidationChannel(file, 60000);
+        FileProfileInvalidationChannel reader = new FileProfileInvalidationChannel(file, 60000);
+        List<Long> received = new ArrayList<>();
+        reader.subscribe(received::add);
+
+        writer.publish(7L);
+        writer.publish(9L);
+        reader.poll();
+        reader.poll();
+
+        assertEquals(List.of(7L, 9L), received);
+    }
+
+    @Test
+    void poll_OwnInvalidations_Skipped() {
+        FileProfileInvalidationChannel channel = new FileProfileInvalidationChannel(
+                directory.resolve("profiles.log").toString(), 60000);
+        List<Long> received = new ArrayList<>();
+        channel.subscribe(received::add);
+
+        channel.publish(7L);
+        channel.poll();
+
+        assertEquals(List.of(), received);
+    }
+
+    @Test
+    void poll_StartsAtEndOfExistingFileAndWaitsForCompleteLines() throws IOException {
+        Path file = directory.resolve("profiles.log");
+        Files.writeString(file, "1 old-instance\n", StandardCharsets.UTF_8);
+        FileProfileInvalidationChannel channel = new FileProfileInvalidationChannel(file.toString(), 60000);
+        List<Long> received = new ArrayList<>();
+        channel.subscribe(received::add);
+
+        Files.writeString(file, "1 old-instance\n2 other-instance\n3 other", StandardCharsets.UTF_8);
+        channel.poll();
+        assertEquals(List.of(2L), received);
+
+        Files.writeString(file, "1 old-instance\n2 other-instance\n3 other-instance\n", StandardCharsets.UTF_8);
+        channel.poll();
+        assertEquals(List.of(2L, 3L), received);
+    }
+
+    @Test
+    void compact_DropsLinesOlderThanRetention() throws IOException {
+        Path file = directory.resolve("profiles.log");
+        long now = System.currentTimeMillis();
+        Files.writeString(file, "1 other-instance " + (now - 120_000) + "\n2 legacy-instance\n", StandardCharsets.UTF_8);
+        FileProfileInvalidationChannel channel = new FileProfileInvalidationChannel(file.toString(), 60000);
+
+        channel.publish(3L);
+        int dropped = channel.compact(now);
+
+        assertEquals(2, dropped);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("3 "), lines.get(0));
+    }
+
+    @Test
+    void poll_FileCompactedBeforeLinesWereRead_ReadsKeptLinesAgain() throws IOException {
+        Path file = directory.resolve("profiles.log");
+        FileProfileInvalidationChannel writer = new FileProfileInvalidationChannel(file.toString(), 60000);
+        FileProfileInvalidationChannel reader = new FileProfileInvalidationChannel(file.toString(), 60000);
+        List<Long> received = new ArrayList<>();
+        reader.subscribe(received::add);
+        long now = System.currentTimeMillis();
+        Files.writeString(file, "1 other-instance " + (now - 120_000) + "\n", StandardCharsets.UTF_8);
+        reader.poll();
+
+        writer.publish(2L);
+        assertEquals(1, writer.compact(now));
+        writer.publish(3L);
+        reader.poll();
+
+        // The rewritten file is longer than the position reached in the old one, yet read from the start
+        assertEquals(List.of(1L, 2L, 3L), received);
+    }
+}
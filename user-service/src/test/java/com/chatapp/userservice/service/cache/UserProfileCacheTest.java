@@ -0,0 +1,161 @@
+package com.chatapp.userservice.service.cache;
+
+import com.chatapp.userservice.dto.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserProfileCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final LoopbackChannel channel = new LoopbackChannel();
+    private UserProfileCache cache;
+    private UserProfileCache otherInstance;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserProfileCache(true, 10, 60_000, 5_000, channel.endpoint(), now::get);
+        otherInstance = new UserProfileCache(true, 10, 60_000, 5_000, channel.endpoint(), now::get);
+    }
+
+    @Test
+    void get_AfterPut_HitsByIdAndUsernameIgnoringCase() {
+        UserResponse alice = user(1L, "alice", "Alice");
+
+        assertNull(cache.get(1L));
+        cache.put(alice, cache.stamp());
+
+        assertSame(alice, cache.get(1L));
+        assertSame(alice, cache.getByUsername("ALICE"));
+        assertNull(cache.getByUsername("bob"));
+        assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    void get_AfterTtl_MissesAndDropsEntry() {
+        cache.put(user(1L, "alice", "Alice"), cache.stamp());
+        now.addAndGet(60_000);
+
+        assertNull(cache.get(1L));
+        assertNull(cache.getByUsername("alice"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_ChangedAfterStamp_NotCached() {
+        long stamp = otherInstance.stamp();
+        cache.update(user(1L, "alice", "Alice Updated"));
+        now.addAndGet(5_000);
+
+        otherInstance.put(user(1L, "alice", "Alice"), stamp);
+
+        assertNull(otherInstance.get(1L));
+    }
+
+    @Test
+    void put_WithinReplicaLagOfChange_NotCachedUntilLagPassed() {
+        cache.update(user(1L, "alice", "Alice Updated"));
+
+        otherInstance.put(user(1L, "alice", "Alice"), otherInstance.stamp());
+        assertNull(otherInstance.get(1L));
+
+        now.addAndGet(5_000);
+        UserResponse replicated = user(1L, "alice", "Alice Updated");
+        otherInstance.put(replicated, otherInstance.stamp());
+        assertSame(replicated, otherInstance.get(1L));
+    }
+
+    @Test
+    void update_ReplacesLocalEntryAndDropsItOnOtherInstances() {
+        cache.put(user(1L, "alice", "Alice"), cache.stamp());
+        otherInstance.put(user(1L, "alice", "Alice"), otherInstance.stamp());
+        UserResponse updated = user(1L, "alice", "Alice Updated");
+
+        cache.update(updated);
+
+        assertSame(updated, cache.get(1L));
+        assertSame(updated, cache.getByUsername("alice"));
+        assertNull(otherInstance.get(1L));
+        assertNull(otherInstance.getByUsername("alice"));
+        assertEquals(List.of(1L), channel.published);
+    }
+
+    @Test
+    void put_BeyondMaxEntries_DropsLeastRecentlyRead() {
+        for (long id = 1; id <= 10; id++) {
+            cache.put(user(id, "user" + id, null), cache.stamp());
+            now.incrementAndGet();
+        }
+        cache.get(1L);
+        cache.get(2L);
+        now.incrementAndGet();
+
+        cache.put(user(11L, "user11", null), cache.stamp());
+
+        assertEquals(9, cache.size());
+        assertNotNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+        assertNotNull(cache.get(11L));
+        assertNull(cache.get(3L));
+        assertNull(cache.getByUsername("user4"));
+    }
+
+    @Test
+    void disabled_NeverCachesButStillPublishes() {
+        UserProfileCache disabled = new UserProfileCache(false, 10, 60_000, 5_000, channel.endpoint(), now::get);
+
+        disabled.put(user(1L, "alice", "Alice"), disabled.stamp());
+        disabled.add(user(2L, "bob", "Bob"));
+        disabled.update(user(3L, "carol", "Carol"));
+
+        assertNull(disabled.get(1L));
+        assertNull(disabled.get(2L));
+        assertNull(disabled.get(3L));
+        assertEquals(0, disabled.size());
+        assertEquals(List.of(3L), channel.published);
+    }
+
+    private static UserResponse user(Long id, String username, String fullName) {
+        return UserResponse.builder().id(id).username(username).fullName(fullName).build();
+    }
+
+    /**
+     * In-JVM stand-in for a shared channel: each endpoint delivers to the listeners of
+     * all other endpoints.
+     */
+    private static final class LoopbackChannel {
+
+        private final List<List<LongConsumer>> endpoints = new ArrayList<>();
+        private final List<Long> published = new ArrayList<>();
+
+        ProfileInvalidationChannel endpoint() {
+            List<LongConsumer> listeners = new ArrayList<>();
+            endpoints.add(listeners);
+            return new ProfileInvalidationChannel() {
+                @Override
+                public void publish(long userId) {
+                    published.add(userId);
+                    endpoints.stream()
+                            .filter(other -> other != listeners)
+                            .forEach(other -> other.forEach(listener -> listener.accept(userId)));
+                }
+
+                @Override
+                public void subscribe(LongConsumer listener) {
+                    listeners.add(listener);
+                }
+
+                @Override
+                public int compact(long nowMillis) {
+                    return 0;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.chatapp.userservice.service.maintenance;
+
+import com.chatapp.userservice.repository.SchedulerLockRepository;
+import com.chatapp.userservice.service.cache.ProfileInvalidationChannel;
+import com.chatapp.userservice.service.revocation.TokenRevocationPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventFileCompactionJobTest {
+
+    @Mock
+    private TokenRevocationPublisher tokenRevocationPublisher;
+
+    @Mock
+    private ProfileInvalidationChannel profileInvalidationChannel;
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+
+    private EventFileCompactionJob compactionJob;
+
+    @BeforeEach
+    void setUp() {
+        compactionJob = new EventFileCompactionJob(tokenRevocationPublisher, profileInvalidationChannel,
+                schedulerLockRepository, 60000);
+    }
+
+    @Test
+    void compact_LeaseTaken_CompactsBothFilesAndReleasesLease() {
+        when(schedulerLockRepository.tryAcquire(eq(EventFileCompactionJob.LOCK_NAME), anyString(), any(), any()))
+                .thenReturn(1);
+
+        compactionJob.compact();
+
+        verify(tokenRevocationPublisher).compact(anyLong());
+        verify(profileInvalidationChannel).compact(anyLong());
+        verify(schedulerLockRepository).release(eq(EventFileCompactionJob.LOCK_NAME), anyString(), any());
+    }
+
+    @Test
+    void compact_LeaseHeldElsewhere_SkipsRun() {
+        when(schedulerLockRepository.tryAcquire(eq(EventFileCompactionJob.LOCK_NAME), anyString(), any(), any()))
+                .thenReturn(0);
+
+        compactionJob.compact();
+
+        verifyNoInteractions(tokenRevocationPublisher, profileInvalidationChannel);
+        verify(schedulerLockRepository, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void compact_Failure_ReleasesLease() {
+        when(schedulerLockRepository.tryAcquire(eq(EventFileCompactionJob.LOCK_NAME), anyString(), any(), any()))
+                .thenReturn(1);
+        when(tokenRevocationPublisher.compact(anyLong())).thenThrow(new RuntimeException("disk full"));
+
+        assertThrows(RuntimeException.class, () -> compactionJob.compact());
+
+        verify(schedulerLockRepository).release(eq(EventFileCompactionJob.LOCK_NAME), anyString(), any());
+    }
+}
@@ -0,0 +1,71 @@
+package com.chatapp.userservice.service.maintenance;
+
+import com.chatapp.userservice.repository.RefreshTokenRepository;
+import com.chatapp.userservice.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenPurgeJobTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+
+    private RefreshTokenPurgeJob purgeJob;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        purgeJob = new RefreshTokenPurgeJob(refreshTokenRepository, schedulerLockRepository, 100, 0, 60000);
+        registry = new SimpleMeterRegistry();
+        purgeJob.bindTo(registry);
+    }
+
+    @Test
+    void purgeExpired_DeletesChunksUntilShortChunk() {
+        when(schedulerLockRepository.tryAcquire(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any(), any()))
+                .thenReturn(1);
+        when(refreshTokenRepository.deleteExpiredChunk(any(), eq(100))).thenReturn(100, 100, 40);
+
+        purgeJob.purgeExpired();
+
+        verify(refreshTokenRepository, times(3)).deleteExpiredChunk(any(), eq(100));
+        verify(schedulerLockRepository).release(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any());
+        assertEquals(240.0, registry.get("refresh.tokens.purge.rows").functionCounter().count());
+        assertEquals(1, registry.get("refresh.tokens.purge.duration").timer().count());
+    }
+
+    @Test
+    void purgeExpired_LeaseHeldElsewhere_SkipsRun() {
+        when(schedulerLockRepository.tryAcquire(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any(), any()))
+                .thenReturn(0);
+
+        purgeJob.purgeExpired();
+
+        verifyNoInteractions(refreshTokenRepository);
+        verify(schedulerLockRepository, never()).release(any(), any(), any());
+        assertEquals(1.0, registry.get("refresh.tokens.purge.skipped").functionCounter().count());
+    }
+
+    @Test
+    void purgeExpired_FailedChunk_ReleasesLease() {
+        when(schedulerLockRepository.tryAcquire(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any(), any()))
+                .thenReturn(1);
+        when(refreshTokenRepository.deleteExpiredChunk(any(), anyInt())).thenThrow(new RuntimeException("lock wait timeout"));
+
+        assertThrows(RuntimeException.class, () -> purgeJob.purgeExpired());
+
+        verify(schedulerLockRepository).release(eq(RefreshTokenPurgeJob.LOCK_NAME), anyString(), any());
+    }
+}
@@ -0,0 +1,63 @@
+package com.chatapp.userservice.service.revocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTokenRevocationPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void publish_AppendsOneLinePerRevocation() throws IOException {
+        Path file = directory.resolve("revocations/access-tokens.log");
+        FileTokenRevocationPublisher publisher = new FileTokenRevocationPublisher(file.toString());
+
+        publisher.publish("jti-1", 1000L);
+        publisher.publish("jti-2", 2000L);
+
+        assertEquals(List.of("jti-1 1000", "jti-2 2000"), Files.readAllLines(file));
+    }
+
+    @Test
+    void compact_DropsExpiredAndMalformedLines() throws IOException {
+        Path file = directory.resolve("access-tokens.log");
+        Files.writeString(file, "jti-1 1000\ngarbage\njti-2 3000\n\njti-3 soon\n", StandardCharsets.UTF_8);
+        FileTokenRevocationPublisher publisher = new FileTokenRevocationPublisher(file.toString());
+
+        int dropped = publisher.compact(2000L);
+        publisher.publish("jti-4", 4000L);
+
+        assertEquals(4, dropped);
+        assertEquals(List.of("jti-2 3000", "jti-4 4000"), Files.readAllLines(file));
+    }
+
+    @Test
+    void compact_NothingExpired_LeavesFileInPlace() throws IOException {
+        Path file = directory.resolve("access-tokens.log");
+        FileTokenRevocationPublisher publisher = new FileTokenRevocationPublisher(file.toString());
+        publisher.publish("jti-1", 3000L);
+        Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+
+        assertEquals(0, publisher.compact(2000L));
+
+        assertEquals(fileKey, Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+    }
+
+    @Test
+    void compact_NoFile_DropsNothing() {
+        FileTokenRevocationPublisher publisher = new FileTokenRevocationPublisher(
+                directory.resolve("access-tokens.log").toString());
+
+        assertEquals(0, publisher.compact(2000L));
+    }
+}
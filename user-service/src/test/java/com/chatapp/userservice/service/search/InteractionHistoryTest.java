@@ -0,0 +1,147 @@
+package com.chatapp.userservice.service.search;
+
+import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.repository.UserInteractionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:interaction-history;MODE=MySQL")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class InteractionHistoryTest {
+
+    // Own configuration: the application class also scans the read/write routing data sources
+    @Configuration
+    @AutoConfigurationPackage(basePackages = "com.chatapp.userservice")
+    static class TestConfig {
+    }
+
+    @Autowired
+    private UserInteractionRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private InteractionHistory history;
+    private long alice;
+    private long bob;
+    private long carol;
+    private long dave;
+
+    @BeforeEach
+    void setUp() {
+        alice = persistUser("alice");
+        bob = persistUser("bob");
+        carol = persistUser("carol");
+        dave = persistUser("dave");
+        history = newHistory();
+    }
+
+    @Test
+    void record_RepeatedAndAged_AddsOneAndHalvesPerHalfLife() {
+        history.record(alice, bob);
+        history.record(alice, bob);
+        now.addAndGet(1_000);
+        history.record(alice, carol);
+
+        assertEquals(Map.of(bob, 1.0, carol, 1.0), history.affinities(alice));
+        assertEquals(Map.of(), history.affinities(bob));
+    }
+
+    @Test
+    void record_AfterHalfLife_DecaysStoredAffinityBeforeAdding() {
+        history.record(alice, bob);
+        now.addAndGet(1_000);
+        history.record(alice, bob);
+
+        assertEquals(Map.of(bob, 1.5), history.affinities(alice));
+    }
+
+    @Test
+    void record_Self_Ignored() {
+        history.record(alice, alice);
+
+        assertEquals(Map.of(), history.affinities(alice));
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void record_FullContacts_KeepsStrongest() {
+        history.record(alice, bob);
+        history.record(alice, bob);
+        history.record(alice, carol);
+        now.addAndGet(1_000);
+        history.record(alice, dave);
+
+        assertEquals(Map.of(bob, 1.0, dave, 1.0), history.affinities(alice));
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void record_UnknownContact_ThrowsDataIntegrityViolation() {
+        assertThrows(DataIntegrityViolationException.class, () -> history.record(alice, -1L));
+    }
+
+    @Test
+    void affinities_NewInstance_LoadsPersistedHistory() {
+        history.record(alice, bob);
+
+        assertEquals(Map.of(bob, 1.0), newHistory().affinities(alice));
+    }
+
+    @Test
+    void affinities_RecordedByOtherInstance_SeenAfterRefresh() {
+        assertEquals(Map.of(), history.affinities(alice));
+
+        newHistory().record(alice, bob);
+        Map<Long, Double> cached = history.affinities(alice);
+        now.addAndGet(60_000);
+        Map<Long, Double> refreshed = history.affinities(alice);
+
+        assertEquals(Map.of(), cached);
+        assertEquals(1, refreshed.size());
+        assertTrue(refreshed.containsKey(bob));
+    }
+
+    @Test
+    void affinities_ManyCallers_CacheStaysBoundedAndHistoryKept() {
+        history.record(alice, dave);
+        history.record(bob, dave);
+        history.record(carol, dave);
+
+        history.affinities(alice);
+        history.affinities(bob);
+        history.affinities(carol);
+
+        assertEquals(2, history.size());
+        assertEquals(Map.of(dave, 1.0), history.affinities(alice));
+        assertEquals(Map.of(dave, 1.0), history.affinities(bob));
+        assertEquals(Map.of(dave, 1.0), history.affinities(carol));
+    }
+
+    private InteractionHistory newHistory() {
+        return new InteractionHistory(repository, 2, 2, 1_000, 60_000, now::get);
+    }
+
+    private long persistUser(String username) {
+        return entityManager.persistAndFlush(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .passwordHash("hashedPassword")
+                .build()).getId();
+    }
+}
@@ -0,0 +1,90 @@
+package com.chatapp.userservice.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private PrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex();
+        index.put(1L, 1.0f, "alice", "Alice Anderson");
+        index.put(2L, 1.0f, "annie_lee", "Annie Lee");
+        index.put(3L, 1.0f, "bob", "Mary Ann Brown");
+        index.put(4L, 1.0f, "carol", null);
+        index.compact();
+    }
+
+    @Test
+    void complete_WordPrefix_MatchesAnyWordIgnoringCase() {
+        assertEquals(List.of(3L, 2L), index.complete("ANN", Map.of(), 100, 10));
+        assertEquals(List.of(2L), index.complete("lee", Map.of(), 100, 10));
+        assertEquals(List.of(3L), index.complete("mary a", Map.of(), 100, 10));
+        assertEquals(List.of(), index.complete("lice", Map.of(), 100, 10));
+    }
+
+    @Test
+    void complete_BlankPrefixOrZeroLimit_ReturnsNothing() {
+        assertEquals(List.of(), index.complete(" ", Map.of(), 100, 10));
+        assertEquals(List.of(), index.complete("a", Map.of(), 100, 0));
+    }
+
+    @Test
+    void complete_RanksByBoostTimesAffinity() {
+        index.put(2L, 0.25f, "annie_lee", "Annie Lee");
+
+        assertEquals(List.of(1L, 3L, 2L), index.complete("a", Map.of(), 100, 10));
+        assertEquals(List.of(3L, 1L), index.complete("a", Map.of(3L, 0.5), 100, 2));
+    }
+
+    @Test
+    void complete_BulkLoadBeyondThreshold_ScansUnsortedTailUntilCompacted() {
+        for (long id = 10; id < 3_010; id++) {
+            index.put(id, id == 3_009 ? 2.0f : 1.0f, "user" + id, null);
+        }
+
+        assertEquals(List.of(3_009L, 300L), index.complete("user300", Map.of(), 100, 2));
+        index.compact();
+        assertEquals(List.of(3_009L, 300L), index.complete("user300", Map.of(), 100, 2));
+    }
+
+    @Test
+    void complete_MaxCandidates_StillRanksContacts() {
+        assertEquals(List.of(1L), index.complete("a", Map.of(), 1, 10));
+        assertEquals(List.of(3L, 1L), index.complete("a", Map.of(3L, 2.0, 4L, 5.0), 1, 10));
+    }
+
+    @Test
+    void put_ExistingDocument_ReplacesOldFieldsBeforeAndAfterCompaction() {
+        index.put(3L, 1.0f, "bob", "Bob Brown");
+
+        assertEquals(List.of(2L), index.complete("ann", Map.of(), 100, 10));
+        assertEquals(List.of(3L), index.complete("bob b", Map.of(), 100, 10));
+        assertEquals(4, index.size());
+
+        index.compact();
+
+        assertEquals(List.of(2L), index.complete("ann", Map.of(), 100, 10));
+        assertEquals(List.of(3L), index.complete("bob b", Map.of(), 100, 10));
+    }
+
+    @Test
+    void compactIfNeeded_ManyAdditions_MergesTailInOrder() {
+        for (long id = 10; id < 2_010; id++) {
+            index.put(id, 1.0f, "user" + id, null);
+        }
+
+        assertTrue(index.compactIfNeeded());
+        assertFalse(index.compactIfNeeded());
+        assertEquals(List.of(10L, 100L, 1000L, 1001L), index.complete("user10", Map.of(), 100, 4));
+        assertEquals(List.of(3L, 2L), index.complete("ann", Map.of(), 100, 10));
+        assertEquals(2_004, index.size());
+    }
+}
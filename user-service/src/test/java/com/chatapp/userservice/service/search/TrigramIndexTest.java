@@ -0,0 +1,94 @@
+package com.chatapp.userservice.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1L, "alice", "alice", "Alice Anderson", "alice@example.com");
+        index.put(2L, "bob", "bob", "Bob Brown", "bob@example.org");
+        index.put(3L, "carol", "carol", null, "carol@example.com");
+    }
+
+    @Test
+    void search_Substring_MatchesAnyFieldIgnoringCase() {
+        assertEquals(List.of(1L), index.search("ANDERS", 10));
+        assertEquals(List.of(1L, 3L), index.search("example.com", 10));
+        assertEquals(List.of(2L), index.search("b@ex", 10));
+    }
+
+    @Test
+    void search_TrigramsOutOfOrder_NotMatched() {
+        index.put(4L, "xyzabc", "xyzabc", null, null);
+
+        assertEquals(List.of(), index.search("abcxyz", 10));
+    }
+
+    @Test
+    void search_ShortOrBlankKeyword_ScansWithLimit() {
+        assertEquals(List.of(1L, 3L), index.search("co", 10));
+        assertEquals(List.of(1L, 2L), index.search(" ", 2));
+    }
+
+    @Test
+    void search_Limit_StopsAtLimit() {
+        assertEquals(List.of(1L), index.search("example", 1));
+        assertEquals(List.of(), index.search("example", 0));
+    }
+
+    @Test
+    void put_ExistingDocument_ReplacesOldFields() {
+        index.put(2L, "bob", "bob", "Robert Brown", "bob@example.org");
+
+        assertEquals(List.of(), index.search("bob brown", 10));
+        assertEquals(List.of(2L), index.search("robert", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void compactIfNeeded_ManyUpdates_CompactsAndKeepsResults() {
+        for (int i = 0; i < 5_000; i++) {
+            index.put(1L, "alice", "alice", "Alice " + i, "alice@example.com");
+        }
+
+        assertTrue(index.compactIfNeeded());
+        assertFalse(index.compactIfNeeded());
+        assertEquals(List.of(1L), index.search("alice 4999", 10));
+        assertEquals(List.of(), index.search("alice 4998", 10));
+        assertEquals(List.of(1L, 3L), index.search("example.com", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void searchPage_MergesSortedPrefixWithUnsortedTail() {
+        for (int i = 0; i < 100; i++) {
+            index.put(100L + i, String.format("user%03d", i), String.format("user%03d", i), null, null);
+        }
+        index.compact();
+        index.put(7L, "user050a", "user050a", null, null);
+        index.put(120L, "aaa", "aaa", "renamed user", null);
+
+        assertEquals(List.of(120L, 100L, 101L), index.search("user", null, 0, 3));
+        assertEquals(List.of(150L, 7L, 151L), index.search("user", "user049", 149L, 3));
+        assertEquals(List.of(121L), index.search("user", "user020", 120L, 1));
+    }
+
+    @Test
+    void searchPage_OrdersBySortKeyIgnoringCaseAndContinuesAfterCursor() {
+        index.put(4L, "Bea", "Bea", null, "bea@example.com");
+        index.put(5L, "aaron", "aaron", null, "aaron@example.com");
+
+        assertEquals(List.of(5L, 1L, 4L), index.search("example", null, 0, 3));
+        assertEquals(List.of(2L, 3L), index.search("example", "Bea", 4L, 3));
+        assertEquals(List.of(4L, 3L), index.search("example.com", "alice", 1L, 10));
+    }
+}
@@ -0,0 +1,124 @@
+package com.chatapp.userservice.service.search;
+
+import com.chatapp.userservice.model.User;
+import com.chatapp.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new UserSearchIndex(userRepository, transactionManager, true, true, 5_000, 60_000, now::get);
+    }
+
+    @Test
+    void build_StreamsAllUsersAndBecomesReady() {
+        when(userRepository.streamSearchDocuments()).thenReturn(Stream.of(
+                new UserSearchDocument(1L, "alice", "Alice Anderson", "alice@example.com", User.UserStatus.ACTIVE),
+                new UserSearchDocument(2L, "bob", "Bob Brown", "bob@example.org", User.UserStatus.ACTIVE)));
+        assertFalse(searchIndex.isReady());
+
+        searchIndex.build();
+
+        assertTrue(searchIndex.isReady());
+        assertEquals(2, searchIndex.size());
+        assertEquals(List.of(2L), searchIndex.search("brown", null, 0, 10));
+        assertTrue(searchIndex.isTypeaheadReady());
+        assertEquals(List.of(2L), searchIndex.typeahead("bro", Map.of(), 100, 10));
+    }
+
+    @Test
+    void typeahead_RanksInactiveUsersBelowActiveOnes() {
+        when(userRepository.streamSearchDocuments()).thenReturn(Stream.of(
+                new UserSearchDocument(1L, "alice", "Alice Anderson", "alice@example.com", User.UserStatus.INACTIVE),
+                new UserSearchDocument(2L, "alex", "Alex Brown", "alex@example.org", User.UserStatus.ACTIVE),
+                new UserSearchDocument(3L, "alan", "Alan Banned", "alan@example.org", User.UserStatus.BANNED)));
+        searchIndex.build();
+
+        assertEquals(List.of(2L, 1L, 3L), searchIndex.typeahead("al", Map.of(), 100, 10));
+        assertEquals(List.of(1L, 2L, 3L), searchIndex.typeahead("al", Map.of(1L, 4.0), 100, 10));
+    }
+
+    @Test
+    void typeahead_SearchModeOff_OnlyPrefixIndexReady() {
+        UserSearchIndex typeaheadOnly = new UserSearchIndex(userRepository, transactionManager, false, true,
+                5_000, 60_000, now::get);
+        when(userRepository.streamSearchDocuments()).thenReturn(Stream.of(
+                new UserSearchDocument(1L, "alice", "Alice Anderson", "alice@example.com", User.UserStatus.ACTIVE)));
+
+        typeaheadOnly.build();
+
+        assertFalse(typeaheadOnly.isReady());
+        assertTrue(typeaheadOnly.isTypeaheadReady());
+        assertEquals(List.of(1L), typeaheadOnly.typeahead("ander", Map.of(), 100, 10));
+        assertEquals(List.of(), typeaheadOnly.search("alice", null, 0, 10));
+    }
+
+    @Test
+    void build_Failure_StaysOnSqlPath() {
+        when(userRepository.streamSearchDocuments()).thenThrow(new RuntimeException("replica unavailable"));
+
+        searchIndex.build();
+
+        assertFalse(searchIndex.isReady());
+    }
+
+    @Test
+    void poll_AppliesChangesAndExpiresWhenFeedFails() {
+        when(userRepository.streamSearchDocuments()).thenReturn(Stream.of(
+                new UserSearchDocument(1L, "alice", "Alice Anderson", "alice@example.com", User.UserStatus.ACTIVE)));
+        searchIndex.build();
+        when(userRepository.findSearchDocumentsUpdatedSince(any())).thenReturn(List.of(
+                new UserSearchDocument(1L, "alice", "Alice Smith", "alice@example.com", User.UserStatus.ACTIVE)));
+
+        now.addAndGet(2_000);
+        searchIndex.poll();
+
+        assertEquals(List.of(1L), searchIndex.search("smith", null, 0, 10));
+        assertEquals(List.of(), searchIndex.search("anderson", null, 0, 10));
+        assertEquals(List.of(1L), searchIndex.typeahead("smi", Map.of(), 100, 10));
+
+        when(userRepository.findSearchDocumentsUpdatedSince(any())).thenThrow(new RuntimeException("down"));
+        now.addAndGet(60_001);
+        searchIndex.poll();
+
+        assertFalse(searchIndex.isReady());
+        assertFalse(searchIndex.isTypeaheadReady());
+    }
+
+    @Test
+    void put_Disabled_IndexesNothing() {
+        UserSearchIndex disabled = new UserSearchIndex(userRepository, transactionManager, false, false, 5_000, 60_000, now::get);
+
+        disabled.put(User.builder().id(1L).username("alice").email("alice@example.com").build());
+        disabled.poll();
+
+        assertEquals(0, disabled.size());
+        assertFalse(disabled.isReady());
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -1,23 +1,51 @@
 -- Create users table for testing
 CREATE TABLE users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    username VARCHAR(50) NOT NULL UNIQUE,
-    email VARCHAR(100) NOT NULL UNIQUE,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
     password_hash VARCHAR(255) NOT NULL,
     full_name VARCHAR(100),
     avatar_url VARCHAR(255),
     status VARCHAR(20) DEFAULT 'ACTIVE',
+    profile_version BIGINT NOT NULL DEFAULT 0,
+    token_generation BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
 );
 
 -- Create refresh_tokens table for testing
 CREATE TABLE refresh_tokens (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    token VARCHAR(255) NOT NULL UNIQUE,
+    token_hash BINARY(32) NOT NULL,
     user_id BIGINT NOT NULL,
+    device_id VARCHAR(64) NOT NULL,
     expires_at TIMESTAMP NOT NULL,
+    last_used_at TIMESTAMP(3) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
 
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT uk_refresh_tokens_user_device UNIQUE (user_id, device_id),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Create scheduler_locks table for testing
+CREATE TABLE scheduler_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP(3) NOT NULL,
+    locked_by VARCHAR(255)
+);
+
+-- Create user_interactions table for testing
+CREATE TABLE user_interactions (
+    caller_id BIGINT NOT NULL,
+    contact_id BIGINT NOT NULL,
+    affinity DOUBLE NOT NULL,
+    updated_at BIGINT NOT NULL,
+
+    PRIMARY KEY (caller_id, contact_id),
+    FOREIGN KEY (caller_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (contact_id) REFERENCES users(id) ON DELETE CASCADE
+);